@@ -0,0 +1,59 @@
+package com.payne.games.benchmarks;
+
+import com.payne.games.logic.GameLogic;
+import com.payne.games.map.BaseMapLayer;
+import com.payne.games.map.generators.MapAlgorithm;
+import com.payne.games.map.generators.MapGenerator;
+import com.payne.games.map.tiles.Floor;
+import com.payne.games.map.tiles.Tile;
+import com.payne.games.map.tiles.Wall;
+import com.payne.games.map.tilesets.Autotiler;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * The autotiling: the masks of a whole level (one pass), and a single Tile replaced (its 3x3 neighbourhood only).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AutotilerBenchmark {
+
+    @Param({"64x32", "256x256"})
+    public String mapSize;
+
+    private BaseMapLayer level;
+    private Autotiler autotiler;
+    private Tile wall, floor;
+    private boolean toggle;
+
+
+    @Setup
+    public void setUp() {
+        level = new MapGenerator().createMap(Sizes.width(mapSize), Sizes.height(mapSize), GameLogic.RANDOM_SEED,
+                MapAlgorithm.CELLULAR_CAVES);
+        autotiler = new Autotiler();
+        autotiler.setLevel(level);
+
+        int x = level.getMapWidth() / 2, y = level.getMapHeight() / 2;
+        wall = new Wall(x, y);
+        floor = new Floor(x, y);
+    }
+
+
+    @Benchmark
+    public Autotiler wholeLevel() {
+        autotiler.setLevel(level);
+        return autotiler;
+    }
+
+    @Benchmark
+    public int singleTile() {
+        toggle = !toggle;
+        Tile tile = toggle ? wall : floor;
+        level.setTile(tile.getX(), tile.getY(), tile);
+        return autotiler.update(tile.getX(), tile.getY());
+    }
+}
@@ -0,0 +1,50 @@
+package com.payne.games.benchmarks;
+
+import com.badlogic.gdx.math.RandomXS128;
+import com.payne.games.logic.GameLogic;
+import com.payne.games.map.generators.BuildingSpawner;
+import com.payne.games.map.generators.SpawnPlan;
+import com.payne.games.map.generators.TerrainGrid;
+import com.payne.games.map.generators.algos.buildings.Buildings;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * The building generator (iterative BSP), alone and while its rooms and doors are streamed into a SpawnPlan.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BuildingsBenchmark {
+
+    @Param({"64x32", "256x256", "1024x1024"})
+    public String mapSize;
+
+    private int width, height;
+    private RandomXS128 rand;
+
+
+    @Setup
+    public void setUp() {
+        width = Sizes.width(mapSize);
+        height = Sizes.height(mapSize);
+        rand = new RandomXS128(GameLogic.RANDOM_SEED);
+    }
+
+
+    @Benchmark
+    public TerrainGrid generate() {
+        TerrainGrid grid = new TerrainGrid(width, height);
+        new Buildings(grid, rand, null).generate();
+        return grid;
+    }
+
+    @Benchmark
+    public SpawnPlan generateAndSpawn() {
+        SpawnPlan plan = new SpawnPlan();
+        new Buildings(new TerrainGrid(width, height), rand, new BuildingSpawner(plan, GameLogic.RANDOM_SEED)).generate();
+        return plan;
+    }
+}
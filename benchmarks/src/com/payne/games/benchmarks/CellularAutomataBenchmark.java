@@ -0,0 +1,46 @@
+package com.payne.games.benchmarks;
+
+import com.badlogic.gdx.math.RandomXS128;
+import com.payne.games.logic.GameLogic;
+import com.payne.games.map.generators.algos.cellular.CellularAutomata;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * The cave generator: the smoothing iterations alone (64 cells per operation), and the whole process
+ * (noise, smoothing, largest cave).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CellularAutomataBenchmark {
+    private static final int ITERATIONS = 10;
+
+    @Param({"64x32", "256x256", "1024x1024"})
+    public String mapSize;
+
+    private CellularAutomata caves;
+    private RandomXS128 rand;
+
+
+    @Setup
+    public void setUp() {
+        caves = new CellularAutomata(Sizes.width(mapSize), Sizes.height(mapSize));
+        rand = new RandomXS128(GameLogic.RANDOM_SEED);
+    }
+
+
+    @Benchmark
+    public CellularAutomata smooth() {
+        caves.randomFill(CellularAutomata.DEFAULT_WALL_CHANCE, rand);
+        caves.smooth(ITERATIONS);
+        return caves;
+    }
+
+    @Benchmark
+    public int generate() {
+        return caves.generate(rand);
+    }
+}
@@ -0,0 +1,79 @@
+package com.payne.games.benchmarks;
+
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.utils.Array;
+import com.payne.games.lightingSystem.FieldOfView;
+import com.payne.games.lightingSystem.SightSystem;
+import com.payne.games.logic.GameLogic;
+import com.payne.games.map.BaseMapLayer;
+import com.payne.games.map.generators.MapGenerator;
+import com.payne.games.map.tiles.Tile;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.payne.games.logic.GameLogic.SUBDIVISIONS;
+
+
+/**
+ * Line of sight of the Hero: the raw subcell shadowcasting, and the whole update done after each of its moves
+ * (resistance map, shadowcasting and fog of war of every Tile).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FieldOfViewBenchmark {
+    private static final int POSITIONS = 64;
+
+    @Param({"64x32", "128x64"})
+    public String mapSize;
+
+    @Param({"5", "8"})
+    public int sightRange;
+
+    private BaseMapLayer level;
+    private SightSystem sightSystem;
+    private double[][] resistance;
+    private double[][] light;
+    private Tile[] positions = new Tile[POSITIONS];
+    private int next = 0;
+
+
+    @Setup
+    public void setUp() {
+        level = new MapGenerator().createMap(Sizes.width(mapSize), Sizes.height(mapSize));
+        sightSystem = new SightSystem();
+        sightSystem.prepareLightingOverlay(level);
+
+        int heightBig = level.getMapHeight() * SUBDIVISIONS;
+        int widthBig  = level.getMapWidth() * SUBDIVISIONS;
+        resistance = new double[heightBig][widthBig];
+        light      = new double[heightBig][widthBig];
+        for(int i = 0; i < heightBig; i++) {
+            for(int j = 0; j < widthBig; j++) {
+                resistance[i][j] = level.getTile(j / SUBDIVISIONS, i / SUBDIVISIONS).isSeeThrough() ? 0.0 : 1.0;
+            }
+        }
+
+        RandomXS128 rand = new RandomXS128(GameLogic.RANDOM_SEED);
+        Array<Tile> walkable = level.getWalkableTiles();
+        for(int i = 0; i < POSITIONS; i++)
+            positions[i] = walkable.get(rand.nextInt(walkable.size));
+    }
+
+
+    @Benchmark
+    public double[][] reuseFOV() {
+        Tile at = positions[next++ & (POSITIONS - 1)];
+        return FieldOfView.reuseFOV(resistance, light,
+                at.getX() * SUBDIVISIONS + SUBDIVISIONS / 2, at.getY() * SUBDIVISIONS + SUBDIVISIONS / 2,
+                sightRange * SUBDIVISIONS);
+    }
+
+    @Benchmark
+    public double[][] updateLighting() {
+        Tile at = positions[next++ & (POSITIONS - 1)];
+        sightSystem.updateLighting(level, at.getX(), at.getY(), sightRange);
+        return sightSystem.getVisible();
+    }
+}
@@ -0,0 +1,53 @@
+package com.payne.games.benchmarks;
+
+import com.badlogic.gdx.math.RandomXS128;
+import com.payne.games.logic.GameLogic;
+import com.payne.games.map.generators.FloodFill;
+import com.payne.games.map.generators.TerrainGrid;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * The scanline flood fills, over random noise (many small regions, the worst case for the spans): tagging every
+ * region, and checking that a level is in one piece.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FloodFillBenchmark {
+    private static final float FLOOR_CHANCE = 0.6f;
+
+    @Param({"64x32", "256x256", "1024x1024"})
+    public String mapSize;
+
+    private FloodFill regions;
+
+
+    @Setup
+    public void setUp() {
+        int width = Sizes.width(mapSize), height = Sizes.height(mapSize);
+        TerrainGrid grid = new TerrainGrid(width, height);
+        RandomXS128 rand = new RandomXS128(GameLogic.RANDOM_SEED);
+        for(int y = 0; y < height; y++) {
+            for(int x = 0; x < width; x++) {
+                if(rand.nextFloat() < FLOOR_CHANCE)
+                    grid.carve(x, y);
+            }
+        }
+        regions = new FloodFill(grid);
+    }
+
+
+    @Benchmark
+    public int fillAll() {
+        regions.clear();
+        return regions.fillAll();
+    }
+
+    @Benchmark
+    public boolean isConnected() {
+        return regions.isConnected();
+    }
+}
@@ -0,0 +1,57 @@
+package com.payne.games.benchmarks;
+
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.payne.games.assets.AssetsPool;
+import com.payne.games.logic.Controller;
+import com.payne.games.logic.GameLogic;
+import com.payne.games.rendering.MapRenderer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * A steady-state frame of `Controller.renderLevel()`: animations, interpolated movements and the MapRenderer,
+ * drawing into a NullBatch. Nothing happens in game in between the frames.<br>
+ * Run it with the GC profiler (`-prof gc`): `gc.alloc.rate.norm` must stay at (about) 0 B/op. FrameAllocationTest
+ * checks it on every `gradlew benchmarks:test`.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FrameBenchmark {
+    private static final float DELTA = 1 / 60f;
+    private static final float ALPHA = 0.5f; // halfway in between two turns
+
+    @Param({"false", "true"})
+    public boolean noFog;
+
+    private Controller controller;
+    private NullBatch batch;
+
+
+    @Setup
+    public void setUp() {
+        GameLogic.RECORD_JOURNAL = false;
+        GameLogic.DEBUG_NO_FOG = noFog;
+
+        TextureRegion placeholder = new TextureRegion();
+        controller = new Controller(new AssetsPool(), GameLogic.RANDOM_SEED);
+        controller.setMapRenderer(new MapRenderer(controller.getSecondaryMapLayer(), placeholder, placeholder, placeholder));
+        controller.generateLevel(64, 32, new PlaceholderTileset(placeholder));
+        controller.updateLighting();
+        batch = new NullBatch();
+    }
+
+    @TearDown
+    public void tearDown() {
+        GameLogic.DEBUG_NO_FOG = false;
+    }
+
+
+    @Benchmark
+    public int renderLevel() {
+        controller.renderLevel(batch, DELTA, ALPHA);
+        return batch.getDrawCalls();
+    }
+}
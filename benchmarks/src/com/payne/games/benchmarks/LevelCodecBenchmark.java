@@ -0,0 +1,81 @@
+package com.payne.games.benchmarks;
+
+import com.payne.games.logic.GameLogic;
+import com.payne.games.map.BaseMapLayer;
+import com.payne.games.map.generators.LevelPipeline;
+import com.payne.games.map.generators.MapAlgorithm;
+import com.payne.games.map.generators.MapGenerator;
+import com.payne.games.map.generators.PreparedLevel;
+import com.payne.games.map.generators.SpawnPlan;
+import com.payne.games.map.storage.LevelCodec;
+import com.payne.games.map.storage.PackBits;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * A level visited before: encoded when it is left, then restored (Tiles and pathfinding graph) instead of being
+ * generated again. `generate` is the same level, prepared from its seed. `pack` and `restorePacked` are the
+ * packed tier of the LevelCache.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LevelCodecBenchmark {
+
+    @Param({"64x32", "256x256"})
+    public String mapSize;
+
+    private BaseMapLayer level;
+    private SpawnPlan objects;
+    private ByteBuffer encoded;
+    private byte[] packed;
+    private LevelPipeline pipeline;
+
+
+    @Setup
+    public void setUp() {
+        level = new MapGenerator().createMap(Sizes.width(mapSize), Sizes.height(mapSize), GameLogic.RANDOM_SEED,
+                MapAlgorithm.CELLULAR_CAVES);
+        objects = new SpawnPlan();
+        objects.setHero(level.getWalkableTiles().first().getX(), level.getWalkableTiles().first().getY());
+        for(int i = 0; i < level.getWalkableTiles().size; i += 50)
+            objects.add(SpawnPlan.ENEMY, level.getWalkableTiles().get(i).getX(), level.getWalkableTiles().get(i).getY());
+        encoded = LevelCodec.encode(1, level, objects);
+        packed = PackBits.pack(encoded);
+        pipeline = new LevelPipeline(null);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pipeline.dispose();
+    }
+
+
+    @Benchmark
+    public ByteBuffer encode() {
+        return LevelCodec.encode(1, level, objects);
+    }
+
+    @Benchmark
+    public PreparedLevel restore() {
+        return pipeline.restore(encoded);
+    }
+
+    @Benchmark
+    public byte[] pack() {
+        return PackBits.pack(encoded);
+    }
+
+    @Benchmark
+    public PreparedLevel restorePacked() {
+        return pipeline.restore(PackBits.unpack(packed));
+    }
+
+    @Benchmark
+    public PreparedLevel generate() {
+        return pipeline.prepare(1, Sizes.width(mapSize), Sizes.height(mapSize));
+    }
+}
@@ -0,0 +1,48 @@
+package com.payne.games.benchmarks;
+
+import com.payne.games.logic.GameLogic;
+import com.payne.games.map.BaseMapLayer;
+import com.payne.games.map.generators.TerrainGrid;
+import com.payne.games.map.generators.algos.drunkard.MapCarver;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Carving of a whole level by the drunkard, with the floor percentage used by the MapGenerator:
+ * into the TerrainGrid only, then with the creation of the Tiles.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MapCarverBenchmark {
+
+    @Param({"64x32", "128x64", "256x128", "512x256"})
+    public String mapSize;
+
+    private int width;
+    private int height;
+
+
+    @Setup
+    public void setUp() {
+        width  = Sizes.width(mapSize);
+        height = Sizes.height(mapSize);
+    }
+
+
+    @Benchmark
+    public TerrainGrid walk() {
+        TerrainGrid grid = new TerrainGrid(width, height);
+        new MapCarver(grid, width / 2, height / 2, GameLogic.RANDOM_SEED, 0.3f).walk();
+        return grid;
+    }
+
+    @Benchmark
+    public BaseMapLayer walkAndMaterialize() {
+        BaseMapLayer level = new BaseMapLayer(width, height);
+        walk().materialize(level);
+        return level;
+    }
+}
@@ -0,0 +1,89 @@
+package com.payne.games.benchmarks;
+
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.payne.games.assets.AssetsPool;
+import com.payne.games.logic.Controller;
+import com.payne.games.logic.GameLogic;
+import com.payne.games.map.BaseMapLayer;
+import com.payne.games.rendering.MapRenderer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * CPU side of the rendering: what the MapRenderer does before anything reaches the GPU.
+ * The draw calls end up in a NullBatch, and the Textures are empty placeholders. The unexplored Tiles are skipped
+ * (see `ExplorationMemory`), `halfExplored` being a level well into its exploration.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MapRendererBenchmark {
+
+    @Param({"64x32", "128x64"})
+    public String mapSize;
+
+    @Param({"false", "true"})
+    public boolean noFog;
+
+    @Param({"false", "true"})
+    public boolean halfExplored; // the left half of the level, in the fog: otherwise only what is in sight is explored
+
+    private Controller controller;
+    private MapRenderer mapRenderer;
+    private PlaceholderTileset tileset;
+    private NullBatch batch;
+
+
+    @Setup
+    public void setUp() {
+        GameLogic.RECORD_JOURNAL = false;
+        GameLogic.DEBUG_NO_FOG = noFog;
+
+        controller = new Controller(new AssetsPool(), GameLogic.RANDOM_SEED);
+        controller.generateLevel(Sizes.width(mapSize), Sizes.height(mapSize), null);
+        if(halfExplored) {
+            BaseMapLayer level = controller.getCurrentLevel();
+            for(int y = 0; y < level.getMapHeight(); y++) {
+                for(int x = 0; x < level.getMapWidth() / 2; x++)
+                    level.getTile(x, y).setExplored(true);
+            }
+        }
+        controller.updateLighting();
+
+        TextureRegion placeholder = new TextureRegion();
+        tileset = new PlaceholderTileset(placeholder);
+        mapRenderer = new MapRenderer(controller.getSecondaryMapLayer(), placeholder, placeholder, placeholder);
+        mapRenderer.setUpBaseLayer(controller.getCurrentLevel(), tileset, GameLogic.RANDOM_SEED);
+        batch = new NullBatch();
+    }
+
+    @TearDown
+    public void tearDown() {
+        GameLogic.DEBUG_NO_FOG = false;
+    }
+
+
+    @Benchmark
+    public int renderLevel() {
+        mapRenderer.renderLevel(batch, controller.getSightSystem());
+        return batch.getDrawCalls();
+    }
+
+    @Benchmark
+    public MapRenderer setUpBaseLayer() {
+        mapRenderer.setUpBaseLayer(controller.getCurrentLevel(), tileset, GameLogic.RANDOM_SEED);
+        return mapRenderer;
+    }
+
+    /**
+     * A new level and its first frame: the chunks in sight (all of them without the fog) get their Textures.
+     */
+    @Benchmark
+    public int setUpAndFirstFrame() {
+        mapRenderer.setUpBaseLayer(controller.getCurrentLevel(), tileset, GameLogic.RANDOM_SEED);
+        mapRenderer.renderLevel(batch, controller.getSightSystem());
+        return batch.getDrawCalls();
+    }
+}
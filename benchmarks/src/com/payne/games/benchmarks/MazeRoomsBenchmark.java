@@ -0,0 +1,42 @@
+package com.payne.games.benchmarks;
+
+import com.badlogic.gdx.math.RandomXS128;
+import com.payne.games.logic.GameLogic;
+import com.payne.games.map.generators.TerrainGrid;
+import com.payne.games.map.generators.algos.maze.MazeRooms;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * The rooms and corridors generator, with as many rooms as the map can hold (about 500 at 256x256, 2000 at
+ * 512x512): the separation's broadphase keeps it near-linear in the amount of rooms.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MazeRoomsBenchmark {
+
+    @Param({"64x32", "256x256", "512x512"})
+    public String mapSize;
+
+    private int width, height;
+    private RandomXS128 rand;
+
+
+    @Setup
+    public void setUp() {
+        width = Sizes.width(mapSize);
+        height = Sizes.height(mapSize);
+        rand = new RandomXS128(GameLogic.RANDOM_SEED);
+    }
+
+
+    @Benchmark
+    public TerrainGrid generate() {
+        TerrainGrid grid = new TerrainGrid(width, height);
+        new MazeRooms(grid, rand).generate(MazeRooms.roomCountFor(width, height));
+        return grid;
+    }
+}
@@ -0,0 +1,54 @@
+package com.payne.games.benchmarks;
+
+import com.badlogic.gdx.ai.pfa.DefaultGraphPath;
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.utils.Array;
+import com.payne.games.logic.GameLogic;
+import com.payne.games.map.BaseMapLayer;
+import com.payne.games.map.generators.MapGenerator;
+import com.payne.games.map.pathfinding.MyIndexedGraph;
+import com.payne.games.map.pathfinding.PathNode;
+import com.payne.games.map.tiles.Tile;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * A* searches between random pairs of walkable Tiles, as issued by the Actors moving to a random point.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PathfindingBenchmark {
+    private static final int PAIRS = 256;
+
+    @Param({"64x32", "128x64", "256x128"})
+    public String mapSize;
+
+    private MyIndexedGraph graph;
+    private Tile[] from = new Tile[PAIRS];
+    private Tile[] to   = new Tile[PAIRS];
+    private int next = 0;
+
+
+    @Setup
+    public void setUp() {
+        BaseMapLayer level = new MapGenerator().createMap(Sizes.width(mapSize), Sizes.height(mapSize));
+        graph = new MyIndexedGraph(level);
+
+        RandomXS128 rand = new RandomXS128(GameLogic.RANDOM_SEED);
+        Array<Tile> walkable = level.getWalkableTiles();
+        for(int i = 0; i < PAIRS; i++) {
+            from[i] = walkable.get(rand.nextInt(walkable.size));
+            to[i]   = walkable.get(rand.nextInt(walkable.size));
+        }
+    }
+
+
+    @Benchmark
+    public DefaultGraphPath<PathNode> getWholePathToMoveTo() {
+        int i = next++ & (PAIRS - 1);
+        return graph.getWholePathToMoveTo(from[i], to[i]);
+    }
+}
@@ -0,0 +1,38 @@
+package com.payne.games.benchmarks;
+
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.payne.games.map.tilesets.Tileset;
+
+
+/**
+ * Every Tile gets the same placeholder: no SpriteSheet is loaded, so no graphical context is needed.
+ */
+class PlaceholderTileset extends Tileset {
+    private final TextureRegion placeholder;
+
+
+    PlaceholderTileset(TextureRegion placeholder) {
+        this.placeholder = placeholder;
+    }
+
+
+    @Override
+    public TextureRegion getFloorRandomTexture(int bitmask, int x, int y) {
+        return placeholder;
+    }
+
+    @Override
+    public TextureRegion getWallRandomTexture(int bitmask, int x, int y) {
+        return placeholder;
+    }
+
+    @Override
+    public TextureRegion getWaterRandomTexture(int bitmask, int x, int y) {
+        return placeholder;
+    }
+
+    @Override
+    public TextureRegion getEmptyRandomTexture(int bitmask, int x, int y) {
+        return placeholder;
+    }
+}
@@ -0,0 +1,70 @@
+package com.payne.games.benchmarks;
+
+import com.badlogic.gdx.utils.Array;
+import com.payne.games.assets.AssetsPool;
+import com.payne.games.logic.Controller;
+import com.payne.games.logic.GameLogic;
+import com.payne.games.map.tiles.Tile;
+import com.payne.games.save.GameSave;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Saving the whole game (see `GameSave`), as the GameScreen does when the application is paused: it must fit in a
+ * frame. `load` restores it into another headless Controller (level, pathfinding graph, GameObjects).
+ * `saveDelta` is what the `Autosave` encodes on the game's thread every few turns: a few Tiles changed (a door
+ * opened, some explored), and the GameObjects.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SaveGameBenchmark {
+
+    @Param({"64x32", "256x256"})
+    public String mapSize;
+
+    private Controller controller;
+    private Controller loaded;
+    private byte[] save;
+
+
+    @Setup
+    public void setUp() {
+        GameLogic.RECORD_JOURNAL = false;
+        controller = new Controller(new AssetsPool(), GameLogic.RANDOM_SEED);
+        controller.generateLevel(Sizes.width(mapSize), Sizes.height(mapSize), null);
+        Array<Tile> walkable = controller.getCurrentLevel().getWalkableTiles();
+        for(int i = 1; i < walkable.size; i += 50)
+            controller.getGameObjectFactory().createEnemy(walkable.get(i).getX(), walkable.get(i).getY());
+        save = controller.saveGame();
+        loaded = new Controller(new AssetsPool(), GameLogic.RANDOM_SEED);
+    }
+
+    @TearDown
+    public void tearDown() {
+        controller.dispose();
+        loaded.dispose();
+    }
+
+
+    @Benchmark
+    public byte[] save() {
+        return GameSave.save(controller);
+    }
+
+    @Benchmark
+    public byte[] saveDelta() {
+        Array<Tile> walkable = controller.getCurrentLevel().getWalkableTiles();
+        for(int i = 0; i < 16; i++)
+            controller.getCurrentLevel().getChanges().mark(walkable.get(i).getX(), walkable.get(i).getY());
+        return GameSave.saveDelta(controller);
+    }
+
+    @Benchmark
+    public Controller load() {
+        loaded.loadGame(save, null);
+        return loaded;
+    }
+}
@@ -0,0 +1,19 @@
+package com.payne.games.benchmarks;
+
+
+/**
+ * Parses the "WIDTHxHEIGHT" map sizes used as JMH parameters.
+ */
+final class Sizes {
+
+    private Sizes() { }
+
+
+    static int width(String size) {
+        return Integer.parseInt(size.substring(0, size.indexOf('x')));
+    }
+
+    static int height(String size) {
+        return Integer.parseInt(size.substring(size.indexOf('x') + 1));
+    }
+}
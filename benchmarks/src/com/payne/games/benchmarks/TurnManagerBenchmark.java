@@ -0,0 +1,61 @@
+package com.payne.games.benchmarks;
+
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.utils.Array;
+import com.payne.games.assets.AssetsPool;
+import com.payne.games.gameObjects.actors.entities.Hero;
+import com.payne.games.logic.Controller;
+import com.payne.games.logic.GameLogic;
+import com.payne.games.map.tiles.Tile;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * A headless game in which the Hero keeps skipping its turns while N Enemies wake up and wander around.
+ * Each invocation is one call to `executeTurn()`, followed by the end of the movements it started.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TurnManagerBenchmark {
+
+    @Param({"4", "32", "96"})
+    public int enemies;
+
+    private Controller controller;
+
+
+    @Setup
+    public void setUp() {
+        GameLogic.RECORD_JOURNAL = false;
+        controller = new Controller(new AssetsPool(), GameLogic.RANDOM_SEED);
+        controller.generateLevel(64, 32, null); // the size used by the game (the initial objects are placed for it)
+
+        /* The level starts with a few Enemies already: spawn the missing ones on free Tiles. */
+        RandomXS128 rand = new RandomXS128(GameLogic.RANDOM_SEED);
+        Array<Tile> walkable = controller.getCurrentLevel().getWalkableTiles();
+        int missing = enemies - (controller.getSecondaryMapLayer().getActorLayer().size - 1);
+        while(missing > 0) {
+            Tile tile = walkable.get(rand.nextInt(walkable.size));
+            if(tile.isAllowingMove() && controller.getSecondaryMapLayer().findStaticAt(tile.getX(), tile.getY()) == null) {
+                controller.getGameObjectFactory().createEnemy(tile.getX(), tile.getY());
+                missing--;
+            }
+        }
+    }
+
+
+    @Benchmark
+    public boolean executeTurn() {
+        boolean waitingOnPlayer = controller.getTurnManager().executeTurn();
+        controller.getInterpolationModule().finishAll();
+
+        if(waitingOnPlayer) {
+            Hero hero = controller.getPlayer();
+            controller.playerTapped(hero.getX(), hero.getY()); // tapping the Hero skips its turn
+        }
+        return waitingOnPlayer;
+    }
+}
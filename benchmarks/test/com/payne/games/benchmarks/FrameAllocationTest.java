@@ -0,0 +1,84 @@
+package com.payne.games.benchmarks;
+
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.payne.games.assets.AssetsPool;
+import com.payne.games.logic.Controller;
+import com.payne.games.logic.GameLogic;
+import com.payne.games.rendering.MapRenderer;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * The steady-state frame of FrameBenchmark must not allocate: the bytes allocated by the test's thread are measured
+ * around frames rendered once the JIT is warm. The smallest of a few windows is kept, a deoptimization in
+ * between being no regression.
+ */
+public class FrameAllocationTest {
+    private static final float DELTA = 1 / 60f;
+    private static final float ALPHA = 0.5f;
+    private static final int WARMUP_FRAMES = 10000;
+    private static final int FRAMES = 2000; // per window
+    private static final int WINDOWS = 3;
+    private static final long MAX_BYTES = 1024; // per window: a single object per frame would be way above
+
+    private com.sun.management.ThreadMXBean threads;
+
+
+    @Before
+    public void setUp() {
+        GameLogic.RECORD_JOURNAL = false;
+        threads = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    @After
+    public void tearDown() {
+        GameLogic.DEBUG_NO_FOG = false;
+    }
+
+
+    @Test
+    public void frameDoesNotAllocate() {
+        assertAllocationFree(false);
+    }
+
+    @Test
+    public void frameDoesNotAllocateWithoutFog() {
+        assertAllocationFree(true);
+    }
+
+    private void assertAllocationFree(boolean noFog) {
+        GameLogic.DEBUG_NO_FOG = noFog;
+        TextureRegion placeholder = new TextureRegion();
+        Controller controller = new Controller(new AssetsPool(), GameLogic.RANDOM_SEED);
+        controller.setMapRenderer(new MapRenderer(controller.getSecondaryMapLayer(), placeholder, placeholder, placeholder));
+        controller.generateLevel(64, 32, new PlaceholderTileset(placeholder));
+        controller.updateLighting();
+        NullBatch batch = new NullBatch();
+
+        for(int i = 0; i < WARMUP_FRAMES; i++)
+            controller.renderLevel(batch, DELTA, ALPHA);
+
+        long thread = Thread.currentThread().getId();
+        long least = Long.MAX_VALUE;
+        for(int window = 0; window < WINDOWS; window++) {
+            long before = threads.getThreadAllocatedBytes(thread);
+            long measuring = threads.getThreadAllocatedBytes(thread) - before; // what the measure itself allocates
+            before = threads.getThreadAllocatedBytes(thread);
+            for(int i = 0; i < FRAMES; i++)
+                controller.renderLevel(batch, DELTA, ALPHA);
+            least = Math.min(least, threads.getThreadAllocatedBytes(thread) - before - measuring);
+        }
+        controller.dispose();
+
+        assertTrue(least + " bytes allocated over " + FRAMES + " frames (noFog: " + noFog + ")", least <= MAX_BYTES);
+    }
+}
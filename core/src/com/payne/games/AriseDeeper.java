@@ -1,13 +1,25 @@
 package com.payne.games;
 
+import com.badlogic.gdx.Application;
 import com.badlogic.gdx.Game;
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Screen;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.payne.games.assets.Assets;
+import com.payne.games.logic.ILogicRunner;
+import com.payne.games.logic.GameLogic;
+import com.payne.games.logic.SynchronousLogicRunner;
+import com.payne.games.map.storage.IChunkStore;
+import com.payne.games.map.storage.ILevelStore;
+import com.payne.games.map.storage.MemoryChunkStore;
+import com.payne.games.map.storage.StreamLevelStore;
 import com.payne.games.screens.GameScreen;
 import com.payne.games.screens.MainMenuScreen;
 import com.payne.games.splashScreen.ISplashWorker;
+import com.payne.games.logging.Log;
+import com.payne.games.logging.LogCategory;
+import com.payne.games.logging.LogLevel;
 
 
 /*
@@ -52,6 +64,15 @@ public class AriseDeeper extends Game {
 	/* Flow management. */
 	private Screen previousScreen;
 
+	/* Where the turns are processed (the desktop can run them on a thread of their own). */
+	private ILogicRunner logicRunner = new SynchronousLogicRunner();
+
+	/* Where the levels already visited are kept (the desktop maps them in memory). */
+	private ILevelStore levelStore;
+
+	/* Where the chunks of the level entered are paged out (the desktop writes them to scratch files). */
+	private IChunkStore chunkStore = new MemoryChunkStore();
+
 
 	/**
 	 * Allows swapping between Screens while retaining a reference to the previous Screen.<br>
@@ -75,10 +96,13 @@ public class AriseDeeper extends Game {
 	public void create () {
 		splashWorker.closeSplashScreen();
 
-		System.out.println("arise create");
+		Gdx.app.setLogLevel(Application.LOG_DEBUG); // the filtering is done by the Log
+		Log.debug(LogCategory.SCREENS, "arise create");
 		batch  = new SpriteBatch();
 		font   = new BitmapFont();
 		assets = new Assets();
+		if(levelStore == null && Gdx.files.isLocalStorageAvailable())
+			levelStore = new StreamLevelStore(Gdx.files.local(GameLogic.LEVELS_PATH));
 
 		assets.loadLoadingScreen();
 		assets.loadGameAssets();
@@ -87,9 +111,9 @@ public class AriseDeeper extends Game {
 	private void setInitialScreen() {
 //		setScreen(new MainMenuScreen(this, assets.manager));
 
-		/* Purely for debugging: skips the MainMenuScreen. */
+		/* Purely for debugging: skips the MainMenuScreen (the game saved when the application was paused goes on). */
 		previousScreen = new MainMenuScreen(this);
-		setScreen(new GameScreen(this));
+		setScreen(new GameScreen(this, GameScreen.hasSavedGame()));
 	}
 
 
@@ -104,7 +128,7 @@ public class AriseDeeper extends Game {
 
 		/* Display loading information. */
 		float progress = assets.manager.getProgress();
-		System.out.println("Progress: " + (int)(progress*100) + "%");
+		Log.debug(LogCategory.LOADING, "Progress: {}%", (int)(progress*100));
 		batch.draw(assets.manager.get(Assets.LOADING_IMAGE), 135, 0);
 		// todo: ProgressBar
 	}
@@ -128,7 +152,7 @@ public class AriseDeeper extends Game {
 	
 	@Override
 	public void dispose () {
-		System.out.println("arise dispose");
+		Log.debug(LogCategory.SCREENS, "arise dispose");
 		batch.dispose();
 		font.dispose();
 		assets.dispose();
@@ -137,6 +161,8 @@ public class AriseDeeper extends Game {
 		getScreen().dispose();
 		if(previousScreen != null)
 			previousScreen.dispose();
+
+		Log.dispose(); // writes what is still pending
 	}
 
 //	@Override
@@ -163,4 +189,25 @@ public class AriseDeeper extends Game {
 	public Screen getPreviousScreen() {
 		return previousScreen;
 	}
+	public ILogicRunner getLogicRunner() {
+		return logicRunner;
+	}
+	public void setLogicRunner(ILogicRunner logicRunner) {
+		this.logicRunner = logicRunner;
+	}
+	/**
+	 * @return 'null' on the backends without a local storage: the levels are then generated again.
+	 */
+	public ILevelStore getLevelStore() {
+		return levelStore;
+	}
+	public void setLevelStore(ILevelStore levelStore) {
+		this.levelStore = levelStore;
+	}
+	public IChunkStore getChunkStore() {
+		return chunkStore;
+	}
+	public void setChunkStore(IChunkStore chunkStore) {
+		this.chunkStore = chunkStore;
+	}
 }
@@ -1,5 +1,6 @@
 package com.payne.games.actions;
 
+import com.payne.games.gameObjects.GameObject;
 import com.payne.games.gameObjects.actors.Actor;
 import com.payne.games.logic.GameLogic;
 
@@ -11,6 +12,7 @@ import com.payne.games.logic.GameLogic;
 public abstract class Action {
     protected Actor source;
     protected ActionController controller; // allows the Actions to manipulate the MapLayers
+    private boolean invalidated = false; // set when the target disappeared while the Action was still queued
 
 
     public Action(Actor source) {
@@ -55,4 +57,28 @@ public abstract class Action {
     public Actor getSource(){
         return source;
     }
+
+    /**
+     * Used by the {@link ActionTargetIndex} to know which GameObject this Action refers to.
+     *
+     * @return The GameObject the Action is aimed at. 'null' if the Action has no specific target.
+     */
+    public GameObject getTarget() {
+        return null;
+    }
+
+    /**
+     * Marks the Action as obsolete (for example, its target has died). The Actor owning it will discard it
+     * instead of executing it.
+     */
+    public void invalidate() {
+        invalidated = true;
+    }
+
+    /**
+     * @return 'true' if the Action should not be executed anymore.
+     */
+    public boolean isInvalidated() {
+        return invalidated;
+    }
 }
@@ -1,5 +1,7 @@
 package com.payne.games.actions;
 
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.utils.Array;
 import com.payne.games.gameObjects.GameObject;
 import com.payne.games.gameObjects.actors.Actor;
 import com.payne.games.gameObjects.actors.entities.Hero;
@@ -27,6 +29,7 @@ public class ActionController {
     public SecondaryMapLayer secondaryMapLayer;
     private Controller controller;
     private MyIndexedGraph indexedGraph;
+    private ActionTargetIndex targetIndex = new ActionTargetIndex(); // which queued Actions refer to which GameObject
 
 
     public ActionController(Controller controller, AnimationManager animationManager, InterpolationModule interpolationModule) {
@@ -37,9 +40,21 @@ public class ActionController {
     }
 
 
-    public void setUpIndexedGraph(BaseMapLayer currLevel) {
+    /**
+     * @param currLevel the level being entered.
+     * @param graph its pathfinding graph, built beforehand (see `LevelPipeline`).
+     */
+    public void setUpIndexedGraph(BaseMapLayer currLevel, MyIndexedGraph graph) {
         baseMapLayer = currLevel;
-        indexedGraph = new MyIndexedGraph(baseMapLayer);
+        indexedGraph = graph;
+        targetIndex.clear();
+    }
+
+    /**
+     * @return The pathfinding graph of the current level.
+     */
+    public MyIndexedGraph getIndexedGraph() {
+        return indexedGraph;
     }
 
     public void setSecondaryMapLayer(SecondaryMapLayer secondaryMapLayer) {
@@ -53,7 +68,9 @@ public class ActionController {
      * @param actor The Actor to be removed.
      */
     public void removeActor(Actor actor) {
+        invalidateActionsTargeting(actor);
         secondaryMapLayer.removeFromActorLayer(actor);
+        releaseObservers(actor);
         Tile currTile = baseMapLayer.getTile(actor.getX(), actor.getY());
         currTile.setAllowingMove(true); // todo: unless the Actor is flying?
         currTile.setSeeThrough(true);
@@ -65,7 +82,9 @@ public class ActionController {
      * @param object The object to be removed.
      */
     public void removeStatic(Static object) {
+        invalidateActionsTargeting(object);
         secondaryMapLayer.removeFromStaticLayer(object);
+        releaseObservers(object);
         Actor actorAt = secondaryMapLayer.findActorAt(object.getX(), object.getY());
         if (actorAt == null) {
             Tile currTile = baseMapLayer.getTile(object.getX(), object.getY());
@@ -74,6 +93,35 @@ public class ActionController {
         }
     }
 
+    /**
+     * Must be called whenever an Action is placed in an Actor's Queue, so that it can be invalidated
+     * if its target disappears before the Action gets executed.
+     *
+     * @param action the Action that was just queued.
+     */
+    public void trackQueuedAction(Action action) {
+        targetIndex.register(action);
+    }
+
+    /**
+     * Must be called whenever an Action leaves an Actor's Queue (be it to be executed, or because the Queue was cleared).
+     *
+     * @param action the Action that is not queued anymore.
+     */
+    public void untrackQueuedAction(Action action) {
+        targetIndex.unregister(action);
+    }
+
+    /**
+     * Invalidates the queued Actions (of every Actor) that refer to the input GameObject.<br>
+     * Only the Actions referring to it are touched: the Actors' Queues are not scanned.
+     *
+     * @param target the GameObject that is disappearing from the map.
+     */
+    public void invalidateActionsTargeting(GameObject target) {
+        targetIndex.invalidate(target);
+    }
+
     /**
      * Sets up the Observer pattern for a new subject.
      *
@@ -86,6 +134,18 @@ public class ActionController {
         }
     }
 
+    /**
+     * Undoes `initObservers()`: the subject is not animated anymore.
+     *
+     * @param oldSubject a GameObject that is leaving the map.
+     */
+    public void releaseObservers(IObservable oldSubject) {
+        if (oldSubject instanceof IAnimated) {
+            oldSubject.unregisterObserver(animationManager);
+            animationManager.remove((IAnimated)oldSubject);
+        }
+    }
+
     /**
      * Assigns the proper Action to the player according to the tap's coordinate.<br>
      * If Actions were already in the process, they are canceled.<br>
@@ -235,9 +295,11 @@ public class ActionController {
      * Selects a random walkable tile in the level, and then issues a queue of MoveActions to get the actor to move there.
      *
      * @param actor The actor that will move to a random point.
+     * @param rand the generator used to pick the tile (the global one isn't seeded, which would break the replays).
      */
-    public void moveToRandomPoint(Actor actor) {
-        Tile randomTile = baseMapLayer.getWalkableTiles().random();
+    public void moveToRandomPoint(Actor actor, RandomXS128 rand) {
+        Array<Tile> walkableTiles = baseMapLayer.getWalkableTiles();
+        Tile randomTile = walkableTiles.get(rand.nextInt(walkableTiles.size));
         moveTo(actor, randomTile.getX(), randomTile.getY());
     }
 
@@ -245,9 +307,13 @@ public class ActionController {
      * Gets the Actor to take a step in a random (walkable) direction.
      *
      * @param actor The Actor that will move.
+     * @param rand the generator used to pick the step.
      */
-    public void takeOneRandomStep(Actor actor) {
-        Tile randomStep = baseMapLayer.getWalkableNeighbors(actor.getX(), actor.getY()).random();
+    public void takeOneRandomStep(Actor actor, RandomXS128 rand) {
+        Array<Tile> neighbors = baseMapLayer.getWalkableNeighbors(actor.getX(), actor.getY());
+        if(neighbors.size == 0)
+            return;
+        Tile randomStep = neighbors.get(rand.nextInt(neighbors.size));
         moveTo(actor, randomStep.getX(), randomStep.getY());
     }
 
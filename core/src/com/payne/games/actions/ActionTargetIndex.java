@@ -0,0 +1,83 @@
+package com.payne.games.actions;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.payne.games.gameObjects.GameObject;
+
+
+/**
+ * Reverse index from a targeted GameObject to the queued Actions that refer to it.<br>
+ * When a GameObject disappears from the map, only the Actions listed under it have to be invalidated,
+ * instead of scanning the Queue of every single Actor.
+ */
+public class ActionTargetIndex {
+    private ObjectMap<GameObject, Array<Action>> byTarget = new ObjectMap<>();
+
+
+    /**
+     * Registers a freshly queued Action. Actions without a target are ignored.
+     *
+     * @param action the Action that was just added to an Actor's Queue.
+     */
+    public void register(Action action) {
+        GameObject target = action.getTarget();
+        if(target == null)
+            return;
+
+        Array<Action> referring = byTarget.get(target);
+        if(referring == null) {
+            referring = new Array<>(false, 4);
+            byTarget.put(target, referring);
+        }
+        referring.add(action);
+    }
+
+    /**
+     * Must be called when an Action leaves an Actor's Queue (executed or cleared).
+     *
+     * @param action the Action that is not queued anymore.
+     */
+    public void unregister(Action action) {
+        GameObject target = action.getTarget();
+        if(target == null)
+            return;
+
+        Array<Action> referring = byTarget.get(target);
+        if(referring != null && referring.removeValue(action, true) && referring.size == 0)
+            byTarget.remove(target); // otherwise every target ever queued would stay in the map
+    }
+
+    /**
+     * Invalidates every queued Action referring to the input target. The invalidated Actions are
+     * dropped lazily by their owner the next time it pulls from its Queue.
+     *
+     * @param target the GameObject that is being removed from the map.
+     * @return the amount of Actions that were invalidated.
+     */
+    public int invalidate(GameObject target) {
+        Array<Action> referring = byTarget.remove(target);
+        if(referring == null)
+            return 0;
+
+        for(int i = 0; i < referring.size; i++) {
+            referring.get(i).invalidate();
+        }
+        return referring.size;
+    }
+
+    /**
+     * @param target a GameObject.
+     * @return the amount of queued Actions currently referring to the target.
+     */
+    public int countReferring(GameObject target) {
+        Array<Action> referring = byTarget.get(target);
+        return referring == null ? 0 : referring.size;
+    }
+
+    /**
+     * Forgets everything. Used when a new level is set up.
+     */
+    public void clear() {
+        byTarget.clear();
+    }
+}
@@ -1,6 +1,7 @@
 package com.payne.games.actions.commands;
 
 import com.payne.games.actions.Action;
+import com.payne.games.gameObjects.GameObject;
 import com.payne.games.gameObjects.actors.Actor;
 import com.payne.games.gameObjects.actors.ActorState;
 
@@ -30,6 +31,15 @@ public class AttackAction extends Action {
         return 2;
     }
 
+    @Override
+    public GameObject getTarget() {
+        return target;
+    }
+
+    public int getDmg() {
+        return dmg;
+    }
+
 
 
     @Override
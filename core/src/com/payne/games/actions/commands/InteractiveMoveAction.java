@@ -26,7 +26,9 @@ public class InteractiveMoveAction extends MoveAction {
         if(newActorInSight()) // todo:  something requires attention : abort automatic move
             return false;
 
-        // todo: detect state changes on the target (is Actor dead? has Door been unlocked? etc.)
+        lookUpTiles(); // see MoveAction
+
+        // todo: detect state changes on the target (has Door been unlocked? etc.). Removal is handled by the ActionTargetIndex.
 
         boolean successfulInteraction = recipient.tryInteractionFrom(source);
         if (successfulInteraction) // the goal was achieved
@@ -53,6 +55,11 @@ public class InteractiveMoveAction extends MoveAction {
         return true;
     }
 
+    @Override
+    public GameObject getTarget() {
+        return recipient;
+    }
+
     private void setUpNextMove() {
 
         // todo: activate Traps if stepped on one (and don't issue another MoveAction)
@@ -3,6 +3,7 @@ package com.payne.games.actions.commands;
 import com.payne.games.actions.Action;
 import com.payne.games.gameObjects.actors.Actor;
 import com.payne.games.gameObjects.actors.ActorState;
+import com.payne.games.map.BaseMapLayer;
 import com.payne.games.map.tiles.Tile;
 
 
@@ -36,6 +37,7 @@ public class MoveAction extends Action {
         if(newActorInSight()) // todo:  something requires attention : abort automatic move
             return false;
 
+        lookUpTiles();
 
         if(next.isAllowingMove()) { // make sure the pre-calculated path is still valid
             move();
@@ -59,6 +61,28 @@ public class MoveAction extends Action {
     }
 
 
+    public Tile getFrom() {
+        return from;
+    }
+    public Tile getNext() {
+        return next;
+    }
+    public Tile getTo() {
+        return to;
+    }
+
+
+    /**
+     * The Tiles might have been paged out since this Action was issued (see `BaseMapLayer.trim()`): the instances
+     * in memory are looked up again, by position.
+     */
+    protected void lookUpTiles() {
+        BaseMapLayer level = controller.baseMapLayer;
+        from = level.getTile(from.getX(), from.getY());
+        next = level.getTile(next.getX(), next.getY());
+        to   = level.getTile(to.getX(), to.getY());
+    }
+
     protected boolean newActorInSight() {
         return false; // todo: detect if new enemies appeared in sight
     }
@@ -70,11 +94,13 @@ public class MoveAction extends Action {
      */
     protected void move() {
 
-        /* Setting up the interpolated movement. */
-        controller.interpolationModule.add(source);
+        /* Setting up the interpolated movement, then moving right away: only the rendering is interpolated. */
         source.setState(ActorState.MOVING);
         source.setMovingToX(next.getX());
         source.setMovingToY(next.getY());
+        controller.interpolationModule.add(source); // the destination must be set beforehand
+        source.setX(next.getX());
+        source.setY(next.getY());
 
         /* Adjusting the tiles' values for the pathfinding and the sight system. */
         from.setAllowingMove(true);
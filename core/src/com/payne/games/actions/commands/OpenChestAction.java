@@ -1,6 +1,7 @@
 package com.payne.games.actions.commands;
 
 import com.payne.games.actions.Action;
+import com.payne.games.gameObjects.GameObject;
 import com.payne.games.gameObjects.actors.Actor;
 import com.payne.games.gameObjects.statics.entities.Chest;
 
@@ -31,6 +32,11 @@ public class OpenChestAction extends Action {
         return true;
     }
 
+    @Override
+    public GameObject getTarget() {
+        return target;
+    }
+
 
     @Override
     public String toString() {
@@ -4,6 +4,8 @@ import com.payne.games.actions.Action;
 import com.payne.games.gameObjects.GameObject;
 import com.payne.games.inventory.IPickable;
 import com.payne.games.gameObjects.actors.Actor;
+import com.payne.games.logging.Log;
+import com.payne.games.logging.LogCategory;
 
 
 /**
@@ -27,15 +29,22 @@ public class PickUpAction extends Action {
     @Override
     public boolean executeAction() {
         boolean success = source.getInventory().addItem(object);
-        System.out.println("Pick up success: " + success);
+        Log.debug(LogCategory.ACTIONS, "Pick up success: {}", success);
 
         if(success){
+            controller.invalidateActionsTargeting((GameObject)object); // nobody else can pick it up anymore
+            controller.releaseObservers((GameObject)object); // not drawn anymore: not animated either
             ((GameObject)object).placeOutsideOfMap();
         }
 
         return true;
     }
 
+    @Override
+    public GameObject getTarget() {
+        return (GameObject)object;
+    }
+
     @Override
     public String toString() {
         return "PickUpAction{" +
@@ -1,8 +1,10 @@
 package com.payne.games.actions.commands;
 
 import com.payne.games.actions.Action;
+import com.payne.games.gameObjects.GameObject;
 import com.payne.games.gameObjects.actors.Actor;
 import com.payne.games.gameObjects.statics.entities.Door;
+import com.payne.games.map.tiles.Tile;
 
 
 /**
@@ -32,6 +34,11 @@ public class ToggleDoorAction extends Action {
         return true;
     }
 
+    @Override
+    public GameObject getTarget() {
+        return target;
+    }
+
 
     @Override
     public String toString() {
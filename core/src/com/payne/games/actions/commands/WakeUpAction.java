@@ -3,6 +3,8 @@ package com.payne.games.actions.commands;
 import com.payne.games.actions.Action;
 import com.payne.games.gameObjects.actors.Actor;
 import com.payne.games.gameObjects.actors.ActorState;
+import com.payne.games.logging.Log;
+import com.payne.games.logging.LogCategory;
 
 
 /**
@@ -18,7 +20,7 @@ public class WakeUpAction extends Action {
 
     @Override
     public boolean executeAction() {
-        System.out.println("Awakened: " + getSource().toString());
+        Log.debug(LogCategory.ACTIONS, "Awakened: {}", getSource());
         source.setState(ActorState.IDLE);
         return true;
     }
@@ -52,6 +52,34 @@ public class AssetsPool {
     public final TextureRegion full_b;
     public final TextureRegion full_c;
 
+    /**
+     * Used when there is no graphical context at all (replays, benchmarks, etc.): every asset is an empty
+     * placeholder. Only the logic of the game can then be run.
+     */
+    public AssetsPool() {
+        TextureRegion placeholder = new TextureRegion();
+        Animation<TextureRegion> placeholderAnim = new Animation<TextureRegion>(1f, placeholder);
+
+        knight = placeholder;
+        hero_red_attack = placeholderAnim;
+        hero_red_death = placeholderAnim;
+        hero_red_idle = placeholderAnim;
+        hero_red_interact = placeholderAnim;
+        hero_red_walk = placeholderAnim;
+
+        key = chest_16p = potion_fatigue = potion_health = placeholder;
+        door_closed = door_locked = door_open = placeholder;
+
+        barrel = box_small = placeholder;
+        flame = placeholderAnim;
+
+        pixel_full_alpha = pixel_half_alpha = placeholder;
+        halo_small = halo_medium = halo_big = placeholder;
+
+        floor_a = floor_b = floor_c = floor_d = floor_e = floor_f = floor_g = floor_h = floor_i = placeholder;
+        empty = full_a = full_b = full_c = placeholder;
+    }
+
     public AssetsPool(TextureAtlas atlas) {
 
         /* Actors */
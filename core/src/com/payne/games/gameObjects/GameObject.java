@@ -10,6 +10,7 @@ import com.payne.games.gameObjects.actors.Actor;
 import com.payne.games.gameObjects.actors.ActorState;
 import com.payne.games.logic.Utils;
 import com.payne.games.rendering.IInterpolatable;
+import com.payne.games.rendering.animations.IAnimated;
 import com.payne.games.rendering.animations.IObserver;
 
 import java.util.HashMap;
@@ -20,7 +21,8 @@ import java.util.HashMap;
  * Extracts from more specific classes certain things that are related to the View.
  */
 public abstract class GameObject implements IInterpolatable {
-    private Array<IObserver> observers = new Array<>();
+    private Array<IObserver<IAnimated>> observers = new Array<>(); // only the IAnimated are observed (see `ActionController.initObservers()`)
+    private int id = -1; // unique within a game, assigned by the GameObjectFactory
     private int x, y;
     protected ActionController controller; // acts as a Controller linking the GameObjects with the MapLayers
 
@@ -28,9 +30,11 @@ public abstract class GameObject implements IInterpolatable {
     private int permanentOriginOffset; // used when entity is bigger than a normal Tile
     private float interpolatedX, interpolatedY; // used for interpolated movement's intermediary offset coordinates (in pixels)
     private int movingToX, movingToY; // used for interpolated movement's coordinate goal (in tile-coordinate)
+    private int motionIndex = -1; // slot within the InterpolationModule while moving
     private TextureRegion texture; // used when drawn on the screen, over the map
-    private Drawable drawable; // used by the Inventory for the "Slot" image representation
+    private TextureRegionDrawable drawable; // used by the Inventory for the "Slot" image representation, created on demand
     private float delta; // used to know which frame of the animation to display
+    private int animationIndex = -1; // slot within the AnimationManager while animated
     protected HashMap<ActorState, Animation<TextureRegion>> animationMap;
     private Animation<TextureRegion> animation;
 
@@ -115,13 +119,27 @@ public abstract class GameObject implements IInterpolatable {
         return texture;
     }
 
+    /**
+     * Called on every frame change of an animated GameObject: must stay allocation-free.
+     *
+     * @param texture what is drawn over the map.
+     */
     @Override
     public void setTexture(TextureRegion texture) {
         this.texture = texture;
-        this.drawable = new TextureRegionDrawable(texture);
     }
 
+    /**
+     * The UI's representation of the GameObject (e.g. in an inventory Slot). Created the first time it is needed,
+     * then reused: it follows the current TextureRegion.
+     *
+     * @return A Drawable of the current TextureRegion.
+     */
     public Drawable getDrawable() {
+        if(drawable == null)
+            drawable = new TextureRegionDrawable(texture);
+        else if(drawable.getRegion() != texture)
+            drawable.setRegion(texture);
         return drawable;
     }
 
@@ -135,6 +153,13 @@ public abstract class GameObject implements IInterpolatable {
         delta = 0;
     }
 
+    public int getAnimationIndex() {
+        return animationIndex;
+    }
+    public void setAnimationIndex(int animationIndex) {
+        this.animationIndex = animationIndex;
+    }
+
     public Animation<TextureRegion> getAnimation() {
         return animation;
     }
@@ -161,18 +186,18 @@ public abstract class GameObject implements IInterpolatable {
 
     @Override
     public void notifyObservers() {
-        for(IObserver observer : observers) {
-            observer.update();
+        for(int i = 0; i < observers.size; i++) {
+            observers.get(i).update((IAnimated)this);
         }
     }
 
     @Override
-    public void registerObserver(IObserver observer) {
+    public void registerObserver(IObserver<IAnimated> observer) {
         observers.add(observer);
     }
 
     @Override
-    public void unregisterObserver(IObserver observer) {
+    public void unregisterObserver(IObserver<IAnimated> observer) {
         observers.removeValue(observer, true);
     }
 
@@ -242,6 +267,15 @@ public abstract class GameObject implements IInterpolatable {
         this.movingToY = movingToY;
     }
 
+    @Override
+    public int getMotionIndex() {
+        return motionIndex;
+    }
+    @Override
+    public void setMotionIndex(int motionIndex) {
+        this.motionIndex = motionIndex;
+    }
+
     @Override
     public float getCurrentX() {
         return Utils.tileToPixels(x) + interpolatedX - permanentOriginOffset;
@@ -259,10 +293,23 @@ public abstract class GameObject implements IInterpolatable {
         return controller;
     }
 
+    /**
+     * Used to refer to a GameObject outside of the memory (journal, saves, etc.).
+     *
+     * @return The unique identifier given by the GameObjectFactory. '-1' if it wasn't created by the factory.
+     */
+    public int getId() {
+        return id;
+    }
+    public void setId(int id) {
+        this.id = id;
+    }
+
     @Override
     public String toString() {
         return "GameObject{" +
-                "x=" + x +
+                "id=" + id +
+                ", x=" + x +
                 ", y=" + y +
                 ", texture=" + texture +
                 '}';
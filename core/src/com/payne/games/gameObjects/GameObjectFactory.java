@@ -12,7 +12,9 @@ import com.payne.games.gameObjects.statics.entities.*;
 import com.payne.games.inventory.Inventory;
 import com.payne.games.logic.DecisionMaking;
 import com.payne.games.logic.GameLogic;
+import com.payne.games.actions.Action;
 import com.payne.games.actions.ActionController;
+import com.payne.games.map.tiles.Tile;
 import com.payne.games.rendering.animations.AnimationStateMapPool;
 import com.payne.games.rendering.animations.IAnimatedStates;
 
@@ -24,6 +26,8 @@ import java.util.HashMap;
  */
 public class GameObjectFactory {
     private RandomXS128 rand;
+    private int seed;
+    private int nextId = 0; // ids are given in order of creation, which keeps them reproducible for a given seed
     private ActionController actionController;
 
     private final AnimationStateMapPool animationPool;
@@ -31,39 +35,85 @@ public class GameObjectFactory {
 
 
     public GameObjectFactory(ActionController actionController, AssetsPool assetsPool) {
+        this(actionController, assetsPool, GameLogic.RANDOM_ENEMIES ? (int)(Math.random()*1000) : GameLogic.RANDOM_SEED);
+    }
+
+    /**
+     * @param seed seed of the generator used for the random decisions of the factory (e.g. which Item is spawned).
+     */
+    public GameObjectFactory(ActionController actionController, AssetsPool assetsPool, int seed) {
         this.animationPool = new AnimationStateMapPool(assetsPool);
         this.actionController = actionController;
         this.assetsPool = assetsPool;
-        this.rand = new RandomXS128(GameLogic.RANDOM_ENEMIES ? (int)(Math.random()*1000) : GameLogic.RANDOM_SEED);
+        this.seed = seed;
+        this.rand = new RandomXS128(seed);
+    }
+
+
+    /**
+     * @return The seed the factory was created with. Required to reproduce a game (see the ActionJournal).
+     */
+    public int getSeed() {
+        return seed;
+    }
+
+    public RandomXS128 getRandom() {
+        return rand;
+    }
+
+    /**
+     * @return The id of the next GameObject created. Part of the state of the game (see `GameSave`).
+     */
+    public int getNextId() {
+        return nextId;
+    }
+    public void setNextId(int nextId) {
+        this.nextId = nextId;
     }
 
 
     /**
-     * Updates the walkability of the Tile on which the GameObject was created.<br>
-     * Also adds the GameObject to the appropriate MapLayer list, and sets up the Observers.
+     * Gives the GameObject being created its id and its offset, then places it (see `place()`).
      *
      * @param gameObject the GameObject being created.
      */
     private void commonCreator(GameObject gameObject) {
+        gameObject.setId(nextId++);
+
+        /* Sets up the slight offset in case the TextureRegion is bigger than the minimal Tile size. */
+        if(gameObject.getTexture().getRegionWidth() != GameLogic.TILE_SIZE)
+            gameObject.setPermanentOriginOffset(GameLogic.TILE_OFFSET);
+
+        place(gameObject);
+    }
 
-        /* Update walkability and visibility of the Tile on which GameObject was created. */
+    /**
+     * Updates the walkability of the Tile on which the GameObject stands.<br>
+     * Also adds the GameObject to the appropriate MapLayer list, and sets up the Observers.<br>
+     * Used on creation, and to put back a GameObject kept with a level that was left (see `LevelCache`): the
+     * Actions still queued by an Actor are tracked again.
+     *
+     * @param gameObject a GameObject on the map.
+     */
+    public void place(GameObject gameObject) {
+
+        /* Update walkability and visibility of the Tile on which GameObject stands. */
         Tile currTile = actionController.baseMapLayer.getTile(gameObject.getX(),gameObject.getY());
         currTile.setAllowingMove(gameObject.canBeWalkedThrough());
         currTile.setSeeThrough(gameObject.canBeSeenThrough());
         
         /* Add the GameObject to the proper Layer. */
         if(gameObject instanceof Actor) {
+            Actor actor = (Actor)gameObject;
             actionController.secondaryMapLayer
-                    .getActorLayer().add((Actor)gameObject);
+                    .getActorLayer().add(actor);
+            for(Action action : actor.getActionsQueue())
+                actionController.trackQueuedAction(action);
         } else if(gameObject instanceof Static){
             actionController.secondaryMapLayer
                     .getStaticLayer().add((Static)gameObject);
         }
 
-        /* Sets up the slight offset in case the TextureRegion is bigger than the minimal Tile size. */
-        if(gameObject.getTexture().getRegionWidth() != GameLogic.TILE_SIZE)
-            gameObject.setPermanentOriginOffset(GameLogic.TILE_OFFSET);
-
         /* Sets up the Observer pattern. */
         actionController.initObservers(gameObject);
     }
@@ -156,6 +206,7 @@ public class GameObjectFactory {
 
     public Hero createHero(int x, int y, Inventory inventory) {
         Hero hero = new Hero(actionController, x, y, 150, 3, 5);
+        hero.setId(nextId++);
         hero.setInventory(inventory);
         initAnimatedState(hero, ActorState.IDLE, animationPool.heroAnimations);
 
@@ -81,7 +81,7 @@ public abstract class Actor extends GameObject implements IAnimatedStates<ActorS
     public void die(Actor killer) {
         clearActionsQueue();
         setState(ActorState.DYING);
-        // todo: clear all actions (of other Actors) that related to this now-dead Actor
+        // the Actions of other Actors that relate to this now-dead Actor are invalidated by `ActionController.removeActor()`
     }
 
     public boolean isDead() {
@@ -107,14 +107,26 @@ public abstract class Actor extends GameObject implements IAnimatedStates<ActorS
     }
 
     public void clearActionsQueue() {
+        for(int i = 0; i < actions.size; i++) {
+            controller.untrackQueuedAction(actions.get(i));
+        }
         actions.clear();
     }
 
+    /**
+     * Queued Actions that were invalidated meanwhile (e.g. their target died) are silently discarded.
+     *
+     * @return The next valid Action of the Queue, or the output of {@link #extractAction()} if the Queue is empty.
+     */
     public Action getNextAction() {
-        if(isOccupied())
-            return actions.removeFirst();
-        else
-            return extractAction();
+        while(isOccupied()) {
+            Action next = actions.removeFirst();
+            if(!next.isInvalidated()) {
+                controller.untrackQueuedAction(next);
+                return next;
+            }
+        }
+        return extractAction();
     }
 
     public void regenFatigue() {
@@ -126,8 +138,10 @@ public abstract class Actor extends GameObject implements IAnimatedStates<ActorS
     }
 
     public void addAction(Action action) {
-        if (action != null)
+        if (action != null) {
             actions.addLast(action);
+            controller.trackQueuedAction(action);
+        }
     }
 
     /**
@@ -225,6 +239,10 @@ public abstract class Actor extends GameObject implements IAnimatedStates<ActorS
         this.priority = priority;
     }
 
+    public ActorState getState() {
+        return currentState;
+    }
+
     public boolean isSleeping() {
         return currentState == ActorState.SLEEPING;
     }
@@ -5,6 +5,8 @@ import com.payne.games.gameObjects.actors.Actor;
 import com.payne.games.logic.DecisionMaking;
 import com.payne.games.logic.Utils;
 import com.payne.games.actions.Action;
+import com.payne.games.logging.Log;
+import com.payne.games.logging.LogCategory;
 
 
 public class Enemy extends Actor {
@@ -30,10 +32,14 @@ public class Enemy extends Actor {
 
         controller.removeActor(this);
 
-        System.out.println("An enemy has died.");
+        Log.debug(LogCategory.GAME_OBJECTS, "An enemy has died.");
     }
 
 
+    public DecisionMaking getAi() {
+        return ai;
+    }
+
     /**
      * Runs the AI to find what decision the Enemy wants to take.
      *
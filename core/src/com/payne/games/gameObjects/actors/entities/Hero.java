@@ -4,6 +4,8 @@ import com.payne.games.actions.ActionController;
 import com.payne.games.gameObjects.actors.Actor;
 import com.payne.games.logic.Utils;
 import com.payne.games.actions.Action;
+import com.payne.games.logging.Log;
+import com.payne.games.logging.LogCategory;
 
 
 public class Hero extends Actor {
@@ -21,7 +23,7 @@ public class Hero extends Actor {
     }
     public void setXp(int xp) {
         this.xp = xp;
-        System.out.println("New XP: " + xp);
+        Log.info(LogCategory.GAME_OBJECTS, "New XP: {}", xp);
     }
 
 
@@ -29,7 +31,7 @@ public class Hero extends Actor {
     @Override
     public void die(Actor killer) {
         super.die(killer);
-        System.out.println("You have died.");
+        Log.info(LogCategory.GAME_OBJECTS, "You have died.");
         controller.getMainController().playerDied();
     }
 
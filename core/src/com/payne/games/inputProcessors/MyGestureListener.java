@@ -6,6 +6,8 @@ import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.math.Vector3;
 import com.payne.games.logic.GameLogic;
 import com.payne.games.logic.Controller;
+import com.payne.games.logging.Log;
+import com.payne.games.logging.LogCategory;
 
 
 /**
@@ -28,7 +30,7 @@ public class MyGestureListener implements GestureDetector.GestureListener {
 
     @Override
     public boolean touchDown(float x, float y, int pointer, int button) {
-        if(GameLogic.DEBUG_GESTURE_PRINT) System.out.println("touchDown: " + x + "," + y + " | pointer: " + pointer + " | button: " + button);
+        Log.debug(LogCategory.INPUT, "touchDown: {},{} | pointer: {} | button: {}", x, y, pointer, button);
         return false;
     }
 
@@ -44,7 +46,7 @@ public class MyGestureListener implements GestureDetector.GestureListener {
      */
     @Override
     public boolean tap(float x, float y, int count, int button) {
-        if(GameLogic.DEBUG_GESTURE_PRINT) System.out.println("tap: " + x + "," + y + " | count: " + count + " | button: " + button);
+        Log.debug(LogCategory.INPUT, "tap: {},{} | count: {} | button: {}", x, y, count, button);
 
 //        final double OFFSET = GameLogic.AESTHETIC_OFFSET;
 //        final double ZOOM = camera.zoom;
@@ -57,7 +59,7 @@ public class MyGestureListener implements GestureDetector.GestureListener {
         double coordX = ((double)vec.x / GameLogic.TILE_SIZE) - OFFSET;
         double coordY = ((double)vec.y / GameLogic.TILE_SIZE) - OFFSET;
 
-        System.out.println("\nTile coordinate: ( x= " + (int)coordX + ", y= " + (int)coordY + " )");
+        Log.debug(LogCategory.INPUT, "Tile coordinate: ( x= {}, y= {} )", (int)coordX, (int)coordY);
 
         controller.playerTapped((int)coordX, (int)coordY);
 
@@ -66,13 +68,13 @@ public class MyGestureListener implements GestureDetector.GestureListener {
 
     @Override
     public boolean longPress(float x, float y) {
-        if(GameLogic.DEBUG_GESTURE_PRINT) System.out.println("longPress: " + x + "," + y);
+        Log.debug(LogCategory.INPUT, "longPress: {},{}", x, y);
         return false;
     }
 
     @Override
     public boolean fling(float velocityX, float velocityY, int button) {
-        if(GameLogic.DEBUG_GESTURE_PRINT) System.out.println("fling | velocityX: " + velocityX + " | velocityY: " + velocityY + " | button: " + button);
+        Log.debug(LogCategory.INPUT, "fling | velocityX: {} | velocityY: {} | button: {}", velocityX, velocityY, button);
         return false;
     }
 
@@ -80,7 +82,7 @@ public class MyGestureListener implements GestureDetector.GestureListener {
     // todo: spread through "touchDown" and "touchUp" so that clicks don't get registered in between padding of UI.
     @Override
     public boolean pan(float x, float y, float deltaX, float deltaY) {
-        if(GameLogic.DEBUG_GESTURE_PRINT) System.out.println("pan: " + x + "," + y + " | deltaX: " + deltaX + " | deltaY: " + deltaY);
+        Log.debug(LogCategory.INPUT, "pan: {},{} | deltaX: {} | deltaY: {}", x, y, deltaX, deltaY);
 
 //        // todo: prevent drag outside of map regions
 //        if(camera.position.x + dX > camera.viewportWidth/2) { // prevent going further left
@@ -97,25 +99,25 @@ public class MyGestureListener implements GestureDetector.GestureListener {
 
     @Override
     public boolean panStop(float x, float y, int pointer, int button) {
-        if(GameLogic.DEBUG_GESTURE_PRINT) System.out.println("panStop: " + x + "," + y + " | pointer: " + pointer + " | button: " + button);
+        Log.debug(LogCategory.INPUT, "panStop: {},{} | pointer: {} | button: {}", x, y, pointer, button);
         return false;
     }
 
     @Override
     public boolean zoom(float initialDistance, float distance) {
-        if(GameLogic.DEBUG_GESTURE_PRINT) System.out.println("zoom | initialDistance: " + initialDistance + " | distance: " + distance);
+        Log.debug(LogCategory.INPUT, "zoom | initialDistance: {} | distance: {}", initialDistance, distance);
         return false;
     }
 
     @Override
     public boolean pinch(Vector2 initialPointer1, Vector2 initialPointer2, Vector2 pointer1, Vector2 pointer2) {
         // todo: implement "Zoom" for mobiles
-        if(GameLogic.DEBUG_GESTURE_PRINT) System.out.println("pinch");
+        Log.debug(LogCategory.INPUT, "pinch");
         return false;
     }
 
     @Override
     public void pinchStop() {
-        if(GameLogic.DEBUG_GESTURE_PRINT) System.out.println("pinchStop");
+        Log.debug(LogCategory.INPUT, "pinchStop");
     }
 }
@@ -5,6 +5,9 @@ import com.badlogic.gdx.InputAdapter;
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.payne.games.logic.Controller;
 import com.payne.games.logic.GameLogic;
+import com.payne.games.logging.Log;
+import com.payne.games.logging.LogCategory;
+import com.payne.games.logging.LogLevel;
 
 
 /**
@@ -37,8 +40,18 @@ public class MyInputProcessor extends InputAdapter {
             case Input.Keys.S:
                 controller.DEBUG_spawn_enemies();
                 break;
+            case Input.Keys.D: // todo: until there are stairs
+                controller.descend();
+                break;
+            case Input.Keys.P:
+                GameLogic.DEBUG_PROFILER_OVERLAY = !GameLogic.DEBUG_PROFILER_OVERLAY;
+                break;
+            case Input.Keys.L: // traces every executed Action
+                boolean tracing = Log.isEnabled(LogCategory.ACTIONS, LogLevel.DEBUG);
+                Log.setLevel(LogCategory.ACTIONS, tracing ? LogCategory.ACTIONS.getDefaultLevel() : LogLevel.DEBUG);
+                break;
             default:
-                System.out.println("keyDown_keyCode: " + keycode);
+                Log.debug(LogCategory.INPUT, "keyDown_keyCode: {}", keycode);
                 break;
         }
 
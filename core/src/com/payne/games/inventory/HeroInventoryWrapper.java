@@ -1,8 +1,12 @@
 package com.payne.games.inventory;
 
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.scenes.scene2d.ui.ImageTextButton;
+import com.badlogic.gdx.scenes.scene2d.utils.Drawable;
+import com.badlogic.gdx.scenes.scene2d.utils.TextureRegionDrawable;
 import com.badlogic.gdx.utils.Array;
 import com.payne.games.gameObjects.GameObject;
+import com.payne.games.rendering.WorldSnapshot;
 
 
 /**
@@ -11,6 +15,7 @@ import com.payne.games.gameObjects.GameObject;
 public class HeroInventoryWrapper {
     private Array<ImageTextButton> inventorySlots;
     private Inventory inventory;
+    private TextureRegionDrawable[] snapshotDrawables = new TextureRegionDrawable[0]; // the rendering thread's own
 
 
     public HeroInventoryWrapper(Array<ImageTextButton> inventorySlots, Inventory inventory) {
@@ -23,24 +28,51 @@ public class HeroInventoryWrapper {
      * Updates the way the Inventory UI is displayed.
      */
     public void render() {
-        String amount;
         IPickable item;
-        int stackAmount;
-        ImageTextButton slot;
 
         for(int i=0; i<inventorySlots.size; i++) {
             item = inventory.getItem(i);
-            slot = inventorySlots.get(i);
 
-            if(item == null) {
-                amount = "";
-                slot.getStyle().imageUp = null; // draw nothing
+            if(item == null)
+                showSlot(i, null, 0);
+            else
+                showSlot(i, ((GameObject)item).getDrawable(), inventory.getSlot(i).getAmount());
+        }
+    }
+
+    /**
+     * Same as `render()`, but from a WorldSnapshot: the Inventory itself isn't read, a turn might be modifying it
+     * on another thread (see `ILogicRunner`).
+     *
+     * @param snapshot the latest captured state of the game.
+     */
+    public void render(WorldSnapshot snapshot) {
+        TextureRegion texture;
+        if(snapshotDrawables.length < inventorySlots.size)
+            snapshotDrawables = new TextureRegionDrawable[inventorySlots.size];
+
+        for(int i=0; i<inventorySlots.size && i<snapshot.getSlotCount(); i++) {
+            texture = snapshot.getSlotTexture(i);
+
+            if(texture == null) {
+                showSlot(i, null, 0);
             } else {
-                stackAmount = inventory.getSlot(i).getAmount();
-                amount = stackAmount > 1  ? stackAmount+"" : ""; // only show a stack amount if more than 1 item
-                slot.getStyle().imageUp = ((GameObject)item).getDrawable();
+                if(snapshotDrawables[i] == null)
+                    snapshotDrawables[i] = new TextureRegionDrawable(texture);
+                else
+                    snapshotDrawables[i].setRegion(texture);
+                showSlot(i, snapshotDrawables[i], snapshot.getSlotAmount(i));
             }
-            slot.getLabel().setText(amount);
         }
     }
+
+    /**
+     * @param drawable 'null' to draw nothing.
+     * @param stackAmount only shown if more than 1 item.
+     */
+    private void showSlot(int i, Drawable drawable, int stackAmount) {
+        ImageTextButton slot = inventorySlots.get(i);
+        slot.getStyle().imageUp = drawable;
+        slot.getLabel().setText(stackAmount > 1 ? stackAmount+"" : "");
+    }
 }
@@ -82,6 +82,16 @@ public class Inventory {
         return true;
     }
 
+    /**
+     * Places the item in a specific slot, without any verification. Used to restore a saved Inventory as it was.
+     *
+     * @param index Index of the Slot.
+     * @param item The item to be added.
+     */
+    public void putItem(int index, IPickable item) {
+        getSlot(index).addItem(item);
+    }
+
     /**
      * Removes and returns the first item of the specified type. Uses the class name.
      *
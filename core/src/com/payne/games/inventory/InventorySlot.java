@@ -96,6 +96,14 @@ public class InventorySlot {
 
 
 
+    /**
+     * @param index from 0 to `getAmount() - 1`, in the order the Items were added.
+     * @return The Item at that index, without removing it.
+     */
+    public IPickable getItem(int index) {
+        return items.get(index);
+    }
+
     /**
      * @return The size of the collection of Items contained in this Slot.
      */
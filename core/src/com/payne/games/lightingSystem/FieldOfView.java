@@ -74,12 +74,33 @@ public class FieldOfView {
      * @return the computed light grid
      */
     public static double[][] reuseFOV(double[][] resistanceMap, double[][] light, int startX, int startY, double radius)
+    {
+        return reuseFOV(resistanceMap, light, startX, startY, radius, light[0].length, light.length);
+    }
+
+    /**
+     * Same as {@link #reuseFOV(double[][], double[][], int, int, double)}, but only on the cells of the grids
+     * within the given bounds: the grids can be larger than the area calculated on, and reused for smaller ones.
+     * Only the cells within the bounds are cleared.
+     *
+     * @param resistanceMap the grid of cells to calculate on; 1.0 resists all light, 0.0 does not resist
+     * @param light the grid of cells which will represent the alpha overlay (amount of light)
+     * @param startX the horizontal component of the starting location
+     * @param startY the vertical component of the starting location
+     * @param radius the distance the light will extend to
+     * @param width the amount of columns calculated on, from 0
+     * @param height the amount of rows calculated on, from 0
+     * @return the computed light grid
+     */
+    public static double[][] reuseFOV(double[][] resistanceMap, double[][] light, int startX, int startY, double radius,
+                                      int width, int height)
     {
         double decay = 1 / radius;
-        fill(light, 0);
+        for (int i = 0; i < height; i++) {
+            Arrays.fill(light[i], 0, width, 0);
+        }
         light[startY][startX] = Math.min(1.0, radius); //make the starting space full power unless radius is tiny
 
-        final int height = light.length, width = light[0].length;
         shadowCast(1, 1.0, 0.0, 0, 1, 1, 0, radius, startY, startX, decay, light, resistanceMap, 0, 0, height, width);
         shadowCast(1, 1.0, 0.0, 1, 0, 0, 1, radius, startY, startX, decay, light, resistanceMap, 0, 0, height, width);
         shadowCast(1, 1.0, 0.0, 0, 1, -1, 0, radius, startY, startX, decay, light, resistanceMap, 0, 0, height, width);
@@ -17,13 +17,15 @@ import static com.payne.games.logic.GameLogic.SUBDIVISIONS; // static because SU
  * todo: possibly do  https://stackoverflow.com/questions/45948732/2d-tile-based-smooth-lighting/45949202#45949202
  */
 public class SightSystem {
-    private double[][] resistance; // assign 1.0 to positions that block vision
-    private double[][] visible;    // this gets filled with alpha overlay values
+    private double[][] resistance = new double[0][0]; // assign 1.0 to positions that block vision
+    private double[][] visible = new double[0][0];    // this gets filled with alpha overlay values
 
     private int width;     // actual tile width, normal cells
     private int height;    // actual tile height, normal cells
-    private int widthBig;  // width times the subdivision amount; how many subcells wide the map is
-    private int heightBig; // height times the subdivision amount; how many subcells high the map is
+
+    /* The window around the hero the grids cover, in Tiles: they only grow, from one level to the next. */
+    private int windowX, windowY, windowWidth, windowHeight;
+    private int lastX, lastY, lastWidth, lastHeight; // the window of the previous update, whose Tiles were lit
     
     
     public SightSystem() {
@@ -31,13 +33,33 @@ public class SightSystem {
     
     
     /**
-     * The latest visibility grid, as a 2D double array with larger dimensions 
-     * than the map by a factor of the subdivision amount.
+     * The latest visibility grid, as a 2D double array with larger dimensions than the window around the hero by a
+     * factor of the subdivision amount (see `getLightX()`). It might be larger still: only the window is meaningful.
      */
     public double[][] getVisible() {
         return visible;
     }
 
+    /**
+     * @return Where the window of `getVisible()` starts in the level, in subcells.
+     */
+    public int getLightX() {
+        return windowX * SUBDIVISIONS;
+    }
+    public int getLightY() {
+        return windowY * SUBDIVISIONS;
+    }
+
+    /**
+     * @return The size of the window of `getVisible()`, in subcells.
+     */
+    public int getLightWidth() {
+        return windowWidth * SUBDIVISIONS;
+    }
+    public int getLightHeight() {
+        return windowHeight * SUBDIVISIONS;
+    }
+
     /**
      * Must be called when a new map is generated, before calling the other methods.
      *
@@ -46,10 +68,8 @@ public class SightSystem {
     public void prepareLightingOverlay(BaseMapLayer currLevel) {
         width      = currLevel.getMapWidth();
         height     = currLevel.getMapHeight();
-        widthBig   = width * SUBDIVISIONS;
-        heightBig  = height * SUBDIVISIONS;
-        visible    = new double[heightBig][widthBig];
-        resistance = new double[heightBig][widthBig];
+        windowX = windowY = windowWidth = windowHeight = 0;
+        lastX = lastY = lastWidth = lastHeight = 0;
     }
 
     /**
@@ -58,9 +78,9 @@ public class SightSystem {
      * A value of "0.0" lets the light pass through completely.
      */
     private void updateResistanceMap(BaseMapLayer currLevel) {
-        for (int i = 0; i < height; i++) {        // height
-            for (int j = 0; j < width; j++) {     // width
-                if (currLevel.getTile(j, i).isSeeThrough()) {
+        for (int i = 0; i < windowHeight; i++) {        // height
+            for (int j = 0; j < windowWidth; j++) {     // width
+                if (currLevel.getTile(windowX + j, windowY + i).isSeeThrough()) {
                     /* todo: This step may not be necessary; if a cell can change from 
                     disallowing moves to allowing moves, then this is needed. */
                     for (int y = 0; y < SUBDIVISIONS; y++) {
@@ -81,11 +101,30 @@ public class SightSystem {
         }
     }
 
+    /**
+     * Places the window of the grids around the hero: nothing farther than the range of sight can be lit.
+     */
+    private void moveWindow(int player_X, int player_Y, int sightRangeRadius) {
+        windowX      = Math.max(0, player_X - sightRangeRadius);
+        windowY      = Math.max(0, player_Y - sightRangeRadius);
+        windowWidth  = Math.min(width, player_X + sightRangeRadius + 1) - windowX;
+        windowHeight = Math.min(height, player_Y + sightRangeRadius + 1) - windowY;
+        if(resistance.length < windowHeight * SUBDIVISIONS || resistance[0].length < windowWidth * SUBDIVISIONS) {
+            int rows = Math.max(resistance.length, windowHeight * SUBDIVISIONS);
+            int columns = Math.max(resistance.length == 0 ? 0 : resistance[0].length, windowWidth * SUBDIVISIONS);
+            resistance = new double[rows][columns];
+            visible    = new double[rows][columns];
+        }
+    }
+
     /**
      * Updates both the Line of Sight of the hero, and the corresponding Fog of War.<br>
-     * Manages the "explored" variable of the Tiles as well.
+     * Manages the "explored" variable of the Tiles as well. Only the window around the hero is computed: the Tiles
+     * lit by the previous update are put back in the dark first.
      */
     public void updateLighting(BaseMapLayer currLevel, int player_X, int player_Y, int sightRangeRadius) {
+        darkenLastWindow(currLevel);
+        moveWindow(player_X, player_Y, sightRangeRadius);
         updateResistanceMap(currLevel);
         /*
         Since resistance and visible use a larger map size, we offset the player position into the center 
@@ -96,11 +135,13 @@ public class SightSystem {
         (I think), but radius 5 (for SUBDIVISIONS == 5) would see halfway into the next adjacent cell. 
         A possible tweak would be to give as the last parameter: {@code sightRangeRadius * SUBDIVISIONS - SUBDIVISIONS / 2}.
         */
-        FieldOfView.reuseFOV(resistance, visible, player_X * SUBDIVISIONS + SUBDIVISIONS / 2, player_Y * SUBDIVISIONS + SUBDIVISIONS / 2, sightRangeRadius * SUBDIVISIONS);
+        FieldOfView.reuseFOV(resistance, visible, (player_X - windowX) * SUBDIVISIONS + SUBDIVISIONS / 2,
+                (player_Y - windowY) * SUBDIVISIONS + SUBDIVISIONS / 2, sightRangeRadius * SUBDIVISIONS,
+                windowWidth * SUBDIVISIONS, windowHeight * SUBDIVISIONS);
         Tile currTile;
-        for(int i=0; i < height; i++) {          // height
-            for(int j = 0; j < width; j++) {     // width
-                currTile = currLevel.getTile(j,i);
+        for(int i=0; i < windowHeight; i++) {          // height
+            for(int j = 0; j < windowWidth; j++) {     // width
+                currTile = currLevel.getTile(windowX + j, windowY + i);
                 float alpha = 0; // we consider the fog of war alpha of a cell as the greatest visibility of any of its subcells.
                 for (int y = 0; y < SUBDIVISIONS; y++) {
                     for (int x = 0; x < SUBDIVISIONS; x++) {
@@ -114,12 +155,34 @@ public class SightSystem {
                 }
                 
                 /* Per cell, we set the alpha to a value in the appropriate range. */
-                currTile.setFogAlpha(
-                        MathUtils.map(0f, 1f,
-                                GameLogic.LOS_MIN_ALPHA, 1f,
-                                alpha));
+                currTile.setFogAlpha(fogAlphaOf(alpha));
+            }
+        }
+        lastX = windowX;
+        lastY = windowY;
+        lastWidth = windowWidth;
+        lastHeight = windowHeight;
+    }
+
+    /**
+     * The Tiles of the previous window that are still in memory go back to the darkness (those paged out since
+     * were faulted in dark already): the new window lights its own.
+     */
+    private void darkenLastWindow(BaseMapLayer currLevel) {
+        float dark = fogAlphaOf(0f);
+        for(int i = 0; i < lastHeight; i++) {
+            for(int j = 0; j < lastWidth; j++) {
+                Tile tile = currLevel.getResidentTile(lastX + j, lastY + i);
+                if(tile != null)
+                    tile.setFogAlpha(dark);
             }
         }
     }
 
+    private static float fogAlphaOf(float alpha) {
+        return MathUtils.map(0f, 1f,
+                GameLogic.LOS_MIN_ALPHA, 1f,
+                alpha);
+    }
+
 }
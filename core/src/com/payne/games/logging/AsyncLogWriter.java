@@ -0,0 +1,160 @@
+package com.payne.games.logging;
+
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.async.AsyncExecutor;
+import com.badlogic.gdx.utils.async.AsyncResult;
+import com.badlogic.gdx.utils.async.AsyncTask;
+
+
+/**
+ * Hands the log messages over to an ILogSink on a background thread, so that the (slow) I/O never happens
+ * on the thread that logs.<br>
+ * The messages are formatted by the caller into a fixed ring of reusable entries: logging doesn't allocate.
+ * When the ring is full (the sink can't keep up), new messages are dropped and counted rather than blocking
+ * the game; the amount dropped is reported once the sink catches up.
+ * <br><br>
+ * On backends without threads (GWT), the AsyncExecutor runs the drain immediately: the writing is synchronous.
+ */
+public class AsyncLogWriter implements Disposable {
+    private final Entry[] ring;
+    private long published = 0; // total amount of entries written into the ring
+    private long written = 0;   // total amount of entries handed to the sink
+    private int dropped = 0;
+    private boolean draining = false;
+
+    private volatile ILogSink sink;
+    private AsyncExecutor executor; // lazily created: no thread until something is logged
+    private AsyncResult<Void> lastDrain;
+    private final AsyncTask<Void> drainTask = new AsyncTask<Void>() {
+        @Override
+        public Void call() {
+            drain();
+            return null;
+        }
+    };
+    private final StringBuilder droppedMessage = new StringBuilder(64);
+
+
+    /**
+     * @param sink where the messages end up.
+     * @param capacity maximum amount of messages waiting to be written.
+     */
+    public AsyncLogWriter(ILogSink sink, int capacity) {
+        this.sink = sink;
+        ring = new Entry[capacity];
+        for(int i = 0; i < capacity; i++)
+            ring[i] = new Entry();
+    }
+
+
+    /**
+     * Formats the message into the ring (replacing each "{}" by the next argument), then schedules its writing.
+     *
+     * @param argCount amount of arguments actually given (0 to 4).
+     */
+    void publish(LogLevel level, LogCategory category, String message, int argCount, Object arg0, Object arg1, Object arg2, Object arg3) {
+        synchronized (this) {
+            if(published - written == ring.length) {
+                dropped++;
+                return;
+            }
+            Entry entry = ring[(int)(published % ring.length)];
+            entry.level = level;
+            entry.category = category;
+            format(entry.message, message, argCount, arg0, arg1, arg2, arg3);
+            published++;
+
+            if(!draining) {
+                draining = true;
+                if(executor == null)
+                    executor = new AsyncExecutor(1, "AsyncLogWriter");
+                lastDrain = executor.submit(drainTask);
+            }
+        }
+    }
+
+    /**
+     * Writes the entries until the ring is empty. Only one drain runs at a time.
+     */
+    private void drain() {
+        while(true) {
+            Entry entry;
+            int droppedNow;
+            synchronized (this) {
+                if(written == published) {
+                    draining = false;
+                    return;
+                }
+                entry = ring[(int)(written % ring.length)];
+                droppedNow = dropped;
+                dropped = 0;
+            }
+
+            if(droppedNow > 0) {
+                droppedMessage.setLength(0);
+                droppedMessage.append(droppedNow).append(" messages were dropped: the log couldn't keep up.");
+                sink.write(LogLevel.WARN, LogCategory.GENERAL, droppedMessage);
+            }
+            sink.write(entry.level, entry.category, entry.message); // the entry can't be reused until `written` moves on
+
+            synchronized (this) {
+                written++;
+            }
+        }
+    }
+
+    /**
+     * Blocks until every message published so far has been written.
+     */
+    public void flush() {
+        while(true) {
+            AsyncResult<Void> drain;
+            synchronized (this) {
+                if(!draining)
+                    return;
+                drain = lastDrain;
+            }
+            drain.get();
+        }
+    }
+
+    public void setSink(ILogSink sink) {
+        this.sink = sink;
+    }
+
+    /**
+     * Writes the pending messages, then stops the background thread (it is re-created if something is logged again).
+     */
+    @Override
+    public void dispose() {
+        flush();
+        synchronized (this) {
+            if(executor != null) {
+                executor.dispose();
+                executor = null;
+            }
+        }
+    }
+
+
+    private static void format(StringBuilder out, String message, int argCount, Object arg0, Object arg1, Object arg2, Object arg3) {
+        out.setLength(0);
+        int arg = 0;
+        int start = 0;
+        int placeholder;
+        while(arg < argCount && (placeholder = message.indexOf("{}", start)) >= 0) {
+            out.append(message, start, placeholder);
+            out.append(arg == 0 ? arg0 : arg == 1 ? arg1 : arg == 2 ? arg2 : arg3);
+            arg++;
+            start = placeholder + 2;
+        }
+        out.append(message, start, message.length());
+    }
+
+
+    private static class Entry {
+        private LogLevel level;
+        private LogCategory category;
+        private final StringBuilder message = new StringBuilder(128);
+    }
+}
@@ -0,0 +1,39 @@
+package com.payne.games.logging;
+
+import com.badlogic.gdx.Gdx;
+
+
+/**
+ * Routes the messages into libGDX's logging (`Gdx.app.log()`, i.e. logcat on Android, the console on desktop).
+ * Falls back on the standard output when there is no Application (headless replays, benchmarks).
+ * <br><br>
+ * The filtering is done by `Log`: the Application's own log level must let everything through
+ * (`Application.LOG_DEBUG`), which is set in `AriseDeeper.create()`.
+ */
+public class GdxLogSink implements ILogSink {
+
+    @Override
+    public void write(LogLevel level, LogCategory category, CharSequence message) {
+        String text = message.toString();
+
+        if(Gdx.app == null) {
+            System.out.println("[" + level + "] " + category.getTag() + ": " + text);
+            return;
+        }
+
+        switch (level) {
+            case DEBUG:
+                Gdx.app.debug(category.getTag(), text);
+                break;
+            case INFO:
+                Gdx.app.log(category.getTag(), text);
+                break;
+            case WARN:
+                Gdx.app.log(category.getTag(), "WARNING: " + text);
+                break;
+            default:
+                Gdx.app.error(category.getTag(), text);
+                break;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.payne.games.logging;
+
+
+/**
+ * Where the log messages end up. Called from the AsyncLogWriter's thread (or inline on backends without threads).
+ */
+public interface ILogSink {
+
+    /**
+     * @param level severity of the message.
+     * @param category what the message is about.
+     * @param message the formatted message. Only valid during the call: it is reused afterwards.
+     */
+    void write(LogLevel level, LogCategory category, CharSequence message);
+}
@@ -0,0 +1,166 @@
+package com.payne.games.logging;
+
+
+/**
+ * Leveled and categorised logging, written asynchronously (see AsyncLogWriter).
+ * <br><br>
+ * A message is only formatted if its category lets its level through: the arguments' `toString()` is never
+ * called otherwise, and nothing is allocated. The check itself is an array lookup, so a disabled call costs
+ * next to nothing. The overloads taking primitives only box them once the check passed: the callers never need to
+ * guard a call with `isEnabled()` themselves.<br>
+ * In the messages, each "{}" is replaced by the next argument.
+ */
+public final class Log {
+    private static final int RING_CAPACITY = 512;
+
+    private static final LogLevel[] thresholds = new LogLevel[LogCategory.values().length];
+    private static final AsyncLogWriter writer = new AsyncLogWriter(new GdxLogSink(), RING_CAPACITY);
+
+    static {
+        for(LogCategory category : LogCategory.values())
+            thresholds[category.ordinal()] = category.getDefaultLevel();
+    }
+
+
+    private Log() {
+    }
+
+
+    public static boolean isEnabled(LogCategory category, LogLevel level) {
+        return level.ordinal() >= thresholds[category.ordinal()].ordinal();
+    }
+
+    /**
+     * @param category the category whose threshold is changed.
+     * @param level the least severe level that will be written. `LogLevel.OFF` silences the category.
+     */
+    public static void setLevel(LogCategory category, LogLevel level) {
+        thresholds[category.ordinal()] = level;
+    }
+
+    public static LogLevel getLevel(LogCategory category) {
+        return thresholds[category.ordinal()];
+    }
+
+    public static void setSink(ILogSink sink) {
+        writer.setSink(sink);
+    }
+
+    /**
+     * Blocks until every message logged so far has been written.
+     */
+    public static void flush() {
+        writer.flush();
+    }
+
+    /**
+     * Writes the pending messages, then stops the writer's thread. Called when the Application is disposed.
+     */
+    public static void dispose() {
+        writer.dispose();
+    }
+
+
+    public static void debug(LogCategory category, String message) {
+        log(LogLevel.DEBUG, category, message, 0, null, null, null, null);
+    }
+    public static void debug(LogCategory category, String message, Object arg0) {
+        log(LogLevel.DEBUG, category, message, 1, arg0, null, null, null);
+    }
+    public static void debug(LogCategory category, String message, Object arg0, Object arg1) {
+        log(LogLevel.DEBUG, category, message, 2, arg0, arg1, null, null);
+    }
+    public static void debug(LogCategory category, String message, Object arg0, Object arg1, Object arg2) {
+        log(LogLevel.DEBUG, category, message, 3, arg0, arg1, arg2, null);
+    }
+    public static void debug(LogCategory category, String message, Object arg0, Object arg1, Object arg2, Object arg3) {
+        log(LogLevel.DEBUG, category, message, 4, arg0, arg1, arg2, arg3);
+    }
+
+    /* Primitive arguments: boxed only if the message is written. */
+    public static void debug(LogCategory category, String message, boolean arg0) {
+        if(isEnabled(category, LogLevel.DEBUG))
+            writer.publish(LogLevel.DEBUG, category, message, 1, arg0, null, null, null);
+    }
+    public static void debug(LogCategory category, String message, int arg0) {
+        if(isEnabled(category, LogLevel.DEBUG))
+            writer.publish(LogLevel.DEBUG, category, message, 1, arg0, null, null, null);
+    }
+    public static void debug(LogCategory category, String message, int arg0, int arg1) {
+        if(isEnabled(category, LogLevel.DEBUG))
+            writer.publish(LogLevel.DEBUG, category, message, 2, arg0, arg1, null, null);
+    }
+    public static void debug(LogCategory category, String message, int arg0, boolean arg1) {
+        if(isEnabled(category, LogLevel.DEBUG))
+            writer.publish(LogLevel.DEBUG, category, message, 2, arg0, arg1, null, null);
+    }
+    public static void debug(LogCategory category, String message, boolean arg0, Object arg1) {
+        if(isEnabled(category, LogLevel.DEBUG))
+            writer.publish(LogLevel.DEBUG, category, message, 2, arg0, arg1, null, null);
+    }
+    public static void debug(LogCategory category, String message, float arg0, float arg1) {
+        if(isEnabled(category, LogLevel.DEBUG))
+            writer.publish(LogLevel.DEBUG, category, message, 2, arg0, arg1, null, null);
+    }
+    public static void debug(LogCategory category, String message, float arg0, float arg1, int arg2) {
+        if(isEnabled(category, LogLevel.DEBUG))
+            writer.publish(LogLevel.DEBUG, category, message, 3, arg0, arg1, arg2, null);
+    }
+    public static void debug(LogCategory category, String message, float arg0, float arg1, int arg2, int arg3) {
+        if(isEnabled(category, LogLevel.DEBUG))
+            writer.publish(LogLevel.DEBUG, category, message, 4, arg0, arg1, arg2, arg3);
+    }
+    public static void debug(LogCategory category, String message, float arg0, float arg1, float arg2, float arg3) {
+        if(isEnabled(category, LogLevel.DEBUG))
+            writer.publish(LogLevel.DEBUG, category, message, 4, arg0, arg1, arg2, arg3);
+    }
+
+    public static void info(LogCategory category, String message) {
+        log(LogLevel.INFO, category, message, 0, null, null, null, null);
+    }
+    public static void info(LogCategory category, String message, Object arg0) {
+        log(LogLevel.INFO, category, message, 1, arg0, null, null, null);
+    }
+    public static void info(LogCategory category, String message, Object arg0, Object arg1) {
+        log(LogLevel.INFO, category, message, 2, arg0, arg1, null, null);
+    }
+    public static void info(LogCategory category, String message, Object arg0, Object arg1, Object arg2) {
+        log(LogLevel.INFO, category, message, 3, arg0, arg1, arg2, null);
+    }
+
+    /* Primitive arguments: boxed only if the message is written. */
+    public static void info(LogCategory category, String message, int arg0) {
+        if(isEnabled(category, LogLevel.INFO))
+            writer.publish(LogLevel.INFO, category, message, 1, arg0, null, null, null);
+    }
+    public static void info(LogCategory category, String message, long arg0, long arg1) {
+        if(isEnabled(category, LogLevel.INFO))
+            writer.publish(LogLevel.INFO, category, message, 2, arg0, arg1, null, null);
+    }
+
+    public static void warn(LogCategory category, String message) {
+        log(LogLevel.WARN, category, message, 0, null, null, null, null);
+    }
+    public static void warn(LogCategory category, String message, Object arg0) {
+        log(LogLevel.WARN, category, message, 1, arg0, null, null, null);
+    }
+    public static void warn(LogCategory category, String message, Object arg0, Object arg1) {
+        log(LogLevel.WARN, category, message, 2, arg0, arg1, null, null);
+    }
+
+    public static void error(LogCategory category, String message) {
+        log(LogLevel.ERROR, category, message, 0, null, null, null, null);
+    }
+    public static void error(LogCategory category, String message, Object arg0) {
+        log(LogLevel.ERROR, category, message, 1, arg0, null, null, null);
+    }
+    public static void error(LogCategory category, String message, Object arg0, Object arg1) {
+        log(LogLevel.ERROR, category, message, 2, arg0, arg1, null, null);
+    }
+
+
+    private static void log(LogLevel level, LogCategory category, String message, int argCount, Object arg0, Object arg1, Object arg2, Object arg3) {
+        if(isEnabled(category, level))
+            writer.publish(level, category, message, argCount, arg0, arg1, arg2, arg3);
+    }
+}
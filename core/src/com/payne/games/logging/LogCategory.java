@@ -0,0 +1,38 @@
+package com.payne.games.logging;
+
+
+/**
+ * What a log message is about. Each category has its own threshold (see `Log.setLevel()`), starting at its
+ * default level: the very verbose categories (every Action, every gesture) only let the warnings through, unless
+ * asked for (e.g. the L key traces the Actions).
+ */
+public enum LogCategory {
+    GENERAL("General", LogLevel.INFO),
+    LOADING("Loading", LogLevel.INFO),
+    SCREENS("Screens", LogLevel.INFO),
+    INPUT("Input", LogLevel.WARN),
+    ACTIONS("Actions", LogLevel.WARN),
+    GAME_OBJECTS("GameObjects", LogLevel.INFO),
+    MAP("Map", LogLevel.INFO);
+
+    private final String tag;
+    private final LogLevel defaultLevel;
+
+
+    LogCategory(String tag, LogLevel defaultLevel) {
+        this.tag = tag;
+        this.defaultLevel = defaultLevel;
+    }
+
+
+    /**
+     * @return The tag used by the log sinks (e.g. logcat's tag on Android).
+     */
+    public String getTag() {
+        return tag;
+    }
+
+    public LogLevel getDefaultLevel() {
+        return defaultLevel;
+    }
+}
@@ -0,0 +1,14 @@
+package com.payne.games.logging;
+
+
+/**
+ * Severity of a log message, from the most verbose to the most severe.
+ * `OFF` is only meant to be used as a threshold: it disables a LogCategory entirely.
+ */
+public enum LogLevel {
+    DEBUG,
+    INFO,
+    WARN,
+    ERROR,
+    OFF
+}
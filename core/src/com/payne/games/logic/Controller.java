@@ -1,27 +1,44 @@
 package com.payne.games.logic;
 
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.OrthographicCamera;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.scenes.scene2d.ui.ImageTextButton;
 import com.badlogic.gdx.utils.Array;
 import com.payne.games.assets.AssetsPool;
 import com.payne.games.gameObjects.GameObjectFactory;
+import com.payne.games.gameObjects.actors.Actor;
 import com.payne.games.gameObjects.actors.ActorState;
 import com.payne.games.gameObjects.actors.entities.Hero;
+import com.payne.games.gameObjects.statics.Static;
 import com.payne.games.inventory.Inventory;
 import com.payne.games.actions.ActionController;
 import com.payne.games.inventory.HeroInventoryWrapper;
 import com.payne.games.lightingSystem.SightSystem;
 import com.payne.games.map.BaseMapLayer;
 import com.payne.games.map.SecondaryMapLayer;
-import com.payne.games.map.generators.MapGenerator;
+import com.payne.games.map.generators.LevelPipeline;
+import com.payne.games.map.generators.PreparedLevel;
+import com.payne.games.map.storage.IChunkStore;
+import com.payne.games.map.storage.ILevelStore;
+import com.payne.games.map.storage.LevelCache;
+import com.payne.games.map.storage.MemoryChunkStore;
 import com.payne.games.rendering.InterpolationModule;
+import com.payne.games.save.Autosave;
+import com.payne.games.save.GameSave;
 import com.payne.games.rendering.MapRenderer;
+import com.payne.games.rendering.WorldSnapshot;
 import com.payne.games.map.tiles.Tile;
 import com.payne.games.map.tilesets.Tileset;
 import com.payne.games.rendering.animations.AnimationManager;
 import com.payne.games.screens.GameScreen;
 import com.payne.games.turns.TurnManager;
+import com.payne.games.profiling.Phase;
+import com.payne.games.profiling.Profiler;
+import com.payne.games.turns.journal.ActionJournal;
+
+import java.nio.ByteBuffer;
 
 
 public class Controller {
@@ -36,7 +53,12 @@ public class Controller {
 
     // map's primary layer
     private BaseMapLayer currentLevel;
-    private MapGenerator mapGenerator;
+    private LevelPipeline levelPipeline;
+    private int depth = 0; // 0 for the very first level
+    private int levelWidth, levelHeight;
+    private Tileset tileset;
+    private LevelCache levelCache; // the levels already visited
+    private IChunkStore chunkStore = new MemoryChunkStore(); // where the chunks of the levels are paged out
 
     // map's secondary layer
     private Hero player;
@@ -54,6 +76,18 @@ public class Controller {
     private HeroInventoryWrapper heroInventoryWrapper;
     private Array<ImageTextButton> inventorySlots;
 
+    // record of the game (see `GameLogic.RECORD_JOURNAL`)
+    private ActionJournal journal;
+
+    // saves the game every few turns. Can be 'null': not saved (headless, no local storage)
+    private Autosave autosave;
+
+    // timings of the frames and turns
+    private Profiler profiler;
+
+    // where the turns and the input are processed (see `ILogicRunner`)
+    private ILogicRunner logicRunner = new SynchronousLogicRunner();
+
 
 
     public Controller(GameScreen gameScreen, OrthographicCamera camera, Array<ImageTextButton> inventorySlots) {
@@ -62,31 +96,152 @@ public class Controller {
         this.assetsPool     = gameScreen.getAssetsPool();
         this.inventorySlots = inventorySlots;
 
-        mapGenerator        = new MapGenerator();
+        createLogicModules();
+        gameObjectFactory   = new GameObjectFactory(actionController, assetsPool);
+        setUpLayers();
+        mapRenderer         = new MapRenderer(secondaryMapLayer, assetsPool.halo_medium);
+
+        if(GameLogic.RECORD_JOURNAL && Gdx.app.getType() == Application.ApplicationType.Desktop) {
+            journal = new ActionJournal(Gdx.files.local(GameLogic.JOURNAL_PATH).write(false),
+                    secondaryMapLayer, gameObjectFactory, GameLogic.JOURNAL_CHECKPOINT_INTERVAL);
+            turnManager.addActionListener(journal);
+        }
+    }
+
+    /**
+     * Headless Controller: only the logic of the game is set up (no rendering, no UI, no camera).<br>
+     * Used to run a game without any graphical context, e.g. to replay an ActionJournal.
+     *
+     * @param assetsPool usually the placeholder `new AssetsPool()`.
+     * @param objectSeed seed of the GameObjectFactory.
+     */
+    public Controller(AssetsPool assetsPool, int objectSeed) {
+        this.assetsPool     = assetsPool;
+        this.inventorySlots = new Array<>();
+
+        createLogicModules();
+        gameObjectFactory   = new GameObjectFactory(actionController, assetsPool, objectSeed);
+        setUpLayers();
+    }
+
+    /**
+     * Creates the components shared by the Actions and the GameObjects.
+     */
+    private void createLogicModules() {
+        profiler            = new Profiler();
+        levelPipeline       = new LevelPipeline(profiler);
+        levelCache          = new LevelCache(levelPipeline, GameLogic.LEVEL_CACHE_BUDGET);
         animationManager    = new AnimationManager();
         interpolationModule = new InterpolationModule();
         actionController    = new ActionController(this, animationManager, interpolationModule);
-        gameObjectFactory   = new GameObjectFactory(actionController, assetsPool);
+    }
+
+    /**
+     * Order is important. Requires the `gameObjectFactory`.
+     */
+    private void setUpLayers() {
         createHero(); // todo: this will change at some point!
         secondaryMapLayer   = new SecondaryMapLayer(gameObjectFactory);
         actionController.setSecondaryMapLayer(secondaryMapLayer);
         sightSystem         = new SightSystem();
-        mapRenderer         = new MapRenderer(secondaryMapLayer, assetsPool.halo_medium);
         turnManager         = new TurnManager(secondaryMapLayer);
+        turnManager.addActionListener(profiler);
     }
 
+    /**
+     * @return 'true' if there is nothing to render (see the headless constructor).
+     */
+    public boolean isHeadless() {
+        return mapRenderer == null;
+    }
 
+    /**
+     * Lets a headless Controller render its level anyway, e.g. into a Batch that draws nothing (see the benchmarks).
+     * Must be called before `generateLevel()`.
+     *
+     * @param mapRenderer renders the SecondaryMapLayer of this Controller.
+     */
+    public void setMapRenderer(MapRenderer mapRenderer) {
+        this.mapRenderer = mapRenderer;
+    }
 
+    /**
+     * Set by the ILogicRunner when it starts: the player's input then goes through it.
+     *
+     * @param logicRunner where the turns and the input are processed.
+     */
+    public void setLogicRunner(ILogicRunner logicRunner) {
+        this.logicRunner = logicRunner;
+    }
+
+    /**
+     * @param levelStore where the levels already visited are kept once out of the LevelCache. 'null' to generate
+     *                   them again.
+     */
+    public void setLevelStore(ILevelStore levelStore) {
+        levelCache.setStore(levelStore);
+    }
+
+    /**
+     * @param chunkStore where the chunks of the levels entered from now on are paged out (see `BaseMapLayer.trim()`).
+     */
+    public void setChunkStore(IChunkStore chunkStore) {
+        this.chunkStore = chunkStore;
+    }
+
+    /**
+     * @param autosave saves the game every few turns, from the turns' thread. 'null' to stop saving it.
+     */
+    public void setAutosave(Autosave autosave) {
+        if(this.autosave != null)
+            turnManager.removeActionListener(this.autosave);
+        this.autosave = autosave;
+        if(autosave != null)
+            turnManager.addActionListener(autosave);
+    }
+
+
+
+
+    /**
+     * A whole turn: the lighting, then the turn itself. Called by the ILogicRunner, on whichever thread runs the logic.
+     */
+    public void runTurn() {
+        profiler.begin(Phase.UPDATE_LIGHTING);
+        updateLighting(); // lighting before because of interpolated movement
+        profiler.end(Phase.UPDATE_LIGHTING);
+
+        profiler.begin(Phase.PROCESS_TURN);
+        processTurn();
+        profiler.end(Phase.PROCESS_TURN);
+
+        if(autosave != null) {
+            profiler.begin(Phase.AUTOSAVE);
+            autosave.turnEnded(this);
+            profiler.end(Phase.AUTOSAVE);
+        }
+        profiler.turnEnded();
+    }
 
     /**
      * Uses the Fatigue system in order to figure out who's turn it is.
      * The AI (`DecisionMaking`) determines the actions of the Enemies.
+     * Then pages out what no Actor needs: the chunks around the Hero and under the other Actors stay in memory.
      */
     public void processTurn() {
+        interpolationModule.finishAll(); // the movements of the previous turn are over
         boolean waitingOnPlayer = turnManager.executeTurn();
         if (waitingOnPlayer) {
             player.setState(ActorState.IDLE);
         }
+        currentLevel.keepResident(player.getX(), player.getY(), GameLogic.RESIDENT_RADIUS); // the screen and the sight
+        Array<Actor> actors = secondaryMapLayer.getActorLayer();
+        for(int i = 0; i < actors.size; i++) { // they all act before the round is over
+            Actor actor = actors.get(i);
+            if(actor != player && !actor.isDead())
+                currentLevel.keepResident(actor.getX(), actor.getY(), GameLogic.ACTOR_RESIDENT_RADIUS);
+        }
+        currentLevel.trim();
     }
 
     /**
@@ -105,19 +260,26 @@ public class Controller {
      * @param x x-coordinate input from the player.
      * @param y y-coordinate input from the player.
      */
-    public void playerTapped(int x, int y) {
-        actionController.checkTap(player, x, y);
+    public void playerTapped(final int x, final int y) {
+        logicRunner.post(new Runnable() {
+            @Override
+            public void run() {
+                actionController.checkTap(player, x, y);
+            }
+        });
     }
 
     /**
      * Centers the screen on the Player's hero.
      */
     public void centerOnHero() {
-        if(player != null) {
-            camera.position.set(player.getCurrentX() + GameLogic.CAM_OFFSET,
-                    player.getCurrentY() + GameLogic.CAM_OFFSET,
-                    0f);
-        }
+        if(player != null)
+            centerOn(player.getCurrentX(), player.getCurrentY());
+    }
+
+    private void centerOn(float x, float y) {
+        if(camera != null)
+            camera.position.set(x + GameLogic.CAM_OFFSET, y + GameLogic.CAM_OFFSET, 0f);
     }
 
     /**
@@ -128,23 +290,139 @@ public class Controller {
      */
     public void setTile(Tile newTile) {
         currentLevel.setTile(newTile.getX(), newTile.getY(), newTile);
-        mapRenderer.assignSingleTileTexture(newTile.getX(), newTile.getY());
+        if(!isHeadless())
+            mapRenderer.assignSingleTileTexture(newTile.getX(), newTile.getY());
     }
 
     /**
-     * Generate and set up a map to be rendered.
+     * Generate and set up a map to be rendered, at the current depth.
      *
      * @param mapWidth Width of the map to be generated, in amount of tiles (not pixels!).
      * @param mapHeight Height of the map to be generated, in amount of tiles (not pixels!).
-     * @param tileset The tileset to be used for the rendering.
+     * @param tileset The tileset to be used for the rendering. Ignored if headless.
      */
     public void generateLevel(int mapWidth, int mapHeight, Tileset tileset) {
-        currentLevel = mapGenerator.createMap(mapWidth, mapHeight); // generate a base layer
-        mapRenderer.setUpBaseLayer(currentLevel, tileset); // assign the graphical representations to base layer's Tiles
-        actionController.setUpIndexedGraph(currentLevel); // set up the graph for pathfinding
-        secondaryMapLayer.setUpSecondaryLayer(player, currentLevel); // place secondary layer (Hero, Chests, Keys, etc.)
+        generateLevel(depth, mapWidth, mapHeight, tileset);
+    }
+
+    /**
+     * Enters the level at the given depth. A level already visited is taken back from the LevelCache, as it was
+     * left. Otherwise it is taken from the LevelPipeline (prepared in the background if it was requested
+     * beforehand): only the textures of its Tiles remain to be assigned here.
+     * Once entered, the next depth starts being prepared in the background.
+     *
+     * @param depth 0 for the very first level.
+     * @param mapWidth Width of the map to be generated, in amount of tiles (not pixels!).
+     * @param mapHeight Height of the map to be generated, in amount of tiles (not pixels!).
+     * @param tileset The tileset to be used for the rendering. Ignored if headless.
+     */
+    public void generateLevel(int depth, int mapWidth, int mapHeight, Tileset tileset) {
+        PreparedLevel prepared = levelCache.take(depth); // as it was left
+        if(prepared == null)
+            prepared = levelPipeline.take(depth, mapWidth, mapHeight); // base layer, GameObjects' positions, pathfinding graph
+        enterLevel(depth, mapWidth, mapHeight, tileset, prepared);
+    }
+
+    /**
+     * Enters a level encoded by the LevelCodec, as it was left (see `GameSave`).
+     *
+     * @param encoded the encoded level, from index 0.
+     * @param tileset The tileset to be used for the rendering. Ignored if headless.
+     */
+    public void restoreLevel(ByteBuffer encoded, Tileset tileset) {
+        PreparedLevel prepared = levelPipeline.restore(encoded);
+        BaseMapLayer level = prepared.getLevel();
+        enterLevel(prepared.getDepth(), level.getMapWidth(), level.getMapHeight(), tileset, prepared);
+    }
+
+    private void enterLevel(int depth, int mapWidth, int mapHeight, Tileset tileset, PreparedLevel prepared) {
+        this.depth       = depth;
+        this.levelWidth  = mapWidth;
+        this.levelHeight = mapHeight;
+        this.tileset     = tileset;
+
+        currentLevel = prepared.getLevel();
+        currentLevel.setPaging(chunkStore, GameLogic.LEVEL_PAGING_BUDGET);
+        currentLevel.trackChanges(); // for the autosave's deltas, from now on
+        interpolationModule.finishAll(); // nothing moves from a level to the next
+        player.clearActionsQueue(); // the Hero's plans were made on the previous level
+        turnManager.reset();
+        if(!isHeadless())
+            mapRenderer.setUpBaseLayer(currentLevel, tileset, LevelPipeline.seedOf(depth)); // the graphical representations are assigned as the Tiles get explored
+        actionController.setUpIndexedGraph(currentLevel, prepared.getGraph()); // the graph for pathfinding
+        animationManager.clear(); // the objects of the previous level are gone, the Hero stays
+        animationManager.setLevel(currentLevel);
+        animationManager.add(player);
+        if(prepared.hasGameObjects())
+            secondaryMapLayer.resumeSecondaryLayer(player, currentLevel, prepared); // as they were left
+        else
+            secondaryMapLayer.setUpSecondaryLayer(player, currentLevel, prepared.getSpawnPlan()); // place secondary layer (Hero, Chests, Keys, etc.)
         sightSystem.prepareLightingOverlay(currentLevel);
         centerOnHero();
+
+        if(journal != null)
+            journal.recordLevel(mapWidth, mapHeight, depth);
+
+        if(!isHeadless())
+            levelPipeline.prepareInBackground(depth + 1, mapWidth, mapHeight); // ready long before the stairs are found
+    }
+
+    /**
+     * Keeps the current level as it is, to be entered again later (see `LevelCache`): its GameObjects as they are,
+     * and their SpawnPlan for when the level is encoded. The level must be left right after.
+     */
+    public void storeCurrentLevel() {
+        if(currentLevel == null)
+            return;
+        Array<Static> statics = secondaryMapLayer.getStaticLayer();
+        Array<Actor> actors = new Array<>(secondaryMapLayer.getActorLayer());
+        actors.removeValue(player, true); // goes on to the next level
+        for(Static object : statics)
+            actionController.releaseObservers(object); // not animated until the level is entered again
+        for(Actor actor : actors)
+            actionController.releaseObservers(actor);
+        levelCache.put(new PreparedLevel(depth, currentLevel, actionController.getIndexedGraph(),
+                secondaryMapLayer.recordSpawnPlan(player), statics, actors));
+    }
+
+    /**
+     * Must be called in between two turns (the ILogicRunner stopped, or from a task posted to it).
+     *
+     * @return The whole state of the game, encoded by `GameSave`.
+     */
+    public byte[] saveGame() {
+        return GameSave.save(this);
+    }
+
+    /**
+     * Replaces the current game by a saved one. The ActionJournal stops there: the game it records can't be
+     * reproduced from its seeds anymore.
+     *
+     * @param save a game encoded by `saveGame()`.
+     * @param tileset The tileset to be used for the rendering. Ignored if headless.
+     */
+    public void loadGame(byte[] save, Tileset tileset) {
+        if(journal != null) {
+            turnManager.removeActionListener(journal);
+            journal.close();
+            journal = null;
+        }
+        GameSave.load(this, save, tileset);
+    }
+
+    /**
+     * Goes down to the next depth (pressing "D" while playing, until there are stairs).
+     */
+    public void descend() {
+        logicRunner.post(new Runnable() {
+            @Override
+            public void run() {
+                storeCurrentLevel();
+                generateLevel(depth + 1, levelWidth, levelHeight, tileset);
+                if(autosave != null)
+                    autosave.save(Controller.this); // a crash on the new level mustn't resume on the previous one
+            }
+        });
     }
 
     /**
@@ -153,21 +431,69 @@ public class Controller {
      *
      * @param batch the instance of "game.batch" on which was called the ".begin()" beforehand.
      * @param delta amount of time since last render.
+     * @param alpha how far the rendering is in between the last turn and the next one (see FixedTimestep).
      */
-    public void renderLevel(SpriteBatch batch, float delta) {
-        animationManager.updateAnimations(delta);
-        interpolationModule.moveAllObjects(delta);
-        mapRenderer.renderLevel(batch, sightSystem.getVisible());
+    public void renderLevel(Batch batch, float delta, float alpha) {
+        profiler.begin(Phase.UPDATE_ANIMATIONS);
+        animationManager.updateAnimations(delta, camera);
+        profiler.end(Phase.UPDATE_ANIMATIONS);
+
+        profiler.begin(Phase.MOVE_ALL_OBJECTS);
+        interpolationModule.moveAllObjects(alpha);
+        profiler.end(Phase.MOVE_ALL_OBJECTS);
+
+        profiler.begin(Phase.RENDER_LEVEL);
+        mapRenderer.renderLevel(batch, sightSystem);
+        profiler.end(Phase.RENDER_LEVEL);
 
         if(player.isMoving())
             centerOnHero();
     }
 
+    /**
+     * Copies the state of the game into a WorldSnapshot, to be rendered by another thread (see `ILogicRunner`).
+     * Must be called on the thread that runs the turns, in between two turns.
+     *
+     * @param snapshot reused from one capture to the next.
+     * @param turn amount of turns requested so far.
+     * @param elapsed amount of time since the previous capture, for the Animations.
+     */
+    public void captureSnapshot(WorldSnapshot snapshot, int turn, float elapsed) {
+        animationManager.updateAnimations(elapsed, null); // the camera belongs to the rendering thread
+        interpolationModule.moveAllObjects(0f); // the objects are captured where their movements start
+        snapshot.capture(turn, currentLevel, secondaryMapLayer, sightSystem, player, mapRenderer);
+    }
+
+    /**
+     * Same as `renderLevel()`, but from a WorldSnapshot: the game itself isn't touched, it might be in the
+     * middle of a turn on another thread.
+     *
+     * @param batch the instance of "game.batch" on which was called the ".begin()" beforehand.
+     * @param snapshot the latest captured state of the game.
+     * @param alpha progression of the movements of the snapshot's turn, from 0 to 1.
+     * @param timeSinceCapture amount of time since the snapshot was captured, for the Animations.
+     */
+    public void renderSnapshot(Batch batch, WorldSnapshot snapshot, float alpha, float timeSinceCapture) {
+        profiler.begin(Phase.RENDER_LEVEL);
+        mapRenderer.renderSnapshot(batch, snapshot, alpha, timeSinceCapture);
+        profiler.end(Phase.RENDER_LEVEL);
+
+        int hero = snapshot.getHeroIndex();
+        if(hero >= 0)
+            centerOn(snapshot.getX(hero, alpha), snapshot.getY(hero, alpha));
+    }
+
     /**
      * Updates certain elements of the UI.
+     *
+     * @param snapshot the latest captured state of the game, when the turns run on another thread (see
+     *                 `ILogicRunner`): the UI is then updated from it. 'null' to read the game directly.
      */
-    public void updateUi() {
-        heroInventoryWrapper.render();
+    public void updateUi(WorldSnapshot snapshot) {
+        if(snapshot == null)
+            heroInventoryWrapper.render();
+        else if(snapshot.isReady())
+            heroInventoryWrapper.render(snapshot);
     }
 
     /**
@@ -183,21 +509,71 @@ public class Controller {
      * Returns to the MainScreenMenu.
      */
     public void saveAndReturnToMainMenu() {
-        gameScreen.saveAndReturnToMainMenu();
+        if(gameScreen != null)
+            gameScreen.saveAndReturnToMainMenu();
     }
 
     /**
      * Called when the player dies.
      */
     public void playerDied() {
-        gameScreen.playerDied();
+        if(gameScreen != null)
+            gameScreen.playerDied();
     }
 
     /**
      * Used to clean the GPU's memory properly (related to `Disposable` interface).
      */
     public void dispose() {
-        mapRenderer.dispose();
+        if(journal != null) {
+            journal.close();
+            journal = null;
+        }
+        levelPipeline.dispose();
+        levelCache.dispose();
+        if(currentLevel != null)
+            currentLevel.releasePages();
+        if(!isHeadless())
+            mapRenderer.dispose();
+    }
+
+
+    /*
+        ACCESS TO THE LOGIC (replays, benchmarks, etc.)
+     */
+
+    public Hero getPlayer() {
+        return player;
+    }
+    public BaseMapLayer getCurrentLevel() {
+        return currentLevel;
+    }
+    public int getDepth() {
+        return depth;
+    }
+    public SecondaryMapLayer getSecondaryMapLayer() {
+        return secondaryMapLayer;
+    }
+    public ActionController getActionController() {
+        return actionController;
+    }
+    public GameObjectFactory getGameObjectFactory() {
+        return gameObjectFactory;
+    }
+    public InterpolationModule getInterpolationModule() {
+        return interpolationModule;
+    }
+    public LevelCache getLevelCache() {
+        return levelCache;
+    }
+    public SightSystem getSightSystem() {
+        return sightSystem;
+    }
+    public TurnManager getTurnManager() {
+        return turnManager;
+    }
+    public Profiler getProfiler() {
+        return profiler;
     }
 
 
@@ -214,6 +590,13 @@ public class Controller {
      * Very temporary debug function.
      */
     public void DEBUG_spawn_enemies() {
-        secondaryMapLayer.DEBUG_spawn_enemies();
+        logicRunner.post(new Runnable() {
+            @Override
+            public void run() {
+                secondaryMapLayer.DEBUG_spawn_enemies();
+                if(journal != null)
+                    journal.recordSpawn();
+            }
+        });
     }
 }
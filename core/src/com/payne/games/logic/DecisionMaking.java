@@ -21,6 +21,13 @@ public class DecisionMaking {
     }
 
 
+    /**
+     * @return The generator behind the random decisions. Its state is part of the state of the game.
+     */
+    public RandomXS128 getRandom() {
+        return rand;
+    }
+
     /**
      * Returns the Action the Actor is to take.
      * Only called if the Actor had no Actions queued up already.
@@ -39,7 +46,9 @@ public class DecisionMaking {
             else
                 return new NoopAction(src);
         } else {
-            actionController.moveToRandomPoint(src);
+            actionController.moveToRandomPoint(src, rand);
+            if(!src.isOccupied()) // the point can't be reached (e.g. boxed in by other Actors): wait instead
+                return new NoopAction(src);
             return src.getNextAction();
         }
     }
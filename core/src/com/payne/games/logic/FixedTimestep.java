@@ -0,0 +1,60 @@
+package com.payne.games.logic;
+
+
+/**
+ * Decouples the logic's rate from the rendering's: the time of the frames is accumulated, and spent in fixed steps.
+ * What remains of the accumulator (less than a step) gives the "alpha" used to render in between the previous and
+ * the current logical states.
+ * <br><br>
+ * After a hitch (or on a device too slow to keep up), at most `maxSteps` are ran in a single frame: the rest of the
+ * late time is dropped rather than trying to catch up forever.
+ */
+public class FixedTimestep {
+    private final float step;
+    private final int maxSteps;
+    private float accumulator = 0f;
+
+
+    /**
+     * @param step duration of a logical step, in seconds.
+     * @param maxSteps maximum amount of steps ran by a single frame.
+     */
+    public FixedTimestep(float step, int maxSteps) {
+        this.step = step;
+        this.maxSteps = maxSteps;
+    }
+
+
+    /**
+     * @param delta time since the last frame.
+     * @return The amount of logical steps that must be ran during this frame.
+     */
+    public int advance(float delta) {
+        accumulator += delta;
+
+        int steps = 0;
+        while(accumulator >= step && steps < maxSteps) {
+            accumulator -= step;
+            steps++;
+        }
+        if(accumulator >= step) // too late: the remaining steps are dropped
+            accumulator %= step;
+
+        return steps;
+    }
+
+    /**
+     * @return How far the rendering is in between the previous step and the next one: from 0 to 1.
+     */
+    public float getAlpha() {
+        return accumulator / step;
+    }
+
+    public float getStep() {
+        return step;
+    }
+
+    public void reset() {
+        accumulator = 0f;
+    }
+}
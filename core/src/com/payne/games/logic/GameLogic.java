@@ -9,12 +9,12 @@ public final class GameLogic { /* Can't be inherited. */
 
     /*  DEBUG and Randomizers */
     public static boolean DEBUG_NO_FOG = false;
-    public static final boolean DEBUG_SUBCLASSED_TILES = false;
-    public static final boolean DEBUG_GESTURE_PRINT = false;
-    public static final boolean DEBUG_ACTION_PRINT = true;
+    public static boolean DEBUG_PROFILER_OVERLAY = false; // toggled in game (see MyInputProcessor)
+    public static final boolean DEBUG_SUBCLASSED_TILES = false; // autotiling: variants from the surrounding Walls (see Autotiler)
     public static boolean RANDOM_DECISIONS = false;
     public static boolean RANDOM_DRUNKARD = false;
     public static boolean RANDOM_ENEMIES = true;
+    public static boolean RECORD_JOURNAL = true; // desktop only: every game is recorded, and can be replayed
 
     // Strings
     public static final String GAME_NAME = "Arise Deeper";
@@ -22,6 +22,10 @@ public final class GameLogic { /* Can't be inherited. */
     public static final String ATLAS_PATH = "atlas/assets.atlas";
     public static final String LOADING_PATH = "splash_screen.png";
     @Deprecated  public static final String BASIC_TILESET = "spriteSheets/dungeon_tileset.png";
+    public static final String JOURNAL_PATH = "journal/last_game.adj";
+    public static final String LEVELS_PATH = "levels"; // the levels already visited (see `ILevelStore`)
+    public static final String CHUNKS_PATH = "chunks"; // desktop only: the chunks of the level entered, paged out (see `IChunkStore`)
+    public static final String SAVE_PATH = "save/game.ads"; // the game in progress (see `Autosave`)
 
     // seeded "random" generators
     public static final int RANDOM_SEED = 1337;
@@ -47,9 +51,23 @@ public final class GameLogic { /* Can't be inherited. */
     public static final float CAM_OFFSET = TILE_BIG_SIZE/2f; // TILE_OFFSET + (TILE_SIZE/2f)
 
     // turn
-    public static final float TURN_TIME = 0.07f;
+    public static final float TURN_TIME = 0.07f; // fixed logical step: independent from the frame rate
+    public static final int MAX_TURNS_PER_FRAME = 4; // catch-up cap after a slow frame (see FixedTimestep)
     public static final int TURN_GENERAL_COST = 50;
-    public static final float MOVE_SPEED = TILE_SIZE/TURN_TIME;
+
+    // action journal
+    public static final int JOURNAL_CHECKPOINT_INTERVAL = 64; // amount of Actions in between two state hashes
+
+    // autosave
+    public static final int AUTOSAVE_INTERVAL = 30; // amount of turns in between two autosaves (about 2 seconds)
+
+    // levels already visited
+    public static final int LEVEL_CACHE_BUDGET = 16 << 20; // bytes kept in memory (see `LevelCache`): about three live levels of 256x256
+
+    // level entered
+    public static final int LEVEL_PAGING_BUDGET = 8 << 20; // bytes of Tiles kept in memory (see `BaseMapLayer.trim()`): 128 chunks
+    public static final int RESIDENT_RADIUS = 32; // Tiles kept in memory around the Hero, whatever the budget: more than the screen
+    public static final int ACTOR_RESIDENT_RADIUS = 1; // same, around each of the other Actors: their next step
 
     // inventory
     public static final int INV_SLOTS = 4;
@@ -0,0 +1,48 @@
+package com.payne.games.logic;
+
+import com.payne.games.rendering.WorldSnapshot;
+
+
+/**
+ * Decides where the logic of the game runs (the turns, the lighting, the pathfinding, the player's input).<br>
+ * By default everything runs on the rendering thread (see SynchronousLogicRunner), which is the only option on
+ * some backends (html). The desktop can run the logic on a thread of its own: the rendering then only draws the
+ * WorldSnapshots published by that thread, and a heavy turn doesn't delay the frames anymore.
+ */
+public interface ILogicRunner {
+
+    /**
+     * Called by the GameScreen once the Controller and its first level are ready.
+     * A runner that was already started with another Controller is stopped first.
+     *
+     * @param controller the game to run.
+     */
+    void start(Controller controller);
+
+    /**
+     * Stops running the game (e.g. when the GameScreen goes away). Any turn in progress is finished first.
+     */
+    void stop();
+
+    /**
+     * @param turns amount of turns to run (see FixedTimestep). An asynchronous runner returns right away.
+     */
+    void runTurns(int turns);
+
+    /**
+     * Anything that modifies the game from the rendering thread (the player's input, mostly) must go through here.
+     *
+     * @param task executed where the turns are executed, in between two turns.
+     */
+    void post(Runnable task);
+
+    /**
+     * @return The latest WorldSnapshot to render, or 'null' if the game is rendered directly (synchronous runner).
+     */
+    WorldSnapshot getSnapshot();
+
+    /**
+     * @return The total amount of turns requested through `runTurns()`.
+     */
+    int getRequestedTurns();
+}
@@ -0,0 +1,47 @@
+package com.payne.games.logic;
+
+import com.payne.games.rendering.WorldSnapshot;
+
+
+/**
+ * The default ILogicRunner: the turns and the input are processed right away, on the calling (rendering) thread,
+ * and the game is rendered directly.
+ */
+public class SynchronousLogicRunner implements ILogicRunner {
+    private Controller controller;
+    private int requestedTurns = 0;
+
+
+    @Override
+    public void start(Controller controller) {
+        this.controller = controller;
+        controller.setLogicRunner(this);
+    }
+
+    @Override
+    public void stop() {
+        controller = null;
+    }
+
+    @Override
+    public void runTurns(int turns) {
+        requestedTurns += turns;
+        for(int i = 0; i < turns; i++)
+            controller.runTurn();
+    }
+
+    @Override
+    public void post(Runnable task) {
+        task.run();
+    }
+
+    @Override
+    public WorldSnapshot getSnapshot() {
+        return null;
+    }
+
+    @Override
+    public int getRequestedTurns() {
+        return requestedTurns;
+    }
+}
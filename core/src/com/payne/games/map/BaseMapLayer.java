@@ -1,43 +1,134 @@
 package com.payne.games.map;
 
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.payne.games.map.storage.ChunkCodec;
+import com.payne.games.map.storage.IChunkStore;
+import com.payne.games.map.storage.LevelCache;
+import com.payne.games.map.storage.LevelCodec;
 import com.payne.games.map.tiles.Tile;
 
+import java.nio.ByteBuffer;
 import java.util.HashSet;
 
 
 /**
  * The (mostly) immutable layer of the map.<br>
- * Corresponds to a 2D array of all the Tiles constituting a level.
+ * Corresponds to all the Tiles constituting a level, stored in square chunks of CHUNK_SIZE x CHUNK_SIZE Tiles:
+ * the Tiles that are close on the map are close in memory (in both directions, not only along the rows), and a chunk
+ * is only allocated once a Tile is set in it.
+ * <br><br>
+ * Once the level is entered, its chunks are paged (see `setPaging()`): only a budget of them stays in memory, the
+ * least recently used ones being encoded into an IChunkStore at the end of each turn (see `trim()`), and faulted back
+ * in as soon as one of their Tiles is needed again. A Tile instance is therefore only valid until the end of the
+ * turn: whatever keeps one across turns looks it up again by its position (see `MoveAction`). The walkability of the
+ * chunks paged out is kept aside, one bit per Tile, for the pathfinding to go across them (see `isWalkable()`).
  */
 public class BaseMapLayer {
+    public static final int CHUNK_SHIFT = 5;
+    public static final int CHUNK_SIZE = 1 << CHUNK_SHIFT; // Tiles on each side of a chunk
+    public static final int CHUNK_AREA = CHUNK_SIZE * CHUNK_SIZE;
+    public static final int LIVE_CHUNK_BYTES = CHUNK_AREA * LevelCache.LIVE_BYTES_PER_TILE; // a chunk in memory
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
 
     /**
-     * The representations of the 2D arrays are [rows][columns], aka [y][x].
+     * The chunks are at [chunkY * chunkColumns + chunkX], and their Tiles at [(y % CHUNK_SIZE) * CHUNK_SIZE + x % CHUNK_SIZE].
      * (0,0) is at the bottom-left, when looking at a rendered map on the screen.
+     * A chunk is 'null' if it was never set, or if it is paged out.
      */
-    private Tile[][] graphicalMap;
+    private final Tile[][] chunks;
+    private final int mapWidth, mapHeight;
+    private final int chunkColumns, chunkRows;
     private Array<Tile> walkableTiles = new Array<>();
+    private boolean walkableStale; // the chunks changed since the walkable Tiles were listed
+    private TileChanges changes; // reported by the Tiles themselves. 'null' until the level is entered
+    private final ExplorationMemory exploration; // what the player explored, one bit per Tile
+
+    /* Paging. */
+    private IChunkStore store; // 'null' until paged: every chunk stays in memory
+    private int storeKey;
+    private int residentBudget = Integer.MAX_VALUE; // amount of chunks kept in memory after `trim()`
+    private int residentCount;
+    private final boolean[] pagedOut;
+    private final int[] lastUse; // the value of the clock when each chunk was last used
+    private final int[] keptAt;  // the value of the clock when each chunk was last kept resident
+    private final int[] versions; // incremented each time a chunk is faulted in: its Tiles are new instances
+    private final int[] pagedWalkable; // of the chunks paged out, a bit per Tile: laid out as in the ExplorationMemory
+    private int clock = 1; // a tick per turn
+    private int residency; // incremented each time a chunk is paged out or faulted in
 
 
     public BaseMapLayer(int mapWidth, int mapHeight) {
-        graphicalMap = new Tile[mapHeight][mapWidth];
+        this.mapWidth = mapWidth;
+        this.mapHeight = mapHeight;
+        this.chunkColumns = (mapWidth + CHUNK_MASK) >> CHUNK_SHIFT;
+        this.chunkRows = (mapHeight + CHUNK_MASK) >> CHUNK_SHIFT;
+        this.chunks = new Tile[chunkColumns * chunkRows][];
+        this.pagedOut = new boolean[chunks.length];
+        this.lastUse = new int[chunks.length];
+        this.keptAt = new int[chunks.length];
+        this.versions = new int[chunks.length];
+        this.pagedWalkable = new int[chunks.length << CHUNK_SHIFT];
+        this.exploration = new ExplorationMemory(mapWidth, mapHeight);
     }
 
 
     public int getMapWidth() {
-        return graphicalMap[0].length;
+        return mapWidth;
     }
     public int getMapHeight() {
-        return graphicalMap.length;
+        return mapHeight;
+    }
+    public int getChunkColumns() {
+        return chunkColumns;
     }
-    public Tile[][] getGraphicalMap() {
-        return graphicalMap;
+    public int getChunkRows() {
+        return chunkRows;
     }
+
+    /**
+     * @return The walkable Tiles of the chunks in memory, row after row. Listed again whenever a chunk was paged out
+     *         or faulted in since.
+     */
     public Array<Tile> getWalkableTiles() {
+        if(walkableStale)
+            listWalkableTiles();
         return walkableTiles;
     }
 
+    /**
+     * @return The Tiles that changed since the changes were last cleared (see `Autosave`). 'null' until the changes
+     *         are tracked.
+     */
+    public TileChanges getChanges() {
+        return changes;
+    }
+
+    /**
+     * Tracks the changes of the Tiles from now on, once the level is entered: the generation and the decoding set
+     * every Tile, there is nothing to track before (the level is saved as a whole when entered).
+     */
+    public void trackChanges() {
+        if(changes != null)
+            return;
+        changes = new TileChanges(mapWidth, mapHeight);
+        for(Tile[] chunk : chunks) {
+            if(chunk == null)
+                continue;
+            for(Tile tile : chunk) {
+                if(tile != null)
+                    tile.setChanges(changes);
+            }
+        }
+    }
+
+    /**
+     * @return What the player explored of the level (see `Tile.isExplored()`).
+     */
+    public ExplorationMemory getExploration() {
+        return exploration;
+    }
+
 
     /**
      * To determine if the Tile at the input position was ever explored by the player.
@@ -62,30 +153,287 @@ public class BaseMapLayer {
     }
 
     /**
-     * Basically just a Setter for the GraphicalMap to instantiate a new Tile at a certain coordinate.
+     * Basically just a Setter for the map to instantiate a new Tile at a certain coordinate.
+     * The new Tile reports its changes to this layer from now on (once tracked), and its exploration is the one of
+     * its position.
      *
      * @param x x-coordinate input.
      * @param y y-coordinate input.
      * @param newTile the Tile instance that will replace the old one.
      */
     public void setTile(int x, int y, Tile newTile) {
-        graphicalMap[y][x] = newTile;
+        int chunk = (y >> CHUNK_SHIFT) * chunkColumns + (x >> CHUNK_SHIFT);
+        if(chunks[chunk] == null) {
+            if(pagedOut[chunk]) {
+                faultIn(chunk);
+            } else {
+                chunks[chunk] = new Tile[CHUNK_AREA];
+                residentCount++;
+            }
+        }
+        chunks[chunk][(y & CHUNK_MASK) << CHUNK_SHIFT | (x & CHUNK_MASK)] = newTile;
+        newTile.setChanges(changes);
+        newTile.setExploration(exploration);
+        if(changes != null)
+            changes.mark(x, y);
     }
 
     /**
-     * Returns the Tile at the desired coordinate.
+     * Returns the Tile at the desired coordinate, faulting its chunk back in if it was paged out.
      * If the coordinate falls outside of the map itself, one of the "edge-tiles" (always a Wall) will be returned.
      *
      * @param x x-coordinate.
      * @param y y-coordinate.
      * @return the Tile at the (x,y) coordinate.
+     * @throws GdxRuntimeException if no Tile was ever set in its chunk.
      */
     public Tile getTile(int x, int y) {
         if(x < 0) x = 0;
         if(y < 0) y = 0;
-        if(x >= getMapWidth()) x = getMapWidth()-1;
-        if(y >= getMapHeight()) y = getMapHeight()-1;
-        return graphicalMap[y][x];
+        if(x >= mapWidth) x = mapWidth-1;
+        if(y >= mapHeight) y = mapHeight-1;
+        int index = (y >> CHUNK_SHIFT) * chunkColumns + (x >> CHUNK_SHIFT);
+        Tile[] chunk = chunks[index];
+        if(chunk == null)
+            chunk = faultIn(index);
+        lastUse[index] = clock;
+        return chunk[(y & CHUNK_MASK) << CHUNK_SHIFT | (x & CHUNK_MASK)];
+    }
+
+    /**
+     * Same as `getTile()`, but only for the chunks in memory: nothing is faulted in, and the chunk isn't considered
+     * used. For the rendering, which only draws what is around the Hero.
+     *
+     * @param x x-coordinate.
+     * @param y y-coordinate.
+     * @return the Tile at the (x,y) coordinate. 'null' if its chunk isn't in memory.
+     */
+    public Tile getResidentTile(int x, int y) {
+        if(x < 0) x = 0;
+        if(y < 0) y = 0;
+        if(x >= mapWidth) x = mapWidth-1;
+        if(y >= mapHeight) y = mapHeight-1;
+        Tile[] chunk = chunks[(y >> CHUNK_SHIFT) * chunkColumns + (x >> CHUNK_SHIFT)];
+        return chunk == null ? null : chunk[(y & CHUNK_MASK) << CHUNK_SHIFT | (x & CHUNK_MASK)];
+    }
+
+    /**
+     * Whether the Tile at the position allows movement, without faulting in its chunk: the chunks paged out answer
+     * as they were paged out (nothing moves on them meanwhile, see `MoveAction`). For the pathfinding.
+     *
+     * @param x x-coordinate.
+     * @param y y-coordinate.
+     * @return 'false' outside of the level, and in a chunk never set.
+     */
+    public boolean isWalkable(int x, int y) {
+        if(x < 0 || y < 0 || x >= mapWidth || y >= mapHeight)
+            return false;
+        int index = (y >> CHUNK_SHIFT) * chunkColumns + (x >> CHUNK_SHIFT);
+        Tile[] chunk = chunks[index];
+        if(chunk != null) {
+            Tile tile = chunk[(y & CHUNK_MASK) << CHUNK_SHIFT | (x & CHUNK_MASK)];
+            return tile != null && tile.isAllowingMove();
+        }
+        return pagedOut[index] && (pagedWalkable[index << CHUNK_SHIFT | (y & CHUNK_MASK)] & (1 << (x & CHUNK_MASK))) != 0;
+    }
+
+    /**
+     * @param chunk index of the chunk: `chunkY * chunkColumns + chunkX`.
+     * @return 'true' if the Tiles of the chunk are in memory.
+     */
+    public boolean isChunkResident(int chunk) {
+        return chunks[chunk] != null;
+    }
+
+    /**
+     * @param chunk index of the chunk: `chunkY * chunkColumns + chunkX`.
+     * @return Changes each time the chunk is faulted in: its Tiles are then new instances (e.g. not textured yet).
+     */
+    public int getChunkVersion(int chunk) {
+        return versions[chunk];
+    }
+
+    /**
+     * @return Changes each time a chunk is paged out or faulted in: the Tile instances kept since are to be looked
+     *         up again.
+     */
+    public int getResidency() {
+        return residency;
+    }
+
+    /**
+     * @return The amount of chunks in memory.
+     */
+    public int getResidentChunkCount() {
+        return residentCount;
+    }
+
+    /**
+     * @return About how much memory the Tiles in memory take (see `LevelCache`).
+     */
+    public int getLiveBytes() {
+        return residentCount * LIVE_CHUNK_BYTES;
+    }
+
+
+    /**
+     * Pages the chunks of the level from now on: `trim()` keeps only a budget of them in memory. A level already
+     * paged (entered again) keeps its store, and what it paged out there.
+     *
+     * @param store where the chunks paged out go.
+     * @param budget amount of bytes the chunks in memory may take (see `LIVE_CHUNK_BYTES`). At least a chunk is kept.
+     */
+    public void setPaging(IChunkStore store, int budget) {
+        if(this.store == null) {
+            this.store = store;
+            this.storeKey = store.open();
+        }
+        residentBudget = Math.max(1, budget / LIVE_CHUNK_BYTES);
+    }
+
+    /**
+     * Forgets the chunks paged out, once the level is out of the game for good (see `LevelCache`). The level must
+     * not be used anymore.
+     */
+    public void releasePages() {
+        if(store != null) {
+            store.forget(storeKey);
+            store = null;
+        }
+    }
+
+    /**
+     * Faults in the chunks within range of a position, and keeps them in memory through the next `trim()`.
+     *
+     * @param x x-coordinate, usually the Hero's.
+     * @param y y-coordinate.
+     * @param radius amount of Tiles kept around the position, in every direction.
+     */
+    public void keepResident(int x, int y, int radius) {
+        int minChunkX = Math.max(0, x - radius) >> CHUNK_SHIFT, maxChunkX = Math.min(mapWidth - 1, x + radius) >> CHUNK_SHIFT;
+        int minChunkY = Math.max(0, y - radius) >> CHUNK_SHIFT, maxChunkY = Math.min(mapHeight - 1, y + radius) >> CHUNK_SHIFT;
+        for(int chunkY = minChunkY; chunkY <= maxChunkY; chunkY++) {
+            for(int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+                int chunk = chunkY * chunkColumns + chunkX;
+                if(chunks[chunk] == null && pagedOut[chunk])
+                    faultIn(chunk);
+                lastUse[chunk] = keptAt[chunk] = clock;
+            }
+        }
+    }
+
+    /**
+     * Pages out the least recently used chunks until the budget is met, except the ones kept resident since the
+     * previous call. Called once per turn, in between two turns (see `Controller.processTurn()`).
+     */
+    public void trim() {
+        while(residentCount > residentBudget) {
+            int oldest = -1;
+            for(int i = 0; i < chunks.length; i++) {
+                if(chunks[i] != null && keptAt[i] != clock && (oldest < 0 || lastUse[i] < lastUse[oldest]))
+                    oldest = i;
+            }
+            if(oldest < 0)
+                break; // all of them are kept resident
+            pageOut(oldest);
+        }
+        clock++;
+    }
+
+    private void pageOut(int index) {
+        Tile[] chunk = chunks[index];
+        store.write(storeKey, index, ChunkCodec.encode(chunk));
+        for(int i = 0; i < CHUNK_AREA; i++) {
+            Tile tile = chunk[i];
+            int row = index << CHUNK_SHIFT | i >> CHUNK_SHIFT, bit = 1 << (i & CHUNK_MASK);
+            if(tile != null && tile.isAllowingMove())
+                pagedWalkable[row] |= bit;
+            else
+                pagedWalkable[row] &= ~bit;
+            if(tile != null)
+                tile.setChanges(null); // an instance kept elsewhere doesn't report anything anymore
+        }
+        chunks[index] = null;
+        pagedOut[index] = true;
+        residentCount--;
+        residency++;
+        walkableStale = true;
+    }
+
+    private Tile[] faultIn(int index) {
+        if(!pagedOut[index])
+            throw new GdxRuntimeException("No Tile was ever set in the chunk " + index + " of the level.");
+        int chunkX = index % chunkColumns, chunkY = index / chunkColumns;
+        Tile[] chunk = ChunkCodec.decode(store.read(storeKey, index), chunkX, chunkY, mapWidth, mapHeight);
+        for(Tile tile : chunk) {
+            if(tile != null) {
+                tile.setChanges(changes);
+                tile.setExploration(exploration);
+            }
+        }
+        chunks[index] = chunk;
+        pagedOut[index] = false;
+        residentCount++;
+        versions[index]++;
+        residency++;
+        walkableStale = true;
+        return chunk;
+    }
+
+    /**
+     * Makes every Tile as walkable and see-through as a new Tile of its terrain, once the level is left: what stood
+     * on it is placed again when the level is entered (see `SecondaryMapLayer.setUpSecondaryLayer()`), as for a level
+     * decoded by the LevelCodec. The chunks paged out are rewritten in their IChunkStore.
+     */
+    public void clearOccupancy() {
+        for(int index = 0; index < chunks.length; index++) {
+            Tile[] chunk = chunks[index];
+            if(chunk != null) {
+                for(Tile tile : chunk) {
+                    if(tile == null)
+                        continue;
+                    int flags = ChunkCodec.newFlagsOf(LevelCodec.terrainOf(tile));
+                    tile.setAllowingMove((flags & ChunkCodec.ALLOWING_MOVE) != 0);
+                    tile.setSeeThrough((flags & ChunkCodec.SEE_THROUGH) != 0);
+                }
+            } else if(pagedOut[index]) {
+                ByteBuffer paged = store.read(storeKey, index);
+                ChunkCodec.clearFlags(paged);
+                store.write(storeKey, index, paged);
+                for(int i = 0; i < CHUNK_AREA; i++) {
+                    int row = index << CHUNK_SHIFT | i >> CHUNK_SHIFT, bit = 1 << (i & CHUNK_MASK);
+                    if((ChunkCodec.get(paged, ChunkCodec.FLAGS, i) & ChunkCodec.ALLOWING_MOVE) != 0)
+                        pagedWalkable[row] |= bit;
+                    else
+                        pagedWalkable[row] &= ~bit;
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies a section of every Tile (see `ChunkCodec`), row after row ((x,y) at [y * width + x]), without faulting
+     * in the chunks paged out. Safe on another thread once the level was left (see `LevelCache`).
+     *
+     * @param section ChunkCodec.TERRAIN, BITMASKS or FLAGS.
+     * @param out at least `width * height` bytes.
+     */
+    public void copyTiles(int section, byte[] out) {
+        for(int index = 0; index < chunks.length; index++) {
+            Tile[] chunk = chunks[index];
+            ByteBuffer paged = chunk == null && pagedOut[index] ? store.read(storeKey, index) : null;
+            int minX = (index % chunkColumns) << CHUNK_SHIFT, minY = (index / chunkColumns) << CHUNK_SHIFT;
+            int maxX = Math.min(minX + CHUNK_SIZE, mapWidth), maxY = Math.min(minY + CHUNK_SIZE, mapHeight);
+            for(int y = minY; y < maxY; y++) {
+                for(int x = minX; x < maxX; x++) {
+                    int i = (y & CHUNK_MASK) << CHUNK_SHIFT | (x & CHUNK_MASK);
+                    if(chunk != null)
+                        out[y * mapWidth + x] = ChunkCodec.valueOf(section, chunk[i]);
+                    else if(paged != null)
+                        out[y * mapWidth + x] = ChunkCodec.get(paged, section, i);
+                }
+            }
+        }
     }
 
 
@@ -116,24 +464,27 @@ public class BaseMapLayer {
 
 
     /**
-     * Returns the list of tiles that ALLOW_MOVEMENT surrounding the input coordinate.
-     * Used to build a graph for the pathfinding system.
+     * Returns the list of tiles that ALLOW_MOVEMENT surrounding the input coordinate (N, S, E, W), faulting in their
+     * chunks if need be.
      *
      * @param x x-coordinate of the Tile for which we want to list the neighbors.
      * @param y y-coordinate of the Tile for which we want to list the neighbors.
      * @return An Array of Tile that are the Tiles that allow movement from the input Tile. Does not include the input Tile.
      */
     public Array<Tile> getWalkableNeighbors(int x, int y) {
-        Array<Tile> neighbors = new Array<>();
-
-        for (Tile t : getTile(x,y).getNeighbors()) {
-            if (t.isAllowingMove())
-                neighbors.add(t);
-        }
-
+        Array<Tile> neighbors = new Array<>(4);
+        addWalkable(neighbors, x, y+1);
+        addWalkable(neighbors, x, y-1);
+        addWalkable(neighbors, x+1, y);
+        addWalkable(neighbors, x-1, y);
         return neighbors;
     }
 
+    private void addWalkable(Array<Tile> neighbors, int x, int y) {
+        if(isWalkable(x, y))
+            neighbors.add(getTile(x, y));
+    }
+
 
     /**
      * Returns all the Tiles surrounding the (x,y) input coordinate, within the specified range.
@@ -158,20 +509,38 @@ public class BaseMapLayer {
 
     /**
      * Reinitializes the `walkableTiles` Array with all the Tiles that allow movement.
-     * Also sets up the "4-neighbors" Array for each Tile.
      */
     public void computeWalkableTiles() {
         walkableTiles = new Array<>();
         for(int i=0; i<getMapHeight(); i++) {
             for(int j=0; j<getMapWidth(); j++) {
                 Tile currTile = getTile(j, i);
-                currTile.addNeighbors(getNorth(currTile),
-                        getSouth(currTile),
-                        getEast(currTile),
-                        getWest(currTile));
                 if(currTile.isAllowingMove())
                     walkableTiles.add(currTile);
             }
         }
+        walkableStale = false;
+    }
+
+    /**
+     * Lists the walkable Tiles of the chunks in memory again, the same way as `computeWalkableTiles()`: the ones
+     * allowing movement right now.
+     */
+    private void listWalkableTiles() {
+        walkableTiles.clear();
+        for(int y = 0; y < mapHeight; y++) {
+            for(int chunkX = 0; chunkX < chunkColumns; chunkX++) {
+                Tile[] chunk = chunks[(y >> CHUNK_SHIFT) * chunkColumns + chunkX];
+                if(chunk == null)
+                    continue;
+                int maxX = Math.min((chunkX + 1) << CHUNK_SHIFT, mapWidth);
+                for(int x = chunkX << CHUNK_SHIFT; x < maxX; x++) {
+                    Tile tile = chunk[(y & CHUNK_MASK) << CHUNK_SHIFT | (x & CHUNK_MASK)];
+                    if(tile != null && tile.isAllowingMove())
+                        walkableTiles.add(tile);
+                }
+            }
+        }
+        walkableStale = false;
     }
 }
@@ -0,0 +1,260 @@
+package com.payne.games.map;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+
+/**
+ * What the player explored of a level: one bit per Tile, in place of a flag in every Tile (see `Tile.isExplored()`).
+ * <br><br>
+ * The bits are grouped in the chunks of the BaseMapLayer: a row of a chunk is a single int, and each chunk counts
+ * its explored Tiles. Whole areas are queried at once (see `anyExplored()`, `nextExplored()`): the MapRenderer skips
+ * what was never explored without looking at its Tiles, and a minimap only needs the bits.
+ * <br><br>
+ * Saved levels keep the bits as runs (see `writeRuns()`): what is explored is mostly a few blobs around the path of
+ * the Hero, so the runs are much smaller than the bits.
+ */
+public class ExplorationMemory {
+    private static final int SHIFT = BaseMapLayer.CHUNK_SHIFT;
+    private static final int SIZE = BaseMapLayer.CHUNK_SIZE; // 32: a row of a chunk is an int
+    private static final int MASK = SIZE - 1;
+
+    private final int width, height;
+    private final int chunkColumns;
+    private final int[] rows; // the row (y % SIZE) of the chunk c is at [c * SIZE + y % SIZE], (x % SIZE) being its bit
+    private final int[] chunkCounts; // explored Tiles per chunk
+    private int count;
+
+
+    public ExplorationMemory(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.chunkColumns = (width + MASK) >> SHIFT;
+        int chunks = chunkColumns * ((height + MASK) >> SHIFT);
+        this.rows = new int[chunks << SHIFT];
+        this.chunkCounts = new int[chunks];
+    }
+
+
+    public int getWidth() {
+        return width;
+    }
+    public int getHeight() {
+        return height;
+    }
+
+    private int wordOf(int x, int y) {
+        return (((y >> SHIFT) * chunkColumns + (x >> SHIFT)) << SHIFT) | (y & MASK);
+    }
+
+    public boolean isExplored(int x, int y) {
+        return (rows[wordOf(x, y)] & (1 << (x & MASK))) != 0;
+    }
+
+    /**
+     * @return 'true' if the Tile's exploration changed.
+     */
+    public boolean setExplored(int x, int y, boolean explored) {
+        int word = wordOf(x, y);
+        int bit = 1 << (x & MASK);
+        if(((rows[word] & bit) != 0) == explored)
+            return false;
+        rows[word] ^= bit;
+        int change = explored ? 1 : -1;
+        chunkCounts[word >> SHIFT] += change;
+        count += change;
+        return true;
+    }
+
+    /**
+     * Forgets everything that was explored.
+     */
+    public void clear() {
+        Arrays.fill(rows, 0);
+        Arrays.fill(chunkCounts, 0);
+        count = 0;
+    }
+
+
+    /**
+     * @return The amount of Tiles explored.
+     */
+    public int getExploredCount() {
+        return count;
+    }
+
+    /**
+     * @param chunkX column of the chunk (see `BaseMapLayer.CHUNK_SIZE`).
+     * @param y row of Tiles.
+     * @return The exploration of the chunk's part of the row: one bit per Tile, from `chunkX * CHUNK_SIZE`.
+     */
+    public int getRowBits(int chunkX, int y) {
+        return rows[(((y >> SHIFT) * chunkColumns + chunkX) << SHIFT) | (y & MASK)];
+    }
+
+    /**
+     * @param chunkX column of the chunk (see `BaseMapLayer.CHUNK_SIZE`).
+     * @param chunkY row of the chunk.
+     * @return 'true' if at least one Tile of the chunk was explored.
+     */
+    public boolean anyExplored(int chunkX, int chunkY) {
+        return chunkCounts[chunkY * chunkColumns + chunkX] != 0;
+    }
+
+    /**
+     * @param x left of the area.
+     * @param y bottom of the area.
+     * @param areaWidth in Tiles. The area is clipped to the level.
+     * @param areaHeight in Tiles.
+     * @return 'true' if at least one Tile of the area was explored.
+     */
+    public boolean anyExplored(int x, int y, int areaWidth, int areaHeight) {
+        int minX = Math.max(0, x), minY = Math.max(0, y);
+        int maxX = Math.min(width, x + areaWidth), maxY = Math.min(height, y + areaHeight); // exclusive
+        if(minX >= maxX || minY >= maxY)
+            return false;
+
+        for(int chunkY = minY >> SHIFT; chunkY <= (maxY - 1) >> SHIFT; chunkY++) {
+            for(int chunkX = minX >> SHIFT; chunkX <= (maxX - 1) >> SHIFT; chunkX++) {
+                int chunk = chunkY * chunkColumns + chunkX;
+                if(chunkCounts[chunk] == 0)
+                    continue;
+                int left = chunkX << SHIFT, bottom = chunkY << SHIFT;
+                int columns = rangeMask(Math.max(minX, left) - left, Math.min(maxX, left + SIZE) - left);
+                for(int row = Math.max(minY, bottom); row < Math.min(maxY, bottom + SIZE); row++) {
+                    if((rows[(chunk << SHIFT) | (row & MASK)] & columns) != 0)
+                        return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Scans a row, skipping the unexplored Tiles a chunk at a time (e.g. to draw a minimap).
+     *
+     * @return The first explored Tile of the row `y`, from `x` included. -1 if there is none.
+     */
+    public int nextExplored(int x, int y) {
+        for(int chunkX = x >> SHIFT; chunkX < chunkColumns; chunkX++) {
+            int bits = getRowBits(chunkX, y);
+            if(chunkX == x >> SHIFT)
+                bits &= -1 << (x & MASK);
+            if(bits != 0)
+                return (chunkX << SHIFT) + Integer.numberOfTrailingZeros(bits);
+        }
+        return -1;
+    }
+
+    /**
+     * @return The bits from `from` (included) to `to` (excluded), `to` being at most SIZE.
+     */
+    private static int rangeMask(int from, int to) {
+        return (to == SIZE ? -1 : (1 << to) - 1) & (-1 << from);
+    }
+
+
+    /**
+     * @return The size of the runs, in bytes (see `writeRuns()`).
+     */
+    public int runsSize() {
+        return runs(null);
+    }
+
+    /**
+     * Writes the exploration as runs: the lengths of the unexplored and explored stretches, alternately (starting
+     * with an unexplored one, possibly empty), over the Tiles row after row. Each length is a varint.
+     *
+     * @param out where the runs are written, from its position.
+     */
+    public void writeRuns(ByteBuffer out) {
+        runs(out);
+    }
+
+    private int runs(ByteBuffer out) {
+        int size = 0;
+        boolean explored = false;
+        int run = 0;
+        for(int y = 0; y < height; y++) {
+            for(int chunkX = 0; chunkX < chunkColumns; chunkX++) {
+                int bits = getRowBits(chunkX, y);
+                int length = Math.min(SIZE, width - (chunkX << SHIFT));
+                int position = 0;
+                while(position < length) {
+                    int ends = (explored ? ~bits : bits) >>> position; // the first bit set ends the run
+                    int stretch = Math.min(length - position, Integer.numberOfTrailingZeros(ends));
+                    run += stretch;
+                    position += stretch;
+                    if(position < length) {
+                        size += writeVarint(out, run);
+                        run = 0;
+                        explored = !explored;
+                    }
+                }
+            }
+        }
+        return size + writeVarint(out, run);
+    }
+
+    private static int writeVarint(ByteBuffer out, int value) {
+        int size = 1;
+        for(; value >= 0x80; value >>>= 7, size++) {
+            if(out != null)
+                out.put((byte)(value & 0x7F | 0x80));
+        }
+        if(out != null)
+            out.put((byte)value);
+        return size;
+    }
+
+    /**
+     * Replaces the exploration by runs written by `writeRuns()`, read in place.
+     *
+     * @param in the runs, at an absolute offset. Its position is left untouched.
+     * @param offset where the runs start.
+     * @return The offset right after the runs.
+     */
+    public int readRuns(ByteBuffer in, int offset) {
+        clear();
+        int cells = width * height;
+        int index = 0;
+        boolean explored = false;
+        do {
+            int run = 0;
+            byte b;
+            int shift = 0;
+            do {
+                b = in.get(offset++);
+                run |= (b & 0x7F) << shift;
+                shift += 7;
+            } while(b < 0);
+            if(explored)
+                setRange(index, index + run);
+            index += run;
+            explored = !explored;
+        } while(index < cells);
+        return offset;
+    }
+
+    /**
+     * Explores the Tiles from the index `from` (included) to `to` (excluded), `y * width + x` being the index of (x,y).
+     */
+    private void setRange(int from, int to) {
+        while(from < to) {
+            int y = from / width, x = from % width;
+            int end = Math.min(to, (y + 1) * width); // the rest is on the next rows
+            int maxX = x + end - from;
+            while(x < maxX) {
+                int left = x & ~MASK;
+                int right = Math.min(maxX, left + SIZE);
+                int word = wordOf(x, y);
+                int added = rangeMask(x - left, right - left) & ~rows[word];
+                rows[word] |= added;
+                chunkCounts[word >> SHIFT] += Integer.bitCount(added);
+                count += Integer.bitCount(added);
+                x = right;
+            }
+            from = end;
+        }
+    }
+}
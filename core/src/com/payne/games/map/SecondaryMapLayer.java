@@ -5,6 +5,12 @@ import com.payne.games.gameObjects.*;
 import com.payne.games.gameObjects.statics.Static;
 import com.payne.games.gameObjects.actors.entities.Hero;
 import com.payne.games.gameObjects.actors.Actor;
+import com.payne.games.gameObjects.actors.entities.Enemy;
+import com.payne.games.gameObjects.statics.entities.*;
+import com.payne.games.map.generators.PreparedLevel;
+import com.payne.games.map.generators.SpawnPlan;
+import com.payne.games.logging.Log;
+import com.payne.games.logging.LogCategory;
 
 
 public class SecondaryMapLayer {
@@ -65,6 +71,25 @@ public class SecondaryMapLayer {
     }
 
 
+    /**
+     * Finds a GameObject (Actor or Static) through its unique id.
+     *
+     * @param id the id given by the GameObjectFactory.
+     * @return Could be 'null' if no GameObject has that id.
+     */
+    public GameObject findById(int id) {
+        for(Actor a : actorLayer) {
+            if (a.getId() == id)
+                return a;
+        }
+        for(Static s : staticLayer) {
+            if (s.getId() == id)
+                return s;
+        }
+        return null;
+    }
+
+
     public Array<Static> getStaticLayer() {
         return staticLayer;
     }
@@ -73,40 +98,125 @@ public class SecondaryMapLayer {
     }
 
     public void removeFromStaticLayer(Static object) {
-        System.out.println("Removed an object from InertLayer.");
+        Log.debug(LogCategory.MAP, "Removed an object from InertLayer.");
         staticLayer.removeValue(object, true);
     }
     public void removeFromActorLayer(Actor actor) {
-        System.out.println("Remove an actor from ActorLayer.");
+        Log.debug(LogCategory.MAP, "Removed an actor from ActorLayer.");
         actorLayer.removeValue(actor, true);
     }
 
 
-    public void setUpSecondaryLayer(Hero player, BaseMapLayer currentLevel) {
+    /**
+     * Creates the GameObjects of a new level. The Hero is the only one that goes from a level to the next.
+     *
+     * @param player the Hero, moved to its new position.
+     * @param currentLevel the level being entered.
+     * @param spawnPlan where each GameObject goes (see `LevelPopulator`). They are created in that order.
+     */
+    public void setUpSecondaryLayer(Hero player, BaseMapLayer currentLevel, SpawnPlan spawnPlan) {
         this.currentLevel = currentLevel;
         staticLayer = new Array<>();
         actorLayer = new Array<>();
 
-        placeHero(player, 25,16);
-
+        placeHero(player, spawnPlan.getHeroX(), spawnPlan.getHeroY());
+
+        for(int i = 0; i < spawnPlan.size(); i++) {
+            int x = spawnPlan.getX(i);
+            int y = spawnPlan.getY(i);
+            switch (spawnPlan.getKind(i)) {
+                case SpawnPlan.CHEST:
+                    objectFactory.createChest(x, y);
+                    break;
+                case SpawnPlan.KEY:
+                    objectFactory.createKey(x, y);
+                    break;
+                case SpawnPlan.DOOR:
+                    objectFactory.createDoor(x, y, false);
+                    break;
+                case SpawnPlan.LOCKED_DOOR:
+                    objectFactory.createDoor(x, y, true);
+                    break;
+                case SpawnPlan.OPEN_DOOR:
+                    Door door = objectFactory.createDoor(x, y, false);
+                    door.setClosed(false);
+                    currentLevel.getTile(x, y).setAllowingMove(true);
+                    currentLevel.getTile(x, y).setSeeThrough(true);
+                    break;
+                case SpawnPlan.FLAME:
+                    objectFactory.createFlame(x, y);
+                    break;
+                case SpawnPlan.HEALTH_POTION:
+                    objectFactory.createHealthPotion(x, y);
+                    break;
+                case SpawnPlan.ENEMY:
+                    objectFactory.createEnemy(x, y);
+                    break;
+            }
+        }
+    }
 
-        // todo: populate level with other Secondary objects
-        objectFactory.createChest(31, 13);
-        objectFactory.createChest(18, 2);
 
-        objectFactory.createKey(14, 10);
-        objectFactory.createKey(27, 16);
-        objectFactory.createKey(20, 14);
-        objectFactory.createKey(18, 18);
+    /**
+     * Puts back the GameObjects of a level that was left and kept live (see `LevelCache`), as they were left: the
+     * Tiles they stand on were cleared meanwhile, as for a decoded level.
+     *
+     * @param player the Hero, moved back to where it left the level.
+     * @param currentLevel the level being entered again.
+     * @param prepared the level, with its GameObjects (see `PreparedLevel.hasGameObjects()`).
+     */
+    public void resumeSecondaryLayer(Hero player, BaseMapLayer currentLevel, PreparedLevel prepared) {
+        this.currentLevel = currentLevel;
+        staticLayer = new Array<>(prepared.getStatics().size);
+        actorLayer = new Array<>(prepared.getActors().size + 1);
 
-        objectFactory.createDoor(25, 18, true);
-        objectFactory.createDoor(28, 21, false);
+        SpawnPlan spawnPlan = prepared.getSpawnPlan();
+        placeHero(player, spawnPlan.getHeroX(), spawnPlan.getHeroY());
 
-        objectFactory.createFlame(30, 20);
+        for(Static object : prepared.getStatics()) {
+            if(object.getX() < 0 || object.getY() < 0) // picked up: in an Inventory now
+                staticLayer.add(object);
+            else
+                objectFactory.place(object);
+        }
+        for(Actor actor : prepared.getActors())
+            objectFactory.place(actor);
+    }
 
-        objectFactory.createHealthPotion(21, 15);
 
-        DEBUG_spawn_enemies();
+    /**
+     * The opposite of `setUpSecondaryLayer()`: what is left on the level, to create it again later
+     * (see `LevelCodec`), once the level is out of the live tier of the LevelCache. The Enemies then come back
+     * with their full HP.
+     *
+     * @param player the Hero, whose position is kept.
+     * @return The GameObjects of the level, in the order they are drawn.
+     */
+    public SpawnPlan recordSpawnPlan(Hero player) {
+        SpawnPlan plan = new SpawnPlan();
+        plan.setHero(player.getX(), player.getY());
+        for(Static object : staticLayer) {
+            int x = object.getX(), y = object.getY();
+            if(x < 0 || y < 0) // picked up: in an Inventory now
+                continue;
+            if(object instanceof Chest)
+                plan.add(SpawnPlan.CHEST, x, y);
+            else if(object instanceof Key)
+                plan.add(SpawnPlan.KEY, x, y);
+            else if(object instanceof Door) {
+                Door door = (Door)object;
+                plan.add(door.isLocked() ? SpawnPlan.LOCKED_DOOR : door.isClosed() ? SpawnPlan.DOOR : SpawnPlan.OPEN_DOOR, x, y);
+            }
+            else if(object instanceof Flame)
+                plan.add(SpawnPlan.FLAME, x, y);
+            else if(object instanceof HealthPotion)
+                plan.add(SpawnPlan.HEALTH_POTION, x, y);
+        }
+        for(Actor actor : actorLayer) {
+            if(actor instanceof Enemy)
+                plan.add(SpawnPlan.ENEMY, actor.getX(), actor.getY());
+        }
+        return plan;
     }
 
 
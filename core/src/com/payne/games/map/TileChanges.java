@@ -0,0 +1,57 @@
+package com.payne.games.map;
+
+import com.badlogic.gdx.utils.IntArray;
+
+
+/**
+ * The Tiles of a level that changed since the last time the changes were collected (see `Autosave`): replaced,
+ * explored, or made walkable or see-through differently. The Tiles report their own changes (see `Tile`), only
+ * when a value actually changes, and only once the level is entered (see `BaseMapLayer.trackChanges()`).
+ * <br><br>
+ * A flag per Tile avoids listing a Tile twice, and the list keeps the collection proportional to the amount of
+ * changes rather than to the size of the level.
+ */
+public class TileChanges {
+    private final int width;
+    private final boolean[] changed; // [y * width + x]
+    private final IntArray indices = new IntArray();
+
+
+    public TileChanges(int width, int height) {
+        this.width = width;
+        this.changed = new boolean[width * height];
+    }
+
+
+    public void mark(int x, int y) {
+        int index = y * width + x;
+        if(!changed[index]) {
+            changed[index] = true;
+            indices.add(index);
+        }
+    }
+
+    /**
+     * @return The amount of Tiles that changed.
+     */
+    public int size() {
+        return indices.size;
+    }
+
+    /**
+     * @param i from 0 to `size() - 1`, in the order of the first change of each Tile.
+     * @return The index of the Tile that changed: `y * width + x`.
+     */
+    public int get(int i) {
+        return indices.get(i);
+    }
+
+    /**
+     * Forgets the changes, once they were collected.
+     */
+    public void clear() {
+        for(int i = 0; i < indices.size; i++)
+            changed[indices.get(i)] = false;
+        indices.clear();
+    }
+}
@@ -0,0 +1,47 @@
+package com.payne.games.map.generators;
+
+import com.badlogic.gdx.math.RandomXS128;
+import com.payne.games.map.generators.algos.buildings.IBuildingListener;
+
+
+/**
+ * Fills a SpawnPlan while a building is generated (see `Buildings`): a Door in every doorway (the first one is
+ * locked), and now and then a Chest in the middle of a room, or a Key in one of its corners.
+ * The LevelPopulator places the rest of the GameObjects afterwards, a Key on the Hero's side of the locked Door
+ * included: that first wall splits the whole building in two.
+ */
+public class BuildingSpawner implements IBuildingListener {
+    private static final float CHEST_CHANCE = 0.2f; // per room
+    private static final float KEY_CHANCE = 0.2f;   // per room without a Chest
+
+    private final SpawnPlan plan;
+    private final RandomXS128 rand;
+    private boolean lockedDoor = false;
+
+
+    /**
+     * @param plan filled as the rooms and doors are built.
+     * @param seed seed of the level.
+     */
+    public BuildingSpawner(SpawnPlan plan, int seed) {
+        this.plan = plan;
+        this.rand = new RandomXS128(seed, ~seed); // its own sequence: the terrain doesn't depend on what is placed
+    }
+
+
+    @Override
+    public void roomBuilt(int x, int y, int width, int height) {
+        float roll = rand.nextFloat();
+        if(roll < CHEST_CHANCE) {
+            plan.add(SpawnPlan.CHEST, x + width / 2, y + height / 2);
+        } else if(roll < CHEST_CHANCE + (1 - CHEST_CHANCE) * KEY_CHANCE) {
+            plan.add(SpawnPlan.KEY, x + (rand.nextBoolean() ? 0 : width - 1), y + (rand.nextBoolean() ? 0 : height - 1));
+        }
+    }
+
+    @Override
+    public void doorBuilt(int x, int y) {
+        plan.add(lockedDoor ? SpawnPlan.DOOR : SpawnPlan.LOCKED_DOOR, x, y);
+        lockedDoor = true;
+    }
+}
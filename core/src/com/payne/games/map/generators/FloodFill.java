@@ -0,0 +1,261 @@
+package com.payne.games.map.generators;
+
+import com.badlogic.gdx.utils.IntArray;
+
+import java.util.Arrays;
+
+
+/**
+ * Flood fills over the floors of a TerrainGrid (4-connected), for the generators: tagging the regions of a level,
+ * culling the ones that can't be reached, checking that a level is in one piece, or spreading lakes.
+ * <br><br>
+ * The fills are scanline fills: each step fills a whole horizontal span of floors, then only remembers where the
+ * spans of the rows above and below start. The seeds wait on an explicit stack (no recursion), and nothing is
+ * allocated per cell: no Tiles, no boxed positions.
+ * <br><br>
+ * Each fill tags its cells with a new region id (1, 2, 3...), and records the size and bounding box of the region.
+ * A cell is only ever part of one region: the fills don't go into the cells already tagged, until `clear()`.
+ * <br><br>
+ * see: https://en.wikipedia.org/wiki/Flood_fill#Span_filling
+ */
+public class FloodFill {
+    public static final int NONE = 0; // region id of the cells that aren't tagged
+    public static final int UNBOUNDED = Integer.MAX_VALUE;
+
+    private final TerrainGrid grid;
+    private final int width, height;
+    private final int[] regions; // region id of each cell: [y * width + x]
+    private final IntArray stack = new IntArray(); // (x, y) seeds of the spans still to be filled
+
+    /* Statistics of the regions, at [id - 1]. */
+    private final IntArray sizes = new IntArray();
+    private final IntArray minX = new IntArray(), minY = new IntArray();
+    private final IntArray maxX = new IntArray(), maxY = new IntArray();
+
+    /* Bounds of the fill in progress. */
+    private int remaining;
+    private int centerX, centerY;
+    private long radius2;
+
+
+    /**
+     * @param grid the terrain to fill. Its floors can change in between two fills, but not during one.
+     */
+    public FloodFill(TerrainGrid grid) {
+        this.grid = grid;
+        this.width = grid.getWidth();
+        this.height = grid.getHeight();
+        this.regions = new int[width * height];
+    }
+
+
+    /**
+     * Forgets every region: all the cells can be filled again.
+     */
+    public void clear() {
+        Arrays.fill(regions, NONE);
+        sizes.clear();
+        minX.clear();
+        minY.clear();
+        maxX.clear();
+        maxY.clear();
+    }
+
+    /**
+     * Fills the whole region of floors around a cell.
+     *
+     * @return The id of the new region, or NONE if the cell isn't a floor or is already part of a region.
+     */
+    public int fill(int x, int y) {
+        return fill(x, y, UNBOUNDED, UNBOUNDED);
+    }
+
+    /**
+     * Fills the floors around a cell, up to a limit.
+     *
+     * @param maxCount maximum amount of cells to fill (UNBOUNDED for no limit).
+     * @param maxRadius only the cells within that distance (in Tiles) of the seed are filled (UNBOUNDED for no
+     *                  limit). The fill stays connected: a cell only reachable from outside of the radius isn't filled.
+     * @return The id of the new region, or NONE if the cell can't be filled.
+     */
+    public int fill(int x, int y, int maxCount, int maxRadius) {
+        if(!grid.isInBounds(x, y))
+            return NONE;
+        stack.clear();
+        stack.add(x, y);
+        return fillStack(x, y, maxCount, maxRadius);
+    }
+
+    /**
+     * Fills the floors around several cells at once, as a single region (e.g. springs feeding the same lake).
+     *
+     * @param seeds (x, y) pairs. The seeds outside of the map are ignored.
+     * @param maxCount maximum amount of cells to fill, for all the seeds together (UNBOUNDED for no limit).
+     * @param maxRadius only the cells within that distance (in Tiles) of the first seed are filled.
+     * @return The id of the new region, or NONE if none of the seeds could be filled.
+     */
+    public int fill(IntArray seeds, int maxCount, int maxRadius) {
+        stack.clear();
+        for(int i = 0; i + 1 < seeds.size; i += 2) {
+            if(grid.isInBounds(seeds.get(i), seeds.get(i + 1)))
+                stack.add(seeds.get(i), seeds.get(i + 1));
+        }
+        if(stack.size == 0)
+            return NONE;
+        return fillStack(stack.get(0), stack.get(1), maxCount, maxRadius);
+    }
+
+    /**
+     * The scanline fill itself, from the seeds on the stack.
+     */
+    private int fillStack(int originX, int originY, int maxCount, int maxRadius) {
+        int id = sizes.size + 1;
+        remaining = maxCount;
+        centerX = originX;
+        centerY = originY;
+        radius2 = maxRadius == UNBOUNDED ? Long.MAX_VALUE : (long)maxRadius * maxRadius;
+
+        int size = 0;
+        int left = Integer.MAX_VALUE, bottom = Integer.MAX_VALUE, right = Integer.MIN_VALUE, top = Integer.MIN_VALUE;
+        while(stack.size > 0 && remaining > 0) {
+            int y = stack.pop(), x = stack.pop();
+            if(!isFillable(x, y))
+                continue;
+
+            /* The whole span of the seed, cut short if the count runs out. */
+            int spanLeft = x, spanRight = x;
+            while(spanLeft > 0 && isFillable(spanLeft - 1, y))
+                spanLeft--;
+            while(spanRight + 1 < width && isFillable(spanRight + 1, y))
+                spanRight++;
+            spanRight = (int)Math.min(spanRight, (long)spanLeft + remaining - 1);
+
+            int row = y * width;
+            for(int i = spanLeft; i <= spanRight; i++)
+                regions[row + i] = id;
+            int spanSize = spanRight - spanLeft + 1;
+            size += spanSize;
+            remaining -= spanSize;
+            left   = Math.min(left, spanLeft);
+            right  = Math.max(right, spanRight);
+            bottom = Math.min(bottom, y);
+            top    = Math.max(top, y);
+
+            if(y > 0)
+                pushSpans(spanLeft, spanRight, y - 1);
+            if(y + 1 < height)
+                pushSpans(spanLeft, spanRight, y + 1);
+        }
+        stack.clear();
+
+        if(size == 0)
+            return NONE;
+        sizes.add(size);
+        minX.add(left);
+        minY.add(bottom);
+        maxX.add(right);
+        maxY.add(top);
+        return id;
+    }
+
+    /**
+     * Pushes the start of each run of fillable cells of the row, under (or above) the span that was just filled.
+     */
+    private void pushSpans(int spanLeft, int spanRight, int y) {
+        boolean inRun = false;
+        for(int x = spanLeft; x <= spanRight; x++) {
+            boolean fillable = isFillable(x, y);
+            if(fillable && !inRun)
+                stack.add(x, y);
+            inRun = fillable;
+        }
+    }
+
+    private boolean isFillable(int x, int y) {
+        if(!grid.isFloor(x, y) || regions[y * width + x] != NONE)
+            return false;
+        long dx = x - centerX, dy = y - centerY;
+        return dx * dx + dy * dy <= radius2;
+    }
+
+
+    /**
+     * Tags every region of floors that isn't tagged yet (connected-component labelling).
+     *
+     * @return The amount of regions.
+     */
+    public int fillAll() {
+        for(int y = 0; y < height; y++) {
+            int row = y * width;
+            for(int x = 0; x < width; x++) {
+                if(regions[row + x] == NONE && grid.isFloor(x, y))
+                    fill(x, y);
+            }
+        }
+        return getRegionCount();
+    }
+
+    /**
+     * Forgets the previous regions, then fills from the first floor.
+     *
+     * @return 'true' if all the floors of the grid form a single region (or if there are none).
+     */
+    public boolean isConnected() {
+        clear();
+        for(int i = 0; i < regions.length; i++) {
+            if(grid.isFloor(i % width, i / width))
+                return fill(i % width, i / width) != NONE && getRegionSize(1) == grid.getFloorCount();
+        }
+        return true;
+    }
+
+    /**
+     * Forgets the previous regions, tags every region, then walls up all of them but the largest one.
+     *
+     * @return The amount of floors left.
+     */
+    public int keepLargestRegion() {
+        clear();
+        if(fillAll() <= 1)
+            return grid.getFloorCount();
+
+        int largest = 1;
+        for(int id = 2; id <= getRegionCount(); id++) {
+            if(getRegionSize(id) > getRegionSize(largest))
+                largest = id;
+        }
+        for(int i = 0; i < regions.length; i++) {
+            if(regions[i] != NONE && regions[i] != largest) {
+                grid.set(i % width, i / width, TerrainGrid.WALL);
+                regions[i] = NONE;
+            }
+        }
+        return grid.getFloorCount();
+    }
+
+
+    /**
+     * @return The id of the region of the cell, or NONE.
+     */
+    public int getRegion(int x, int y) {
+        return regions[y * width + x];
+    }
+    public int getRegionCount() {
+        return sizes.size;
+    }
+    public int getRegionSize(int id) {
+        return sizes.get(id - 1);
+    }
+    public int getRegionMinX(int id) {
+        return minX.get(id - 1);
+    }
+    public int getRegionMinY(int id) {
+        return minY.get(id - 1);
+    }
+    public int getRegionMaxX(int id) {
+        return maxX.get(id - 1);
+    }
+    public int getRegionMaxY(int id) {
+        return maxY.get(id - 1);
+    }
+}
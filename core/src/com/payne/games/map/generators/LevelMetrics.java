@@ -0,0 +1,186 @@
+package com.payne.games.map.generators;
+
+import java.util.Arrays;
+
+
+/**
+ * Measures the shape of a generated terrain, to compare the generators and their parameters (see the desktop's
+ * `LevelBatchLauncher`): how much of the map is floor, in how many pieces, how many dead ends, and how far apart
+ * the floors are (distances walked from the floor nearest to the center of the map).
+ * <br><br>
+ * Only works on the TerrainGrid: no Tiles, no Textures. An instance reuses its buffers from one terrain to the next
+ * (as long as the size doesn't grow), but can't be shared in between threads.
+ */
+public class LevelMetrics {
+    private static final int[][] NEIGHBOURS = {{0, 1}, {1, 0}, {0, -1}, {-1, 0}};
+
+    private int width, height;
+    private int floors, components, keptFloors, deadEnds;
+    private double pathMean;
+    private int pathMedian, path90, pathMax;
+
+    private int[] distances = new int[0]; // walking distance of each floor from the start (-1: not reached)
+    private int[] queue = new int[0];
+    private int[] histogram = new int[0]; // amount of floors at each distance
+
+
+    /**
+     * Measures the terrain as the algorithm left it, then culls all its regions but the largest one (like the
+     * levels of the game, see `MapGenerator.createMap()`) before measuring the dead ends and the distances.
+     *
+     * @param grid the terrain, modified by the culling.
+     */
+    public void measure(TerrainGrid grid) {
+        width = grid.getWidth();
+        height = grid.getHeight();
+        floors = grid.getFloorCount();
+
+        FloodFill regions = new FloodFill(grid);
+        components = regions.fillAll();
+        keptFloors = regions.keepLargestRegion();
+
+        deadEnds = 0;
+        for(int y = 0; y < height; y++) {
+            for(int x = 0; x < width; x++) {
+                if(grid.isFloor(x, y) && countFloorNeighbours(grid, x, y) == 1)
+                    deadEnds++;
+            }
+        }
+        measureDistances(grid);
+    }
+
+    private int countFloorNeighbours(TerrainGrid grid, int x, int y) {
+        int count = 0;
+        for(int[] n : NEIGHBOURS) {
+            if(grid.isInBounds(x + n[0], y + n[1]) && grid.isFloor(x + n[0], y + n[1]))
+                count++;
+        }
+        return count;
+    }
+
+    /**
+     * Breadth-first search from the floor nearest to the center, then the distribution of the distances.
+     */
+    private void measureDistances(TerrainGrid grid) {
+        pathMean = 0;
+        pathMedian = path90 = pathMax = 0;
+        int start = nearestFloorToCenter(grid);
+        if(start < 0)
+            return;
+
+        int cells = width * height;
+        if(distances.length < cells) {
+            distances = new int[cells];
+            queue = new int[cells];
+        }
+        Arrays.fill(distances, 0, cells, -1);
+        distances[start] = 0;
+        queue[0] = start;
+        int head = 0, tail = 1;
+        while(head < tail) {
+            int cell = queue[head++];
+            int x = cell % width, y = cell / width;
+            for(int[] n : NEIGHBOURS) {
+                int nx = x + n[0], ny = y + n[1];
+                if(!grid.isInBounds(nx, ny) || !grid.isFloor(nx, ny) || distances[ny * width + nx] >= 0)
+                    continue;
+                distances[ny * width + nx] = distances[cell] + 1;
+                queue[tail++] = ny * width + nx;
+            }
+        }
+
+        /* The BFS visits the floors by increasing distance: the last one is the farthest. */
+        pathMax = distances[queue[tail - 1]];
+        if(histogram.length < pathMax + 1)
+            histogram = new int[pathMax + 1];
+        Arrays.fill(histogram, 0, pathMax + 1, 0);
+        long total = 0;
+        for(int i = 0; i < tail; i++) {
+            histogram[distances[queue[i]]]++;
+            total += distances[queue[i]];
+        }
+        pathMean = (double)total / tail;
+        pathMedian = percentile(0.5f, tail);
+        path90 = percentile(0.9f, tail);
+    }
+
+    private int percentile(float percentile, int count) {
+        int rank = (int)Math.ceil(percentile * count);
+        int seen = 0;
+        for(int distance = 0; distance <= pathMax; distance++) {
+            seen += histogram[distance];
+            if(seen >= rank)
+                return distance;
+        }
+        return pathMax;
+    }
+
+    private int nearestFloorToCenter(TerrainGrid grid) {
+        int best = -1;
+        long bestDistance = Long.MAX_VALUE;
+        for(int y = 0; y < height; y++) {
+            for(int x = 0; x < width; x++) {
+                long dx = 2 * x - width, dy = 2 * y - height;
+                if(grid.isFloor(x, y) && dx * dx + dy * dy < bestDistance) {
+                    bestDistance = dx * dx + dy * dy;
+                    best = y * width + x;
+                }
+            }
+        }
+        return best;
+    }
+
+
+    /**
+     * @return The columns of `appendCsv()`.
+     */
+    public static String csvHeader() {
+        return "floorRatio,components,keptRatio,deadEnds,pathMean,pathP50,pathP90,pathMax";
+    }
+
+    /**
+     * @param out where the metrics of the last terrain measured are appended, comma-separated (no line break).
+     * @return `out`, for chaining.
+     */
+    public StringBuilder appendCsv(StringBuilder out) {
+        out.append(ratio(floors)).append(',')
+           .append(components).append(',')
+           .append(ratio(keptFloors)).append(',')
+           .append(deadEnds).append(',')
+           .append(Math.round(pathMean * 100) / 100.0).append(',')
+           .append(pathMedian).append(',')
+           .append(path90).append(',')
+           .append(pathMax);
+        return out;
+    }
+
+    private double ratio(int count) {
+        return Math.round(10000.0 * count / (width * height)) / 10000.0;
+    }
+
+
+    public float getFloorRatio() {
+        return (float)floors / (width * height);
+    }
+    public int getComponents() {
+        return components;
+    }
+    public float getKeptRatio() {
+        return (float)keptFloors / (width * height);
+    }
+    public int getDeadEnds() {
+        return deadEnds;
+    }
+    public double getPathMean() {
+        return pathMean;
+    }
+    public int getPathMedian() {
+        return pathMedian;
+    }
+    public int getPath90() {
+        return path90;
+    }
+    public int getPathMax() {
+        return pathMax;
+    }
+}
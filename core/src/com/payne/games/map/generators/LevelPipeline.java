@@ -0,0 +1,159 @@
+package com.payne.games.map.generators;
+
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.async.AsyncExecutor;
+import com.badlogic.gdx.utils.async.AsyncResult;
+import com.badlogic.gdx.utils.async.AsyncTask;
+import com.payne.games.logic.GameLogic;
+import com.payne.games.map.BaseMapLayer;
+import com.payne.games.map.pathfinding.MyIndexedGraph;
+import com.payne.games.map.storage.LevelCodec;
+import com.payne.games.profiling.Profiler;
+import com.payne.games.logging.Log;
+import com.payne.games.logging.LogCategory;
+
+import java.nio.ByteBuffer;
+
+
+/**
+ * Prepares the levels: generation of the base layer, placement of the GameObjects, pathfinding graph.
+ * <br><br>
+ * While a depth is played, the next one is prepared in the background (see `prepareInBackground()`), so that going
+ * down the stairs doesn't freeze the game. A prepared level is only made of new objects, and each depth has its own
+ * seed: the background thread never touches the game, and a level is the same whichever thread prepared it.
+ * On backends without threads (GWT), the AsyncExecutor prepares the level immediately.
+ */
+public class LevelPipeline implements Disposable {
+    private final MapGenerator mapGenerator = new MapGenerator();
+    private final LevelPopulator populator = new LevelPopulator();
+    private final Profiler profiler; // optional: given to the pathfinding graphs
+
+    private AsyncExecutor executor; // lazily created: no thread until a level is prepared in the background
+    private AsyncResult<PreparedLevel> pending;
+    private int pendingDepth = -1, pendingWidth, pendingHeight;
+
+
+    /**
+     * @param profiler given to the pathfinding graphs. Can be 'null'.
+     */
+    public LevelPipeline(Profiler profiler) {
+        this.profiler = profiler;
+    }
+
+
+    /**
+     * @param depth 0 for the very first level.
+     * @return The seed of the level at that depth.
+     */
+    public static int seedOf(int depth) {
+        return GameLogic.RANDOM_SEED + depth * 0x9E3779B9; // spreads the seeds of consecutive depths
+    }
+
+    /**
+     * The first depth is always carved by the drunkard (its GameObjects are placed by hand), the deeper ones
+     * cycle through the algorithms.
+     *
+     * @param depth 0 for the very first level.
+     * @return The algorithm that generates the level at that depth.
+     */
+    public static MapAlgorithm algorithmOf(int depth) {
+        MapAlgorithm[] algorithms = MapAlgorithm.values();
+        return algorithms[depth % algorithms.length];
+    }
+
+    /**
+     * Prepares a level on the calling thread.
+     *
+     * @param depth 0 for the very first level.
+     * @param mapWidth width of the level, in amount of tiles.
+     * @param mapHeight height of the level, in amount of tiles.
+     * @return The level, ready to be entered.
+     */
+    public PreparedLevel prepare(int depth, int mapWidth, int mapHeight) {
+        int seed = seedOf(depth);
+        SpawnPlan spawnPlan = new SpawnPlan();
+        BaseMapLayer level = mapGenerator.createMap(mapWidth, mapHeight, seed, algorithmOf(depth),
+                new BuildingSpawner(spawnPlan, seed)); // fills the plan while the rooms are built
+        populator.populate(level, depth, seed, spawnPlan);
+        MyIndexedGraph graph = new MyIndexedGraph(level, profiler);
+        return new PreparedLevel(depth, level, graph, spawnPlan);
+    }
+
+    /**
+     * Prepares a level that was visited before, as it was left, on the calling thread.
+     *
+     * @param data the level encoded by the LevelCodec (see `ILevelStore`).
+     * @return The level, ready to be entered again.
+     */
+    public PreparedLevel restore(ByteBuffer data) {
+        BaseMapLayer level = LevelCodec.decodeLevel(data);
+        MyIndexedGraph graph = new MyIndexedGraph(level, profiler);
+        return new PreparedLevel(LevelCodec.readDepth(data), level, graph, LevelCodec.decodeObjects(data));
+    }
+
+    /**
+     * Starts preparing a level on a background thread. It is picked up by `take()`.
+     * A previously requested level that wasn't taken is forgotten.
+     */
+    public void prepareInBackground(final int depth, final int mapWidth, final int mapHeight) {
+        if(isPending(depth, mapWidth, mapHeight))
+            return;
+        if(executor == null)
+            executor = new AsyncExecutor(1, "LevelPipeline");
+
+        pendingDepth  = depth;
+        pendingWidth  = mapWidth;
+        pendingHeight = mapHeight;
+        pending = executor.submit(new AsyncTask<PreparedLevel>() {
+            @Override
+            public PreparedLevel call() {
+                return prepare(depth, mapWidth, mapHeight);
+            }
+        });
+        Log.debug(LogCategory.MAP, "Preparing depth {} in the background.", depth);
+    }
+
+    /**
+     * @return 'true' if the level was prepared in the background and can be taken right away.
+     */
+    public boolean isReady(int depth, int mapWidth, int mapHeight) {
+        return isPending(depth, mapWidth, mapHeight) && pending.isDone();
+    }
+
+    /**
+     * Returns the level prepared in the background if it matches, waiting for it if it isn't done yet.
+     * Otherwise, the level is prepared on the calling thread.
+     *
+     * @param depth 0 for the very first level.
+     * @param mapWidth width of the level, in amount of tiles.
+     * @param mapHeight height of the level, in amount of tiles.
+     * @return The level, ready to be entered.
+     */
+    public PreparedLevel take(int depth, int mapWidth, int mapHeight) {
+        if(!isPending(depth, mapWidth, mapHeight))
+            return prepare(depth, mapWidth, mapHeight);
+
+        Log.debug(LogCategory.MAP, "Depth {} was prepared in the background (done: {}).", depth, pending.isDone());
+        PreparedLevel prepared = pending.get(); // waits if the preparation isn't over yet
+        pending = null;
+        pendingDepth = -1;
+        return prepared;
+    }
+
+    private boolean isPending(int depth, int mapWidth, int mapHeight) {
+        return pending != null && pendingDepth == depth && pendingWidth == mapWidth && pendingHeight == mapHeight;
+    }
+
+    /**
+     * Waits for the level being prepared (if any) before stopping the background thread.
+     */
+    @Override
+    public void dispose() {
+        if(executor != null) {
+            executor.dispose();
+            executor = null;
+        }
+        pending = null;
+        pendingDepth = -1;
+    }
+}
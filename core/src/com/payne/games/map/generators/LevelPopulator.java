@@ -0,0 +1,185 @@
+package com.payne.games.map.generators;
+
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.utils.Array;
+import com.payne.games.map.BaseMapLayer;
+import com.payne.games.map.tiles.Tile;
+
+
+/**
+ * Decides where the GameObjects of a level go. Only reads the level: can run on any thread (see `LevelPipeline`).
+ * <br><br>
+ * The first depth keeps its hand-placed layout. The deeper ones are scattered over random walkable Tiles: the
+ * Doors go in corridors, and the Enemies (one more per depth) are kept away from the Hero. Whatever the generator
+ * already placed (the Doors of the buildings, see `BuildingSpawner`) stays where it is.
+ * <br><br>
+ * The locked Door can split the level in two (a corridor, or the first wall of a building): there is always a Key
+ * on the Hero's side of it.
+ */
+public class LevelPopulator {
+    private static final int CHESTS = 2;
+    private static final int KEYS = 4;
+    private static final int DOORS = 2; // the first one is locked
+    private static final int ENEMIES = 4;
+    private static final int ENEMY_MIN_DISTANCE = 6; // from the Hero, in amount of Tiles (Manhattan distance)
+
+
+    /**
+     * @param level its walkable Tiles must have been computed.
+     * @param depth 0 for the very first level.
+     * @param seed seed of the level.
+     * @param plan where to place each GameObject. May already hold what the generator placed (see
+     *             `BuildingSpawner`): the Doors are then left as they are, and the Chests and Keys are topped up.
+     */
+    public void populate(BaseMapLayer level, int depth, int seed, SpawnPlan plan) {
+        if(depth == 0) {
+            firstLevel(plan);
+            return;
+        }
+
+        Array<Tile> walkable = level.getWalkableTiles();
+        int[] order = shuffledIndices(walkable.size, new RandomXS128(seed, depth));
+        boolean[] used = new boolean[level.getMapWidth() * level.getMapHeight()]; // by position: y * width + x
+        for(int i = 0; i < plan.size(); i++)
+            used[plan.getY(i) * level.getMapWidth() + plan.getX(i)] = true;
+
+        Tile heroTile = null;
+        for(int i = 0; i < order.length && heroTile == null; i++) {
+            Tile tile = walkable.get(order[i]);
+            if(!isUsed(level, tile, used))
+                heroTile = tile;
+        }
+        if(heroTile == null)
+            return;
+        markUsed(level, heroTile, used);
+        plan.setHero(heroTile.getX(), heroTile.getY());
+
+        int doors = plan.count(SpawnPlan.DOOR) + plan.count(SpawnPlan.LOCKED_DOOR);
+        if(doors == 0) {
+            for(int i = 0; i < order.length && doors < DOORS; i++) {
+                Tile tile = walkable.get(order[i]);
+                if(!isUsed(level, tile, used) && isCorridor(level, tile)) {
+                    markUsed(level, tile, used);
+                    plan.add(doors++ == 0 ? SpawnPlan.LOCKED_DOOR : SpawnPlan.DOOR, tile.getX(), tile.getY());
+                }
+            }
+        }
+
+        scatter(plan, level, SpawnPlan.CHEST, CHESTS - plan.count(SpawnPlan.CHEST), walkable, order, used, heroTile, 0);
+        scatter(plan, level, SpawnPlan.KEY, KEYS - plan.count(SpawnPlan.KEY), walkable, order, used, heroTile, 0);
+        keepKeyReachable(plan, level, walkable, order, used, heroTile);
+        scatter(plan, level, SpawnPlan.FLAME, 1, walkable, order, used, heroTile, 0);
+        scatter(plan, level, SpawnPlan.HEALTH_POTION, 1, walkable, order, used, heroTile, 0);
+        scatter(plan, level, SpawnPlan.ENEMY, ENEMIES + depth, walkable, order, used, heroTile, ENEMY_MIN_DISTANCE);
+    }
+
+    /**
+     * The layout of the very first level (made for the 64x32 level of the default seed).
+     */
+    private void firstLevel(SpawnPlan plan) {
+        plan.setHero(25, 16);
+
+        plan.add(SpawnPlan.CHEST, 31, 13);
+        plan.add(SpawnPlan.CHEST, 18, 2);
+
+        plan.add(SpawnPlan.KEY, 14, 10);
+        plan.add(SpawnPlan.KEY, 27, 16);
+        plan.add(SpawnPlan.KEY, 20, 14);
+        plan.add(SpawnPlan.KEY, 18, 18);
+
+        plan.add(SpawnPlan.LOCKED_DOOR, 25, 18);
+        plan.add(SpawnPlan.DOOR, 28, 21);
+
+        plan.add(SpawnPlan.FLAME, 30, 20);
+
+        plan.add(SpawnPlan.HEALTH_POTION, 21, 15);
+
+        plan.add(SpawnPlan.ENEMY, 14, 11);
+        plan.add(SpawnPlan.ENEMY, 29, 14);
+        plan.add(SpawnPlan.ENEMY, 25, 13);
+        plan.add(SpawnPlan.ENEMY, 56, 25);
+    }
+
+    /**
+     * Adds up to `count` GameObjects of the same kind, on Tiles that aren't used yet.
+     */
+    private void scatter(SpawnPlan plan, BaseMapLayer level, int kind, int count, Array<Tile> walkable, int[] order,
+                         boolean[] used, Tile hero, int minDistance) {
+        for(int i = 0; i < order.length && count > 0; i++) {
+            Tile tile = walkable.get(order[i]);
+            if(isUsed(level, tile, used))
+                continue;
+            if(Math.abs(tile.getX() - hero.getX()) + Math.abs(tile.getY() - hero.getY()) < minDistance)
+                continue;
+            markUsed(level, tile, used);
+            plan.add(kind, tile.getX(), tile.getY());
+            count--;
+        }
+    }
+
+    /**
+     * Adds a Key on the Hero's side of the locked Doors, if none of the Keys is: the Hero could never go through.
+     */
+    private void keepKeyReachable(SpawnPlan plan, BaseMapLayer level, Array<Tile> walkable, int[] order,
+                                  boolean[] used, Tile hero) {
+        if(plan.count(SpawnPlan.LOCKED_DOOR) == 0)
+            return;
+
+        TerrainGrid grid = new TerrainGrid(level.getMapWidth(), level.getMapHeight());
+        for(int i = 0; i < walkable.size; i++)
+            grid.set(walkable.get(i).getX(), walkable.get(i).getY(), TerrainGrid.FLOOR);
+        for(int i = 0; i < plan.size(); i++) {
+            if(plan.getKind(i) == SpawnPlan.LOCKED_DOOR)
+                grid.set(plan.getX(i), plan.getY(i), TerrainGrid.WALL);
+        }
+        FloodFill floodFill = new FloodFill(grid);
+        int heroSide = floodFill.fill(hero.getX(), hero.getY());
+
+        for(int i = 0; i < plan.size(); i++) {
+            if(plan.getKind(i) == SpawnPlan.KEY && floodFill.getRegion(plan.getX(i), plan.getY(i)) == heroSide)
+                return;
+        }
+        for(int i = 0; i < order.length; i++) {
+            Tile tile = walkable.get(order[i]);
+            if(!isUsed(level, tile, used) && floodFill.getRegion(tile.getX(), tile.getY()) == heroSide) {
+                markUsed(level, tile, used);
+                plan.add(SpawnPlan.KEY, tile.getX(), tile.getY());
+                return;
+            }
+        }
+    }
+
+    private boolean isUsed(BaseMapLayer level, Tile tile, boolean[] used) {
+        return used[tile.getY() * level.getMapWidth() + tile.getX()];
+    }
+    private void markUsed(BaseMapLayer level, Tile tile, boolean[] used) {
+        used[tile.getY() * level.getMapWidth() + tile.getX()] = true;
+    }
+
+    /**
+     * @return 'true' if the Tile is walled on two opposite sides, and open on the two others.
+     */
+    private boolean isCorridor(BaseMapLayer level, Tile tile) {
+        boolean north = level.getNorth(tile).isAllowingMove();
+        boolean south = level.getSouth(tile).isAllowingMove();
+        boolean east  = level.getEast(tile).isAllowingMove();
+        boolean west  = level.getWest(tile).isAllowingMove();
+        return (north && south && !east && !west) || (!north && !south && east && west);
+    }
+
+    /**
+     * @return The indices from 0 to `size` (excluded), in a random order (Fisher-Yates).
+     */
+    private int[] shuffledIndices(int size, RandomXS128 rand) {
+        int[] order = new int[size];
+        for(int i = 0; i < size; i++)
+            order[i] = i;
+        for(int i = size - 1; i > 0; i--) {
+            int j = rand.nextInt(i + 1);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+        return order;
+    }
+}
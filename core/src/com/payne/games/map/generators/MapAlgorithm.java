@@ -0,0 +1,12 @@
+package com.payne.games.map.generators;
+
+
+/**
+ * The algorithms the MapGenerator can generate a level with.
+ */
+public enum MapAlgorithm {
+    DRUNKARD_WALK,  // winding tunnels (see `MapCarver`)
+    CELLULAR_CAVES, // one large natural cave (see `CellularAutomata`)
+    MAZE_ROOMS,     // rooms linked by corridors (see `MazeRooms`)
+    BUILDINGS       // rooms partitioned by walls with doors (see `Buildings`)
+}
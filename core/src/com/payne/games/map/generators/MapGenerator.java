@@ -3,55 +3,168 @@ package com.payne.games.map.generators;
 import com.badlogic.gdx.math.RandomXS128;
 import com.payne.games.logic.GameLogic;
 import com.payne.games.map.BaseMapLayer;
+import com.payne.games.map.generators.algos.buildings.Buildings;
+import com.payne.games.map.generators.algos.buildings.IBuildingListener;
+import com.payne.games.map.generators.algos.cellular.CellularAutomata;
 import com.payne.games.map.generators.algos.drunkard.MapCarver;
+import com.payne.games.map.generators.algos.maze.MazeRooms;
 import com.payne.games.map.tiles.Floor;
 import com.payne.games.map.tiles.Wall;
 
 
+/**
+ * Holds no state: a level only depends on its size, seed and algorithm, so levels can be generated on any thread
+ * (see `LevelPipeline`).
+ */
 public class MapGenerator {
-    private RandomXS128 rand;
-
-
-    public MapGenerator() {
-        this.rand = new RandomXS128(GameLogic.RANDOM_SEED);
-    }
+    private static final int LAKES = 3;
+    private static final int LAKE_ATTEMPTS = 12; // a lake that falls on a Wall is tried somewhere else
+    private static final int MIN_LAKE_RADIUS = 2;
+    private static final int MAX_LAKE_RADIUS = 4;
 
     public BaseMapLayer createMap(int mapWidth, int mapHeight) {
-        BaseMapLayer level = new BaseMapLayer(mapWidth, mapHeight);
+        return createMap(mapWidth, mapHeight, GameLogic.RANDOM_SEED, MapAlgorithm.DRUNKARD_WALK);
+    }
 
+    public BaseMapLayer createMap(int mapWidth, int mapHeight, int seed, MapAlgorithm algorithm) {
+        return createMap(mapWidth, mapHeight, seed, algorithm, null);
+    }
 
-        // todo: generator's algorithm (Messy BSP Tree and Broguelike too)
-//        genericSingleRoomLevel(level);
-        drunkardWalkAlgo(level,
-                rand.nextInt(level.getMapWidth()),
-                rand.nextInt(level.getMapHeight()),
-                0.28f + rand.nextFloat()/15);
+    /**
+     * @param mapWidth width of the level, in amount of tiles.
+     * @param mapHeight height of the level, in amount of tiles.
+     * @param seed the same seed always gives the same level.
+     * @param algorithm how the terrain is carved.
+     * @param listener told about the rooms and doors as they are built (BUILDINGS only). Can be 'null'.
+     * @return A new level, its walkable Tiles computed.
+     */
+    public BaseMapLayer createMap(int mapWidth, int mapHeight, int seed, MapAlgorithm algorithm,
+                                  IBuildingListener listener) {
+        RandomXS128 rand = new RandomXS128(seed);
+        TerrainGrid grid = carve(mapWidth, mapHeight, seed, algorithm, listener, rand);
 
+        FloodFill regions = new FloodFill(grid);
+        regions.keepLargestRegion(); // whatever the algorithm, every floor of the level can be reached
 
+        BaseMapLayer level = new BaseMapLayer(mapWidth, mapHeight);
+        grid.materialize(level); // the Tiles are only created once the carving is over
+        if(algorithm == MapAlgorithm.CELLULAR_CAVES)
+            addLakes(level, regions, rand);
         level.computeWalkableTiles();
         return level;
     }
 
+    /**
+     * Only carves the terrain: no culling of the unreachable floors, no Tiles, no lakes. For the tools that
+     * evaluate the generators (see `LevelMetrics`).
+     *
+     * @return The terrain, as the algorithm left it.
+     */
+    public TerrainGrid carveTerrain(int mapWidth, int mapHeight, int seed, MapAlgorithm algorithm) {
+        return carve(mapWidth, mapHeight, seed, algorithm, null, new RandomXS128(seed));
+    }
+
+    private TerrainGrid carve(int mapWidth, int mapHeight, int seed, MapAlgorithm algorithm,
+                              IBuildingListener listener, RandomXS128 rand) {
+        TerrainGrid grid = new TerrainGrid(mapWidth, mapHeight);
+
+        // todo: generator's algorithm (Broguelike too)
+        switch (algorithm) {
+            case CELLULAR_CAVES:
+                cellularCaves(grid, rand);
+                break;
+            case MAZE_ROOMS:
+                mazeRooms(grid, rand);
+                break;
+            case BUILDINGS:
+                buildings(grid, rand, listener);
+                break;
+            default:
+                drunkardWalkAlgo(grid,
+                        rand.nextInt(mapWidth),
+                        rand.nextInt(mapHeight),
+                        0.28f + rand.nextFloat()/15,
+                        seed);
+                break;
+        }
+        return grid;
+    }
+
 
     /**
      * Drunkard Walk algorithm.
      *
-     * @param level the Level to be populated.
+     * @param grid the terrain to be carved.
      * @param init_x initial position in x for the drunkard.
      * @param init_y initial position in y for the drunkard.
      * @param targetFloorPercent percentage of the level that must be passable.
+     * @param seed seed of the drunkard's walk.
      */
-    private void drunkardWalkAlgo(BaseMapLayer level, int init_x, int init_y, float targetFloorPercent) {
-        MapCarver drunkardAlgo = new MapCarver(level, init_x, init_y, GameLogic.RANDOM_SEED, targetFloorPercent);
+    private void drunkardWalkAlgo(TerrainGrid grid, int init_x, int init_y, float targetFloorPercent, int seed) {
+        MapCarver drunkardAlgo = new MapCarver(grid, init_x, init_y, seed, targetFloorPercent);
         drunkardAlgo.walk();
     }
 
+    /**
+     * Cellular Automata caves: only the largest cave is kept.
+     *
+     * @param grid the terrain to be carved.
+     * @param rand the level's generator.
+     */
+    private void cellularCaves(TerrainGrid grid, RandomXS128 rand) {
+        CellularAutomata caves = new CellularAutomata(grid.getWidth(), grid.getHeight());
+        caves.generate(rand);
+        caves.toTerrain(grid);
+    }
+
+    /**
+     * Rooms, linked by the corridors of a spanning tree (plus a few loops).
+     *
+     * @param grid the terrain to be carved.
+     * @param rand the level's generator.
+     */
+    private void mazeRooms(TerrainGrid grid, RandomXS128 rand) {
+        MazeRooms rooms = new MazeRooms(grid, rand);
+        rooms.generate(MazeRooms.roomCountFor(grid.getWidth(), grid.getHeight()));
+    }
+
+    /**
+     * Binary Space Partitioning: rooms separated by walls, with a door in each wall.
+     *
+     * @param grid the terrain to be carved.
+     * @param rand the level's generator.
+     * @param listener told about the rooms and doors as they are built. Can be 'null'.
+     */
+    private void buildings(TerrainGrid grid, RandomXS128 rand, IBuildingListener listener) {
+        new Buildings(grid, rand, listener).generate();
+    }
+
 
     /**
-     * todo: supposed to select a few random Floor spot and run a BFS algo to set their "Water" flag.
+     * A few lakes: each one spreads from a random Floor over the Floors around it (scanline fill, bounded by a
+     * radius), and the Floors it covers become Water.
+     *
+     * @param level its Tiles must have been created from the grid.
+     * @param regions fill over the grid of the level.
+     * @param rand the level's generator (once the terrain is carved: the lakes don't change it).
      */
-    private void floodFill() {
-        // todo
+    private void addLakes(BaseMapLayer level, FloodFill regions, RandomXS128 rand) {
+        int width = level.getMapWidth(), height = level.getMapHeight();
+        regions.clear();
+        for(int attempt = 0; attempt < LAKE_ATTEMPTS && regions.getRegionCount() < LAKES; attempt++) {
+            int x = rand.nextInt(width), y = rand.nextInt(height);
+            int radius = MIN_LAKE_RADIUS + rand.nextInt(MAX_LAKE_RADIUS - MIN_LAKE_RADIUS + 1);
+            int id = regions.fill(x, y, FloodFill.UNBOUNDED, radius);
+            if(id == FloodFill.NONE)
+                continue; // fell on a Wall, or on another lake
+
+            for(int j = regions.getRegionMinY(id); j <= regions.getRegionMaxY(id); j++) {
+                for(int i = regions.getRegionMinX(id); i <= regions.getRegionMaxX(id); i++) {
+                    if(regions.getRegion(i, j) == id)
+                        ((Floor)level.getTile(i, j)).setWater(true);
+                }
+            }
+        }
     }
 
 
@@ -0,0 +1,74 @@
+package com.payne.games.map.generators;
+
+import com.badlogic.gdx.utils.Array;
+import com.payne.games.gameObjects.actors.Actor;
+import com.payne.games.gameObjects.statics.Static;
+import com.payne.games.map.BaseMapLayer;
+import com.payne.games.map.pathfinding.MyIndexedGraph;
+
+
+/**
+ * A level that is ready to be entered (see `LevelPipeline`): its base layer, its pathfinding graph, and where
+ * its GameObjects go. Only the textures of its Tiles remain to be assigned.
+ * <br><br>
+ * A level that was left and kept live (see `LevelCache`) keeps its GameObjects themselves as well, as they were
+ * left (HP, fatigue, queued Actions, etc.): the SpawnPlan is then only what the level is encoded from.
+ */
+public class PreparedLevel {
+    private final int depth;
+    private final BaseMapLayer level;
+    private final MyIndexedGraph graph;
+    private final SpawnPlan spawnPlan;
+    private final Array<Static> statics; // 'null' unless the level was left
+    private final Array<Actor> actors;   // without the Hero
+
+
+    public PreparedLevel(int depth, BaseMapLayer level, MyIndexedGraph graph, SpawnPlan spawnPlan) {
+        this(depth, level, graph, spawnPlan, null, null);
+    }
+
+    /**
+     * A level that was just left.
+     *
+     * @param spawnPlan the GameObjects left on the level, as the LevelCodec encodes them.
+     * @param statics the Static objects left on the level.
+     * @param actors the Actors left on the level, without the Hero.
+     */
+    public PreparedLevel(int depth, BaseMapLayer level, MyIndexedGraph graph, SpawnPlan spawnPlan,
+                         Array<Static> statics, Array<Actor> actors) {
+        this.depth = depth;
+        this.level = level;
+        this.graph = graph;
+        this.spawnPlan = spawnPlan;
+        this.statics = statics;
+        this.actors = actors;
+    }
+
+
+    public int getDepth() {
+        return depth;
+    }
+    public BaseMapLayer getLevel() {
+        return level;
+    }
+    public MyIndexedGraph getGraph() {
+        return graph;
+    }
+    public SpawnPlan getSpawnPlan() {
+        return spawnPlan;
+    }
+
+    /**
+     * @return 'true' if the GameObjects are kept as they were left: they are placed back as they are, instead of
+     *         being created from the SpawnPlan.
+     */
+    public boolean hasGameObjects() {
+        return actors != null;
+    }
+    public Array<Static> getStatics() {
+        return statics;
+    }
+    public Array<Actor> getActors() {
+        return actors;
+    }
+}
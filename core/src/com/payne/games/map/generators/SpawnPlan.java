@@ -0,0 +1,74 @@
+package com.payne.games.map.generators;
+
+import com.badlogic.gdx.utils.IntArray;
+
+
+/**
+ * Where the Hero and the other GameObjects of a level are to be placed (see `LevelPopulator`, and `BuildingSpawner`
+ * for the GameObjects placed while the level is generated).<br>
+ * Only positions: the GameObjects themselves are created when the level is entered
+ * (see `SecondaryMapLayer.setUpSecondaryLayer()`), in the order of the plan.
+ */
+public class SpawnPlan {
+    public static final int CHEST         = 0;
+    public static final int KEY           = 1;
+    public static final int DOOR          = 2;
+    public static final int LOCKED_DOOR   = 3;
+    public static final int FLAME         = 4;
+    public static final int HEALTH_POTION = 5;
+    public static final int ENEMY         = 6;
+    public static final int OPEN_DOOR     = 7; // only for the levels already visited (see `SecondaryMapLayer.recordSpawnPlan()`)
+
+    private int heroX, heroY;
+    private final IntArray spawns = new IntArray(); // (kind, x, y) triplets
+
+
+    public void setHero(int x, int y) {
+        heroX = x;
+        heroY = y;
+    }
+
+    /**
+     * @param kind one of the constants of the SpawnPlan.
+     * @param x x-coordinate, in Tile units.
+     * @param y y-coordinate, in Tile units.
+     */
+    public void add(int kind, int x, int y) {
+        spawns.add(kind, x, y);
+    }
+
+
+    public int getHeroX() {
+        return heroX;
+    }
+    public int getHeroY() {
+        return heroY;
+    }
+
+    /**
+     * @return The amount of GameObjects to create (the Hero excluded).
+     */
+    public int size() {
+        return spawns.size / 3;
+    }
+    /**
+     * @return The amount of GameObjects of that kind in the plan.
+     */
+    public int count(int kind) {
+        int count = 0;
+        for(int i = 0; i < spawns.size; i += 3) {
+            if(spawns.get(i) == kind)
+                count++;
+        }
+        return count;
+    }
+    public int getKind(int i) {
+        return spawns.get(i * 3);
+    }
+    public int getX(int i) {
+        return spawns.get(i * 3 + 1);
+    }
+    public int getY(int i) {
+        return spawns.get(i * 3 + 2);
+    }
+}
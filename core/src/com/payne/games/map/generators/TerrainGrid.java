@@ -0,0 +1,100 @@
+package com.payne.games.map.generators;
+
+import com.payne.games.map.BaseMapLayer;
+import com.payne.games.map.tiles.Floor;
+import com.payne.games.map.tiles.Wall;
+
+
+/**
+ * The terrain of a level while it is being generated: one byte per cell, and a running count of the floors.
+ * <br><br>
+ * Generators carve into the grid instead of the Tiles: nothing is allocated while carving, and checking or changing
+ * a cell is a single array access. The Tiles are only created once the terrain is final (see `materialize()`).
+ */
+public class TerrainGrid {
+    public static final byte WALL  = 0;
+    public static final byte FLOOR = 1;
+
+    private final int width, height;
+    private final byte[] cells; // row after row: (x,y) is at [y * width + x]
+    private int floorCount = 0;
+
+
+    /**
+     * @param width in amount of tiles.
+     * @param height in amount of tiles.
+     */
+    public TerrainGrid(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.cells = new byte[width * height]; // all WALL
+    }
+
+
+    public int getWidth() {
+        return width;
+    }
+    public int getHeight() {
+        return height;
+    }
+    public int getFloorCount() {
+        return floorCount;
+    }
+    public boolean isInBounds(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height;
+    }
+
+    public byte get(int x, int y) {
+        return cells[y * width + x];
+    }
+    public boolean isFloor(int x, int y) {
+        return cells[y * width + x] == FLOOR;
+    }
+
+    public void set(int x, int y, byte terrain) {
+        int i = y * width + x;
+        if(cells[i] == FLOOR) floorCount--;
+        if(terrain == FLOOR) floorCount++;
+        cells[i] = terrain;
+    }
+
+    /**
+     * Turns the cell into a Floor.
+     *
+     * @return 'true' if it wasn't already a Floor.
+     */
+    public boolean carve(int x, int y) {
+        int i = y * width + x;
+        if(cells[i] == FLOOR)
+            return false;
+        cells[i] = FLOOR;
+        floorCount++;
+        return true;
+    }
+
+    /**
+     * @param terrain every cell becomes that terrain.
+     */
+    public void fill(byte terrain) {
+        for(int i = 0; i < cells.length; i++)
+            cells[i] = terrain;
+        floorCount = terrain == FLOOR ? cells.length : 0;
+    }
+
+    /**
+     * Creates the Tiles of the level from the terrain, once and for all. All of them are in memory until the level
+     * is entered and paged (see `BaseMapLayer.setPaging()`).
+     *
+     * @param level must have the size of the grid.
+     */
+    public void materialize(BaseMapLayer level) {
+        for(int y = 0; y < height; y++) {
+            for(int x = 0; x < width; x++) {
+                if(cells[y * width + x] == FLOOR)
+                    level.setTile(x, y, new Floor(x, y));
+                else
+                    level.setTile(x, y, new Wall(x, y));
+            }
+        }
+    }
+}
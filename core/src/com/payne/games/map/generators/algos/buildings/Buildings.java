@@ -1,4 +1,147 @@
 package com.payne.games.map.generators.algos.buildings;
 
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.utils.IntArray;
+import com.payne.games.map.generators.TerrainGrid;
+
+
+/**
+ * Buildings: the whole map is one large room, split in two by a wall with a door in it, and so on with each half
+ * (Binary Space Partitioning) until the rooms are small enough. Every wall has exactly one door: the rooms form a
+ * tree, and all of them are reachable.
+ * <br><br>
+ * The partitioning is iterative: the regions still to be split wait on an explicit stack, so a large map can't
+ * overflow the call stack. The walls are written straight into the TerrainGrid, and each door and final room is
+ * reported to the IBuildingListener as soon as it is known.
+ * <br><br>
+ * see: http://www.roguebasin.com/index.php?title=Basic_BSP_Dungeon_generation
+ */
 public class Buildings {
+    private static final int MIN_ROOM_SIZE = 3;   // in amount of floors, on each axis
+    private static final int MAX_ROOM_SIZE = 10;  // rooms that fit in that size may stop being split
+    private static final float STOP_CHANCE = 0.3f; // chance to stop splitting a room that is small enough
+    private static final int WALL_ATTEMPTS = 4;   // random positions tried for a wall before trying the other axis
+
+    private final TerrainGrid grid;
+    private final RandomXS128 rand;
+    private final IBuildingListener listener;
+    private final IntArray stack = new IntArray(); // regions still to be split: (x, y, width, height) of their floors
+
+    private int roomCount, doorCount;
+
+
+    /**
+     * @param grid the terrain to carve into (usually all walls).
+     * @param rand the level's generator.
+     * @param listener told about every room and door. Can be 'null'.
+     */
+    public Buildings(TerrainGrid grid, RandomXS128 rand, IBuildingListener listener) {
+        this.grid = grid;
+        this.rand = rand;
+        this.listener = listener;
+    }
+
+
+    /**
+     * Carves the whole map (but its border) into rooms.
+     *
+     * @return The amount of rooms.
+     */
+    public int generate() {
+        roomCount = doorCount = 0;
+        int width = grid.getWidth() - 2, height = grid.getHeight() - 2;
+        if(width <= 0 || height <= 0)
+            return 0;
+
+        for(int y = 1; y <= height; y++) {
+            for(int x = 1; x <= width; x++)
+                grid.carve(x, y);
+        }
+
+        stack.clear();
+        stack.add(1, 1, width, height);
+        while(stack.size > 0) {
+            int h = stack.pop(), w = stack.pop(), y = stack.pop(), x = stack.pop();
+            if(!split(x, y, w, h)) {
+                roomCount++;
+                if(listener != null)
+                    listener.roomBuilt(x, y, w, h);
+            }
+        }
+        return roomCount;
+    }
+
+    public int getRoomCount() {
+        return roomCount;
+    }
+    public int getDoorCount() {
+        return doorCount;
+    }
+
+
+    /**
+     * Splits the region along its longest axis if possible (the other one otherwise), and pushes both halves.
+     *
+     * @return 'false' if the region is a final room.
+     */
+    private boolean split(int x, int y, int w, int h) {
+        boolean canSplitX = w >= 2 * MIN_ROOM_SIZE + 1;
+        boolean canSplitY = h >= 2 * MIN_ROOM_SIZE + 1;
+        if(!canSplitX && !canSplitY)
+            return false;
+        if(w <= MAX_ROOM_SIZE && h <= MAX_ROOM_SIZE && rand.nextFloat() < STOP_CHANCE)
+            return false;
+
+        boolean vertical = canSplitX && (!canSplitY || w > h || (w == h && rand.nextBoolean()));
+        if(vertical ? splitX(x, y, w, h) : splitY(x, y, w, h))
+            return true;
+        return vertical ? canSplitY && splitY(x, y, w, h) : canSplitX && splitX(x, y, w, h);
+    }
+
+    /**
+     * A vertical wall, at a random column that doesn't block a door of the walls around the region.
+     */
+    private boolean splitX(int x, int y, int w, int h) {
+        for(int attempt = 0; attempt < WALL_ATTEMPTS; attempt++) {
+            int wallX = x + MIN_ROOM_SIZE + rand.nextInt(w - 2 * MIN_ROOM_SIZE);
+            if(grid.isFloor(wallX, y - 1) || grid.isFloor(wallX, y + h))
+                continue; // a door of the surrounding walls is right there
+
+            for(int i = y; i < y + h; i++)
+                grid.set(wallX, i, TerrainGrid.WALL);
+            openDoor(wallX, y + rand.nextInt(h));
+
+            stack.add(x, y, wallX - x, h);
+            stack.add(wallX + 1, y, x + w - wallX - 1, h);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * A horizontal wall, at a random row that doesn't block a door of the walls around the region.
+     */
+    private boolean splitY(int x, int y, int w, int h) {
+        for(int attempt = 0; attempt < WALL_ATTEMPTS; attempt++) {
+            int wallY = y + MIN_ROOM_SIZE + rand.nextInt(h - 2 * MIN_ROOM_SIZE);
+            if(grid.isFloor(x - 1, wallY) || grid.isFloor(x + w, wallY))
+                continue;
+
+            for(int i = x; i < x + w; i++)
+                grid.set(i, wallY, TerrainGrid.WALL);
+            openDoor(x + rand.nextInt(w), wallY);
+
+            stack.add(x, y, w, wallY - y);
+            stack.add(x, wallY + 1, w, y + h - wallY - 1);
+            return true;
+        }
+        return false;
+    }
+
+    private void openDoor(int x, int y) {
+        grid.carve(x, y);
+        doorCount++;
+        if(listener != null)
+            listener.doorBuilt(x, y);
+    }
 }
@@ -0,0 +1,27 @@
+package com.payne.games.map.generators.algos.buildings;
+
+
+/**
+ * Receives the rooms and doors of a building as they are laid out (see `Buildings`), so that whatever goes in them
+ * can be decided during the generation instead of being searched for afterwards.
+ */
+public interface IBuildingListener {
+
+    /**
+     * A room is final: no wall will be built inside of it anymore.
+     *
+     * @param x x-coordinate of the bottom-left floor of the room.
+     * @param y y-coordinate of the bottom-left floor of the room.
+     * @param width in amount of floors.
+     * @param height in amount of floors.
+     */
+    void roomBuilt(int x, int y, int width, int height);
+
+    /**
+     * A door was opened in a wall. No wall will ever block it.
+     *
+     * @param x x-coordinate, in Tile units.
+     * @param y y-coordinate, in Tile units.
+     */
+    void doorBuilt(int x, int y);
+}
@@ -1,4 +1,287 @@
 package com.payne.games.map.generators.algos.cellular;
 
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.utils.IntArray;
+import com.payne.games.map.generators.TerrainGrid;
+
+
+/**
+ * Cave generator: random noise, smoothed by a cellular automaton (by default B5678/S45678: a cell becomes a wall
+ * with 5 walls or more around it, and stays a wall with 4 or more), then only the largest cave is kept.
+ * <br><br>
+ * The cells are bits (1 for a wall) packed in `long` rows, so that a single operation updates 64 cells at once.
+ * The 8 neighbours of a word are the words above, below and on the same row, shifted by one bit to each side;
+ * they are summed with bitwise adders, into one `long` per bit of the 64 counts (see `smooth()`).
+ * Anything outside of the map counts as a wall, and the border of the map always stays a wall.
+ * <br><br>
+ * see: http://www.roguebasin.com/index.php?title=Cellular_Automata_Method_for_Generating_Random_Cave-Like_Levels
+ */
 public class CellularAutomata {
+    public static final float DEFAULT_WALL_CHANCE = 0.45f;
+    public static final int DEFAULT_ITERATIONS = 4;
+    public static final int DEFAULT_BIRTH = 5;    // minimum amount of neighbouring walls for a floor to become a wall
+    public static final int DEFAULT_SURVIVAL = 4; // minimum amount of neighbouring walls for a wall to stay a wall
+
+    private final int width, height;
+    private final int words; // amount of longs per row
+    private final long lastWordMask; // bits of the last word of a row that are inside the map
+    private long[] cells, next; // row after row; the bits outside of the map are always set (walls)
+    private final IntArray stack = new IntArray(); // flood fill
+
+    private int birth = DEFAULT_BIRTH;
+    private int survival = DEFAULT_SURVIVAL;
+
+    // bit-sliced neighbour counts of the word being updated: bits 0 to 3 of 64 counts
+    private long s0, s1, s2, s3;
+
+
+    /**
+     * @param width in amount of tiles.
+     * @param height in amount of tiles.
+     */
+    public CellularAutomata(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.words = (width + 63) >>> 6;
+        int used = width & 63;
+        this.lastWordMask = used == 0 ? -1L : (1L << used) - 1;
+        this.cells = new long[words * height];
+        this.next = new long[words * height];
+    }
+
+
+    /**
+     * @param birth minimum amount of neighbouring walls (0 to 9) for a floor to become a wall.
+     * @param survival minimum amount of neighbouring walls (0 to 9) for a wall to stay a wall.
+     */
+    public void setRules(int birth, int survival) {
+        this.birth = birth;
+        this.survival = survival;
+    }
+
+    public boolean isWall(int x, int y) {
+        return (cells[y * words + (x >>> 6)] >>> (x & 63) & 1L) != 0;
+    }
+
+
+    /**
+     * The whole process, with the default parameters: noise, smoothing, then only the largest cave is kept.
+     *
+     * @return The amount of floors of the cave.
+     */
+    public int generate(RandomXS128 rand) {
+        randomFill(DEFAULT_WALL_CHANCE, rand);
+        smooth(DEFAULT_ITERATIONS);
+        return keepLargestCave();
+    }
+
+    /**
+     * Random noise: each cell is a wall with the given chance (in steps of 1/256), the border always is.
+     */
+    public void randomFill(float wallChance, RandomXS128 rand) {
+        int threshold = (int)(wallChance * 256);
+        for(int i = 0; i < cells.length; i++) {
+            long word = 0;
+            for(int b = 0; b < 64; b += 8) {
+                long bytes = rand.nextLong(); // 8 cells per random number
+                for(int k = 0; k < 8; k++) {
+                    if((int)(bytes >>> (k << 3) & 0xFF) < threshold)
+                        word |= 1L << (b + k);
+                }
+            }
+            cells[i] = word;
+        }
+        closeBorder(cells);
+    }
+
+    /**
+     * Applies the rules of the automaton to every cell, the given amount of times.
+     */
+    public void smooth(int iterations) {
+        for(int it = 0; it < iterations; it++) {
+            for(int y = 0; y < height; y++) {
+                int row   = y * words;
+                int above = y + 1 < height ? row + words : -1; // -1: outside of the map
+                int below = y > 0 ? row - words : -1;
+                for(int w = 0; w < words; w++) {
+                    s0 = s1 = s2 = s3 = 0;
+                    add(word(above, w));
+                    add(west(above, w));
+                    add(east(above, w));
+                    add(word(below, w));
+                    add(west(below, w));
+                    add(east(below, w));
+                    add(west(row, w));
+                    add(east(row, w));
+
+                    long center = cells[row + w];
+                    next[row + w] = (center & atLeast(survival)) | (~center & atLeast(birth));
+                }
+            }
+            closeBorder(next);
+            long[] swap = cells;
+            cells = next;
+            next = swap;
+        }
+    }
+
+    /**
+     * Adds one neighbour (a bit per cell) to the 64 counts: a chain of half adders over the bit-slices.
+     */
+    private void add(long in) {
+        long carry = s0 & in;
+        s0 ^= in;
+        long carry2 = s1 & carry;
+        s1 ^= carry;
+        s3 |= s2 & carry2; // 8 neighbours at most: bit 3 never carries further
+        s2 ^= carry2;
+    }
+
+    /**
+     * @return A bit set for each of the 64 counts that is at least `k` (compared bit-slice by bit-slice).
+     */
+    private long atLeast(int k) {
+        if(k <= 0) return -1L;
+        if(k > 15) return 0;
+        long greater = 0, equal = -1L;
+        if((k & 8) == 0) { greater |= equal & s3; equal &= ~s3; } else equal &= s3;
+        if((k & 4) == 0) { greater |= equal & s2; equal &= ~s2; } else equal &= s2;
+        if((k & 2) == 0) { greater |= equal & s1; equal &= ~s1; } else equal &= s1;
+        if((k & 1) == 0) { greater |= equal & s0; equal &= ~s0; } else equal &= s0;
+        return greater | equal;
+    }
+
+    /**
+     * @param row index of the first word of the row, or -1 outside of the map.
+     * @return The word, all walls outside of the map.
+     */
+    private long word(int row, int w) {
+        return row < 0 ? -1L : cells[row + w];
+    }
+
+    /**
+     * @return For each cell of the word, its western neighbour (x - 1).
+     */
+    private long west(int row, int w) {
+        if(row < 0) return -1L;
+        long carried = w > 0 ? cells[row + w - 1] >>> 63 : 1L;
+        return (cells[row + w] << 1) | carried;
+    }
+
+    /**
+     * @return For each cell of the word, its eastern neighbour (x + 1).
+     */
+    private long east(int row, int w) {
+        if(row < 0) return -1L;
+        long carried = w + 1 < words ? cells[row + w + 1] << 63 : 1L << 63;
+        return (cells[row + w] >>> 1) | carried;
+    }
+
+    /**
+     * The border of the map becomes (or stays) walls, and so do the bits past the right edge of the map.
+     */
+    private void closeBorder(long[] grid) {
+        for(int w = 0; w < words; w++) {
+            grid[w] = -1L;
+            grid[(height - 1) * words + w] = -1L;
+        }
+        int lastBit = (width - 1) & 63;
+        for(int y = 0; y < height; y++) {
+            int row = y * words;
+            grid[row] |= 1L;
+            grid[row + words - 1] |= ~lastWordMask | (1L << lastBit);
+        }
+    }
+
+
+    /**
+     * Flood fills every cave (4-connected floors), and turns all of them into walls but the largest one.
+     *
+     * @return The amount of floors of the largest cave.
+     */
+    public int keepLargestCave() {
+        long[] visited = next;
+        clear(visited);
+
+        int largest = 0, largestStart = -1;
+        for(int i = 0; i < cells.length; i++) {
+            long unvisited;
+            while((unvisited = ~cells[i] & ~visited[i]) != 0) { // floors that aren't part of a known cave yet
+                int x = ((i % words) << 6) + Long.numberOfTrailingZeros(unvisited);
+                int start = (i / words) * width + x;
+                int size = fill(start, visited);
+                if(size > largest) {
+                    largest = size;
+                    largestStart = start;
+                }
+            }
+        }
+
+        long[] kept = visited;
+        clear(kept);
+        if(largestStart >= 0)
+            fill(largestStart, kept);
+        for(int i = 0; i < cells.length; i++)
+            cells[i] = ~kept[i];
+        closeBorder(cells);
+        return largest;
+    }
+
+    /**
+     * Iterative flood fill (4-connected) of the floors, from a floor cell.
+     *
+     * @param start index of the cell (y * width + x).
+     * @param marks the bit of each filled cell is set. Marked cells aren't filled again.
+     * @return The amount of cells filled.
+     */
+    private int fill(int start, long[] marks) {
+        int size = 0;
+        stack.clear();
+        mark(start, marks);
+        stack.add(start);
+        while(stack.size > 0) {
+            int cell = stack.pop();
+            size++;
+            int x = cell % width, y = cell / width;
+            if(x > 0)          visit(x - 1, y, marks);
+            if(x + 1 < width)  visit(x + 1, y, marks);
+            if(y > 0)          visit(x, y - 1, marks);
+            if(y + 1 < height) visit(x, y + 1, marks);
+        }
+        return size;
+    }
+
+    private void visit(int x, int y, long[] marks) {
+        int i = y * words + (x >>> 6);
+        long bit = 1L << (x & 63);
+        if((cells[i] & bit) == 0 && (marks[i] & bit) == 0) {
+            marks[i] |= bit;
+            stack.add(y * width + x);
+        }
+    }
+
+    private void mark(int cell, long[] marks) {
+        int x = cell % width, y = cell / width;
+        marks[y * words + (x >>> 6)] |= 1L << (x & 63);
+    }
+
+    private static void clear(long[] bits) {
+        for(int i = 0; i < bits.length; i++)
+            bits[i] = 0;
+    }
+
+
+    /**
+     * Carves the floors into the terrain.
+     *
+     * @param grid must have the size of the automaton (usually all walls).
+     */
+    public void toTerrain(TerrainGrid grid) {
+        for(int y = 0; y < height; y++) {
+            for(int x = 0; x < width; x++) {
+                if(!isWall(x, y))
+                    grid.carve(x, y);
+            }
+        }
+    }
 }
@@ -2,9 +2,7 @@ package com.payne.games.map.generators.algos.drunkard;
 
 import com.badlogic.gdx.math.RandomXS128;
 import com.payne.games.logic.GameLogic;
-import com.payne.games.map.BaseMapLayer;
-import com.payne.games.map.tiles.Floor;
-import com.payne.games.map.tiles.Wall;
+import com.payne.games.map.generators.TerrainGrid;
 
 
 /**
@@ -15,7 +13,9 @@ import com.payne.games.map.tiles.Wall;
  * see: http://pcg.wikidot.com/pcg-algorithm:drunkard-walk
  */
 public class MapCarver {
-    private BaseMapLayer level;
+    private static final Direction4[] DIRECTIONS = Direction4.values(); // `values()` copies its array at each call
+
+    private TerrainGrid grid;
     private Drunkard drunk;
     private RandomXS128 rand;
     private double targetFloorPercent;
@@ -27,16 +27,16 @@ public class MapCarver {
     /**
      * Used to start up the Drunkard algo.
      *
-     * @param level a BaseMapLayer object that will be populated properly.
+     * @param grid the terrain to carve into (see `TerrainGrid.materialize()` for the Tiles).
      * @param init_x initial X position of the drunkard.
      * @param init_y initial Y position of the drunkard.
      * @param seed seed for (reproducible) pseudo-random generation.
      * @param targetFloorPercent target percentage point for the amount of floors in the level.
      */
-    public MapCarver(BaseMapLayer level, int init_x, int init_y, int seed, float targetFloorPercent) {
-        this.level = level;
+    public MapCarver(TerrainGrid grid, int init_x, int init_y, int seed, float targetFloorPercent) {
+        this.grid = grid;
         this.targetFloorPercent = targetFloorPercent;
-        numberOfTiles = level.getMapHeight() * level.getMapWidth();
+        numberOfTiles = grid.getHeight() * grid.getWidth();
 
         this.drunk = new Drunkard(init_x, init_y);
         dig(init_x, init_y);
@@ -48,7 +48,7 @@ public class MapCarver {
      * Get the drunkard to dig until the desired amount of floor-percentage is reached.
      */
     public void walk() {
-        initMap(level);
+        initMap(grid); // todo: this also undoes the dig of the starting position (which was still counted)
 
         do {
             randomWalk();
@@ -57,22 +57,18 @@ public class MapCarver {
 
     /**
      * To make sure the whole level begins with 100% impassable terrain (Walls).
-     * @param level the BaseMapLayer object that will be initialized properly.
+     * @param grid the terrain that will be initialized properly.
      */
-    private void initMap(BaseMapLayer level) {
-        for (int i = 0; i < level.getMapHeight(); i++) {
-            for (int j = 0; j < level.getMapWidth(); j++) {
-                level.setTile(j, i, new Wall(j ,i));
-            }
-        }
+    private void initMap(TerrainGrid grid) {
+        grid.fill(TerrainGrid.WALL);
     }
 
     /**
      * Gets the drunkard to walk in a random direction.
      */
     private void randomWalk() {
-        int directionIndex = rand.nextInt(Direction4.values().length); // select a random Direction-index
-        Direction4 dir = Direction4.values()[directionIndex]; // extract the Direction associated with the index
+        int directionIndex = rand.nextInt(DIRECTIONS.length); // select a random Direction-index
+        Direction4 dir = DIRECTIONS[directionIndex]; // extract the Direction associated with the index
 
         // todo: bias toward center?  walk 2 steps (more linear)?
 
@@ -88,7 +84,7 @@ public class MapCarver {
         int test_y = this.drunk.getY() + direction.getY();
 
         // Restrict movement to edges of the map, preserving walls at the boundary.
-        if (test_x < 1 || test_y < 1 || test_x > level.getMapWidth()-2 || test_y > level.getMapHeight()-2)
+        if (test_x < 1 || test_y < 1 || test_x > grid.getWidth()-2 || test_y > grid.getHeight()-2)
             return;
 
         // MoveAction the drunkard.
@@ -108,10 +104,7 @@ public class MapCarver {
      * @param y y position on the map.
      */
     private void dig(int x, int y) {
-        if(level.getTile(x, y) instanceof Floor) // Don't dig a Floor tile!
-            return;
-
-        level.setTile(x, y, new Floor(x, y));
-        floorTilesCreated++;
+        if(grid.carve(x, y)) // a Floor isn't dug twice
+            floorTilesCreated++;
     }
 }
@@ -1,7 +1,437 @@
 package com.payne.games.map.generators.algos.maze;
 
+import com.badlogic.gdx.math.DelaunayTriangulator;
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.ShortArray;
+import com.payne.games.map.generators.TerrainGrid;
+
+import java.util.Arrays;
+
+
 /**
+ * Rooms and corridors:
+ * <ol>
+ *     <li>Rooms of random sizes are thrown in an ellipse at the center of the map, twice as large as the rooms.</li>
+ *     <li>Overlapping rooms push each other apart until none overlap (separation steering); the few that are
+ *     still jammed after a bounded amount of iterations are dropped, like the ones pushed out of the map.</li>
+ *     <li>The largest rooms are the "main" rooms: their centers are triangulated (Delaunay), and the minimum
+ *     spanning tree of the triangulation (plus a few of its other edges, for loops) gives the corridors.</li>
+ *     <li>The other rooms are only kept if a corridor goes through them.</li>
+ * </ol>
+ * The separation only tests the rooms that are close to each other: every iteration, the rooms are sorted into a
+ * uniform grid whose cells are as large as the largest room, so that a room can only overlap the rooms of its own
+ * cell and of the 8 cells around it. Along with the triangulation (n log n), the generation stays near-linear in
+ * the amount of rooms. Nothing is allocated per iteration.
+ * <br><br>
  * see: https://www.gamasutra.com/blogs/AAdonaac/20150903/252889/Procedural_Dungeon_Generation_Algorithm.php
  */
 public class MazeRooms {
+    private static final int MIN_ROOM_SIZE = 3;
+    private static final int MAX_ROOM_SIZE = 9;
+    private static final int SPACING = 1; // minimum amount of wall in between two rooms
+    private static final float MAIN_ROOM_RATIO = 1.25f; // main rooms: area above the mean area times this
+    private static final float LOOP_CHANCE = 0.15f; // chance to keep an edge of the triangulation that isn't in the tree
+    private static final int MAX_SEPARATION_ITERATIONS = 200;
+    private static final float JITTER = 0.01f; // the centers are on a lattice: without it, the triangulator gets stuck on co-circular points
+
+    private final TerrainGrid grid;
+    private final RandomXS128 rand;
+
+    // rooms: position of the bottom-left corner, and size (in tiles)
+    private int roomCount;
+    private int[] roomX, roomY, roomW, roomH;
+    private int[] pushX, pushY;
+    private boolean[] main, kept;
+
+    // broadphase: the rooms sorted by cell (counting sort)
+    private int[] cellStart = new int[0], cellCursor = new int[0], cellRooms = new int[0], roomCell;
+    private int columns, rows;
+    private int separationIterations;
+    private int mainRoomCount;
+
+
+    /**
+     * @param grid the terrain to carve into (usually all walls).
+     * @param rand the level's generator.
+     */
+    public MazeRooms(TerrainGrid grid, RandomXS128 rand) {
+        this.grid = grid;
+        this.rand = rand;
+    }
+
+
+    /**
+     * @return An amount of rooms that fills (roughly) a map of that size.
+     */
+    public static int roomCountFor(int width, int height) {
+        float meanArea = (MIN_ROOM_SIZE + MAX_ROOM_SIZE) / 2f + SPACING;
+        return Math.max(2, (int)(width * height / (meanArea * meanArea * 2.5f)));
+    }
+
+    /**
+     * Generates the rooms and corridors, and carves them into the grid.
+     *
+     * @param rooms amount of rooms thrown in (before the ones outside of the map or without corridors are dropped).
+     * @return The amount of rooms carved.
+     */
+    public int generate(int rooms) {
+        spawnRooms(rooms);
+        separateRooms();
+        dropRoomsOutsideOfMap();
+        dropOverlappingRooms();
+        selectMainRooms();
+
+        boolean[] corridor = new boolean[grid.getWidth() * grid.getHeight()];
+        connectMainRooms(corridor);
+        return carve(corridor);
+    }
+
+    public int getSeparationIterations() {
+        return separationIterations;
+    }
+    public int getMainRoomCount() {
+        return mainRoomCount;
+    }
+
+
+    /**
+     * Rooms of random sizes, at random positions within an ellipse at the center of the map.
+     */
+    private void spawnRooms(int rooms) {
+        roomCount = rooms;
+        roomX = new int[rooms];
+        roomY = new int[rooms];
+        roomW = new int[rooms];
+        roomH = new int[rooms];
+        pushX = new int[rooms];
+        pushY = new int[rooms];
+        roomCell = new int[rooms];
+        main = new boolean[rooms];
+        kept = new boolean[rooms];
+
+        long area = 0;
+        for(int i = 0; i < rooms; i++) {
+            roomW[i] = MIN_ROOM_SIZE + rand.nextInt(MAX_ROOM_SIZE - MIN_ROOM_SIZE + 1);
+            roomH[i] = MIN_ROOM_SIZE + rand.nextInt(MAX_ROOM_SIZE - MIN_ROOM_SIZE + 1);
+            area += (roomW[i] + SPACING) * (roomH[i] + SPACING);
+        }
+
+        /* An ellipse (with the proportions of the map) twice as large as the rooms: loose enough that the rooms only
+         * push their neighbours, instead of the whole pack having to spread out a tile at a time. */
+        double scale = Math.sqrt(2 * area / (Math.PI * grid.getWidth() * grid.getHeight()));
+        double radiusX = grid.getWidth() * scale, radiusY = grid.getHeight() * scale;
+        for(int i = 0; i < rooms; i++) {
+            double angle = rand.nextDouble() * Math.PI * 2;
+            double distance = Math.sqrt(rand.nextDouble()); // uniform over the area of the ellipse
+            roomX[i] = (int)(grid.getWidth() / 2f + Math.cos(angle) * distance * radiusX) - roomW[i] / 2;
+            roomY[i] = (int)(grid.getHeight() / 2f + Math.sin(angle) * distance * radiusY) - roomH[i] / 2;
+        }
+    }
+
+    /**
+     * Separation steering: every overlapping pair of rooms pushes both rooms apart (half of the overlap each),
+     * along the axis on which they overlap the least. Repeated until no rooms overlap, or for a bounded amount of
+     * iterations: the few rooms still jammed together by then are dropped (see `dropOverlappingRooms()`).
+     */
+    private void separateRooms() {
+        for(separationIterations = 0; separationIterations < MAX_SEPARATION_ITERATIONS; separationIterations++) {
+            if(!pushRoomsApart())
+                return;
+        }
+    }
+
+    /**
+     * @return 'false' if no rooms overlapped.
+     */
+    private boolean pushRoomsApart() {
+        sortIntoCells();
+        Arrays.fill(pushX, 0, roomCount, 0);
+        Arrays.fill(pushY, 0, roomCount, 0);
+        boolean overlapped = false;
+        for(int i = 0; i < roomCount; i++) {
+            int column = roomCell[i] % columns, row = roomCell[i] / columns;
+            for(int r = Math.max(0, row - 1); r <= Math.min(rows - 1, row + 1); r++) {
+                for(int c = Math.max(0, column - 1); c <= Math.min(columns - 1, column + 1); c++) {
+                    int cell = r * columns + c;
+                    for(int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+                        int j = cellRooms[k];
+                        if(j > i && pushApart(i, j))
+                            overlapped = true;
+                    }
+                }
+            }
+        }
+
+        for(int i = 0; i < roomCount; i++) {
+            roomX[i] += pushX[i];
+            roomY[i] += pushY[i];
+        }
+        return overlapped;
+    }
+
+    /**
+     * Broadphase: counting sort of the rooms by the cell of their bottom-left corner. A room can only overlap the
+     * rooms of its own cell and of the 8 cells around it.
+     */
+    private void sortIntoCells() {
+        final int cellSize = MAX_ROOM_SIZE + SPACING;
+
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+        for(int i = 0; i < roomCount; i++) {
+            minX = Math.min(minX, roomX[i]);
+            minY = Math.min(minY, roomY[i]);
+            maxX = Math.max(maxX, roomX[i]);
+            maxY = Math.max(maxY, roomY[i]);
+        }
+        columns = (maxX - minX) / cellSize + 1;
+        rows    = (maxY - minY) / cellSize + 1;
+        int cells = columns * rows;
+
+        if(cellStart.length < cells + 1) {
+            cellStart  = new int[Math.max(cells + 1, cellStart.length * 2)];
+            cellCursor = new int[cellStart.length];
+        }
+        Arrays.fill(cellStart, 0, cells + 1, 0);
+        for(int i = 0; i < roomCount; i++) {
+            roomCell[i] = ((roomY[i] - minY) / cellSize) * columns + (roomX[i] - minX) / cellSize;
+            cellStart[roomCell[i] + 1]++;
+        }
+        for(int c = 0; c < cells; c++)
+            cellStart[c + 1] += cellStart[c]; // the rooms of the cell `c` are in [cellStart[c], cellStart[c + 1])
+        System.arraycopy(cellStart, 0, cellCursor, 0, cells);
+        if(cellRooms.length < roomCount)
+            cellRooms = new int[roomCount];
+        for(int i = 0; i < roomCount; i++)
+            cellRooms[cellCursor[roomCell[i]]++] = i;
+    }
+
+    /**
+     * @return 'true' if the rooms overlap (spacing included): both are then pushed away from each other.
+     */
+    private boolean pushApart(int i, int j) {
+        int overlapX = overlapX(i, j), overlapY = overlapY(i, j);
+        if(overlapX <= 0 || overlapY <= 0)
+            return false;
+
+        if(overlapX <= overlapY) {
+            int direction = direction(2 * roomX[i] + roomW[i] - 2 * roomX[j] - roomW[j], i, j);
+            pushX[i] += direction * (overlapX + 1) / 2;
+            pushX[j] -= direction * (overlapX + 1) / 2;
+        } else {
+            int direction = direction(2 * roomY[i] + roomH[i] - 2 * roomY[j] - roomH[j], i, j);
+            pushY[i] += direction * (overlapY + 1) / 2;
+            pushY[j] -= direction * (overlapY + 1) / 2;
+        }
+        return true;
+    }
+
+    /**
+     * @return How much the rooms overlap on the x axis (spacing included). Not positive if they don't.
+     */
+    private int overlapX(int i, int j) {
+        return Math.min(roomX[i] + roomW[i], roomX[j] + roomW[j]) + SPACING - Math.max(roomX[i], roomX[j]);
+    }
+    private int overlapY(int i, int j) {
+        return Math.min(roomY[i] + roomH[i], roomY[j] + roomH[j]) + SPACING - Math.max(roomY[i], roomY[j]);
+    }
+
+    /**
+     * @param centerDelta twice the distance from the center of the room `j` to the center of the room `i`.
+     * @return The direction in which `i` is pushed. Rooms with the same center are told apart by their index.
+     */
+    private static int direction(int centerDelta, int i, int j) {
+        if(centerDelta != 0)
+            return centerDelta > 0 ? 1 : -1;
+        return ((i + j) & 1) == 0 ? 1 : -1;
+    }
+
+    /**
+     * The separated rooms spread out past the map: only the ones that end up within its border are kept.
+     */
+    private void dropRoomsOutsideOfMap() {
+        for(int i = 0; i < roomCount; i++) {
+            kept[i] = roomX[i] >= 1 && roomY[i] >= 1
+                    && roomX[i] + roomW[i] <= grid.getWidth() - 1
+                    && roomY[i] + roomH[i] <= grid.getHeight() - 1;
+        }
+    }
+
+    /**
+     * When the separation didn't fully converge: of each pair of kept rooms that still overlap, the second one
+     * is dropped.
+     */
+    private void dropOverlappingRooms() {
+        sortIntoCells();
+        for(int i = 0; i < roomCount; i++) {
+            if(!kept[i])
+                continue;
+            int column = roomCell[i] % columns, row = roomCell[i] / columns;
+            for(int r = Math.max(0, row - 1); r <= Math.min(rows - 1, row + 1); r++) {
+                for(int c = Math.max(0, column - 1); c <= Math.min(columns - 1, column + 1); c++) {
+                    int cell = r * columns + c;
+                    for(int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+                        int j = cellRooms[k];
+                        if(j > i && kept[j] && overlapX(i, j) > 0 && overlapY(i, j) > 0)
+                            kept[j] = false;
+                    }
+                }
+            }
+        }
+    }
+
+    private void selectMainRooms() {
+        long totalArea = 0;
+        int count = 0;
+        for(int i = 0; i < roomCount; i++) {
+            if(kept[i]) {
+                totalArea += roomW[i] * roomH[i];
+                count++;
+            }
+        }
+        float threshold = count == 0 ? 0 : MAIN_ROOM_RATIO * totalArea / count;
+
+        mainRoomCount = 0;
+        for(int i = 0; i < roomCount; i++) {
+            main[i] = kept[i] && roomW[i] * roomH[i] >= threshold;
+            if(main[i])
+                mainRoomCount++;
+        }
+        if(mainRoomCount < 2) { // not enough for corridors: every room is a main room
+            mainRoomCount = 0;
+            for(int i = 0; i < roomCount; i++) {
+                main[i] = kept[i];
+                if(main[i])
+                    mainRoomCount++;
+            }
+        }
+    }
+
+    /**
+     * Delaunay triangulation of the centers of the main rooms, then minimum spanning tree of its edges (Kruskal),
+     * plus a few of the other edges. Each chosen edge becomes an L-shaped corridor.
+     */
+    private void connectMainRooms(boolean[] corridor) {
+        int[] rooms = new int[mainRoomCount]; // main room index -> room index
+        float[] centers = new float[mainRoomCount * 2];
+        for(int i = 0, m = 0; i < roomCount; i++) {
+            if(main[i]) {
+                rooms[m] = i;
+                centers[m * 2]     = roomX[i] + roomW[i] / 2f + JITTER * (rand.nextFloat() - .5f);
+                centers[m * 2 + 1] = roomY[i] + roomH[i] / 2f + JITTER * (rand.nextFloat() - .5f);
+                m++;
+            }
+        }
+
+        /* Edges of the triangulation (each one is listed by both of its triangles, duplicates are harmless). */
+        IntArray edgesFrom = new IntArray(), edgesTo = new IntArray();
+        if(mainRoomCount >= 3) {
+            ShortArray triangles = new DelaunayTriangulator().computeTriangles(centers, false);
+            for(int t = 0; t < triangles.size; t += 3) {
+                for(int e = 0; e < 3; e++) {
+                    int a = triangles.get(t + e), b = triangles.get(t + (e + 1) % 3);
+                    edgesFrom.add(Math.min(a, b));
+                    edgesTo.add(Math.max(a, b));
+                }
+            }
+        }
+        if(edgesFrom.size == 0) { // less than 3 rooms, or all of them aligned: chained in order
+            for(int m = 0; m + 1 < mainRoomCount; m++) {
+                edgesFrom.add(m);
+                edgesTo.add(m + 1);
+            }
+        }
+
+        /* Kruskal: the edges sorted by length (the squared length is packed above the index of the edge). */
+        long[] sorted = new long[edgesFrom.size];
+        for(int e = 0; e < sorted.length; e++) {
+            float dx = centers[edgesFrom.get(e) * 2] - centers[edgesTo.get(e) * 2];
+            float dy = centers[edgesFrom.get(e) * 2 + 1] - centers[edgesTo.get(e) * 2 + 1];
+            sorted[e] = ((long)(4 * (dx * dx + dy * dy)) << 32) | e; // a quarter of a tile is precise enough
+        }
+        Arrays.sort(sorted);
+
+        int[] parent = new int[mainRoomCount];
+        for(int m = 0; m < mainRoomCount; m++)
+            parent[m] = m;
+        for(long key : sorted) {
+            int e = (int)key;
+            int a = edgesFrom.get(e), b = edgesTo.get(e);
+            int rootA = find(parent, a), rootB = find(parent, b);
+            if(rootA != rootB) {
+                parent[rootA] = rootB;
+                digCorridor(rooms[a], rooms[b], corridor);
+            } else if(rand.nextFloat() < LOOP_CHANCE) {
+                digCorridor(rooms[a], rooms[b], corridor);
+            }
+        }
+    }
+
+    private static int find(int[] parent, int m) {
+        while(parent[m] != m) {
+            parent[m] = parent[parent[m]]; // path halving
+            m = parent[m];
+        }
+        return m;
+    }
+
+    /**
+     * L-shaped corridor in between the centers of two rooms (horizontal or vertical first, at random).
+     */
+    private void digCorridor(int a, int b, boolean[] corridor) {
+        int ax = roomX[a] + roomW[a] / 2, ay = roomY[a] + roomH[a] / 2;
+        int bx = roomX[b] + roomW[b] / 2, by = roomY[b] + roomH[b] / 2;
+        if(rand.nextBoolean()) {
+            horizontal(ax, bx, ay, corridor);
+            vertical(ay, by, bx, corridor);
+        } else {
+            vertical(ay, by, ax, corridor);
+            horizontal(ax, bx, by, corridor);
+        }
+    }
+
+    private void horizontal(int fromX, int toX, int y, boolean[] corridor) {
+        for(int x = Math.min(fromX, toX); x <= Math.max(fromX, toX); x++)
+            corridor[y * grid.getWidth() + x] = true;
+    }
+
+    private void vertical(int fromY, int toY, int x, boolean[] corridor) {
+        for(int y = Math.min(fromY, toY); y <= Math.max(fromY, toY); y++)
+            corridor[y * grid.getWidth() + x] = true;
+    }
+
+    /**
+     * Carves the main rooms, the corridors, and the other rooms that a corridor goes through.
+     *
+     * @return The amount of rooms carved.
+     */
+    private int carve(boolean[] corridor) {
+        int carved = 0;
+        for(int i = 0; i < roomCount; i++) {
+            if(kept[i] && (main[i] || crossesCorridor(i, corridor))) {
+                for(int y = roomY[i]; y < roomY[i] + roomH[i]; y++) {
+                    for(int x = roomX[i]; x < roomX[i] + roomW[i]; x++)
+                        grid.carve(x, y);
+                }
+                carved++;
+            }
+        }
+        for(int y = 0; y < grid.getHeight(); y++) {
+            for(int x = 0; x < grid.getWidth(); x++) {
+                if(corridor[y * grid.getWidth() + x])
+                    grid.carve(x, y);
+            }
+        }
+        return carved;
+    }
+
+    private boolean crossesCorridor(int i, boolean[] corridor) {
+        for(int y = roomY[i]; y < roomY[i] + roomH[i]; y++) {
+            for(int x = roomX[i]; x < roomX[i] + roomW[i]; x++) {
+                if(corridor[y * grid.getWidth() + x])
+                    return true;
+            }
+        }
+        return false;
+    }
 }
@@ -8,18 +8,48 @@ import com.badlogic.gdx.ai.pfa.indexed.IndexedGraph;
 import com.badlogic.gdx.utils.Array;
 import com.payne.games.map.BaseMapLayer;
 import com.payne.games.map.tiles.Tile;
-
-
-public class MyIndexedGraph implements IndexedGraph<Tile> {
-    private int nodeCount = 0;
+import com.payne.games.profiling.Profiler;
+
+
+/**
+ * The nodes are the positions of the level ((x,y) at index `y * width + x`), each connected to its 4 neighbors that
+ * allow movement. The walkability comes from the level, including the chunks paged out (see
+ * `BaseMapLayer.isWalkable()`): a path goes across them without faulting them in, the same as if they were in memory.
+ * <br><br>
+ * The PathNodes are created the first time a search reaches them, then kept: the indices never change, and a single
+ * pathfinder serves every search of the level.
+ */
+public class MyIndexedGraph implements IndexedGraph<PathNode> {
     private MyHeuristic heuristic = new MyHeuristic();
+    private IndexedAStarPathFinder<PathNode> pathFinder; // reused by every search (its node records are allocated once)
+    private Profiler profiler; // optional: counts the searches and the nodes they visit
+    private final BaseMapLayer level;
+    private final int width, height;
+    private final PathNode[] nodes; // 'null' until reached
+    private final Array<Connection<PathNode>> connections = new Array<>(4); // of the node being visited
+    private final DefaultGraphPath<PathNode> path = new DefaultGraphPath<>(); // of the last search
 
 
     public MyIndexedGraph(BaseMapLayer currLevel) {
-        // todo: currently assumes the initial WalkableTiles set will never expand (e.g. digging a wall).
-        for(Tile t: currLevel.getWalkableTiles()) {
-            t.setGraphIndex(nodeCount++);
-        }
+        this(currLevel, null);
+    }
+
+    public MyIndexedGraph(BaseMapLayer currLevel, Profiler profiler) {
+        this.level = currLevel;
+        this.profiler = profiler;
+        this.width = currLevel.getMapWidth();
+        this.height = currLevel.getMapHeight();
+        this.nodes = new PathNode[width * height];
+        this.pathFinder = new IndexedAStarPathFinder<>(this, profiler != null);
+    }
+
+
+    private PathNode nodeAt(int x, int y) {
+        int index = y * width + x;
+        PathNode node = nodes[index];
+        if(node == null)
+            node = nodes[index] = new PathNode(x, y, index);
+        return node;
     }
 
 
@@ -28,15 +58,17 @@ public class MyIndexedGraph implements IndexedGraph<Tile> {
      *
      * @param movingFrom Tile starting from.
      * @param movingTo Tile wished to finish at.
-     * @return A sequence of node to move through. If no path exists, the sequence is empty (but not null).
+     * @return A sequence of node to move through. If no path exists, the sequence is empty (but not null). Reused by
+     *         the next search.
      */
-    public DefaultGraphPath getWholePathToMoveTo(Tile movingFrom, Tile movingTo) {
-        DefaultGraphPath<Tile> outputGraphPath = new DefaultGraphPath<>();
-
-        IndexedAStarPathFinder<Tile> pathFinder = new IndexedAStarPathFinder<>(this);
-        pathFinder.searchNodePath(movingFrom, movingTo, heuristic, outputGraphPath);
-
-        return outputGraphPath;
+    public DefaultGraphPath<PathNode> getWholePathToMoveTo(Tile movingFrom, Tile movingTo) {
+        path.clear();
+        pathFinder.searchNodePath(nodeAt(movingFrom.getX(), movingFrom.getY()),
+                nodeAt(movingTo.getX(), movingTo.getY()), heuristic, path);
+
+        if(profiler != null)
+            profiler.countPathQuery(pathFinder.metrics.visitedNodes);
+        return path;
     }
 
     /**
@@ -47,33 +79,38 @@ public class MyIndexedGraph implements IndexedGraph<Tile> {
      * @return The first Tile required to be moved to. If no path existed, `null` is returned.
      */
     public Tile extractFirstMove(Tile movingFrom, Tile movingTo) {
-        DefaultGraphPath<Tile> path = getWholePathToMoveTo(movingFrom, movingTo);
-        return path.getCount() > 1 ? path.nodes.get(1) : null; // we output only if there is at least one move to be done
+        DefaultGraphPath<PathNode> path = getWholePathToMoveTo(movingFrom, movingTo);
+        if(path.getCount() <= 1) // we output only if there is at least one move to be done
+            return null;
+        PathNode first = path.get(1);
+        return level.getTile(first.getX(), first.getY());
     }
 
 
 
     @Override
-    public int getIndex(Tile node) {
-        return node.getGraphIndex();
+    public int getIndex(PathNode node) {
+        return node.getIndex();
     }
 
     @Override
     public int getNodeCount() {
-        return nodeCount;
+        return nodes.length;
     }
 
     @Override
-    public Array<Connection<Tile>> getConnections(Tile fromNode) {
-        Array<Connection<Tile>> edges = new Array<>();
-
-        for(Tile tile : fromNode.getNeighbors()) {
-            if(tile.isAllowingMove()) {
-                DefaultConnection<Tile> edge = new DefaultConnection<>(fromNode, tile);
-                edges.add(edge);
-            }
-        }
+    public Array<Connection<PathNode>> getConnections(PathNode fromNode) {
+        connections.clear(); // the pathfinder is done with the previous node's
+        int x = fromNode.getX(), y = fromNode.getY();
+        connect(fromNode, x, y + 1);
+        connect(fromNode, x, y - 1);
+        connect(fromNode, x + 1, y);
+        connect(fromNode, x - 1, y);
+        return connections;
+    }
 
-        return edges;
+    private void connect(PathNode fromNode, int x, int y) {
+        if(x >= 0 && y >= 0 && x < width && y < height && level.isWalkable(x, y))
+            connections.add(new DefaultConnection<>(fromNode, nodeAt(x, y)));
     }
 }
@@ -0,0 +1,34 @@
+package com.payne.games.map.pathfinding;
+
+
+/**
+ * A position of a level, as a node of its MyIndexedGraph. Unlike its Tile, it stays the same instance whether its
+ * chunk is in memory or not (see `BaseMapLayer.trim()`).
+ */
+public class PathNode {
+    private final int x, y;
+    private final int index; // y * width + x
+
+
+    PathNode(int x, int y, int index) {
+        this.x = x;
+        this.y = y;
+        this.index = index;
+    }
+
+
+    public int getX() {
+        return x;
+    }
+    public int getY() {
+        return y;
+    }
+    public int getIndex() {
+        return index;
+    }
+
+    @Override
+    public String toString() {
+        return "PathNode{" + x + "," + y + '}';
+    }
+}
@@ -0,0 +1,131 @@
+package com.payne.games.map.storage;
+
+import com.payne.games.map.BaseMapLayer;
+import com.payne.games.map.tiles.Tile;
+
+import java.nio.ByteBuffer;
+
+
+/**
+ * Binary format of a chunk of the BaseMapLayer paged out of the memory (see `IChunkStore`): what each Tile is made
+ * of, and whether it can be walked and seen through (a Door, an Actor standing on it). Nothing else: the
+ * exploration stays in the level (see `ExplorationMemory`), the textures are assigned again, and the connections
+ * and pathfinding nodes are rebuilt once the chunk is back.
+ * <br><br>
+ * Layout: three sections (TERRAIN, BITMASKS, FLAGS) of a byte per Tile, each in the order of the chunk itself
+ * (the Tile (x,y) at `(y % CHUNK_SIZE) * CHUNK_SIZE + x % CHUNK_SIZE`). The cells of a chunk past the edges of the
+ * level are zeros, and ignored.
+ */
+public final class ChunkCodec {
+    private static final int SHIFT = BaseMapLayer.CHUNK_SHIFT;
+    private static final int MASK = BaseMapLayer.CHUNK_SIZE - 1;
+    private static final int AREA = BaseMapLayer.CHUNK_AREA;
+    public static final int SIZE = 3 * AREA;
+
+    /* Sections. */
+    public static final int TERRAIN  = 0; // WALL, FLOOR, WATER or EMPTY (see `LevelCodec`)
+    public static final int BITMASKS = 1; // the wall-connections
+    public static final int FLAGS    = 2;
+
+    /* Flags of the Tiles. */
+    public static final int ALLOWING_MOVE = 1;
+    public static final int SEE_THROUGH   = 2;
+    private static final byte[] NEW_FLAGS = new byte[LevelCodec.EMPTY + 1]; // the flags of a new Tile, by terrain
+
+    static {
+        for(byte terrain = 0; terrain < NEW_FLAGS.length; terrain++)
+            NEW_FLAGS[terrain] = valueOf(FLAGS, LevelCodec.createTile(terrain, 0, 0));
+    }
+
+
+    private ChunkCodec() {
+    }
+
+
+    /**
+     * @param chunk the Tiles of the chunk, in the order of the BaseMapLayer ('null' past the edges).
+     * @return The encoded chunk, from index 0 to its limit.
+     */
+    public static ByteBuffer encode(Tile[] chunk) {
+        ByteBuffer out = ByteBuffer.allocate(SIZE);
+        for(int i = 0; i < AREA; i++) {
+            Tile tile = chunk[i];
+            if(tile == null)
+                continue;
+            out.put(TERRAIN * AREA + i, valueOf(TERRAIN, tile));
+            out.put(BITMASKS * AREA + i, valueOf(BITMASKS, tile));
+            out.put(FLAGS * AREA + i, valueOf(FLAGS, tile));
+        }
+        return out;
+    }
+
+    /**
+     * @param section TERRAIN, BITMASKS or FLAGS.
+     * @return What the section keeps of the Tile.
+     */
+    public static byte valueOf(int section, Tile tile) {
+        switch (section) {
+            case TERRAIN:
+                return LevelCodec.terrainOf(tile);
+            case BITMASKS:
+                return (byte)tile.getBitmask();
+            default:
+                return (byte)((tile.isAllowingMove() ? ALLOWING_MOVE : 0) | (tile.isSeeThrough() ? SEE_THROUGH : 0));
+        }
+    }
+
+    /**
+     * @param terrain WALL, FLOOR, WATER or EMPTY (see `LevelCodec`).
+     * @return The flags of a new Tile of that terrain: nothing standing on it.
+     */
+    public static byte newFlagsOf(byte terrain) {
+        return NEW_FLAGS[terrain];
+    }
+
+    /**
+     * Sets the flags of every Tile of an encoded chunk back to the ones of a new Tile of its terrain, in place.
+     *
+     * @param data an encoded chunk, from index 0.
+     */
+    public static void clearFlags(ByteBuffer data) {
+        for(int i = 0; i < AREA; i++)
+            data.put(FLAGS * AREA + i, newFlagsOf(get(data, TERRAIN, i)));
+    }
+
+    /**
+     * @param data an encoded chunk, from index 0.
+     * @param section TERRAIN, BITMASKS or FLAGS.
+     * @param index the Tile's index in the chunk.
+     * @return What the section keeps of the Tile.
+     */
+    public static byte get(ByteBuffer data, int section, int index) {
+        return data.get(section * AREA + index);
+    }
+
+    /**
+     * Creates the Tiles of a chunk again, as they were encoded. They don't report their changes anywhere yet.
+     *
+     * @param data an encoded chunk, from index 0.
+     * @param chunkX position of the chunk in the level, in amount of chunks.
+     * @param chunkY same.
+     * @param mapWidth width of the level: the cells past it get no Tile.
+     * @param mapHeight height of the level: same.
+     * @return The Tiles, in the order of the BaseMapLayer.
+     */
+    public static Tile[] decode(ByteBuffer data, int chunkX, int chunkY, int mapWidth, int mapHeight) {
+        Tile[] chunk = new Tile[AREA];
+        for(int i = 0; i < AREA; i++) {
+            int x = (chunkX << SHIFT) | (i & MASK);
+            int y = (chunkY << SHIFT) | (i >> SHIFT);
+            if(x >= mapWidth || y >= mapHeight)
+                continue;
+            Tile tile = LevelCodec.createTile(get(data, TERRAIN, i), x, y);
+            int flags = get(data, FLAGS, i);
+            tile.setBitmask(get(data, BITMASKS, i));
+            tile.setAllowingMove((flags & ALLOWING_MOVE) != 0);
+            tile.setSeeThrough((flags & SEE_THROUGH) != 0);
+            chunk[i] = tile;
+        }
+        return chunk;
+    }
+}
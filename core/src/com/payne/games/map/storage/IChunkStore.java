@@ -0,0 +1,43 @@
+package com.payne.games.map.storage;
+
+import java.nio.ByteBuffer;
+
+
+/**
+ * Where the chunks of a level paged out of the memory go (see `BaseMapLayer.setPaging()`), encoded by the
+ * ChunkCodec, until they are faulted back in.<br>
+ * By default they stay in the heap, encoded (see MemoryChunkStore); the desktop writes them to scratch files instead.
+ * <br><br>
+ * A level may be read back on another thread than the one playing (see `LevelCache`): the implementations are
+ * thread-safe.
+ */
+public interface IChunkStore {
+
+    /**
+     * @return A key of its own for a level about to be paged: its chunks are apart from those of any other level.
+     */
+    int open();
+
+    /**
+     * Replaces the chunk stored for that level, if any.
+     *
+     * @param key given by `open()`.
+     * @param chunk index of the chunk in the level: `chunkY * chunkColumns + chunkX`.
+     * @param data the encoded chunk, from its position to its limit.
+     */
+    void write(int key, int chunk, ByteBuffer data);
+
+    /**
+     * @param key given by `open()`.
+     * @param chunk index of the chunk in the level: `chunkY * chunkColumns + chunkX`.
+     * @return The encoded chunk, from index 0, as it was last written. 'null' if it never was.
+     */
+    ByteBuffer read(int key, int chunk);
+
+    /**
+     * Forgets the chunks of a level, once it is out of the game (see `BaseMapLayer.releasePages()`).
+     *
+     * @param key given by `open()`. Not used again.
+     */
+    void forget(int key);
+}
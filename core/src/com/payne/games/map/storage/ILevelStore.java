@@ -0,0 +1,37 @@
+package com.payne.games.map.storage;
+
+import java.nio.ByteBuffer;
+
+
+/**
+ * Keeps the levels already visited, encoded by the LevelCodec, so that going back to a depth reloads it as it was
+ * left instead of generating it again.<br>
+ * By default the levels go through streams (see StreamLevelStore); the desktop maps its files in memory instead.
+ */
+public interface ILevelStore {
+
+    /**
+     * @param depth 0 for the very first level.
+     * @return 'true' if the level at that depth was stored.
+     */
+    boolean contains(int depth);
+
+    /**
+     * @param depth 0 for the very first level.
+     * @return The encoded level (see LevelCodec), from index 0. 'null' if it wasn't stored.
+     */
+    ByteBuffer read(int depth);
+
+    /**
+     * Replaces the level stored at that depth, if any.
+     *
+     * @param depth 0 for the very first level.
+     * @param level the encoded level, from its position to its limit.
+     */
+    void write(int depth, ByteBuffer level);
+
+    /**
+     * Forgets all the levels (e.g. a new game starts).
+     */
+    void clear();
+}
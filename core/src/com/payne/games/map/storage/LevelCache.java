@@ -0,0 +1,262 @@
+package com.payne.games.map.storage;
+
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.async.AsyncExecutor;
+import com.badlogic.gdx.utils.async.AsyncResult;
+import com.badlogic.gdx.utils.async.AsyncTask;
+import com.payne.games.map.generators.LevelPipeline;
+import com.payne.games.map.generators.PreparedLevel;
+
+import java.nio.ByteBuffer;
+
+
+/**
+ * Keeps the levels already visited, so that going back to a depth neither generates it again nor decodes it,
+ * whenever possible. A level goes down three tiers, the least recently left first, to stay within a memory budget
+ * (see `GameLogic.LEVEL_CACHE_BUDGET`):
+ * <ul>
+ *     <li>live: the level as it was left (base layer, pathfinding graph, the GameObjects themselves), re-entered
+ *         as it is. Only its chunks in memory count: the ones paged out stay in their IChunkStore until the level
+ *         is demoted</li>
+ *     <li>packed: encoded by the LevelCodec then compressed (see `PackBits`), about 200 times smaller. Only
+ *         decoded, and its graph built again. The GameObjects are reduced to their SpawnPlan: the Enemies come
+ *         back as they were spawned</li>
+ *     <li>stored: only in the ILevelStore, read back from the disk</li>
+ * </ul>
+ * A level is encoded, packed and written to the ILevelStore on a background thread as soon as it is left: the
+ * level isn't touched by the game until it is entered again, and entering it waits for the encoding to be over.
+ * The demotions happen on that thread as well, after the encoding (they wait for it, and forget the chunks paged
+ * out). Every tier restores what stood on the Tiles the same way: not at all, the GameObjects are placed again when
+ * the level is entered, the live ones as they are, the others from the SpawnPlan (see `BaseMapLayer.clearOccupancy()`).
+ * The store always ends up with every level visited (a saved game relies on it, see `GameSave`), and a demotion
+ * only drops what the tier above already has. The lighting needs nothing more: what was explored is in the level
+ * (see `ExplorationMemory`).
+ * <br><br>
+ * On backends without threads (GWT), the AsyncExecutor runs the tasks immediately.
+ */
+public class LevelCache implements Disposable {
+    public static final int LIVE_BYTES_PER_TILE = 64; // Tile, and its slots in the graph (measured)
+
+    private final LevelPipeline pipeline; // decodes the packed and stored levels
+    private final int budget;
+    private ILevelStore store;
+
+    private final IntMap<Entry> entries = new IntMap<>(); // the live and packed levels
+    private final IntArray recency = new IntArray(); // their depths, the least recently left first
+    private AsyncExecutor executor; // a single thread: the levels reach the store in order, then are demoted
+    private AsyncResult<Void> lastTrim; // done once every level left so far is encoded, stored and demoted
+
+    /* Statistics: read by the ProfilerOverlay, from another thread. */
+    private volatile int liveHits, packedHits, storedHits, misses;
+    private volatile int liveLevels, packedLevels;
+    private volatile int liveBytes, packedBytes; // as of the last level left, demoted or entered
+
+
+    /**
+     * @param pipeline decodes the packed and stored levels (their pathfinding graph is built again).
+     * @param budget amount of bytes the live and packed levels may take, all together.
+     */
+    public LevelCache(LevelPipeline pipeline, int budget) {
+        this.pipeline = pipeline;
+        this.budget = budget;
+    }
+
+
+    /**
+     * @param store where the levels are kept once out of the memory. 'null': they are forgotten, and generated again.
+     */
+    public void setStore(ILevelStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Keeps a level that was just left. Must not be modified until it is taken back.
+     *
+     * @param level the level, with the GameObjects left on it (and recorded in its SpawnPlan).
+     */
+    public void put(final PreparedLevel level) {
+        final int depth = level.getDepth();
+        forget(depth);
+
+        final ILevelStore store = this.store;
+        if(executor == null)
+            executor = new AsyncExecutor(1, "LevelCache");
+        AsyncResult<byte[]> packed = executor.submit(new AsyncTask<byte[]>() {
+            @Override
+            public byte[] call() {
+                level.getLevel().clearOccupancy(); // as a decoded level: the GameObjects are placed again on entering
+                ByteBuffer encoded = LevelCodec.encode(depth, level.getLevel(), level.getSpawnPlan());
+                if(store != null)
+                    store.write(depth, encoded.duplicate());
+                return PackBits.pack(encoded);
+            }
+        });
+        Entry entry = new Entry(level, level.getLevel().getLiveBytes(), packed); // its chunks paged out don't count
+        synchronized (this) {
+            entries.put(depth, entry);
+            recency.add(depth);
+            count();
+        }
+        lastTrim = executor.submit(new AsyncTask<Void>() {
+            @Override
+            public Void call() {
+                trim();
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Takes back a level to enter it: it leaves the cache until it is left again.
+     *
+     * @param depth 0 for the very first level.
+     * @return The level as it was left. 'null' if it was never visited (or forgotten): it is to be generated.
+     */
+    public PreparedLevel take(int depth) {
+        Entry entry;
+        PreparedLevel live;
+        synchronized (this) { // out of the background thread's reach from now on
+            entry = entries.remove(depth);
+            if(entry != null)
+                recency.removeValue(depth);
+            live = entry != null ? entry.live : null;
+            count();
+        }
+        PreparedLevel level = null;
+        if(entry != null) {
+            byte[] packed = entry.packed.get(); // the background thread is done with the level
+            if(live != null) {
+                level = live;
+                liveHits++;
+            } else {
+                level = pipeline.restore(PackBits.unpack(packed));
+                packedHits++;
+            }
+        } else if(store != null && store.contains(depth)) {
+            level = pipeline.restore(store.read(depth));
+            storedHits++;
+        } else {
+            misses++;
+        }
+        return level;
+    }
+
+    /**
+     * Demotes the least recently left levels until the budget is met: the live ones are packed first, then the
+     * packed ones are left to the store. Runs on the background thread, after the levels left so far are packed.
+     */
+    private synchronized void trim() {
+        int used = count();
+        for(int i = 0; i < recency.size && used > budget; i++) {
+            Entry entry = entries.get(recency.get(i));
+            if(entry.live != null) {
+                entry.packed.get();
+                entry.live.getLevel().releasePages();
+                entry.live = null;
+                used = count();
+            }
+        }
+        while(recency.size > 0 && used > budget) {
+            entries.remove(recency.removeIndex(0)).packed.get(); // in the store by now
+            used = count();
+        }
+    }
+
+    private void forget(int depth) {
+        Entry entry;
+        PreparedLevel live;
+        synchronized (this) {
+            entry = entries.remove(depth);
+            if(entry == null)
+                return;
+            recency.removeValue(depth);
+            live = entry.live;
+        }
+        entry.packed.get();
+        if(live != null)
+            live.getLevel().releasePages();
+    }
+
+    /**
+     * Updates the statistics. Must hold the lock.
+     *
+     * @return The amount of bytes used by the live and packed levels. The levels still being packed only count
+     *         for their live size.
+     */
+    private int count() {
+        liveLevels = packedLevels = liveBytes = packedBytes = 0;
+        for(Entry entry : entries.values()) {
+            if(entry.live != null) {
+                liveLevels++;
+                liveBytes += entry.liveSize;
+            } else {
+                packedLevels++;
+            }
+            if(entry.packed.isDone())
+                packedBytes += entry.packed.get().length; // a live level keeps its packed copy as well
+        }
+        return liveBytes + packedBytes;
+    }
+
+    /**
+     * Blocks until every level left so far is in the store (e.g. before the application is paused).
+     */
+    public void flush() {
+        if(lastTrim != null)
+            lastTrim.get(); // the tasks run in order
+    }
+
+    @Override
+    public void dispose() {
+        flush();
+        if(executor != null) {
+            executor.dispose();
+            executor = null;
+        }
+        for(Entry entry : entries.values()) {
+            if(entry.live != null)
+                entry.live.getLevel().releasePages();
+        }
+    }
+
+
+    public int getLiveHits() {
+        return liveHits;
+    }
+    public int getPackedHits() {
+        return packedHits;
+    }
+    public int getStoredHits() {
+        return storedHits;
+    }
+    public int getMisses() {
+        return misses;
+    }
+    public int getLiveLevels() {
+        return liveLevels;
+    }
+    public int getPackedLevels() {
+        return packedLevels;
+    }
+    public int getLiveBytes() {
+        return liveBytes;
+    }
+    public int getPackedBytes() {
+        return packedBytes;
+    }
+
+
+    private static class Entry {
+        PreparedLevel live; // 'null' once demoted
+        final int liveSize;
+        final AsyncResult<byte[]> packed; // encoded, written to the store, then packed, in the background
+
+        Entry(PreparedLevel live, int liveSize, AsyncResult<byte[]> packed) {
+            this.live = live;
+            this.liveSize = liveSize;
+            this.packed = packed;
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.payne.games.map.storage;
+
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.payne.games.map.BaseMapLayer;
+import com.payne.games.map.ExplorationMemory;
+import com.payne.games.map.generators.SpawnPlan;
+import com.payne.games.map.tiles.Empty;
+import com.payne.games.map.tiles.Floor;
+import com.payne.games.map.tiles.Tile;
+import com.payne.games.map.tiles.Wall;
+
+import java.nio.ByteBuffer;
+
+
+/**
+ * Compact binary format of a level: its terrain, the bitmasks of its Tiles, what was explored, and its GameObjects
+ * (as a SpawnPlan). Only the state that can't be generated again is kept: no textures, no pathfinding graph.
+ * <br><br>
+ * Layout (big-endian), every section at a fixed offset computed from the size of the level:
+ * <ul>
+ *     <li>header: magic, version, depth, width, height, position of the Hero, amount of objects</li>
+ *     <li>terrain: one byte per Tile, row after row ((x,y) is at [y * width + x])</li>
+ *     <li>bitmasks: one byte per Tile, same order</li>
+ *     <li>objects: (kind, x, y) records, kind being a constant of the SpawnPlan</li>
+ *     <li>explored: the runs of the ExplorationMemory (see `ExplorationMemory.writeRuns()`), until the end</li>
+ * </ul>
+ * Version 1 kept one bit per explored Tile instead, before the objects: it is still read.
+ * The sections are read in place, with absolute accesses: a buffer mapped from a file is read directly, without
+ * being parsed into an intermediate copy first. Its position is left untouched.
+ */
+public final class LevelCodec {
+    public static final int MAGIC = 0x41444c31; // "ADL1"
+    public static final short VERSION = 2;
+    private static final short VERSION_EXPLORED_BITS = 1;
+
+    /* Terrain. */
+    public static final byte WALL  = 0;
+    public static final byte FLOOR = 1;
+    public static final byte WATER = 2;
+    public static final byte EMPTY = 3;
+
+    private static final int HEADER_SIZE = 22;
+    private static final int OBJECT_SIZE = 5;
+
+    /* Offsets within the header. */
+    private static final int DEPTH = 6, WIDTH = 10, HEIGHT = 12, HERO_X = 14, HERO_Y = 16, OBJECTS = 18;
+
+
+    private LevelCodec() {
+    }
+
+
+    /**
+     * @param depth 0 for the very first level.
+     * @param level the base layer, as it is right now.
+     * @param objects the GameObjects left on the level, and the position of the Hero.
+     * @return The encoded level, from index 0 to its limit.
+     */
+    public static ByteBuffer encode(int depth, BaseMapLayer level, SpawnPlan objects) {
+        int width = level.getMapWidth(), height = level.getMapHeight();
+        int cells = width * height;
+        ExplorationMemory exploration = level.getExploration();
+        ByteBuffer out = ByteBuffer.allocate(HEADER_SIZE + 2 * cells + OBJECT_SIZE * objects.size() + exploration.runsSize());
+
+        out.putInt(MAGIC);
+        out.putShort(VERSION);
+        out.putInt(depth);
+        out.putShort((short)width);
+        out.putShort((short)height);
+        out.putShort((short)objects.getHeroX());
+        out.putShort((short)objects.getHeroY());
+        out.putInt(objects.size());
+
+        byte[] tiles = new byte[cells]; // copied without faulting in the chunks paged out
+        level.copyTiles(ChunkCodec.TERRAIN, tiles);
+        out.put(tiles);
+        level.copyTiles(ChunkCodec.BITMASKS, tiles);
+        out.put(tiles);
+
+        for(int i = 0; i < objects.size(); i++) {
+            out.put((byte)objects.getKind(i));
+            out.putShort((short)objects.getX(i));
+            out.putShort((short)objects.getY(i));
+        }
+        exploration.writeRuns(out);
+        out.flip();
+        return out;
+    }
+
+    /**
+     * @return The terrain of the Tile, as encoded (WALL, FLOOR, WATER or EMPTY).
+     */
+    public static byte terrainOf(Tile tile) {
+        if(tile instanceof Floor)
+            return ((Floor)tile).isWater() ? WATER : FLOOR;
+        if(tile instanceof Empty)
+            return EMPTY;
+        return WALL;
+    }
+
+    private static int exploredSize(int cells) {
+        return (cells + 7) / 8;
+    }
+
+    /**
+     * @return Where the objects start, in a level of either version.
+     */
+    private static int objectsOffset(ByteBuffer data) {
+        int cells = cellCount(data);
+        return HEADER_SIZE + 2 * cells + (data.getShort(4) == VERSION_EXPLORED_BITS ? exploredSize(cells) : 0);
+    }
+
+
+    /**
+     * Checks the header.
+     *
+     * @param data an encoded level, from index 0.
+     * @return The depth of the level.
+     */
+    public static int readDepth(ByteBuffer data) {
+        if(data.limit() < HEADER_SIZE || data.getInt(0) != MAGIC)
+            throw new GdxRuntimeException("Not an encoded level.");
+        short version = data.getShort(4);
+        if(version != VERSION && version != VERSION_EXPLORED_BITS)
+            throw new GdxRuntimeException("Unsupported level version: " + version);
+        return data.getInt(DEPTH);
+    }
+
+    /**
+     * @param data an encoded level, from index 0.
+     * @return The amount of Tiles of the level.
+     */
+    public static int cellCount(ByteBuffer data) {
+        return data.getShort(WIDTH) * data.getShort(HEIGHT);
+    }
+
+    /**
+     * Changes the terrain of a single Tile of an encoded level, in place (see `Autosave`). Its exploration is
+     * changed through `withExploration()`.
+     *
+     * @param data an encoded level, from index 0.
+     * @param index the Tile's index: `y * width + x`.
+     * @param terrain WALL, FLOOR, WATER or EMPTY.
+     */
+    public static void patchTile(ByteBuffer data, int index, byte terrain, int bitmask) {
+        int cells = cellCount(data);
+        data.put(HEADER_SIZE + index, terrain);
+        data.put(HEADER_SIZE + cells + index, (byte)bitmask);
+    }
+
+    /**
+     * @param data an encoded level, from index 0.
+     * @return What was explored of the level.
+     */
+    public static ExplorationMemory decodeExploration(ByteBuffer data) {
+        readDepth(data);
+        ExplorationMemory exploration = new ExplorationMemory(data.getShort(WIDTH), data.getShort(HEIGHT));
+        readExploration(data, exploration);
+        return exploration;
+    }
+
+    private static void readExploration(ByteBuffer data, ExplorationMemory exploration) {
+        if(data.getShort(4) != VERSION_EXPLORED_BITS) {
+            exploration.readRuns(data, objectsOffset(data) + OBJECT_SIZE * data.getInt(OBJECTS));
+            return;
+        }
+        int width = exploration.getWidth(), cells = cellCount(data);
+        int explored = HEADER_SIZE + 2 * cells;
+        exploration.clear();
+        for(int i = 0; i < cells; i++) {
+            if((data.get(explored + (i >> 3)) & (1 << (i & 7))) != 0)
+                exploration.setExplored(i % width, i / width, true);
+        }
+    }
+
+    /**
+     * @param data an encoded level, from index 0. Left untouched.
+     * @param exploration what is now explored of the level.
+     * @return A copy of the level, explored as given (and of the current version).
+     */
+    public static ByteBuffer withExploration(ByteBuffer data, ExplorationMemory exploration) {
+        int tiles = HEADER_SIZE + 2 * cellCount(data);
+        int objects = objectsOffset(data), objectsSize = OBJECT_SIZE * data.getInt(OBJECTS);
+        ByteBuffer out = ByteBuffer.allocate(tiles + objectsSize + exploration.runsSize());
+        ByteBuffer source = data.duplicate();
+        source.limit(tiles).position(0);
+        out.put(source);
+        source.limit(objects + objectsSize).position(objects);
+        out.put(source);
+        exploration.writeRuns(out);
+        out.putShort(4, VERSION);
+        out.flip();
+        return out;
+    }
+
+    /**
+     * Creates the Tiles of the level, explored as they were. Its walkable Tiles are computed. All of them are in
+     * memory until the level is entered and paged (see `BaseMapLayer.setPaging()`).
+     *
+     * @param data an encoded level, from index 0.
+     * @return A new base layer, not textured yet.
+     */
+    public static BaseMapLayer decodeLevel(ByteBuffer data) {
+        readDepth(data);
+        int width = data.getShort(WIDTH), height = data.getShort(HEIGHT);
+        int cells = width * height;
+        int terrain = HEADER_SIZE, bitmasks = terrain + cells;
+
+        BaseMapLayer level = new BaseMapLayer(width, height);
+        for(int i = 0; i < cells; i++) {
+            int x = i % width, y = i / width;
+            Tile tile = createTile(data.get(terrain + i), x, y);
+            tile.setBitmask(data.get(bitmasks + i));
+            level.setTile(x, y, tile);
+        }
+        readExploration(data, level.getExploration());
+        level.computeWalkableTiles();
+        return level;
+    }
+
+    /**
+     * @param terrain WALL, FLOOR, WATER or EMPTY.
+     * @return A new Tile of that terrain, at (x,y).
+     */
+    public static Tile createTile(byte terrain, int x, int y) {
+        switch (terrain) {
+            case FLOOR:
+                return new Floor(x, y);
+            case WATER:
+                Floor water = new Floor(x, y);
+                water.setWater(true);
+                return water;
+            case EMPTY:
+                return new Empty(x, y);
+            default:
+                return new Wall(x, y);
+        }
+    }
+
+    /**
+     * @param data an encoded level, from index 0.
+     * @return The GameObjects of the level, and the position of the Hero.
+     */
+    public static SpawnPlan decodeObjects(ByteBuffer data) {
+        readDepth(data);
+        int offset = objectsOffset(data);
+
+        SpawnPlan objects = new SpawnPlan();
+        objects.setHero(data.getShort(HERO_X), data.getShort(HERO_Y));
+        int count = data.getInt(OBJECTS);
+        for(int i = 0; i < count; i++, offset += OBJECT_SIZE)
+            objects.add(data.get(offset), data.getShort(offset + 1), data.getShort(offset + 3));
+        return objects;
+    }
+}
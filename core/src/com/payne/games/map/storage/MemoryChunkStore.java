@@ -0,0 +1,40 @@
+package com.payne.games.map.storage;
+
+import com.badlogic.gdx.utils.IntMap;
+
+import java.nio.ByteBuffer;
+
+
+/**
+ * Keeps the chunks paged out in the heap, encoded: a chunk then takes 3 KB instead of about 64 KB of Tiles (see
+ * `BaseMapLayer.LIVE_CHUNK_BYTES`). Works on every backend, GWT included.
+ */
+public class MemoryChunkStore implements IChunkStore {
+    private final IntMap<IntMap<byte[]>> levels = new IntMap<>();
+    private int nextKey = 0;
+
+
+    @Override
+    public synchronized int open() {
+        levels.put(nextKey, new IntMap<byte[]>());
+        return nextKey++;
+    }
+
+    @Override
+    public synchronized void write(int key, int chunk, ByteBuffer data) {
+        byte[] bytes = new byte[data.remaining()];
+        data.duplicate().get(bytes);
+        levels.get(key).put(chunk, bytes);
+    }
+
+    @Override
+    public synchronized ByteBuffer read(int key, int chunk) {
+        byte[] bytes = levels.get(key).get(chunk);
+        return bytes == null ? null : ByteBuffer.wrap(bytes);
+    }
+
+    @Override
+    public synchronized void forget(int key) {
+        levels.remove(key);
+    }
+}
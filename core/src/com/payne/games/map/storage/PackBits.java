@@ -0,0 +1,91 @@
+package com.payne.games.map.storage;
+
+import java.nio.ByteBuffer;
+
+
+/**
+ * Run-length compression of an encoded level (see `LevelCache`): the terrain and the bitmasks are mostly long runs
+ * of the same byte (the Walls around the rooms, the unexplored bits). Works on every backend, GWT included.
+ * <br><br>
+ * Layout: the length of the data unpacked (int), then chunks, each starting with a header byte `n`:
+ * <ul>
+ *     <li>0 to 127: the `n + 1` following bytes are copied as they are</li>
+ *     <li>-127 to -1: the following byte is repeated `1 - n` times</li>
+ * </ul>
+ */
+public final class PackBits {
+    private static final int MAX_RUN = 128;
+    private static final int MIN_RUN = 3; // shorter runs are copied along with their neighbours
+
+
+    private PackBits() {
+    }
+
+
+    /**
+     * @param data from its position to its limit, left untouched.
+     * @return The packed data.
+     */
+    public static byte[] pack(ByteBuffer data) {
+        int start = data.position(), end = data.limit();
+        byte[] out = new byte[4 + (end - start) + (end - start + MAX_RUN - 1) / MAX_RUN]; // the worst case: no run at all
+        ByteBuffer.wrap(out).putInt(end - start);
+        int o = 4;
+
+        int literal = start; // first byte not written yet
+        int i = start;
+        while(i < end) {
+            byte value = data.get(i);
+            int run = 1;
+            while(i + run < end && run < MAX_RUN && data.get(i + run) == value)
+                run++;
+            if(run < MIN_RUN) {
+                i += run;
+                continue;
+            }
+            o = copyLiterals(data, literal, i, out, o);
+            out[o++] = (byte)(1 - run);
+            out[o++] = value;
+            i += run;
+            literal = i;
+        }
+        o = copyLiterals(data, literal, end, out, o);
+
+        byte[] packed = new byte[o];
+        System.arraycopy(out, 0, packed, 0, o);
+        return packed;
+    }
+
+    private static int copyLiterals(ByteBuffer data, int from, int to, byte[] out, int o) {
+        while(from < to) {
+            int count = Math.min(MAX_RUN, to - from);
+            out[o++] = (byte)(count - 1);
+            for(int i = 0; i < count; i++)
+                out[o++] = data.get(from + i);
+            from += count;
+        }
+        return o;
+    }
+
+    /**
+     * @param packed produced by `pack()`.
+     * @return The data, from index 0 to its limit.
+     */
+    public static ByteBuffer unpack(byte[] packed) {
+        ByteBuffer in = ByteBuffer.wrap(packed);
+        byte[] out = new byte[in.getInt()];
+        int o = 0;
+        while(in.hasRemaining()) {
+            int header = in.get();
+            if(header >= 0) {
+                in.get(out, o, header + 1);
+                o += header + 1;
+            } else {
+                byte value = in.get();
+                for(int end = o + 1 - header; o < end; o++)
+                    out[o] = value;
+            }
+        }
+        return ByteBuffer.wrap(out);
+    }
+}
@@ -0,0 +1,62 @@
+package com.payne.games.map.storage;
+
+import com.badlogic.gdx.files.FileHandle;
+
+import java.nio.ByteBuffer;
+
+
+/**
+ * Stores each level in a file of its own, read and written as a whole through the FileHandle's streams: works on
+ * every backend with a local storage (not on GWT).
+ */
+public class StreamLevelStore implements ILevelStore {
+    private final FileHandle directory;
+
+
+    /**
+     * @param directory where the files go. Created when the first level is written.
+     */
+    public StreamLevelStore(FileHandle directory) {
+        this.directory = directory;
+    }
+
+
+    private FileHandle fileOf(int depth) {
+        return directory.child("depth_" + depth + ".adl");
+    }
+
+    @Override
+    public boolean contains(int depth) {
+        return fileOf(depth).exists();
+    }
+
+    @Override
+    public ByteBuffer read(int depth) {
+        FileHandle file = fileOf(depth);
+        return file.exists() ? ByteBuffer.wrap(file.readBytes()) : null;
+    }
+
+    /**
+     * Writes the level into a temporary file that then replaces the previous one: the application
+     * killed in the middle of a write leaves the previous version intact.
+     */
+    @Override
+    public void write(int depth, ByteBuffer level) {
+        FileHandle temporary = directory.child(fileOf(depth).name() + ".tmp");
+        if(level.hasArray()) { // what the LevelCodec encodes: no copy
+            temporary.writeBytes(level.array(), level.arrayOffset() + level.position(), level.remaining(), false);
+        } else {
+            byte[] bytes = new byte[level.remaining()];
+            level.duplicate().get(bytes);
+            temporary.writeBytes(bytes, false);
+        }
+        if(!temporary.file().renameTo(fileOf(depth).file())) // atomic on Android (FileHandle.moveTo() copies a local file)
+            temporary.moveTo(fileOf(depth));
+    }
+
+    @Override
+    public void clear() {
+        if(directory.exists())
+            directory.emptyDirectory();
+    }
+}
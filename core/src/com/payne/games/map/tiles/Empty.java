@@ -13,7 +13,7 @@ public class Empty extends Tile {
 
     @Override
     public void setTexture(Tileset tileset) {
-        setTexture(tileset.getEmptyRandomTexture(getBitmask()));
+        setTexture(tileset.getEmptyRandomTexture(getBitmask(), getX(), getY()));
     }
 
     @Override
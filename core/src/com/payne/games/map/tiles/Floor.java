@@ -18,9 +18,9 @@ public class Floor extends Tile {
     @Override
     public void setTexture(Tileset tileset) {
         if(isWater)
-            setTexture(tileset.getWaterRandomTexture(getBitmask()));
+            setTexture(tileset.getWaterRandomTexture(getBitmask(), getX(), getY()));
         else
-            setTexture(tileset.getFloorRandomTexture(getBitmask()));
+            setTexture(tileset.getFloorRandomTexture(getBitmask(), getX(), getY()));
     }
 
     @Override
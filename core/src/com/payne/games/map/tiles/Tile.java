@@ -1,9 +1,10 @@
 package com.payne.games.map.tiles;
 
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
-import com.badlogic.gdx.utils.Array;
 import com.payne.games.gameObjects.GameObject;
 import com.payne.games.logic.GameLogic;
+import com.payne.games.map.ExplorationMemory;
+import com.payne.games.map.TileChanges;
 import com.payne.games.rendering.IRenderable;
 import com.payne.games.map.tilesets.Tileset;
 
@@ -13,15 +14,12 @@ public abstract class Tile implements IRenderable {
     private int x, y;
     private boolean allowingMove;
     private boolean seeThrough;
-    private Array<Tile> neighbors = new Array<>();
+    private TileChanges changes; // where the changes of this Tile are reported (see `BaseMapLayer.setTile()`)
+    private ExplorationMemory exploration; // where the exploration of this Tile is kept (same)
 
     // view
     private TextureRegion texture;
 
-    // pathfinding
-    private int graphIndex = -1;
-    private boolean explored = false;
-
     // fog of war overlay
     private float fogAlpha = 0;
     public float getFogAlpha() {
@@ -42,19 +40,6 @@ public abstract class Tile implements IRenderable {
     }
 
 
-    /**
-     * Used to improve performance in the pathfinding. (Prevents from having to allocate memory many times per `render()` call.)
-     *
-     * @return The 4 neighbors of this Tile (N, S, E, W).
-     */
-    public Array<Tile> getNeighbors() {
-        return neighbors;
-    }
-
-    public void addNeighbors(Tile... tiles) {
-        neighbors.addAll(tiles);
-    }
-
     /**
      * Whether or not to render the Tile when it has been explored, but is now not being seen (aka "in the fog of war").
      *
@@ -74,6 +59,16 @@ public abstract class Tile implements IRenderable {
         return bitmask;
     }
 
+    /**
+     * @param bitmask all the wall-connections at once, using GameLogic's constants (see `Autotiler`).
+     */
+    public void setBitmask(int bitmask) {
+        if(this.bitmask != bitmask) {
+            this.bitmask = bitmask;
+            changed();
+        }
+    }
+
     /**
      * Let's you know if the specified directions of this Tile are connected to Walls.
      * For example, a query could be<br>
@@ -92,7 +87,7 @@ public abstract class Tile implements IRenderable {
      * @param bits MUST be coming from GameLogic (NORTH, SOUTH, EAST and WEST).
      */
     public void addConnectionTo(int bits) {
-        bitmask |= bits;
+        setBitmask(bitmask | bits);
     }
 
     /**
@@ -101,7 +96,7 @@ public abstract class Tile implements IRenderable {
      * @param bits MUST be coming from GameLogic (NORTH, SOUTH, EAST and WEST).
      */
     public void removeConnectionTo(int bits) {
-        bitmask &= ~bits;
+        setBitmask(bitmask & ~bits);
     }
 
     /**
@@ -146,14 +141,16 @@ public abstract class Tile implements IRenderable {
 
     /**
      * A Tile is "explored" if it has been seen at least once by the player.
+     * The exploration is kept by the level (see `ExplorationMemory`): a Tile is only explored once in a BaseMapLayer.
      *
      * @return 'true' if this Tile was seen at least once by the player.
      */
     public boolean isExplored() {
-        return explored;
+        return exploration != null && exploration.isExplored(x, y);
     }
     public void setExplored(boolean explored) {
-        this.explored = explored;
+        if(exploration.setExplored(x, y, explored))
+            changed();
     }
 
     /**
@@ -165,18 +162,14 @@ public abstract class Tile implements IRenderable {
         return fogAlpha>GameLogic.LOS_MIN_ALPHA;
     }
 
-    public int getGraphIndex() {
-        return graphIndex;
-    }
-    public void setGraphIndex(int graphIndex) {
-        this.graphIndex = graphIndex;
-    }
-
     public boolean isAllowingMove() {
         return allowingMove;
     }
     public void setAllowingMove(boolean allowingMove) {
-        this.allowingMove = allowingMove;
+        if(this.allowingMove != allowingMove) {
+            this.allowingMove = allowingMove;
+            changed();
+        }
     }
 
     public boolean isSeeThrough() {
@@ -184,7 +177,29 @@ public abstract class Tile implements IRenderable {
     }
 
     public void setSeeThrough(boolean seeThrough) {
-        this.seeThrough = seeThrough;
+        if(this.seeThrough != seeThrough) {
+            this.seeThrough = seeThrough;
+            changed();
+        }
+    }
+
+    /**
+     * @param changes where the changes of this Tile are reported from now on. 'null' to stop reporting them.
+     */
+    public void setChanges(TileChanges changes) {
+        this.changes = changes;
+    }
+
+    /**
+     * @param exploration where the exploration of this Tile is kept from now on, at its position.
+     */
+    public void setExploration(ExplorationMemory exploration) {
+        this.exploration = exploration;
+    }
+
+    private void changed() {
+        if(changes != null)
+            changes.mark(x, y);
     }
 
     @Override
@@ -223,8 +238,7 @@ public abstract class Tile implements IRenderable {
                 "x=" + x +
                 ", y=" + y +
                 ", allowingMove=" + allowingMove +
-                ", graphIndex=" + graphIndex +
-                ", explored=" + explored +
+                ", explored=" + isExplored() +
                 ", fogAlpha=" + fogAlpha +
                 '}';
     }
@@ -19,7 +19,7 @@ public class Wall extends Tile {
 
     @Override
     public void setTexture(Tileset tileset) {
-        setTexture(tileset.getWallRandomTexture(getBitmask()));
+        setTexture(tileset.getWallRandomTexture(getBitmask(), getX(), getY()));
     }
 
     @Override
@@ -0,0 +1,164 @@
+package com.payne.games.map.tilesets;
+
+import com.payne.games.logic.GameLogic;
+import com.payne.games.map.BaseMapLayer;
+import com.payne.games.map.tiles.Tile;
+import com.payne.games.map.tiles.Wall;
+
+
+/**
+ * Decides which variant of its texture each Tile gets, from the Walls around it ("blob" autotiling).
+ * <br><br>
+ * The 8 neighbours of a Tile are packed into a mask (one bit per neighbour that is a Wall, see the constants), and
+ * the mask goes through a lookup table of 256 entries: the variant is the Tile's bitmask (see `Tile.getBitmask()`),
+ * which the Tileset then maps to its textures. All the masks are computed in a single pass over a padded copy of the
+ * terrain (outside of the map counts as a Wall), and when a Tile changes, only the masks of its 3x3 neighbourhood are
+ * computed again.
+ * <br><br>
+ * The default table only keeps the 4 sides (the Tileset has no variants for the inner corners). A tileset with the 47
+ * blob variants only needs another table, built from `reduce()`.
+ * <br><br>
+ * see: http://www.cr31.co.uk/stagecast/wang/blob.html
+ */
+public class Autotiler {
+    public static final int N  = 1;
+    public static final int NE = 2;
+    public static final int E  = 4;
+    public static final int SE = 8;
+    public static final int S  = 16;
+    public static final int SW = 32;
+    public static final int W  = 64;
+    public static final int NW = 128;
+
+    private static final byte[] CARDINAL_TABLE = buildCardinalTable();
+
+    private final byte[] table; // 8-neighbour mask -> variant (a Tile bitmask)
+
+    private BaseMapLayer level;
+    private int width, height;
+    private boolean[] walls = new boolean[0]; // padded by one cell on each side: (x,y) is at [(y + 1) * (width + 2) + x + 1]
+    private byte[] masks = new byte[0];
+
+
+    /**
+     * Keeps the connections on the 4 sides only.
+     */
+    public Autotiler() {
+        this(CARDINAL_TABLE);
+    }
+
+    /**
+     * @param table the variant of each 8-neighbour mask: 256 entries.
+     */
+    public Autotiler(byte[] table) {
+        if(table.length != 256)
+            throw new IllegalArgumentException("An autotiling table needs 256 entries, not " + table.length + ".");
+        this.table = table;
+    }
+
+    private static byte[] buildCardinalTable() {
+        byte[] table = new byte[256];
+        for(int mask = 0; mask < 256; mask++) {
+            int bitmask = 0;
+            if((mask & N) != 0) bitmask |= GameLogic.NORTH;
+            if((mask & E) != 0) bitmask |= GameLogic.EAST;
+            if((mask & W) != 0) bitmask |= GameLogic.WEST;
+            if((mask & S) != 0) bitmask |= GameLogic.SOUTH;
+            table[mask] = (byte)bitmask;
+        }
+        return table;
+    }
+
+    /**
+     * The 256 masks only make 47 different shapes: a corner only matters if both of its sides are Walls too.
+     *
+     * @return The mask, without the corners that don't matter.
+     */
+    public static int reduce(int mask) {
+        if((mask & (N | E)) != (N | E)) mask &= ~NE;
+        if((mask & (S | E)) != (S | E)) mask &= ~SE;
+        if((mask & (S | W)) != (S | W)) mask &= ~SW;
+        if((mask & (N | W)) != (N | W)) mask &= ~NW;
+        return mask;
+    }
+
+
+    /**
+     * Computes the mask of every Tile of the level, and sets its bitmask.
+     */
+    public void setLevel(BaseMapLayer level) {
+        this.level = level;
+        width = level.getMapWidth();
+        height = level.getMapHeight();
+        int stride = width + 2;
+        if(walls.length < stride * (height + 2))
+            walls = new boolean[stride * (height + 2)];
+        if(masks.length < width * height)
+            masks = new byte[width * height];
+
+        for(int i = 0; i < stride * (height + 2); i++)
+            walls[i] = true;
+        for(int y = 0; y < height; y++) {
+            for(int x = 0; x < width; x++)
+                walls[(y + 1) * stride + x + 1] = level.getTile(x, y) instanceof Wall;
+        }
+
+        for(int y = 0; y < height; y++) {
+            for(int x = 0; x < width; x++) {
+                int mask = computeMask(x, y);
+                masks[y * width + x] = (byte)mask;
+                level.getTile(x, y).setBitmask(table[mask]);
+            }
+        }
+    }
+
+    /**
+     * To be called once a Tile was replaced: only its 3x3 neighbourhood is looked at again.
+     *
+     * @return The Tiles whose variant changed, to be textured again: one bit per Tile of the neighbourhood, at
+     *         `(dy + 1) * 3 + (dx + 1)`. The replaced Tile itself is always included (it is a new instance).
+     */
+    public int update(int x, int y) {
+        Tile replaced = level.getTile(x, y);
+        walls[(y + 1) * (width + 2) + x + 1] = replaced instanceof Wall;
+
+        int changed = 0;
+        for(int dy = -1; dy <= 1; dy++) {
+            for(int dx = -1; dx <= 1; dx++) {
+                int nx = x + dx, ny = y + dy;
+                if(nx < 0 || ny < 0 || nx >= width || ny >= height)
+                    continue;
+                int mask = computeMask(nx, ny);
+                Tile tile = level.getTile(nx, ny);
+                boolean variantChanged = table[mask] != table[masks[ny * width + nx] & 0xFF];
+                masks[ny * width + nx] = (byte)mask;
+                tile.setBitmask(table[mask]);
+                if(variantChanged || tile == replaced)
+                    changed |= 1 << ((dy + 1) * 3 + dx + 1);
+            }
+        }
+        return changed;
+    }
+
+    private int computeMask(int x, int y) {
+        int stride = width + 2;
+        int center = (y + 1) * stride + x + 1;
+        int mask = 0;
+        if(walls[center + stride])     mask |= N;
+        if(walls[center + stride + 1]) mask |= NE;
+        if(walls[center + 1])          mask |= E;
+        if(walls[center - stride + 1]) mask |= SE;
+        if(walls[center - stride])     mask |= S;
+        if(walls[center - stride - 1]) mask |= SW;
+        if(walls[center - 1])          mask |= W;
+        if(walls[center + stride - 1]) mask |= NW;
+        return mask;
+    }
+
+    /**
+     * @return The 8-neighbour mask of the Tile (see the constants).
+     */
+    public int getMask(int x, int y) {
+        return masks[y * width + x] & 0xFF;
+    }
+}
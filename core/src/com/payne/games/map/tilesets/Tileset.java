@@ -4,12 +4,11 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.GridPoint2;
-import com.badlogic.gdx.math.RandomXS128;
 import com.payne.games.logic.GameLogic;
 
 
 public abstract class Tileset {
-    private RandomXS128 rand;
+    private int seed = GameLogic.RANDOM_SEED;
 
     private Texture tiles;
     private TextureRegion[][] splitTiles;
@@ -42,10 +41,6 @@ public abstract class Tileset {
     protected GridPoint2[] empty;
 
 
-    public Tileset() {
-        this.rand = new RandomXS128(GameLogic.RANDOM_SEED);
-    }
-
     /**
      * Sets the tileset to be used in order to map the logical map to a graphical representation.
      *
@@ -75,81 +70,101 @@ public abstract class Tileset {
             tiles.dispose();
     }
 
+    /**
+     * @param seed the variants picked for each position only depend on it (usually the seed of the level).
+     */
+    public void setSeed(int seed) {
+        this.seed = seed;
+    }
+
     /**
      * To obtain a random drawable texture taken from the list of possible coordinates set in a concrete Tileset.
+     * The pick is a hash of the seed and the position: the same Tile always gets the same variant, whenever
+     * (and in whichever order) the Tiles are textured.
      *
      * @param input name of the variable.
+     * @param x x-coordinate of the Tile.
+     * @param y y-coordinate of the Tile.
      * @return the coordinate of the randomly selected texture.
      */
-    private GridPoint2 getRandom(GridPoint2[] input) {
-        return input[rand.nextInt(input.length)];
+    private GridPoint2 getRandom(GridPoint2[] input, int x, int y) {
+        return input[(hash(seed, x, y) >>> 1) % input.length];
     }
 
+    /**
+     * Jenkins' one-at-a-time hash of the three values: only shifts, additions and xors, so that it gives the same
+     * results on GWT (no int multiplication overflowing a double).
+     */
+    private static int hash(int seed, int x, int y) {
+        int h = seed;
+        h ^= x;
+        h += h << 10;
+        h ^= h >>> 6;
+        h ^= y;
+        h += h << 10;
+        h ^= h >>> 6;
+        h += h << 3;
+        h ^= h >>> 11;
+        h += h << 15;
+        return h;
+    }
 
 
 
 
 
 
-    /* todo: use an array with each index being matched against the bitmask? */
 
-    public TextureRegion getFloorRandomTexture(int bitmask) {
-        switch (bitmask) {
-            case GameLogic.NORTH:
-                return getTextureFromPoint(getRandom(floors_N));
-            case GameLogic.EAST:
-                return getTextureFromPoint(getRandom(floors_E));
-            case GameLogic.WEST:
-                return getTextureFromPoint(getRandom(floors_W));
-            case GameLogic.SOUTH:
-                return getTextureFromPoint(getRandom(floors_S));
-            case GameLogic.SOUTH|GameLogic.WEST:
-                return getTextureFromPoint(getRandom(floors_SW));
-            case GameLogic.SOUTH|GameLogic.EAST:
-                return getTextureFromPoint(getRandom(floors_SE));
-            case GameLogic.NORTH|GameLogic.WEST:
-                return getTextureFromPoint(getRandom(floors_NW));
-            case GameLogic.NORTH|GameLogic.EAST:
-                return getTextureFromPoint(getRandom(floors_NE));
-            default:
-                return getTextureFromPoint(getRandom(floors));
+    /**
+     * The variants of the floors and walls, indexed by the bitmask of the Tile (see `Autotiler`). Built on first
+     * use, once the concrete Tileset has filled its arrays. The bitmasks without variants of their own use the
+     * generic floors and walls.
+     */
+    private GridPoint2[][] floorVariants, wallVariants;
+
+    private void buildVariants() {
+        floorVariants = new GridPoint2[16][];
+        wallVariants  = new GridPoint2[16][];
+        for(int bitmask = 0; bitmask < 16; bitmask++) {
+            floorVariants[bitmask] = floors;
+            wallVariants[bitmask]  = walls;
         }
+        setVariant(GameLogic.NORTH, floors_N, walls_N);
+        setVariant(GameLogic.EAST,  floors_E, walls_E);
+        setVariant(GameLogic.WEST,  floors_W, walls_W);
+        setVariant(GameLogic.SOUTH, floors_S, walls_S);
+        setVariant(GameLogic.SOUTH|GameLogic.WEST, floors_SW, walls_SW);
+        setVariant(GameLogic.SOUTH|GameLogic.EAST, floors_SE, walls_SE);
+        setVariant(GameLogic.NORTH|GameLogic.WEST, floors_NW, walls_NW);
+        setVariant(GameLogic.NORTH|GameLogic.EAST, floors_NE, walls_NE);
+        wallVariants[GameLogic.NORTH|GameLogic.SOUTH] = walls_vert;
+        wallVariants[GameLogic.WEST|GameLogic.EAST]   = walls_horiz;
     }
 
-    public TextureRegion getWallRandomTexture(int bitmask) {
-        switch (bitmask) {
-            case GameLogic.NORTH:
-                return getTextureFromPoint(getRandom(walls_N));
-            case GameLogic.EAST:
-                return getTextureFromPoint(getRandom(walls_E));
-            case GameLogic.WEST:
-                return getTextureFromPoint(getRandom(walls_W));
-            case GameLogic.SOUTH:
-                return getTextureFromPoint(getRandom(walls_S));
-            case GameLogic.SOUTH|GameLogic.WEST:
-                return getTextureFromPoint(getRandom(walls_SW));
-            case GameLogic.SOUTH|GameLogic.EAST:
-                return getTextureFromPoint(getRandom(walls_SE));
-            case GameLogic.NORTH|GameLogic.WEST:
-                return getTextureFromPoint(getRandom(walls_NW));
-            case GameLogic.NORTH|GameLogic.EAST:
-                return getTextureFromPoint(getRandom(walls_NE));
-            case GameLogic.NORTH|GameLogic.SOUTH:
-                return getTextureFromPoint(getRandom(walls_vert));
-            case GameLogic.WEST|GameLogic.EAST:
-                return getTextureFromPoint(getRandom(walls_horiz));
-            default:
-                return getTextureFromPoint(getRandom(walls));
-        }
+    private void setVariant(int bitmask, GridPoint2[] floorVariant, GridPoint2[] wallVariant) {
+        floorVariants[bitmask] = floorVariant;
+        wallVariants[bitmask]  = wallVariant;
+    }
+
+    public TextureRegion getFloorRandomTexture(int bitmask, int x, int y) {
+        if(floorVariants == null)
+            buildVariants();
+        return getTextureFromPoint(getRandom(floorVariants[bitmask], x, y));
+    }
+
+    public TextureRegion getWallRandomTexture(int bitmask, int x, int y) {
+        if(wallVariants == null)
+            buildVariants();
+        return getTextureFromPoint(getRandom(wallVariants[bitmask], x, y));
     }
 
 
 
 
-    public TextureRegion getWaterRandomTexture(int bitmask) {
-        return getTextureFromPoint(getRandom(water));
+    public TextureRegion getWaterRandomTexture(int bitmask, int x, int y) {
+        return getTextureFromPoint(getRandom(water, x, y));
     }
-    public TextureRegion getEmptyRandomTexture(int bitmask) {
-        return getTextureFromPoint(getRandom(empty));
+    public TextureRegion getEmptyRandomTexture(int bitmask, int x, int y) {
+        return getTextureFromPoint(getRandom(empty, x, y));
     }
 }
@@ -0,0 +1,26 @@
+package com.payne.games.profiling;
+
+
+/**
+ * The parts of a frame (or of a turn) that are timed separately by the Profiler.
+ */
+public enum Phase {
+    FRAME("frame"),
+    UPDATE_LIGHTING("updateLighting"),
+    PROCESS_TURN("processTurn"),
+    AUTOSAVE("autosave"),
+    UPDATE_UI("updateUi"),
+    UPDATE_ANIMATIONS("updateAnimations"),
+    MOVE_ALL_OBJECTS("moveAllObjects"),
+    RENDER_LEVEL("renderLevel"),
+    UI_STAGE("uiStage");
+
+    private final String label;
+
+
+    private Phase(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() { return label; }
+}
@@ -0,0 +1,147 @@
+package com.payne.games.profiling;
+
+import com.badlogic.gdx.utils.TimeUtils;
+import com.payne.games.actions.Action;
+import com.payne.games.turns.IActionListener;
+
+
+/**
+ * Times each Phase of the frames separately, and counts what happens during each turn (executed Actions,
+ * pathfinding queries and the nodes they expanded). Everything is kept over a rolling window (see RollingStats).
+ * <br><br>
+ * The durations are in nanoseconds. Phases must not be nested within themselves.
+ */
+public class Profiler implements IActionListener {
+    public static final int WINDOW = 300; // samples kept for the percentiles: ~5 seconds of frames at 60 FPS
+
+    private final RollingStats[] phases = new RollingStats[Phase.values().length];
+    private final long[] startedAt = new long[Phase.values().length];
+
+    /* Per turn (i.e. per call to `TurnManager.executeTurn()`). */
+    private final RollingStats actionsPerTurn      = new RollingStats(WINDOW);
+    private final RollingStats pathQueriesPerTurn  = new RollingStats(WINDOW);
+    private final RollingStats visitedNodesPerTurn = new RollingStats(WINDOW);
+    private int actionsThisTurn = 0;
+    private int pathQueriesThisTurn = 0;
+    private int visitedNodesThisTurn = 0;
+
+
+    public Profiler() {
+        for(int i = 0; i < phases.length; i++)
+            phases[i] = new RollingStats(WINDOW);
+    }
+
+
+    public void begin(Phase phase) {
+        startedAt[phase.ordinal()] = TimeUtils.nanoTime();
+    }
+
+    public void end(Phase phase) {
+        phases[phase.ordinal()].add(TimeUtils.nanoTime() - startedAt[phase.ordinal()]);
+    }
+
+    /**
+     * Must be called after each `TurnManager.executeTurn()`: the counters of the turn are recorded, then reset.
+     */
+    public void turnEnded() {
+        actionsPerTurn.add(actionsThisTurn);
+        pathQueriesPerTurn.add(pathQueriesThisTurn);
+        visitedNodesPerTurn.add(visitedNodesThisTurn);
+        actionsThisTurn = pathQueriesThisTurn = visitedNodesThisTurn = 0;
+    }
+
+    /**
+     * Called by the MyIndexedGraph after each search.
+     *
+     * @param visitedNodes amount of nodes expanded by the search.
+     */
+    public void countPathQuery(int visitedNodes) {
+        pathQueriesThisTurn++;
+        visitedNodesThisTurn += visitedNodes;
+    }
+
+    @Override
+    public void onActionExecuted(Action action, boolean canceled) {
+        actionsThisTurn++;
+    }
+
+    @Override
+    public void onWaitingOnPlayer() {
+    }
+
+
+    public RollingStats get(Phase phase) {
+        return phases[phase.ordinal()];
+    }
+    public RollingStats getActionsPerTurn() {
+        return actionsPerTurn;
+    }
+    public RollingStats getPathQueriesPerTurn() {
+        return pathQueriesPerTurn;
+    }
+    public RollingStats getVisitedNodesPerTurn() {
+        return visitedNodesPerTurn;
+    }
+
+    public void reset() {
+        for(RollingStats stats : phases)
+            stats.reset();
+        actionsPerTurn.reset();
+        pathQueriesPerTurn.reset();
+        visitedNodesPerTurn.reset();
+        actionsThisTurn = pathQueriesThisTurn = visitedNodesThisTurn = 0;
+    }
+
+
+    /**
+     * One line per measure: the Phases (in milliseconds), then the per-turn counters.
+     * Phases that were never timed are skipped.
+     *
+     * @param out where the CSV is appended.
+     * @return `out`, for chaining.
+     */
+    public StringBuilder appendCsv(StringBuilder out) {
+        out.append("metric,unit,samples,mean,p50,p95,p99,max\n");
+        for(Phase phase : Phase.values()) {
+            RollingStats stats = get(phase);
+            if(stats.getCount() > 0)
+                appendCsvLine(out, phase.getLabel(), stats, true);
+        }
+        appendCsvLine(out, "actionsPerTurn", actionsPerTurn, false);
+        appendCsvLine(out, "pathQueriesPerTurn", pathQueriesPerTurn, false);
+        appendCsvLine(out, "visitedNodesPerTurn", visitedNodesPerTurn, false);
+        return out;
+    }
+
+    private void appendCsvLine(StringBuilder out, String metric, RollingStats stats, boolean nanos) {
+        out.append(metric).append(',').append(nanos ? "ms" : "count").append(',').append(stats.getCount()).append(',');
+        if(nanos)
+            appendMillis(out, (long)stats.mean()).append(',');
+        else
+            out.append(Math.round(stats.mean() * 100) / 100.0).append(',');
+        appendValue(out, stats.percentile(50), nanos).append(',');
+        appendValue(out, stats.percentile(95), nanos).append(',');
+        appendValue(out, stats.percentile(99), nanos).append(',');
+        appendValue(out, stats.getMax(), nanos).append('\n');
+    }
+
+    private StringBuilder appendValue(StringBuilder out, long value, boolean nanos) {
+        return nanos ? appendMillis(out, value) : out.append(value);
+    }
+
+    /**
+     * Appends a duration as milliseconds with 3 decimals (`String.format()` isn't available on every backend).
+     *
+     * @param out where the duration is appended.
+     * @param nanos the duration, in nanoseconds.
+     * @return `out`, for chaining.
+     */
+    public static StringBuilder appendMillis(StringBuilder out, long nanos) {
+        long micros = nanos / 1000;
+        out.append(micros / 1000).append('.');
+        long decimals = micros % 1000;
+        if(decimals < 100) out.append('0');
+        if(decimals < 10)  out.append('0');
+        return out.append(decimals);
+    }
+}
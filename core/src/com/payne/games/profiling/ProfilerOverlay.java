@@ -0,0 +1,88 @@
+package com.payne.games.profiling;
+
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.payne.games.map.storage.LevelCache;
+
+
+/**
+ * Draws the Profiler's data over the game (see `GameLogic.DEBUG_PROFILER_OVERLAY`).
+ * The text is only rebuilt a few times per second, so that reading it stays possible (and cheap).
+ */
+public class ProfilerOverlay {
+    private static final float REFRESH_TIME = 0.5f; // seconds
+
+    private Profiler profiler;
+    private LevelCache levelCache; // optional
+    private StringBuilder text = new StringBuilder(1024);
+    private float sinceRefresh = REFRESH_TIME;
+
+
+    public ProfilerOverlay(Profiler profiler) {
+        this.profiler = profiler;
+    }
+
+    /**
+     * @param levelCache its hits, misses and memory are shown below the timings. 'null' to hide them.
+     */
+    public void setLevelCache(LevelCache levelCache) {
+        this.levelCache = levelCache;
+    }
+
+
+    /**
+     * MUST be called in between a "batch.begin()" and a "batch.end()", with a projection in screen coordinates.
+     *
+     * @param batch used to draw.
+     * @param font used to write.
+     * @param x left of the text, in pixels.
+     * @param y top of the text, in pixels.
+     * @param delta time since the last render.
+     */
+    public void render(Batch batch, BitmapFont font, float x, float y, float delta) {
+        sinceRefresh += delta;
+        if(sinceRefresh >= REFRESH_TIME) {
+            sinceRefresh = 0f;
+            refresh();
+        }
+        batch.setColor(1, 1, 1, 1);
+        font.draw(batch, text, x, y);
+    }
+
+    private void refresh() {
+        text.setLength(0);
+        text.append("phase: p50 / p95 / p99 / max (ms)\n");
+        for(Phase phase : Phase.values()) {
+            RollingStats stats = profiler.get(phase);
+            text.append(phase.getLabel()).append(": ");
+            Profiler.appendMillis(text, stats.percentile(50)).append(" / ");
+            Profiler.appendMillis(text, stats.percentile(95)).append(" / ");
+            Profiler.appendMillis(text, stats.percentile(99)).append(" / ");
+            Profiler.appendMillis(text, stats.getMax()).append('\n');
+        }
+        appendCounter("actions/turn", profiler.getActionsPerTurn());
+        appendCounter("path queries/turn", profiler.getPathQueriesPerTurn());
+        appendCounter("visited nodes/turn", profiler.getVisitedNodesPerTurn());
+        if(levelCache != null)
+            appendLevelCache();
+    }
+
+    private void appendLevelCache() {
+        text.append("levels: hits live / packed / stored, misses: ")
+                .append(levelCache.getLiveHits()).append(" / ")
+                .append(levelCache.getPackedHits()).append(" / ")
+                .append(levelCache.getStoredHits()).append(", ")
+                .append(levelCache.getMisses()).append('\n');
+        text.append("level cache: ")
+                .append(levelCache.getLiveLevels()).append(" live (").append(levelCache.getLiveBytes() >> 10).append(" KB), ")
+                .append(levelCache.getPackedLevels()).append(" packed (").append(levelCache.getPackedBytes() >> 10).append(" KB)\n");
+    }
+
+    private void appendCounter(String label, RollingStats stats) {
+        text.append(label).append(": ")
+                .append(stats.percentile(50)).append(" / ")
+                .append(stats.percentile(95)).append(" / ")
+                .append(stats.percentile(99)).append(" / ")
+                .append(stats.getMax()).append('\n');
+    }
+}
@@ -0,0 +1,89 @@
+package com.payne.games.profiling;
+
+import java.util.Arrays;
+
+
+/**
+ * Keeps the last N samples of a measure (a ring buffer) in order to compute its percentiles over a rolling window.
+ * The total amount of samples and their sum are kept since the creation (or the last reset).
+ */
+public class RollingStats {
+    private final long[] samples;
+    private final long[] sorted; // scratch copy, sorted when the percentiles are queried
+    private int next = 0;        // where the next sample goes in the ring buffer
+    private int size = 0;        // amount of samples currently in the ring buffer
+    private boolean dirty = true;
+
+    private long count = 0;
+    private long total = 0;
+    private long max = 0;
+
+
+    /**
+     * @param window amount of samples over which the percentiles are computed.
+     */
+    public RollingStats(int window) {
+        samples = new long[window];
+        sorted  = new long[window];
+    }
+
+
+    public void add(long sample) {
+        samples[next] = sample;
+        next = (next + 1) % samples.length;
+        if(size < samples.length)
+            size++;
+        dirty = true;
+
+        count++;
+        total += sample;
+        if(sample > max)
+            max = sample;
+    }
+
+    /**
+     * @param percentile between 0 and 100.
+     * @return The value under which the given percentage of the samples of the window fall. '0' if there is none.
+     */
+    public long percentile(float percentile) {
+        if(size == 0)
+            return 0;
+        if(dirty) {
+            System.arraycopy(samples, 0, sorted, 0, size);
+            Arrays.sort(sorted, 0, size);
+            dirty = false;
+        }
+        int index = (int)Math.ceil(percentile / 100f * size) - 1;
+        return sorted[Math.max(0, Math.min(size - 1, index))];
+    }
+
+    /**
+     * @return The most recent sample. '0' if there is none.
+     */
+    public long last() {
+        return size == 0 ? 0 : samples[(next - 1 + samples.length) % samples.length];
+    }
+
+    /**
+     * @return The mean of all the samples ever added (not only those of the window).
+     */
+    public double mean() {
+        return count == 0 ? 0 : (double)total / count;
+    }
+
+    public long getCount() {
+        return count;
+    }
+    public long getTotal() {
+        return total;
+    }
+    public long getMax() {
+        return max;
+    }
+
+    public void reset() {
+        next = size = 0;
+        count = total = max = 0;
+        dirty = true;
+    }
+}
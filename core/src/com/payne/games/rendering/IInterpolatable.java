@@ -67,4 +67,16 @@ public interface IInterpolatable extends IRenderable, IObservable {
      * (thus includes the intermediary positions).
      */
     float getCurrentY();
+
+    /**
+     * @return The slot of the entity within the InterpolationModule while it moves, '-1' otherwise.
+     */
+    int getMotionIndex();
+
+    /**
+     * Only meant to be used by the InterpolationModule.
+     *
+     * @param motionIndex the slot of the entity within the InterpolationModule, '-1' when it stops moving.
+     */
+    void setMotionIndex(int motionIndex);
 }
@@ -1,60 +1,90 @@
 package com.payne.games.rendering;
 
 import com.badlogic.gdx.utils.Array;
-import com.payne.games.logic.GameLogic;
-
-import java.util.HashMap;
-import java.util.Iterator;
+import com.badlogic.gdx.utils.FloatArray;
+import com.payne.games.logic.Utils;
 
 
 /**
  * Actuates a fluid movement for its registered GameObjects.
+ * <br><br>
+ * The logical positions change instantly (see `MoveAction`): only the rendering is interpolated, in between the
+ * position an object had before the current turn and its current one. How far in between is given by the "alpha"
+ * of the FixedTimestep, so the movements are in sync with the turns whatever the frame rate is.
+ * The movements of a turn are over as soon as the next turn begins (see `finishAll()`).
+ * <br><br>
+ * The moving objects are kept densely, in parallel arrays: the same index gives an object and the pixel positions
+ * it moves from and to. Each object knows its own index (see `IInterpolatable.getMotionIndex()`), so nothing is
+ * ever hashed. Nothing is allocated per frame: the arrays only grow when more objects move at once than ever before.
  */
 public class InterpolationModule {
-    private Array<IInterpolatable> moving = new Array<>();
-    private Iterator<IInterpolatable> iterator;
-    private IInterpolatable current;
-    private HashMap<IInterpolatable, Float> timeSheet = new HashMap<>();
-    private float newValue;
-
-
-    public void moveAllObjects(float delta) {
-        iterator = moving.iterator();
-        while(iterator.hasNext()) {
-            current = iterator.next();
-            newValue = timeSheet.get(current) + delta;
-
-            if(newValue >= GameLogic.TURN_TIME)
-                finish(current);
-            else
-                update(current, delta);
-        }
-    }
+    private static final int INITIAL_CAPACITY = 64;
 
-    private void update(IInterpolatable moved, float delta) {
-        timeSheet.put(moved, newValue);
+    private final Array<IInterpolatable> moving = new Array<>(false, INITIAL_CAPACITY);
+    private final FloatArray startX = new FloatArray(false, INITIAL_CAPACITY);
+    private final FloatArray startY = new FloatArray(false, INITIAL_CAPACITY);
+    private final FloatArray endX   = new FloatArray(false, INITIAL_CAPACITY);
+    private final FloatArray endY   = new FloatArray(false, INITIAL_CAPACITY);
 
-        float d = GameLogic.MOVE_SPEED * delta;
-        float deltaX = (moved.getMovingToX() - moved.getX()) * d;
-        float deltaY = (moved.getMovingToY() - moved.getY()) * d;
 
-        moved.setInterpolatedX(moved.getInterpolatedX() + deltaX);
-        moved.setInterpolatedY(moved.getInterpolatedY() + deltaY);
+    /**
+     * Places the moving objects in between their previous and current positions.
+     *
+     * @param alpha progression of the movements, from 0 (previous position) to 1 (current position).
+     */
+    public void moveAllObjects(float alpha) {
+        float remaining = 1f - alpha;
+        for(int i = 0; i < moving.size; i++) {
+            IInterpolatable moved = moving.get(i);
+            moved.setInterpolatedX((startX.items[i] - endX.items[i]) * remaining);
+            moved.setInterpolatedY((startY.items[i] - endY.items[i]) * remaining);
+        }
     }
 
-    private void finish(IInterpolatable moved) {
-        timeSheet.remove(moved);
-        iterator.remove();
-        moved.setX(moved.getMovingToX());
-        moved.setY(moved.getMovingToY());
-        moved.setInterpolatedX(0);
-        moved.setInterpolatedY(0);
+    /**
+     * Ends every movement: the objects are drawn at their logical position.
+     * Called when a new turn begins (or when there is nothing to render, e.g. a headless replay).
+     */
+    public void finishAll() {
+        for(int i = 0; i < moving.size; i++) {
+            IInterpolatable moved = moving.get(i);
+            moved.setInterpolatedX(0);
+            moved.setInterpolatedY(0);
+            moved.setMotionIndex(-1);
+        }
+        moving.clear();
+        startX.clear();
+        startY.clear();
+        endX.clear();
+        endY.clear();
     }
 
+    /**
+     * Must be called right before the object's logical position changes to its "movingTo" position.
+     * If the object was already moving during this turn, it keeps its starting position and only its
+     * destination changes.
+     *
+     * @param listed the object to move.
+     */
     public void add(IInterpolatable listed) {
-        if(!timeSheet.containsKey(listed)) {
+        int index = listed.getMotionIndex();
+        if(index < 0) {
+            index = moving.size;
+            listed.setMotionIndex(index);
             moving.add(listed);
-            timeSheet.put(listed, 0f);
+            startX.add(Utils.tileToPixels(listed.getX()));
+            startY.add(Utils.tileToPixels(listed.getY()));
+            endX.add(0);
+            endY.add(0);
         }
+        endX.items[index] = Utils.tileToPixels(listed.getMovingToX());
+        endY.items[index] = Utils.tileToPixels(listed.getMovingToY());
+    }
+
+    /**
+     * @return The amount of objects currently moving.
+     */
+    public int size() {
+        return moving.size;
     }
 }
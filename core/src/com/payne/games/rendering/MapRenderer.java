@@ -2,31 +2,39 @@ package com.payne.games.rendering;
 
 import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.Texture;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
-import com.payne.games.map.tilesets.SubclassTileAssigner;
+import com.payne.games.map.tilesets.Autotiler;
 import com.payne.games.gameObjects.actors.Actor;
 import com.payne.games.gameObjects.statics.Static;
+import com.payne.games.lightingSystem.SightSystem;
 import com.payne.games.logic.GameLogic;
 import com.payne.games.logic.Utils;
 import com.payne.games.map.BaseMapLayer;
+import com.payne.games.map.ExplorationMemory;
 import com.payne.games.map.SecondaryMapLayer;
 import com.payne.games.map.tiles.Tile;
 import com.payne.games.map.tilesets.Tileset;
 
+import java.util.Arrays;
+
 
 public class MapRenderer {
 
     // Temporary HP bars    todo: remove this and implement with SpriteSheet ?
     private final int HP_WIDTH  = (int)(GameLogic.TILE_SIZE *.75);
     private final int HP_HEIGHT = GameLogic.TILE_SIZE/6;
-    private final Texture HP_BACKGROUND = createProceduralTexture(1, 0, 0, .7f);
-    private final Texture HP_PROGRESS   = createProceduralTexture(0, 1, 0, .7f);
+    private final TextureRegion hpBackground;
+    private final TextureRegion hpProgress;
+    private final boolean ownsHpTextures; // 'true' if the HP bars were created procedurally (and must be disposed)
 
     // Base layer
-    private SubclassTileAssigner subclassTileAssigner;
+    private static final int CHUNK_SIZE = BaseMapLayer.CHUNK_SIZE; // the Tiles are textured a chunk of the level at a time
+    private final Autotiler autotiler = new Autotiler();
     private Tileset tileset;
     private BaseMapLayer level;
+    private int[] texturedVersions = new int[0]; // [chunkY * chunkColumns + chunkX]: the version of the chunk textured, -1 if none
+    private int chunkColumns;
 
     // Secondary layer
     private SecondaryMapLayer secondaryMapLayer;
@@ -36,52 +44,112 @@ public class MapRenderer {
 
     
     public MapRenderer(SecondaryMapLayer secondaryMapLayer, TextureRegion light) {
+        this(secondaryMapLayer, light,
+                new TextureRegion(createProceduralTexture(1, 0, 0, .7f)),
+                new TextureRegion(createProceduralTexture(0, 1, 0, .7f)),
+                true);
+    }
+
+    /**
+     * Doesn't create any Texture: usable without a graphical context (benchmarks, etc.).
+     *
+     * @param secondaryMapLayer the layer containing the Actors and Static objects to draw.
+     * @param light the light overlay drawn over the lit subcells.
+     * @param hpBackground drawn behind the HP bars.
+     * @param hpProgress the HP bars themselves.
+     */
+    public MapRenderer(SecondaryMapLayer secondaryMapLayer, TextureRegion light, TextureRegion hpBackground, TextureRegion hpProgress) {
+        this(secondaryMapLayer, light, hpBackground, hpProgress, false);
+    }
+
+    private MapRenderer(SecondaryMapLayer secondaryMapLayer, TextureRegion light, TextureRegion hpBackground,
+                        TextureRegion hpProgress, boolean ownsHpTextures) {
         this.secondaryMapLayer = secondaryMapLayer;
-        this.subclassTileAssigner = new SubclassTileAssigner();
         this.light = light;
+        this.hpBackground = hpBackground;
+        this.hpProgress = hpProgress;
+        this.ownsHpTextures = ownsHpTextures;
     }
 
 
     /**
      * Takes care of setting up a Level to be rendered.
-     * Determines the Tile map's array size.
-     * Then associates a tileset SpriteSheet and prepares the graphical tiles to be rendered
-     * (`TextureRegion.split()` extracts individual tiles from the SpriteSheet).
-     * And finally assigns a Texture to the instantiated Tile deducted from the LogicalMap.
+     * Associates a tileset SpriteSheet, and computes the variant of every Tile (see `Autotiler`).
+     * No Tile is textured yet: the Textures are assigned a chunk at a time, the first time one of the chunk's Tiles
+     * has to be drawn (see `textureOf()`). Most of a level is never explored, or only late.
      *
      * @param level A generated level (the output of the MapGenerator).
      * @param tileset String of the name of a SpriteSheet located in the "core/assets" folder.
+     * @param seed the seed of the level: the variant of each Tile's texture only depends on it and the position.
      */
-    public void setUpBaseLayer(BaseMapLayer level, Tileset tileset) {
+    public void setUpBaseLayer(BaseMapLayer level, Tileset tileset, int seed) {
         this.level = level;
         this.tileset = tileset;
-        subclassTileAssigner.setLevel(level);
+        tileset.setSeed(seed);
+        if(GameLogic.DEBUG_SUBCLASSED_TILES)
+            autotiler.setLevel(level); // the bitmask of every Tile, in one pass
+
+        chunkColumns = level.getChunkColumns();
+        int chunks = chunkColumns * level.getChunkRows();
+        if(texturedVersions.length < chunks)
+            texturedVersions = new int[chunks];
+        Arrays.fill(texturedVersions, -1);
+    }
 
-        assignTilesTexture();
+    /**
+     * @return The Texture of the Tile, after texturing its whole chunk if it wasn't yet (or was faulted in since,
+     *         see `BaseMapLayer.trim()`).
+     */
+    TextureRegion textureOf(Tile tile) {
+        int chunk = (tile.getY() / CHUNK_SIZE) * chunkColumns + tile.getX() / CHUNK_SIZE;
+        if(texturedVersions[chunk] != level.getChunkVersion(chunk)) {
+            texturedVersions[chunk] = level.getChunkVersion(chunk);
+            assignChunkTexture(tile.getX() / CHUNK_SIZE, tile.getY() / CHUNK_SIZE);
+        }
+        return tile.getTexture();
     }
 
     /**
      * Used to build up the Graphical representation of the map from its logical representation.
-     * Basically assigns a TextureRegion to a new instance of a Tile.
+     * Basically assigns a TextureRegion to the Tiles of a chunk.
      */
-    private void assignTilesTexture() {
-        for (int i = 0; i < level.getMapHeight(); i++) {
-            for (int j = 0; j < level.getMapWidth(); j++) {
-                assignSingleTileTexture(j, i);
+    private void assignChunkTexture(int chunkX, int chunkY) {
+        int maxX = Math.min((chunkX + 1) * CHUNK_SIZE, level.getMapWidth());
+        int maxY = Math.min((chunkY + 1) * CHUNK_SIZE, level.getMapHeight());
+        for (int i = chunkY * CHUNK_SIZE; i < maxY; i++) {
+            for (int j = chunkX * CHUNK_SIZE; j < maxX; j++) {
+                level.getTile(j, i).setTexture(tileset);
             }
         }
     }
 
+    private boolean isChunkTextured(int x, int y) {
+        int chunk = (y / CHUNK_SIZE) * chunkColumns + x / CHUNK_SIZE;
+        return level.isChunkResident(chunk) && texturedVersions[chunk] == level.getChunkVersion(chunk);
+    }
+
     /**
      * Uses MapRenderer's currently assigned Tileset to assign a Texture to the Tile at the specified coordinate.
+     * With the autotiling, the neighbours whose variant changed (see `Autotiler.update()`) are textured again too.
+     * The Tiles of the chunks not textured yet are left alone: they will be, with their new variant.
      *
      * @param x x-coordinate input.
      * @param y y-coordinate input.
      */
     public void assignSingleTileTexture(int x, int y) {
-        Tile tile = level.getTile(x, y);
-        if(GameLogic.DEBUG_SUBCLASSED_TILES) subclassTileAssigner.patternMatchSurroundings(tile); // looks at the 4-direction tiles (N,S,E,W)
-        tile.setTexture(tileset);
+        if(!GameLogic.DEBUG_SUBCLASSED_TILES) {
+            if(isChunkTextured(x, y))
+                level.getTile(x, y).setTexture(tileset);
+            return;
+        }
+
+        int changed = autotiler.update(x, y); // the neighbours whose variant changed are textured again
+        for(int dy = -1; dy <= 1; dy++) {
+            for(int dx = -1; dx <= 1; dx++) {
+                if((changed & (1 << ((dy + 1) * 3 + dx + 1))) != 0 && isChunkTextured(x + dx, y + dy))
+                    level.getTile(x + dx, y + dy).setTexture(tileset);
+            }
+        }
     }
 
     /**
@@ -89,23 +157,38 @@ public class MapRenderer {
      * Each layer of the Level are to be rendered.
      *
      * @param batch the instance of "game.batch" on which was called the ".begin()" beforehand
-     * @param visible a 2D double array, larger than the level, that stores 0.0 for unseen subcells 
-     *                and values up to 1.0 for subcells that are lit
+     * @param sightSystem its visibility grid stores 0.0 for unseen subcells and values up to 1.0 for subcells
+     *                    that are lit, over a window around the hero
      */
-    public void renderLevel(SpriteBatch batch, double[][] visible) {
+    public void renderLevel(Batch batch, SightSystem sightSystem) {
         
-        /* Drawing the static map (base layer). */
+        /* Drawing the static map (base layer): only the explored Tiles, a Tile in sight being explored already.
+           The chunks paged out are far from the Hero (see `BaseMapLayer.keepResident()`): they aren't drawn. */
+        ExplorationMemory exploration = level.getExploration();
         for (int i = 0; i < level.getMapHeight(); i++) {
-            for (int j = 0; j < level.getMapWidth(); j++) {
-                drawAtMapCoordinate(batch, level.getTile(j, i));
+            for (int chunkX = 0; chunkX < chunkColumns; chunkX++) {
+                if (!level.isChunkResident((i / CHUNK_SIZE) * chunkColumns + chunkX))
+                    continue;
+                int explored = GameLogic.DEBUG_NO_FOG ? -1 : exploration.getRowBits(chunkX, i); // a bit per Tile
+                while (explored != 0) {
+                    int j = chunkX * CHUNK_SIZE + Integer.numberOfTrailingZeros(explored);
+                    explored &= explored - 1; // the next explored Tile of the row
+                    if (j >= level.getMapWidth())
+                        break; // without the fog: past the right edge of the level
+                    Tile tile = level.getResidentTile(j, i);
+                    if(determineFogOfWarOverlay(batch, tile))
+                        batch.draw(textureOf(tile), Utils.tileToPixels(j), Utils.tileToPixels(i));
+                }
             }
         }
 
-        for (int y = 0; y < visible.length; y++) {
-            for (int x = 0; x < visible[y].length; x++) {
+        double[][] visible = sightSystem.getVisible();
+        int lightX = sightSystem.getLightX(), lightY = sightSystem.getLightY();
+        for (int y = 0; y < sightSystem.getLightHeight(); y++) {
+            for (int x = 0; x < sightSystem.getLightWidth(); x++) {
                 if (visible[y][x] > 0.0) {
                     batch.setColor(1f, 1f, 1f, (float) visible[y][x] * 0.0625f);
-                    batch.draw(light, 8f + 16f / GameLogic.SUBDIVISIONS * x, 8f + 16f / GameLogic.SUBDIVISIONS * y);
+                    batch.draw(light, 8f + 16f / GameLogic.SUBDIVISIONS * (lightX + x), 8f + 16f / GameLogic.SUBDIVISIONS * (lightY + y));
                 }
             }
         }
@@ -124,8 +207,8 @@ public class MapRenderer {
             drawAtMapCoordinate(batch, gameObject);
 
             /* HP Bars. */
-            drawStretched(batch, gameObject, HP_BACKGROUND, HP_WIDTH);
-            drawStretched(batch, gameObject, HP_PROGRESS, (float)gameObject.getCurrHp()/gameObject.getMaxHp()*HP_WIDTH);
+            drawStretched(batch, gameObject, hpBackground, HP_WIDTH);
+            drawStretched(batch, gameObject, hpProgress, (float)gameObject.getCurrHp()/gameObject.getMaxHp()*HP_WIDTH);
         }
 
 
@@ -133,13 +216,61 @@ public class MapRenderer {
 
     }
 
+    /**
+     * Same as `renderLevel()`, but from a WorldSnapshot: the game itself isn't touched (see `ILogicRunner`).
+     * MUST be called in between a "game.batch.begin()" and a "game.batch.end()".
+     *
+     * @param batch the instance of "game.batch" on which was called the ".begin()" beforehand.
+     * @param snapshot the captured state of the game.
+     * @param alpha progression of the movements of the snapshot's turn, from 0 to 1.
+     * @param timeSinceCapture keeps the Animations going in between two snapshots.
+     */
+    public void renderSnapshot(Batch batch, WorldSnapshot snapshot, float alpha, float timeSinceCapture) {
+
+        /* Base layer. */
+        for (int y = 0; y < snapshot.getHeight(); y++) {
+            for (int x = 0; x < snapshot.getWidth(); x++) {
+                if(applyVisibility(batch, snapshot.getTileVisibility(x, y)))
+                    batch.draw(snapshot.getTileTexture(x, y), Utils.tileToPixels(x), Utils.tileToPixels(y));
+            }
+        }
+
+        int lightX = snapshot.getLightX(), lightY = snapshot.getLightY();
+        for (int y = 0; y < snapshot.getLightHeight(); y++) {
+            for (int x = 0; x < snapshot.getLightWidth(); x++) {
+                float lit = snapshot.getLight(x, y);
+                if (lit > 0f) {
+                    batch.setColor(1f, 1f, 1f, lit * 0.0625f);
+                    batch.draw(light, 8f + 16f / GameLogic.SUBDIVISIONS * (lightX + x), 8f + 16f / GameLogic.SUBDIVISIONS * (lightY + y));
+                }
+            }
+        }
+
+        /* Secondary layer. */
+        for (int i = 0; i < snapshot.getObjectCount(); i++) {
+            if(!applyVisibility(batch, snapshot.getVisibility(i)))
+                continue;
+            float x = snapshot.getX(i, alpha);
+            float y = snapshot.getY(i, alpha);
+            batch.draw(snapshot.getTexture(i, timeSinceCapture), x, y);
+
+            float hpRatio = snapshot.getHpRatio(i);
+            if(hpRatio >= 0) {
+                float barX = x + snapshot.getOriginOffset(i) + (int)(GameLogic.TILE_SIZE*.125);
+                float barY = y - (int)(GameLogic.TILE_SIZE*.1);
+                batch.draw(hpBackground, barX, barY, HP_WIDTH, HP_HEIGHT);
+                batch.draw(hpProgress, barX, barY, hpRatio*HP_WIDTH, HP_HEIGHT);
+            }
+        }
+    }
+
     /**
      * Draws the TextureRegion using the map's coordinate system (tile coordinates, not pixel coordinates).
      *
      * @param batch Used to draw.
      * @param toRender A renderable object.
      */
-    private void drawAtMapCoordinate(SpriteBatch batch, IRenderable toRender) {
+    private void drawAtMapCoordinate(Batch batch, IRenderable toRender) {
         boolean shouldDraw = determineFogOfWarOverlay(batch, toRender);
 
         if(shouldDraw)
@@ -154,7 +285,7 @@ public class MapRenderer {
      * @param batch Used to draw.
      * @param toRender A renderable object.
      */
-    private void drawAtMapCoordinate(SpriteBatch batch, IInterpolatable toRender) {
+    private void drawAtMapCoordinate(Batch batch, IInterpolatable toRender) {
         boolean shouldDraw = determineFogOfWarOverlay(batch, toRender);
 
         if(shouldDraw)
@@ -172,7 +303,7 @@ public class MapRenderer {
      * @param a alpha value percentage (between 0 and 1).
      * @return a Texture created procedurally.
      */
-    private Texture createProceduralTexture(float r, float g, float b, float a) {
+    private static Texture createProceduralTexture(float r, float g, float b, float a) {
         Pixmap pixmap = new Pixmap(1, 1, Pixmap.Format.RGBA8888);
         pixmap.setColor(r, g, b, a);
         pixmap.fill();
@@ -185,12 +316,12 @@ public class MapRenderer {
      * Used temporarily to help draw HP bars. todo: actually integrate it properly through SpriteSheet and TextureRegion
      * todo: or look into  https://github.com/earlygrey/shapedrawer  to integrate between batch 'being' and 'end'.
      *
-     * @param batch the SpriteBatch to draw with.
+     * @param batch the Batch to draw with.
      * @param owner the Actor which will be used to draw relative to its position.
-     * @param toRender the Texture to be drawn.
+     * @param toRender the TextureRegion to be drawn.
      * @param x_stretch stretch along the x axis, in pixels.
      */
-    private void drawStretched(SpriteBatch batch, Actor owner, Texture toRender, float x_stretch) {
+    private void drawStretched(Batch batch, Actor owner, TextureRegion toRender, float x_stretch) {
         boolean shouldDraw = determineFogOfWarOverlay(batch, owner);
 
         if(shouldDraw)
@@ -205,32 +336,32 @@ public class MapRenderer {
     /**
      * Determines how the rendering should be done, based on variables related to exploration and line of sight.
      *
-     * @param batch instance of SpriteBatch.
+     * @param batch instance of Batch.
      * @param renderable a renderable class against which the Tile's variables below it will be checked.
-     * @return 'false' only if the SpriteBatch should not attempt to draw the IRenderable object.
+     * @return 'false' only if the Batch should not attempt to draw the IRenderable object.
      */
-    private boolean determineFogOfWarOverlay(SpriteBatch batch, IRenderable renderable) {
-        if(GameLogic.DEBUG_NO_FOG) { // render everything
-            batch.setColor(1,1,1,1);
-            return true;
-        }
-        
-        Tile tile = level.getTile(renderable.getX(), renderable.getY());
-        if (tile.isInSight()) {
-//            if(renderable instanceof Tile)
-//                batch.setColor(0.4f, 0.4f, 0.4f, 1f);
-//            else
-//                batch.setColor(1f, 1f, 1f, 1f);
-            batch.setColor(1,1,1,1); // in plain sight
-        }
-        else if (tile.isExplored() && renderable.renderInFog())
-            batch.setColor(0.65f,0.2f,0.65f,GameLogic.FOG_ALPHA); // in the fog of war
-        else {
-            batch.setColor(0, 0, 0, 0); // in the darkness
-            return false; // do not draw!
-        }
+    private boolean determineFogOfWarOverlay(Batch batch, IRenderable renderable) {
+        Tile tile = level.getResidentTile(renderable.getX(), renderable.getY()); // 'null' if paged out: hidden
+        return applyVisibility(batch, WorldSnapshot.visibilityOf(tile, renderable.renderInFog()));
+    }
 
-        return true;
+    /**
+     * @param batch its color is set according to the visibility.
+     * @param visibility one of the visibilities of the WorldSnapshot.
+     * @return 'false' only if nothing should be drawn.
+     */
+    private static boolean applyVisibility(Batch batch, byte visibility) {
+        switch (visibility) {
+            case WorldSnapshot.IN_SIGHT:
+                batch.setColor(1,1,1,1); // in plain sight
+                return true;
+            case WorldSnapshot.IN_FOG:
+                batch.setColor(0.65f,0.2f,0.65f,GameLogic.FOG_ALPHA); // in the fog of war
+                return true;
+            default:
+                batch.setColor(0, 0, 0, 0); // in the darkness
+                return false; // do not draw!
+        }
     }
 
 
@@ -238,8 +369,11 @@ public class MapRenderer {
      * Clears the GPU's memory properly.
      */
     public void dispose() {
-        HP_BACKGROUND.dispose();
-        HP_PROGRESS.dispose();
-        tileset.dispose();
+        if(ownsHpTextures) {
+            hpBackground.getTexture().dispose();
+            hpProgress.getTexture().dispose();
+        }
+        if(tileset != null)
+            tileset.dispose();
     }
 }
@@ -0,0 +1,285 @@
+package com.payne.games.rendering;
+
+import com.badlogic.gdx.graphics.g2d.Animation;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Array;
+import com.payne.games.gameObjects.GameObject;
+import com.payne.games.gameObjects.actors.Actor;
+import com.payne.games.gameObjects.actors.entities.Hero;
+import com.payne.games.gameObjects.statics.Static;
+import com.payne.games.inventory.IPickable;
+import com.payne.games.inventory.Inventory;
+import com.payne.games.lightingSystem.SightSystem;
+import com.payne.games.logic.GameLogic;
+import com.payne.games.logic.Utils;
+import com.payne.games.map.BaseMapLayer;
+import com.payne.games.map.ExplorationMemory;
+import com.payne.games.map.SecondaryMapLayer;
+import com.payne.games.map.tiles.Tile;
+
+import java.util.Arrays;
+
+
+/**
+ * Everything the MapRenderer needs to draw a turn, copied out of the game: the textures and visibility of the
+ * Tiles, the light overlay, the position (before and after the turn), texture, Animation and HP of each object, and
+ * the Hero's Inventory (for the UI).
+ * <br><br>
+ * Used when the logic runs on its own thread (see `ILogicRunner`): the logic thread captures a snapshot after its
+ * turns, then hands it over; the rendering thread only ever reads it, and never touches the game itself.
+ * The buffers are reused from one capture to the next (they only grow), so a capture doesn't allocate.
+ */
+public class WorldSnapshot {
+    public static final byte HIDDEN = 0;   // in the darkness: not drawn
+    public static final byte IN_FOG = 1;   // explored, but not in sight anymore
+    public static final byte IN_SIGHT = 2;
+
+    private static final int CHUNK_SIZE = BaseMapLayer.CHUNK_SIZE; // the exploration is queried a row of a chunk at a time
+
+    private int turn = -1; // amount of turns requested when this snapshot was captured (see `ILogicRunner`)
+
+    /* Base layer. */
+    private int width, height;
+    private TextureRegion[] tileTextures = new TextureRegion[0];
+    private byte[] tileVisibility = new byte[0];
+
+    /* Light overlay (see `SightSystem`): a window around the Hero, in subcells. */
+    private int lightX, lightY, lightWidth, lightHeight;
+    private float[] light = new float[0];
+
+    /* Secondary layer: the Statics, then the Actors (the order in which they are drawn). */
+    private int objectCount;
+    private TextureRegion[] textures = new TextureRegion[0];
+    private final Array<Animation<TextureRegion>> animations = new Array<>(); // as big as the other arrays
+    private float[] animationTimes = new float[0];
+    private float[] fromX = new float[0], fromY = new float[0]; // pixels, before the turn
+    private float[] toX = new float[0], toY = new float[0];     // pixels, after the turn
+    private int[] originOffsets = new int[0];
+    private float[] hpRatios = new float[0]; // negative for the objects without HP
+    private byte[] visibility = new byte[0];
+    private int heroIndex = -1;
+
+    /* The Hero's Inventory: the texture and amount of each slot. */
+    private int slotCount;
+    private TextureRegion[] slotTextures = new TextureRegion[0]; // 'null' for an empty slot
+    private int[] slotAmounts = new int[0];
+
+
+    /**
+     * Copies the state of the game. The moving objects must have been placed at the start of their movement
+     * (`InterpolationModule.moveAllObjects(0)`), so that their current position is where they come from.
+     *
+     * @param mapRenderer textures the chunks of Tiles that are drawn for the first time (see `MapRenderer.textureOf()`).
+     */
+    public void capture(int turn, BaseMapLayer level, SecondaryMapLayer secondaryMapLayer, SightSystem sightSystem,
+                        Hero hero, MapRenderer mapRenderer) {
+        this.turn = turn;
+        captureTiles(level, mapRenderer);
+        captureLight(sightSystem);
+
+        objectCount = 0;
+        heroIndex = -1;
+        ensureObjectCapacity(secondaryMapLayer.getStaticLayer().size + secondaryMapLayer.getActorLayer().size);
+        for(Static object : secondaryMapLayer.getStaticLayer())
+            captureObject(level, object, -1f);
+        for(Actor actor : secondaryMapLayer.getActorLayer()) {
+            if(actor == hero)
+                heroIndex = objectCount;
+            captureObject(level, actor, (float)actor.getCurrHp() / actor.getMaxHp());
+        }
+        captureInventory(hero.getInventory());
+    }
+
+    private void captureTiles(BaseMapLayer level, MapRenderer mapRenderer) {
+        width = level.getMapWidth();
+        height = level.getMapHeight();
+        if(tileTextures.length < width * height) {
+            tileTextures = new TextureRegion[width * height];
+            tileVisibility = new byte[width * height];
+        }
+        ExplorationMemory exploration = level.getExploration();
+        for(int y = 0; y < height; y++) {
+            for(int chunkX = 0; chunkX * CHUNK_SIZE < width; chunkX++) {
+                int minX = chunkX * CHUNK_SIZE, maxX = Math.min(minX + CHUNK_SIZE, width);
+                if(!level.isChunkResident((y / CHUNK_SIZE) * level.getChunkColumns() + chunkX)
+                        || !GameLogic.DEBUG_NO_FOG && exploration.getRowBits(chunkX, y) == 0) { // paged out, or never explored: hidden
+                    Arrays.fill(tileVisibility, y * width + minX, y * width + maxX, HIDDEN);
+                    Arrays.fill(tileTextures, y * width + minX, y * width + maxX, null);
+                    continue;
+                }
+                for(int x = minX; x < maxX; x++) {
+                    Tile tile = level.getResidentTile(x, y);
+                    byte tileVisibility = visibilityOf(tile, tile.renderInFog());
+                    this.tileVisibility[y * width + x] = tileVisibility;
+                    tileTextures[y * width + x] = tileVisibility == HIDDEN ? null : mapRenderer.textureOf(tile);
+                }
+            }
+        }
+    }
+
+    private void captureLight(SightSystem sightSystem) {
+        double[][] visible = sightSystem.getVisible();
+        lightX = sightSystem.getLightX();
+        lightY = sightSystem.getLightY();
+        lightHeight = sightSystem.getLightHeight();
+        lightWidth = sightSystem.getLightWidth();
+        if(light.length < lightWidth * lightHeight)
+            light = new float[lightWidth * lightHeight];
+        for(int y = 0; y < lightHeight; y++) {
+            for(int x = 0; x < lightWidth; x++)
+                light[y * lightWidth + x] = (float)visible[y][x];
+        }
+    }
+
+    private void captureObject(BaseMapLayer level, GameObject object, float hpRatio) {
+        int i = objectCount++;
+        textures[i] = object.getTexture();
+        animations.set(i, object.getAnimation());
+        animationTimes[i] = object.getDelta();
+        fromX[i] = object.getCurrentX();
+        fromY[i] = object.getCurrentY();
+        toX[i] = Utils.tileToPixels(object.getX()) - object.getPermanentOriginOffset();
+        toY[i] = Utils.tileToPixels(object.getY()) - object.getPermanentOriginOffset();
+        originOffsets[i] = object.getPermanentOriginOffset();
+        hpRatios[i] = hpRatio;
+        visibility[i] = visibilityOf(level.getResidentTile(object.getX(), object.getY()), object.renderInFog());
+    }
+
+    private void captureInventory(Inventory inventory) {
+        slotCount = inventory.getCapacity();
+        if(slotTextures.length < slotCount) {
+            slotTextures = new TextureRegion[slotCount];
+            slotAmounts = new int[slotCount];
+        }
+        for(int i = 0; i < slotCount; i++) {
+            IPickable item = inventory.getItem(i);
+            slotTextures[i] = item == null ? null : ((GameObject)item).getTexture();
+            slotAmounts[i] = item == null ? 0 : inventory.getSlot(i).getAmount();
+        }
+    }
+
+    /**
+     * The fog of war's rules: what is in sight is drawn, what was explored is drawn in the fog (if it can be),
+     * the rest is hidden in the darkness. So is what stands on a chunk paged out ('null' Tile).
+     */
+    static byte visibilityOf(Tile tile, boolean renderInFog) {
+        if(tile == null)
+            return HIDDEN;
+        if(GameLogic.DEBUG_NO_FOG || tile.isInSight())
+            return IN_SIGHT;
+        if(tile.isExplored() && renderInFog)
+            return IN_FOG;
+        return HIDDEN;
+    }
+
+    private void ensureObjectCapacity(int capacity) {
+        if(textures.length >= capacity)
+            return;
+        capacity = Math.max(capacity, textures.length * 2);
+        textures = new TextureRegion[capacity];
+        animations.setSize(capacity);
+        animationTimes = new float[capacity];
+        fromX = new float[capacity];
+        fromY = new float[capacity];
+        toX = new float[capacity];
+        toY = new float[capacity];
+        originOffsets = new int[capacity];
+        hpRatios = new float[capacity];
+        visibility = new byte[capacity];
+    }
+
+
+    /**
+     * @return 'false' until the first capture.
+     */
+    public boolean isReady() {
+        return turn >= 0;
+    }
+    public int getTurn() {
+        return turn;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+    public int getHeight() {
+        return height;
+    }
+    public TextureRegion getTileTexture(int x, int y) {
+        return tileTextures[y * width + x];
+    }
+    public byte getTileVisibility(int x, int y) {
+        return tileVisibility[y * width + x];
+    }
+
+    public int getLightX() {
+        return lightX;
+    }
+    public int getLightY() {
+        return lightY;
+    }
+    public int getLightWidth() {
+        return lightWidth;
+    }
+    public int getLightHeight() {
+        return lightHeight;
+    }
+    public float getLight(int x, int y) {
+        return light[y * lightWidth + x];
+    }
+
+    public int getObjectCount() {
+        return objectCount;
+    }
+    public byte getVisibility(int i) {
+        return visibility[i];
+    }
+
+    /**
+     * @param i index of the object.
+     * @param timeSinceCapture used to keep the Animations going in between two captures.
+     * @return The TextureRegion to draw for the object.
+     */
+    public TextureRegion getTexture(int i, float timeSinceCapture) {
+        Animation<TextureRegion> animation = animations.get(i);
+        return animation == null ? textures[i] : animation.getKeyFrame(animationTimes[i] + timeSinceCapture);
+    }
+
+    /**
+     * @param i index of the object.
+     * @param alpha progression of the turn's movements, from 0 to 1.
+     * @return The x position of the object, in pixels.
+     */
+    public float getX(int i, float alpha) {
+        return fromX[i] + (toX[i] - fromX[i]) * alpha;
+    }
+    public float getY(int i, float alpha) {
+        return fromY[i] + (toY[i] - fromY[i]) * alpha;
+    }
+    public int getOriginOffset(int i) {
+        return originOffsets[i];
+    }
+    public float getHpRatio(int i) {
+        return hpRatios[i];
+    }
+
+    /**
+     * @return The index of the Hero among the objects. Negative if it isn't on the map.
+     */
+    public int getHeroIndex() {
+        return heroIndex;
+    }
+
+    public int getSlotCount() {
+        return slotCount;
+    }
+    /**
+     * @return The texture of the item in the slot of the Hero's Inventory. 'null' if the slot is empty.
+     */
+    public TextureRegion getSlotTexture(int slot) {
+        return slotTextures[slot];
+    }
+    public int getSlotAmount(int slot) {
+        return slotAmounts[slot];
+    }
+}
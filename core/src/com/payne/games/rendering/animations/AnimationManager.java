@@ -1,30 +1,166 @@
 package com.payne.games.rendering.animations;
 
-import java.util.ArrayList;
-import java.util.List;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.g2d.Animation;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.payne.games.logic.GameLogic;
+import com.payne.games.logic.Utils;
+import com.payne.games.map.BaseMapLayer;
+import com.payne.games.map.tiles.Tile;
 
 
+/**
+ * Plays the Animations of the registered IAnimated.
+ * <br><br>
+ * Each object's time keeps going, but its TextureRegion is only swapped when its Animation actually reaches a new
+ * frame (the time of the next frame change is kept for each object), and only if the object could be drawn:
+ * inside the camera, and not hidden in the darkness (same rules as the MapRenderer).
+ * An object that becomes visible again gets its correct frame right away.
+ * <br><br>
+ * The objects are kept densely (swap-remove, see `IAnimated.getAnimationIndex()`), and must be removed when they
+ * leave the map (see `ActionController.removeActor()`).
+ */
 public class AnimationManager implements IObserver<IAnimated> {
-    private List<IAnimated> animations = new ArrayList<>();
+    private static final int INITIAL_CAPACITY = 64;
+    private static final float CULLING_MARGIN = GameLogic.TILE_BIG_SIZE; // in pixels
+
+    private final Array<IAnimated> animations = new Array<>(false, INITIAL_CAPACITY);
+    private final FloatArray nextFrameChange = new FloatArray(false, INITIAL_CAPACITY); // in each object's own time
+    private BaseMapLayer level; // used for the fog of war
+
+    /* Visible area of the camera, in pixels. */
+    private float viewLeft, viewRight, viewBottom, viewTop;
 
 
     public AnimationManager() {
     }
 
-    public void updateAnimations(float delta) {
-        for(IAnimated animation : animations) {
-            animation.incrementDelta(delta);
-            animation.setTexture(animation.getAnimation().getKeyFrame(animation.getDelta()));
+
+    /**
+     * @param delta time since the last frame.
+     * @param camera used to skip the objects off screen. Can be 'null' (nothing is culled).
+     */
+    public void updateAnimations(float delta, OrthographicCamera camera) {
+        computeView(camera);
+
+        for(int i = 0; i < animations.size; i++) {
+            IAnimated animated = animations.get(i);
+            animated.incrementDelta(delta);
+
+            float time = animated.getDelta();
+            if(time < nextFrameChange.items[i] || !isVisible(animated, camera != null))
+                continue;
+
+            Animation<TextureRegion> animation = animated.getAnimation();
+            if(animation == null)
+                continue;
+            animated.setTexture(animation.getKeyFrame(time));
+            nextFrameChange.items[i] = computeNextFrameChange(animation, time);
         }
     }
 
-    @Override
-    public void update() {
+    private void computeView(OrthographicCamera camera) {
+        if(camera == null)
+            return;
+        float halfWidth  = camera.viewportWidth  * camera.zoom / 2 + CULLING_MARGIN;
+        float halfHeight = camera.viewportHeight * camera.zoom / 2 + CULLING_MARGIN;
+        viewLeft   = camera.position.x - halfWidth;
+        viewRight  = camera.position.x + halfWidth;
+        viewBottom = camera.position.y - halfHeight;
+        viewTop    = camera.position.y + halfHeight;
+    }
+
+    private boolean isVisible(IAnimated animated, boolean cullOffScreen) {
+        if(cullOffScreen) {
+            float x = Utils.tileToPixels(animated.getX()) - animated.getPermanentOriginOffset();
+            float y = Utils.tileToPixels(animated.getY()) - animated.getPermanentOriginOffset();
+            if(x < viewLeft || x > viewRight || y < viewBottom || y > viewTop)
+                return false;
+        }
+
+        if(GameLogic.DEBUG_NO_FOG || level == null)
+            return true;
+        Tile tile = level.getResidentTile(animated.getX(), animated.getY()); // 'null' if paged out: far from the Hero
+        return tile != null && (tile.isInSight() || (tile.isExplored() && animated.renderInFog()));
+    }
+
+    /**
+     * @param animation the Animation being played.
+     * @param time the current time within the Animation.
+     * @return The time at which the Animation will show another frame. Infinite if it never will.
+     */
+    private static float computeNextFrameChange(Animation<TextureRegion> animation, float time) {
+        float frameDuration = animation.getFrameDuration();
+        if(animation.getAnimationDuration() <= frameDuration) // a single frame
+            return Float.POSITIVE_INFINITY;
+
+        Animation.PlayMode mode = animation.getPlayMode();
+        boolean looping = mode != Animation.PlayMode.NORMAL && mode != Animation.PlayMode.REVERSED;
+        if(!looping && time >= animation.getAnimationDuration())
+            return Float.POSITIVE_INFINITY;
 
+        return ((int)(time / frameDuration) + 1) * frameDuration;
+    }
+
+
+    /**
+     * @param level the level in which the registered objects are (for the fog of war).
+     */
+    public void setLevel(BaseMapLayer level) {
+        this.level = level;
+    }
+
+    /**
+     * Called when the subject changed its Animation: its frame is refreshed on the next update.
+     */
+    @Override
+    public void update(IAnimated subject) {
+        int index = subject.getAnimationIndex();
+        if(index >= 0)
+            nextFrameChange.items[index] = 0;
     }
 
     @Override
     public void add(IAnimated listed) {
+        if(listed.getAnimationIndex() >= 0)
+            return;
+        listed.setAnimationIndex(animations.size);
         animations.add(listed);
+        nextFrameChange.add(0);
+    }
+
+    /**
+     * @param listed the object that doesn't need to be animated anymore (e.g. it died).
+     */
+    public void remove(IAnimated listed) {
+        int index = listed.getAnimationIndex();
+        if(index < 0)
+            return;
+        listed.setAnimationIndex(-1);
+
+        int last = animations.size - 1;
+        if(index != last)
+            animations.get(last).setAnimationIndex(index);
+        animations.removeIndex(index); // unordered: the last element is moved into `index`
+        nextFrameChange.removeIndex(index);
+    }
+
+    /**
+     * Unregisters every object (e.g. when the level changes).
+     */
+    public void clear() {
+        for(int i = 0; i < animations.size; i++)
+            animations.get(i).setAnimationIndex(-1);
+        animations.clear();
+        nextFrameChange.clear();
+    }
+
+    /**
+     * @return The amount of registered objects.
+     */
+    public int size() {
+        return animations.size;
     }
 }
@@ -12,4 +12,16 @@ public interface IAnimated extends IRenderable, IObservable {
     float getDelta();
     void incrementDelta(float delta);
     Animation<TextureRegion> getAnimation();
+
+    /**
+     * @return The slot of the object within the AnimationManager, '-1' if it isn't registered.
+     */
+    int getAnimationIndex();
+
+    /**
+     * Only meant to be used by the AnimationManager.
+     *
+     * @param animationIndex the slot of the object within the AnimationManager, '-1' when it is unregistered.
+     */
+    void setAnimationIndex(int animationIndex);
 }
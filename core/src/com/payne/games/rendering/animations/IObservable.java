@@ -2,6 +2,6 @@ package com.payne.games.rendering.animations;
 
 public interface IObservable {
     void notifyObservers();
-    void registerObserver(IObserver observer);
-    void unregisterObserver(IObserver observer);
+    void registerObserver(IObserver<IAnimated> observer);
+    void unregisterObserver(IObserver<IAnimated> observer);
 }
@@ -1,6 +1,6 @@
 package com.payne.games.rendering.animations;
 
 public interface IObserver<T> {
-    void update();
+    void update(T subject);
     void add(T listed);
 }
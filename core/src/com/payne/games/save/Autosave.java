@@ -0,0 +1,228 @@
+package com.payne.games.save;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.async.AsyncExecutor;
+import com.badlogic.gdx.utils.async.AsyncResult;
+import com.badlogic.gdx.utils.async.AsyncTask;
+import com.payne.games.actions.Action;
+import com.payne.games.logic.Controller;
+import com.payne.games.logic.GameLogic;
+import com.payne.games.map.BaseMapLayer;
+import com.payne.games.turns.IActionListener;
+
+import java.nio.ByteBuffer;
+
+
+/**
+ * Saves the game every few turns, as an append-only log: a full save (see `GameSave`) when a level is entered,
+ * then only deltas (the Tiles that changed, and the GameObjects). The game's thread only encodes the delta; the
+ * writing, and the compaction of the log, happen on a background thread.
+ * <br><br>
+ * Each record is framed by its length and a checksum: a record cut short by a crash is ignored when the log is
+ * read back (see `recover()`), the game resumes from the record before it. Once the deltas outweigh the save they
+ * apply to, the background thread folds them into a new save, written aside then moved over the log.
+ * <br><br>
+ * On backends without threads (GWT), the AsyncExecutor runs the tasks immediately: the writing is synchronous.
+ */
+public class Autosave implements IActionListener, Disposable {
+    private static final byte FULL  = 1;
+    private static final byte DELTA = 2;
+    private static final int FRAME_SIZE = 9; // tag, length, checksum
+    private static final int COMPACTION_RATIO = 4; // the log is compacted once it is this many times bigger than the save
+
+    private final FileHandle file;
+    private final FileHandle compacted; // the compacted log, before it replaces the log
+
+    /* The game's thread. */
+    private BaseMapLayer savedLevel; // the level of the last record: another level needs a full save
+    private boolean changed; // an Action was executed since the last record
+    private int turns;
+    private AsyncExecutor executor; // a single thread: the records are written in order
+    private AsyncResult<Void> lastWrite;
+
+    /* The background thread. */
+    private byte[] image; // the game as the log describes it so far
+    private long logSize;
+
+
+    /**
+     * @param file where the log is written. A previous log is replaced by the first record.
+     */
+    public Autosave(FileHandle file) {
+        this.file = file;
+        this.compacted = file.sibling(file.name() + ".tmp");
+    }
+
+
+    @Override
+    public void onActionExecuted(Action action, boolean canceled) {
+        changed = true;
+    }
+
+    @Override
+    public void onWaitingOnPlayer() {
+    }
+
+    /**
+     * Called by the Controller after each turn: saves the game every `GameLogic.AUTOSAVE_INTERVAL` turns, if an
+     * Action was executed meanwhile, and right away once another level was entered.
+     */
+    public void turnEnded(Controller controller) {
+        if(controller.getCurrentLevel() != savedLevel || (++turns >= GameLogic.AUTOSAVE_INTERVAL && changed))
+            save(controller);
+    }
+
+    /**
+     * Saves the game right away. Must be called in between two turns.
+     */
+    public void save(Controller controller) {
+        turns = 0;
+        changed = false;
+        BaseMapLayer level = controller.getCurrentLevel();
+        if(level != savedLevel) {
+            final byte[] save = GameSave.save(controller);
+            level.getChanges().clear(); // all in the save
+            savedLevel = level;
+            submit(new AsyncTask<Void>() {
+                @Override
+                public Void call() {
+                    image = save;
+                    compact();
+                    return null;
+                }
+            });
+        } else {
+            final byte[] delta = GameSave.saveDelta(controller);
+            submit(new AsyncTask<Void>() {
+                @Override
+                public Void call() {
+                    file.writeBytes(frame(DELTA, delta), true);
+                    logSize += FRAME_SIZE + delta.length;
+                    image = GameSave.applyDelta(image, delta);
+                    if(logSize > COMPACTION_RATIO * (long)image.length)
+                        compact();
+                    return null;
+                }
+            });
+        }
+    }
+
+    private void submit(AsyncTask<Void> task) {
+        if(executor == null)
+            executor = new AsyncExecutor(1, "Autosave");
+        lastWrite = executor.submit(task);
+    }
+
+    /**
+     * Replaces the log by a single full save, written aside first: a crash in between leaves one of the two whole.
+     */
+    private void compact() {
+        byte[] record = frame(FULL, image);
+        compacted.writeBytes(record, false);
+        compacted.moveTo(file);
+        logSize = record.length;
+    }
+
+    /**
+     * Blocks until every record saved so far is written.
+     */
+    public void flush() {
+        if(lastWrite != null)
+            lastWrite.get();
+    }
+
+    /**
+     * Deletes the log (e.g. the game is over): nothing is left to resume. The next save starts a new log.
+     */
+    public void clear() {
+        flush();
+        delete(file);
+        savedLevel = null;
+    }
+
+    @Override
+    public void dispose() {
+        flush();
+        if(executor != null) {
+            executor.dispose();
+            executor = null;
+        }
+    }
+
+
+    /**
+     * @return 'true' if there is a log to resume the game from.
+     */
+    public static boolean exists(FileHandle file) {
+        return file.exists() || file.sibling(file.name() + ".tmp").exists();
+    }
+
+    /**
+     * Deletes the log, and a compacted log that didn't replace it.
+     */
+    public static void delete(FileHandle file) {
+        file.delete();
+        file.sibling(file.name() + ".tmp").delete();
+    }
+
+    /**
+     * Reads a log back: its full save, brought up to date with the deltas that follow it. A record that is cut
+     * short or corrupted ends the log.
+     *
+     * @param file a log written by an Autosave.
+     * @return The game, to be loaded by `Controller.loadGame()`. 'null' if there is no usable log.
+     */
+    public static byte[] recover(FileHandle file) {
+        byte[] save = file.exists() ? replay(file.readBytes()) : null;
+        FileHandle compacted = file.sibling(file.name() + ".tmp");
+        if(save == null && compacted.exists()) // the crash happened while the compacted log was replacing the log
+            save = replay(compacted.readBytes());
+        return save;
+    }
+
+    private static byte[] replay(byte[] log) {
+        ByteBuffer records = ByteBuffer.wrap(log);
+        byte[] save = null;
+        while(records.remaining() >= FRAME_SIZE) {
+            byte tag = records.get();
+            int length = records.getInt();
+            if(length < 0 || length > records.remaining() - 4)
+                break;
+            byte[] payload = new byte[length];
+            records.get(payload);
+            if(records.getInt() != checksum(payload))
+                break;
+
+            if(tag == FULL)
+                save = payload;
+            else if(tag == DELTA && save != null)
+                save = GameSave.applyDelta(save, payload);
+            else
+                break;
+        }
+        return save;
+    }
+
+    private static byte[] frame(byte tag, byte[] payload) {
+        ByteBuffer record = ByteBuffer.allocate(FRAME_SIZE + payload.length);
+        record.put(tag);
+        record.putInt(payload.length);
+        record.put(payload);
+        record.putInt(checksum(payload));
+        return record.array();
+    }
+
+    /**
+     * FNV-1a: enough to tell a record cut short or half-written from a whole one.
+     */
+    private static int checksum(byte[] payload) {
+        int hash = 0x811c9dc5;
+        for(byte b : payload) {
+            hash ^= b & 0xFF;
+            hash *= 0x01000193;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,587 @@
+package com.payne.games.save;
+
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.Queue;
+import com.payne.games.actions.Action;
+import com.payne.games.actions.commands.*;
+import com.payne.games.gameObjects.GameObject;
+import com.payne.games.gameObjects.GameObjectFactory;
+import com.payne.games.gameObjects.actors.Actor;
+import com.payne.games.gameObjects.actors.ActorState;
+import com.payne.games.gameObjects.actors.entities.Enemy;
+import com.payne.games.gameObjects.actors.entities.Hero;
+import com.payne.games.gameObjects.statics.Static;
+import com.payne.games.gameObjects.statics.entities.*;
+import com.payne.games.inventory.IPickable;
+import com.payne.games.inventory.Inventory;
+import com.payne.games.inventory.InventorySlot;
+import com.payne.games.logic.Controller;
+import com.payne.games.map.BaseMapLayer;
+import com.payne.games.map.ExplorationMemory;
+import com.payne.games.map.SecondaryMapLayer;
+import com.payne.games.map.TileChanges;
+import com.payne.games.map.generators.SpawnPlan;
+import com.payne.games.map.storage.ChunkCodec;
+import com.payne.games.map.storage.LevelCodec;
+import com.payne.games.map.tiles.Tile;
+import com.payne.games.map.tilesets.Tileset;
+import com.payne.games.turns.ActorNode;
+import com.payne.games.turns.TurnManager;
+import com.payne.games.turns.journal.ActionJournal;
+import com.payne.games.turns.journal.JournalRecord;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+
+/**
+ * Binary format of a whole game, to be resumed later exactly where it was left: the current level (see
+ * `LevelCodec`), what can be walked and seen through, the GameObjects with their stats, the Hero's Inventory, the
+ * Actions still queued, the state of every random generator, and the schedule of the current round of the
+ * TurnManager. A loaded game plays on exactly like the saved one would have.
+ * <br><br>
+ * The GameObjects refer to each other through their ids (an Action's target, the items of the Inventory), and keep
+ * them once loaded. The levels already visited aren't part of the save: they stay in the ILevelStore.
+ * <br><br>
+ * Layout (big-endian):
+ * <ul>
+ *     <li>header: magic, version, depth</li>
+ *     <li>factory: state of its random generator, id of the next GameObject</li>
+ *     <li>level: length, then the level encoded by the LevelCodec (without its GameObjects)</li>
+ *     <li>tiles: one byte of flags per Tile, row after row (1: allowing moves, 2: see-through)</li>
+ *     <li>statics, then actors: amount, then one record per GameObject, in the order of their layer</li>
+ *     <li>inventory: capacity, then the amount and the items of each slot</li>
+ *     <li>actions: the queue of each Actor, in the order of the actor layer</li>
+ *     <li>schedule: the nodes of the TurnManager's round, and how many of them were popped</li>
+ * </ul>
+ * The whole save is written to memory first, to reach the disk in a single write.
+ * <br><br>
+ * In between two saves of a level, `saveDelta()` only encodes the Tiles that changed (and the GameObjects), and
+ * `applyDelta()` patches them into the previous save: see `Autosave`.
+ */
+public final class GameSave {
+    public static final int MAGIC = 0x41445331; // "ADS1"
+    public static final short VERSION = 1;
+
+    /* Types of GameObjects. */
+    public static final byte HERO          = 0;
+    public static final byte ENEMY         = 1;
+    public static final byte CHEST         = 2;
+    public static final byte KEY           = 3;
+    public static final byte DOOR          = 4;
+    public static final byte FLAME         = 5;
+    public static final byte HEALTH_POTION = 6;
+
+    /* Flags of the Tiles. */
+    private static final int ALLOWING_MOVE = ChunkCodec.ALLOWING_MOVE;
+    private static final int SEE_THROUGH   = ChunkCodec.SEE_THROUGH;
+    private static final int EXPLORED      = 4; // deltas only: the encoded level has its own exploration
+
+    /* Offsets within a save. */
+    private static final int FACTORY = 10;
+    private static final int LEVEL   = 30; // length of the encoded level, followed by the level itself
+
+    private static final int NO_STATE = -1;
+
+
+    private GameSave() {
+    }
+
+
+    /**
+     * Must be called in between two turns.
+     *
+     * @param controller the game to save.
+     * @return The encoded game.
+     */
+    public static byte[] save(Controller controller) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 << 14);
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            write(controller, out);
+            out.flush();
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Couldn't save the game.", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * What changed since the previous save or delta of the same level: the factory's generator, the Tiles that
+     * changed (see `TileChanges`, cleared here), and all the GameObjects. Must be called in between two turns.
+     *
+     * @param controller the game to save.
+     * @return The delta, to be applied to the previous save by `applyDelta()`.
+     */
+    public static byte[] saveDelta(Controller controller) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 << 11);
+        DataOutputStream out = new DataOutputStream(bytes);
+        BaseMapLayer level = controller.getCurrentLevel();
+        GameObjectFactory factory = controller.getGameObjectFactory();
+        TileChanges changes = level.getChanges();
+        try {
+            out.writeLong(factory.getRandom().getState(0));
+            out.writeLong(factory.getRandom().getState(1));
+            out.writeInt(factory.getNextId());
+
+            out.writeInt(changes.size());
+            for(int i = 0; i < changes.size(); i++) {
+                int index = changes.get(i);
+                Tile tile = level.getTile(index % level.getMapWidth(), index / level.getMapWidth());
+                out.writeInt(index);
+                out.writeByte(LevelCodec.terrainOf(tile));
+                out.writeByte(tile.getBitmask());
+                out.writeByte(ChunkCodec.valueOf(ChunkCodec.FLAGS, tile) | (tile.isExplored() ? EXPLORED : 0));
+            }
+
+            writeObjects(controller, out);
+            out.flush();
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Couldn't save the changes of the game.", e);
+        }
+        changes.clear();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Brings a save up to date with a delta, without any Controller: the changed Tiles are patched in place, and
+     * the GameObjects replaced. If Tiles were explored, the runs of the level's exploration are written again.
+     *
+     * @param save a game encoded by `save()` (possibly updated by other deltas already). Modified.
+     * @param delta encoded by `saveDelta()`, on the same level.
+     * @return The updated save: `save` itself, or a copy if the size of its exploration or GameObjects changed.
+     */
+    public static byte[] applyDelta(byte[] save, byte[] delta) {
+        ByteBuffer image = ByteBuffer.wrap(save);
+        ByteBuffer changes = ByteBuffer.wrap(delta);
+        image.putLong(FACTORY, changes.getLong());
+        image.putLong(FACTORY + 8, changes.getLong());
+        image.putInt(FACTORY + 16, changes.getInt());
+
+        int levelLength = image.getInt(LEVEL);
+        ByteBuffer level = ByteBuffer.wrap(save, LEVEL + 4, levelLength).slice();
+        int flags = LEVEL + 4 + levelLength;
+        int cells = LevelCodec.cellCount(level);
+        ExplorationMemory exploration = null; // decoded on the first change
+        boolean explored = false;
+        int count = changes.getInt();
+        for(int i = 0; i < count; i++) {
+            int index = changes.getInt();
+            byte terrain = changes.get();
+            int bitmask = changes.get();
+            int tileFlags = changes.get();
+            LevelCodec.patchTile(level, index, terrain, bitmask);
+            save[flags + index] = (byte)(tileFlags & (ALLOWING_MOVE | SEE_THROUGH));
+            if(exploration == null)
+                exploration = LevelCodec.decodeExploration(level);
+            explored |= exploration.setExplored(index % exploration.getWidth(), index / exploration.getWidth(),
+                    (tileFlags & EXPLORED) != 0);
+        }
+        int objectsLength = changes.remaining();
+
+        if(!explored) {
+            int objects = flags + cells;
+            byte[] updated = save.length == objects + objectsLength ? save : new byte[objects + objectsLength];
+            if(updated != save)
+                System.arraycopy(save, 0, updated, 0, objects);
+            System.arraycopy(delta, changes.position(), updated, objects, objectsLength);
+            return updated;
+        }
+
+        ByteBuffer newLevel = LevelCodec.withExploration(level, exploration);
+        ByteBuffer updated = ByteBuffer.allocate(LEVEL + 4 + newLevel.remaining() + cells + objectsLength);
+        updated.put(save, 0, LEVEL);
+        updated.putInt(newLevel.remaining());
+        updated.put(newLevel);
+        updated.put(save, flags, cells);
+        updated.put(delta, changes.position(), objectsLength);
+        return updated.array();
+    }
+
+    private static void write(Controller controller, DataOutputStream out) throws IOException {
+        BaseMapLayer level = controller.getCurrentLevel();
+        GameObjectFactory factory = controller.getGameObjectFactory();
+        Hero player = controller.getPlayer();
+
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeInt(controller.getDepth());
+
+        out.writeLong(factory.getRandom().getState(0));
+        out.writeLong(factory.getRandom().getState(1));
+        out.writeInt(factory.getNextId());
+
+        /* The GameObjects are written below, with more than their positions: only the Hero goes in the SpawnPlan. */
+        SpawnPlan heroOnly = new SpawnPlan();
+        heroOnly.setHero(player.getX(), player.getY());
+        ByteBuffer encoded = LevelCodec.encode(controller.getDepth(), level, heroOnly);
+        out.writeInt(encoded.limit());
+        out.write(encoded.array(), 0, encoded.limit());
+
+        byte[] flags = new byte[level.getMapWidth() * level.getMapHeight()]; // the chunks paged out stay there
+        level.copyTiles(ChunkCodec.FLAGS, flags);
+        out.write(flags);
+
+        writeObjects(controller, out);
+    }
+
+    /**
+     * Everything but the level: small, and written whole by every delta (the fatigue of every Actor changes on
+     * every turn anyway).
+     */
+    private static void writeObjects(Controller controller, DataOutputStream out) throws IOException {
+        SecondaryMapLayer layers = controller.getSecondaryMapLayer();
+        Hero player = controller.getPlayer();
+
+        out.writeInt(layers.getStaticLayer().size);
+        for(Static object : layers.getStaticLayer())
+            writeStatic(object, out);
+
+        out.writeInt(layers.getActorLayer().size);
+        for(Actor actor : layers.getActorLayer())
+            writeActor(actor, out);
+
+        Inventory inventory = player.getInventory();
+        out.writeInt(inventory.getCapacity());
+        for(int i = 0; i < inventory.getCapacity(); i++) {
+            InventorySlot slot = inventory.getSlot(i);
+            out.writeInt(slot.getAmount());
+            for(int j = 0; j < slot.getAmount(); j++) {
+                GameObject item = (GameObject)slot.getItem(j);
+                out.writeByte(typeOf(item));
+                out.writeInt(item.getId());
+            }
+        }
+
+        for(Actor actor : layers.getActorLayer())
+            writeActions(actor.getActionsQueue(), out);
+
+        TurnManager turnManager = controller.getTurnManager();
+        Array<ActorNode> round = turnManager.getRound();
+        out.writeInt(round.size);
+        for(ActorNode node : round) {
+            out.writeInt(node.actor == null ? -1 : node.actor.getId());
+            out.writeFloat(node.getValue());
+        }
+        out.writeInt(turnManager.getPoppedThisRound());
+    }
+
+    private static void writeStatic(Static object, DataOutputStream out) throws IOException {
+        out.writeByte(typeOf(object));
+        out.writeInt(object.getId());
+        out.writeShort(object.getX());
+        out.writeShort(object.getY());
+        if(object instanceof Door) {
+            out.writeBoolean(((Door)object).isClosed());
+            out.writeBoolean(((Door)object).isLocked());
+        }
+    }
+
+    private static void writeActor(Actor actor, DataOutputStream out) throws IOException {
+        out.writeByte(typeOf(actor));
+        out.writeInt(actor.getId());
+        out.writeShort(actor.getX());
+        out.writeShort(actor.getY());
+        out.writeShort(actor.getMovingToX());
+        out.writeShort(actor.getMovingToY());
+        out.writeInt(actor.getCurrHp());
+        out.writeInt(actor.getMaxHp());
+        out.writeInt(actor.getFatigueRegen());
+        out.writeInt(actor.getCurrFatigue());
+        out.writeInt(actor.getRange());
+        out.writeInt(actor.getDmg());
+        out.writeInt(actor.getRangeOfSight());
+        out.writeInt(actor.getPriority());
+        out.writeBoolean(actor.isInvincible());
+        out.writeByte(actor.getState() == null ? NO_STATE : actor.getState().ordinal());
+        if(actor instanceof Hero) {
+            out.writeInt(((Hero)actor).getXp());
+        } else {
+            RandomXS128 ai = ((Enemy)actor).getAi().getRandom();
+            out.writeLong(ai.getState(0));
+            out.writeLong(ai.getState(1));
+        }
+    }
+
+    /**
+     * The Actions are described like in the ActionJournal: their type, their target's id, and their Tiles.
+     * The invalidated ones are left out, they would only have been discarded.
+     */
+    private static void writeActions(Queue<Action> actions, DataOutputStream out) throws IOException {
+        int valid = 0;
+        for(int i = 0; i < actions.size; i++) {
+            if(!actions.get(i).isInvalidated())
+                valid++;
+        }
+        out.writeInt(valid);
+        for(int i = 0; i < actions.size; i++) {
+            Action action = actions.get(i);
+            if(action.isInvalidated())
+                continue;
+            byte type = ActionJournal.typeOf(action);
+            if(type == JournalRecord.UNKNOWN)
+                throw new GdxRuntimeException("Can't save an Action of type " + action.getClass().getSimpleName() + ".");
+            out.writeByte(type);
+            out.writeInt(action.getTarget() == null ? -1 : action.getTarget().getId());
+            if(action instanceof MoveAction) {
+                MoveAction move = (MoveAction)action;
+                writeTile(move.getFrom(), out);
+                writeTile(move.getNext(), out);
+                writeTile(move.getTo(), out);
+            } else if(action instanceof AttackAction) {
+                out.writeInt(((AttackAction)action).getDmg());
+            }
+        }
+    }
+
+    private static void writeTile(Tile tile, DataOutputStream out) throws IOException {
+        out.writeShort(tile == null ? -1 : tile.getX());
+        out.writeShort(tile == null ? -1 : tile.getY());
+    }
+
+    private static byte typeOf(GameObject object) {
+        if(object instanceof Hero)
+            return HERO;
+        if(object instanceof Enemy)
+            return ENEMY;
+        if(object instanceof Chest)
+            return CHEST;
+        if(object instanceof Key)
+            return KEY;
+        if(object instanceof Door)
+            return DOOR;
+        if(object instanceof Flame)
+            return FLAME;
+        if(object instanceof HealthPotion)
+            return HEALTH_POTION;
+        throw new GdxRuntimeException("Can't save a GameObject of type " + object.getClass().getSimpleName() + ".");
+    }
+
+
+    /**
+     * Replaces the current game of the Controller by the saved one. The Hero stays the same instance.
+     *
+     * @param controller the game to replace, in between two turns.
+     * @param save a game encoded by `save()`.
+     * @param tileset The tileset to be used for the rendering. Ignored if headless.
+     */
+    public static void load(Controller controller, byte[] save, Tileset tileset) {
+        try {
+            read(controller, new DataInputStream(new ByteArrayInputStream(save)), tileset);
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Couldn't load the game.", e);
+        }
+    }
+
+    private static void read(Controller controller, DataInputStream in, Tileset tileset) throws IOException {
+        if(in.readInt() != MAGIC)
+            throw new GdxRuntimeException("Not a saved game.");
+        short version = in.readShort();
+        if(version != VERSION)
+            throw new GdxRuntimeException("Unsupported save version: " + version);
+        in.readInt(); // depth: also in the encoded level
+
+        long factoryState0 = in.readLong(), factoryState1 = in.readLong();
+        int nextId = in.readInt();
+
+        byte[] encoded = new byte[in.readInt()];
+        in.readFully(encoded);
+        controller.restoreLevel(ByteBuffer.wrap(encoded), tileset); // the Hero alone on its level, the turns reset
+
+        BaseMapLayer level = controller.getCurrentLevel();
+        byte[] flags = new byte[level.getMapWidth() * level.getMapHeight()];
+        in.readFully(flags);
+
+        /*
+         * The GameObjects are created through the factory (textures, animations, observers), then given back their
+         * ids and state. They are created on the Hero's Tile: the creation changes the flags of their Tile, and all
+         * the flags are written back at the end anyway.
+         */
+        Hero player = controller.getPlayer();
+        GameObjectFactory factory = controller.getGameObjectFactory();
+        IntMap<GameObject> objects = new IntMap<>();
+
+        int staticCount = in.readInt();
+        Array<Static> statics = new Array<>(staticCount);
+        for(int i = 0; i < staticCount; i++) {
+            Static object = readStatic(in, factory, player);
+            statics.add(object);
+            objects.put(object.getId(), object);
+        }
+        int actorCount = in.readInt();
+        Array<Actor> actors = new Array<>(actorCount);
+        for(int i = 0; i < actorCount; i++) {
+            Actor actor = readActor(in, factory, player);
+            actors.add(actor);
+            objects.put(actor.getId(), actor);
+        }
+
+        /* The items picked up on a previous level aren't on any layer anymore. */
+        Inventory inventory = player.getInventory();
+        inventory.clear();
+        int capacity = in.readInt();
+        for(int i = 0; i < capacity; i++) {
+            int amount = in.readInt();
+            for(int j = 0; j < amount; j++) {
+                byte type = in.readByte();
+                int id = in.readInt();
+                GameObject item = objects.get(id);
+                if(item == null) {
+                    item = createStatic(type, factory, player);
+                    item.setId(id);
+                    item.placeOutsideOfMap();
+                    objects.put(id, item);
+                }
+                controller.getActionController().releaseObservers(item); // created like any other GameObject, but not drawn
+                inventory.putItem(i, (IPickable)item);
+            }
+        }
+
+        /* Both layers as they were: the order of the actors decides who plays first among equals. */
+        SecondaryMapLayer layers = controller.getSecondaryMapLayer();
+        layers.getStaticLayer().clear();
+        layers.getStaticLayer().addAll(statics);
+        layers.getActorLayer().clear();
+        layers.getActorLayer().addAll(actors);
+
+        for(Actor actor : actors)
+            readActions(in, actor, objects, level);
+
+        int nodes = in.readInt();
+        Array<ActorNode> round = new Array<>(nodes);
+        for(int i = 0; i < nodes; i++) {
+            int id = in.readInt();
+            round.add(new ActorNode(in.readFloat(), id < 0 ? null : (Actor)objects.get(id)));
+        }
+        controller.getTurnManager().restoreRound(round, in.readInt());
+
+        for(int i = 0; i < flags.length; i++) {
+            Tile tile = level.getTile(i % level.getMapWidth(), i / level.getMapWidth());
+            tile.setAllowingMove((flags[i] & ALLOWING_MOVE) != 0);
+            tile.setSeeThrough((flags[i] & SEE_THROUGH) != 0);
+        }
+
+        /* Last: creating the GameObjects above drew from the factory's generator. */
+        factory.getRandom().setState(factoryState0, factoryState1);
+        factory.setNextId(nextId);
+    }
+
+    private static Static readStatic(DataInputStream in, GameObjectFactory factory, Hero player) throws IOException {
+        Static object = createStatic(in.readByte(), factory, player);
+        object.setId(in.readInt());
+        object.setX(in.readShort());
+        object.setY(in.readShort());
+        if(object instanceof Door) {
+            ((Door)object).setClosed(in.readBoolean());
+            ((Door)object).setLocked(in.readBoolean());
+        }
+        return object;
+    }
+
+    private static Static createStatic(byte type, GameObjectFactory factory, Hero player) {
+        int x = player.getX(), y = player.getY();
+        switch (type) {
+            case CHEST:
+                return factory.createChest(x, y);
+            case KEY:
+                return factory.createKey(x, y);
+            case DOOR:
+                return factory.createDoor(x, y, false);
+            case FLAME:
+                return factory.createFlame(x, y);
+            case HEALTH_POTION:
+                return factory.createHealthPotion(x, y);
+            default:
+                throw new GdxRuntimeException("Unknown type of static object: " + type);
+        }
+    }
+
+    private static Actor readActor(DataInputStream in, GameObjectFactory factory, Hero player) throws IOException {
+        byte type = in.readByte();
+        Actor actor;
+        if(type == HERO)
+            actor = player;
+        else if(type == ENEMY)
+            actor = factory.createEnemy(player.getX(), player.getY());
+        else
+            throw new GdxRuntimeException("Unknown type of actor: " + type);
+
+        actor.setId(in.readInt());
+        actor.setX(in.readShort());
+        actor.setY(in.readShort());
+        actor.setMovingToX(in.readShort());
+        actor.setMovingToY(in.readShort());
+        actor.setCurrHp(in.readInt());
+        actor.setMaxHp(in.readInt());
+        actor.setFatigueRegen(in.readInt());
+        actor.setCurrFatigue(in.readInt());
+        actor.setRange(in.readInt());
+        actor.setDmg(in.readInt());
+        actor.setRangeOfSight(in.readInt());
+        actor.setPriority(in.readInt());
+        actor.setInvincible(in.readBoolean());
+        byte state = in.readByte();
+        if(state != NO_STATE)
+            actor.setState(ActorState.values()[state]);
+        if(actor instanceof Hero) {
+            ((Hero)actor).setXp(in.readInt());
+        } else {
+            long state0 = in.readLong(), state1 = in.readLong();
+            ((Enemy)actor).getAi().getRandom().setState(state0, state1);
+        }
+        return actor;
+    }
+
+    private static void readActions(DataInputStream in, Actor actor, IntMap<GameObject> objects, BaseMapLayer level) throws IOException {
+        int count = in.readInt();
+        for(int i = 0; i < count; i++) {
+            byte type = in.readByte();
+            GameObject target = objects.get(in.readInt()); // 'null' for -1
+            Action action;
+            switch (type) {
+                case JournalRecord.MOVE:
+                    action = new MoveAction(actor, readTile(in, level), readTile(in, level), readTile(in, level));
+                    break;
+                case JournalRecord.INTERACTIVE_MOVE:
+                    action = new InteractiveMoveAction(actor, target, readTile(in, level), readTile(in, level), readTile(in, level));
+                    break;
+                case JournalRecord.ATTACK:
+                    action = new AttackAction(actor, (Actor)target, in.readInt());
+                    break;
+                case JournalRecord.OPEN_CHEST:
+                    action = new OpenChestAction(actor, (Chest)target);
+                    break;
+                case JournalRecord.TOGGLE_DOOR:
+                    action = new ToggleDoorAction(actor, (Door)target);
+                    break;
+                case JournalRecord.UNLOCK_DOOR:
+                    action = new UnlockDoorAction(actor, (Door)target);
+                    break;
+                case JournalRecord.PICK_UP:
+                    action = new PickUpAction(actor, (IPickable)target);
+                    break;
+                case JournalRecord.WAKE_UP:
+                    action = new WakeUpAction(actor);
+                    break;
+                case JournalRecord.NOOP:
+                    action = new NoopAction(actor);
+                    break;
+                default:
+                    throw new GdxRuntimeException("Unknown type of Action: " + type);
+            }
+            actor.addAction(action);
+        }
+    }
+
+    private static Tile readTile(DataInputStream in, BaseMapLayer level) throws IOException {
+        int x = in.readShort(), y = in.readShort();
+        return x < 0 || y < 0 ? null : level.getTile(x, y);
+    }
+}
@@ -4,6 +4,7 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Screen;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.math.Matrix4;
 import com.badlogic.gdx.input.GestureDetector;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.Touchable;
@@ -14,10 +15,19 @@ import com.payne.games.assets.Assets;
 import com.payne.games.assets.AssetsPool;
 import com.payne.games.logic.GameLogic;
 import com.payne.games.logic.Controller;
+import com.payne.games.logic.FixedTimestep;
+import com.payne.games.logic.ILogicRunner;
 import com.payne.games.map.tilesets.BasicTileset;
 import com.payne.games.inputProcessors.MyGestureListener;
 import com.payne.games.inputProcessors.MyInputMultiplexer;
 import com.payne.games.inputProcessors.MyInputProcessor;
+import com.payne.games.profiling.Phase;
+import com.payne.games.profiling.Profiler;
+import com.payne.games.profiling.ProfilerOverlay;
+import com.payne.games.rendering.WorldSnapshot;
+import com.payne.games.save.Autosave;
+import com.payne.games.logging.Log;
+import com.payne.games.logging.LogCategory;
 
 
 public class GameScreen implements Screen {
@@ -32,20 +42,44 @@ public class GameScreen implements Screen {
 
     // controllers
     private Controller controller;
-    private float currTime = 0f; // turn system
+    private FixedTimestep turnClock = new FixedTimestep(GameLogic.TURN_TIME, GameLogic.MAX_TURNS_PER_FRAME); // turn system
+    private ILogicRunner logicRunner; // runs the turns (see `AriseDeeper.setLogicRunner()`)
+    private boolean resumeSavedGame; // the game saved at `GameLogic.SAVE_PATH` is loaded instead of a new one
+    private Autosave autosave; // 'null' without local storage
+
+    // rendering of the WorldSnapshots, when the turns run on another thread
+    private WorldSnapshot renderedSnapshot;
+    private float timeSinceCapture;
+
+    // profiling (see `GameLogic.DEBUG_PROFILER_OVERLAY`)
+    private Profiler profiler;
+    private ProfilerOverlay profilerOverlay;
+    private Matrix4 screenProjection = new Matrix4();
 
 
     public GameScreen(final AriseDeeper game) {
-        System.out.println("game constructor");
+        this(game, false);
+    }
+
+    /**
+     * @param resumeSavedGame 'true' to load the game saved at `GameLogic.SAVE_PATH` (see `hasSavedGame()`).
+     */
+    public GameScreen(final AriseDeeper game, boolean resumeSavedGame) {
+        Log.debug(LogCategory.SCREENS, "game constructor");
         this.game   = game;
+        this.resumeSavedGame = resumeSavedGame;
     }
     
 
     @Override
     public void show() {
-        System.out.println("game show");
-        this.skin   = game.assets.manager.get(Assets.UI_SKIN);
-        setUpGameScreen();
+        Log.debug(LogCategory.SCREENS, "game show");
+        if(controller == null) {
+            this.skin   = game.assets.manager.get(Assets.UI_SKIN);
+            setUpGameScreen();
+        } else {
+            logicRunner.start(controller); // back from the MainMenuScreen: the game goes on where it was left
+        }
         
         Gdx.gl.glClearColor(0, 0, 0, 1); // black background
         setUpInputProcessors();
@@ -60,7 +94,27 @@ public class GameScreen implements Screen {
         setUpUi(); // ui
         setUpCamera(); // create the camera and the SpriteBatch
         controller = new Controller(this, camera, inventorySlots); // controller
-        setUpMap(); // generate the initial level and place the GameObjects (hero, etc.)
+        profiler = controller.getProfiler();
+        profilerOverlay = new ProfilerOverlay(profiler);
+        profilerOverlay.setLevelCache(controller.getLevelCache());
+        controller.setLevelStore(game.getLevelStore());
+        controller.setChunkStore(game.getChunkStore());
+        byte[] save = resumeSavedGame && hasSavedGame() ? Autosave.recover(Gdx.files.local(GameLogic.SAVE_PATH)) : null;
+        if(save != null) {
+            controller.loadGame(save, new BasicTileset());
+        } else {
+            if(game.getLevelStore() != null)
+                game.getLevelStore().clear(); // a new game: the levels of the previous one are forgotten
+            deleteSavedGame();
+            setUpMap(); // generate the initial level and place the GameObjects (hero, etc.)
+        }
+        if(Gdx.files.isLocalStorageAvailable()) {
+            autosave = new Autosave(Gdx.files.local(GameLogic.SAVE_PATH));
+            autosave.save(controller); // the log starts with the level just entered
+            controller.setAutosave(autosave);
+        }
+        logicRunner = game.getLogicRunner();
+        logicRunner.start(controller); // the turns may run from now on
     }
 
     private void setUpUi() {
@@ -115,22 +169,59 @@ public class GameScreen implements Screen {
     }
 
     /**
-     * Called when the player dies.
+     * Called when the player dies. The turn might be running on another thread: the Screen only changes once
+     * the frame is over.
      */
     public void playerDied() {
-        // todo: stuff
-        dispose();
-        game.setScreen(new MainMenuScreen(game));
+        Gdx.app.postRunnable(new Runnable() {
+            @Override
+            public void run() {
+                // todo: stuff
+                dispose();
+                deleteSavedGame(); // nothing left to resume
+                game.setScreen(new MainMenuScreen(game));
+            }
+        });
     }
 
     /**
      * Returns to the MainScreenMenu.
      */
     public void saveAndReturnToMainMenu() {
-        // todo: should save state, etc.!
+        saveGame();
         game.returnToPreviousScreen();
     }
 
+    /**
+     * Saves what changed since the last autosave (see `Autosave`). Only the encoding happens here, within a frame:
+     * the record is written by the Autosave's thread, as are the levels already visited by the LevelCache's, and
+     * both are only waited for in `dispose()`. The ILogicRunner is stopped first, so that no turn is in progress:
+     * it is started again when the game is shown or resumed.
+     */
+    private void saveGame() {
+        if(autosave == null)
+            return;
+        logicRunner.stop(); // before anything is read from the game
+        if(controller.getPlayer().isDead())
+            return;
+        long start = System.nanoTime();
+        autosave.save(controller);
+        Log.info(LogCategory.SCREENS, "Game saved: {} us on the render thread, written in the background",
+                (int)((System.nanoTime() - start) / 1000));
+    }
+
+    /**
+     * @return 'true' if there is a game to resume (see `GameScreen(AriseDeeper, boolean)`).
+     */
+    public static boolean hasSavedGame() {
+        return Gdx.files.isLocalStorageAvailable() && Autosave.exists(Gdx.files.local(GameLogic.SAVE_PATH));
+    }
+
+    private static void deleteSavedGame() {
+        if(Gdx.files.isLocalStorageAvailable())
+            Autosave.delete(Gdx.files.local(GameLogic.SAVE_PATH));
+    }
+
     public AssetsPool getAssetsPool() {
         return game.assets.pool;
     }
@@ -162,17 +253,27 @@ public class GameScreen implements Screen {
      */
     @Override
     public void render(float delta) {
+        profiler.begin(Phase.FRAME);
         Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT); // clear the screen
 
 
-        /* Turn system. */
-        if(currTime >= GameLogic.TURN_TIME) {
-            currTime = 0f;
-            controller.updateLighting(); // lighting before because of interpolated movement
-            controller.processTurn();
-            controller.updateUi();
-        } else {
-            currTime += delta;
+        /* Turn system: fixed steps, whatever the frame rate. */
+        int turns = turnClock.advance(delta);
+        logicRunner.runTurns(turns);
+        boolean changed = turns > 0;
+        WorldSnapshot snapshot = logicRunner.getSnapshot();
+        if(snapshot != null) { // the turns run on another thread: the game changes with its snapshots
+            timeSinceCapture += delta;
+            changed = snapshot != renderedSnapshot;
+            if(changed) {
+                renderedSnapshot = snapshot;
+                timeSinceCapture = 0;
+            }
+        }
+        if(changed) {
+            profiler.begin(Phase.UPDATE_UI);
+            controller.updateUi(snapshot);
+            profiler.end(Phase.UPDATE_UI);
         }
 
 
@@ -183,7 +284,13 @@ public class GameScreen implements Screen {
 
         /* Actual map rendering. */
         game.batch.begin();
-        controller.renderLevel(game.batch, delta);
+        if(snapshot == null) {
+            controller.renderLevel(game.batch, delta, turnClock.getAlpha());
+        } else if(snapshot.isReady()) {
+            // a snapshot that lags behind the requested turns is shown at the end of its movements
+            float alpha = snapshot.getTurn() < logicRunner.getRequestedTurns() ? 1f : turnClock.getAlpha();
+            controller.renderSnapshot(game.batch, snapshot, alpha, timeSinceCapture);
+        }
 
         /* Debugging text. */
         game.font.draw(game.batch,
@@ -195,13 +302,26 @@ public class GameScreen implements Screen {
 
 
         /* Drawing the UI over the map. */
+        profiler.begin(Phase.UI_STAGE);
         uiStage.act(delta);
         uiStage.draw();
+        profiler.end(Phase.UI_STAGE);
+
+
+        /* Profiling data, in screen coordinates. */
+        if(GameLogic.DEBUG_PROFILER_OVERLAY) {
+            screenProjection.setToOrtho2D(0, 0, Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+            game.batch.setProjectionMatrix(screenProjection);
+            game.batch.begin();
+            profilerOverlay.render(game.batch, game.font, 4, Gdx.graphics.getHeight() - 4, delta);
+            game.batch.end();
+        }
+        profiler.end(Phase.FRAME);
     }
 
     @Override
     public void resize(int width, int height) {
-        System.out.println("game resize - width: " + width + " | height: " + height);
+        Log.debug(LogCategory.SCREENS, "game resize - width: {} | height: {}", width, height);
 //        /*
 //        The following resize strategy will ensure that you will always see
 //        30 units in the x axis no matter what pixel-width your device has.
@@ -221,11 +341,12 @@ public class GameScreen implements Screen {
     /**
      * On Android this method is called when the Home button is pressed or an incoming call is received.
      * On desktop this is called just before dispose() when exiting the application.
-     * A good place to save the game state.
+     * The game is saved: on Android, the application might never be resumed.
      */
     @Override
     public void pause() {
-        System.out.println("game pause");
+        Log.debug(LogCategory.SCREENS, "game pause");
+        saveGame();
     }
 
     /**
@@ -233,12 +354,15 @@ public class GameScreen implements Screen {
      */
     @Override
     public void resume() {
-        System.out.println("game resume");
+        Log.debug(LogCategory.SCREENS, "game resume");
+        if(controller != null)
+            logicRunner.start(controller); // stopped by the save
     }
 
     @Override
     public void hide() {
-        System.out.println("game hide");
+        Log.debug(LogCategory.SCREENS, "game hide");
+        logicRunner.stop(); // nothing runs while the game isn't shown
     }
 
     /**
@@ -247,9 +371,12 @@ public class GameScreen implements Screen {
      */
     @Override
     public void dispose() {
-        System.out.println("game dispose");
+        Log.debug(LogCategory.SCREENS, "game dispose");
+        logicRunner.stop(); // the turn in progress (if any) is finished before the Controller is disposed
         uiStage.dispose();
         skin.dispose();
         controller.dispose();
+        if(autosave != null)
+            autosave.dispose(); // the last records are written
     }
 }
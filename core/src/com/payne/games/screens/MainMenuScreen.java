@@ -13,6 +13,8 @@ import com.badlogic.gdx.scenes.scene2d.utils.ChangeListener;
 import com.badlogic.gdx.utils.viewport.ScreenViewport;
 import com.payne.games.AriseDeeper;
 import com.payne.games.assets.Assets;
+import com.payne.games.logging.Log;
+import com.payne.games.logging.LogCategory;
 
 
 /**
@@ -34,7 +36,7 @@ public class MainMenuScreen implements Screen {
 
 
     public MainMenuScreen(final AriseDeeper game) {
-        System.out.println("menu constructor");
+        Log.debug(LogCategory.SCREENS, "menu constructor");
         this.game   = game;
 
         skin  = game.assets.manager.get(Assets.UI_SKIN);
@@ -55,10 +57,10 @@ public class MainMenuScreen implements Screen {
     }
 
     /**
-     * Makes sure the "Resume Game" button is only available when it should.
+     * Makes sure the "Resume Game" button is only available when it should: a game in memory, or a saved one.
      */
     private void checkConditionsOnButtons() {
-        if(game.getPreviousScreen() == null) {
+        if(game.getPreviousScreen() == null && !GameScreen.hasSavedGame()) {
             resumeGameButton.setTouchable(Touchable.disabled);
             resumeGameButton.setDisabled(true);
         } else {
@@ -80,7 +82,10 @@ public class MainMenuScreen implements Screen {
         resumeGameButton.addListener(new ChangeListener() {
             @Override
             public void changed(ChangeEvent event, Actor actor) {
-                game.returnToPreviousScreen();
+                if(game.getPreviousScreen() instanceof GameScreen)
+                    game.returnToPreviousScreen();
+                else
+                    game.setNewScreen(new GameScreen(game, true)); // e.g. the application was closed meanwhile
             }
         });
 
@@ -109,7 +114,7 @@ public class MainMenuScreen implements Screen {
 
     @Override
     public void show() {
-        System.out.println("menu show");
+        Log.debug(LogCategory.SCREENS, "menu show");
         Gdx.gl.glClearColor(0, 0, 0.2f, 1);
         Gdx.input.setInputProcessor(stage);
         checkConditionsOnButtons();
@@ -125,28 +130,28 @@ public class MainMenuScreen implements Screen {
 
     @Override
     public void resize(int width, int height) {
-        System.out.println("menu resize - width: " + width + " | height: " + height);
+        Log.debug(LogCategory.SCREENS, "menu resize - width: {} | height: {}", width, height);
         stage.getViewport().update(width, height, true); // todo: no idea if necessary
     }
 
     @Override
     public void pause() {
-        System.out.println("menu pause");
+        Log.debug(LogCategory.SCREENS, "menu pause");
     }
 
     @Override
     public void resume() {
-        System.out.println("menu resume");
+        Log.debug(LogCategory.SCREENS, "menu resume");
     }
 
     @Override
     public void hide() {
-        System.out.println("menu hide");
+        Log.debug(LogCategory.SCREENS, "menu hide");
     }
 
     @Override
     public void dispose() {
-        System.out.println("menu dispose");
+        Log.debug(LogCategory.SCREENS, "menu dispose");
         stage.dispose();
         skin.dispose();
     }
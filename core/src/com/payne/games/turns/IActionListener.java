@@ -0,0 +1,21 @@
+package com.payne.games.turns;
+
+import com.payne.games.actions.Action;
+
+
+/**
+ * Notified by the TurnManager every time an Action was executed, and every time a turn ended on the player's input.
+ */
+public interface IActionListener {
+
+    /**
+     * @param action the Action that was just executed.
+     * @param canceled 'true' if the Action gave the turn back to its Actor (see {@link Action#execute()}).
+     */
+    void onActionExecuted(Action action, boolean canceled);
+
+    /**
+     * Called at the end of each `executeTurn()` that stopped because the Hero had no Action queued.
+     */
+    void onWaitingOnPlayer();
+}
@@ -1,13 +1,15 @@
 package com.payne.games.turns;
 
+import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.BinaryHeap;
 import com.payne.games.gameObjects.actors.Actor;
 import com.payne.games.gameObjects.actors.entities.Hero;
-import com.payne.games.logic.GameLogic;
 import com.payne.games.map.SecondaryMapLayer;
 import com.payne.games.actions.Action;
 import com.payne.games.actions.commands.AttackAction;
 import com.payne.games.actions.commands.MoveAction;
+import com.payne.games.logging.Log;
+import com.payne.games.logging.LogCategory;
 
 
 /**
@@ -17,9 +19,12 @@ import com.payne.games.actions.commands.MoveAction;
  */
 public class TurnManager {
     private BinaryHeap<ActorNode> actorsHeap = new BinaryHeap<>(); // minHeap
+    private Array<ActorNode> round = new Array<>(); // the nodes added to the heap when the current round started, in order
+    private int poppedThisRound;
     private Action actionToExecute;
     private SecondaryMapLayer secondaryMapLayer;
     private boolean waitingOnPlayerInput;
+    private Array<IActionListener> actionListeners = new Array<>(); // the ActionJournal, the Profiler, etc.
 
 
     public TurnManager(SecondaryMapLayer secondaryMapLayer) {
@@ -44,6 +49,11 @@ public class TurnManager {
             shouldRunAgain = checkIfShouldRunAnotherTurn();
         } while(shouldRunAgain);
 
+        if(waitingOnPlayerInput) {
+            for(int i = 0; i < actionListeners.size; i++) // indexed: a listener may start another dispatch
+                actionListeners.get(i).onWaitingOnPlayer();
+        }
+
         /* If waiting on input, the hero returns to its "IDLE" state. */
         return waitingOnPlayerInput;
     }
@@ -80,8 +90,8 @@ public class TurnManager {
             recollectActors(); // keep going until an Actor is ready to take a turn (if no one is ready, they regen fatigue)
 
             Actor currentActor = actorsHeap.peek().actor;
-            if(currentActor.isDead()) {
-                actorsHeap.pop();
+            if(currentActor == null || currentActor.isDead()) { // 'null': gone before the game was saved
+                popActor();
                 continue;
             }
 
@@ -90,7 +100,7 @@ public class TurnManager {
                 actionToExecute = currentActor.getNextAction(); // 'null' if waiting on player input
             } else {
                 currentActor.regenFatigue();
-                actorsHeap.pop();
+                popActor();
             }
         }
 
@@ -104,13 +114,23 @@ public class TurnManager {
      */
     private void recollectActors() {
         if(actorsHeap.isEmpty()) {
+            round.clear();
+            poppedThisRound = 0;
             for(Actor actor : secondaryMapLayer.getActorLayer()) {
-                if(!actor.isDead())
-                    actorsHeap.add(new ActorNode(actor.getPriority(), actor));
+                if(!actor.isDead()) {
+                    ActorNode node = new ActorNode(actor.getPriority(), actor);
+                    round.add(node);
+                    actorsHeap.add(node);
+                }
             }
         }
     }
 
+    private void popActor() {
+        actorsHeap.pop();
+        poppedThisRound++;
+    }
+
 
     /**
      * Executes the Action of the Actor who's turn it is.
@@ -119,10 +139,64 @@ public class TurnManager {
     private void execute() {
         if(!waitingOnPlayerInput) {
             boolean canceled = actionToExecute.execute(); // todo: maybe update collectedActors (if someone died or a minion was spawned?)
-            if(GameLogic.DEBUG_ACTION_PRINT) System.out.println("canceled? " + canceled + " : " + actionToExecute.toString());
+            Log.debug(LogCategory.ACTIONS, "canceled? {} : {}", canceled, actionToExecute);
+            for(int i = 0; i < actionListeners.size; i++)
+                actionListeners.get(i).onActionExecuted(actionToExecute, canceled);
             if(!canceled)
-                actorsHeap.pop();
+                popActor();
+        }
+    }
+
+    /**
+     * Forgets the Actors of the previous level. Called when a new level is entered.
+     */
+    public void reset() {
+        actorsHeap.clear();
+        round.clear();
+        poppedThisRound = 0;
+        actionToExecute = null;
+        waitingOnPlayerInput = false;
+    }
+
+    /**
+     * The schedule of the current round, as it is saved (see `GameSave`): the nodes added to the heap when the round
+     * started, in order, along with `getPoppedThisRound()`. The Actors of equal priority come out of the heap in an
+     * order that depends on its internal layout: only the same additions and removals give back the same layout.
+     *
+     * @return The nodes of the round, the ones already popped included. Must not be modified.
+     */
+    public Array<ActorNode> getRound() {
+        return round;
+    }
+    public int getPoppedThisRound() {
+        return poppedThisRound;
+    }
+
+    /**
+     * Replaces the current round by a saved one (see `getRound()`).
+     *
+     * @param nodes the nodes added when the round started, in order. A node without Actor stands for one that was gone.
+     * @param popped how many of them had left the heap.
+     */
+    public void restoreRound(Array<ActorNode> nodes, int popped) {
+        reset();
+        for(ActorNode node : nodes) {
+            round.add(node);
+            actorsHeap.add(node);
         }
+        for(int i = 0; i < popped && actorsHeap.notEmpty(); i++)
+            popActor();
+    }
+
+    /**
+     * @param actionListener will be notified of each executed Action.
+     */
+    public void addActionListener(IActionListener actionListener) {
+        actionListeners.add(actionListener);
+    }
+
+    public void removeActionListener(IActionListener actionListener) {
+        actionListeners.removeValue(actionListener, true);
     }
 
 }
@@ -0,0 +1,224 @@
+package com.payne.games.turns.journal;
+
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.payne.games.actions.Action;
+import com.payne.games.actions.commands.*;
+import com.payne.games.gameObjects.GameObject;
+import com.payne.games.gameObjects.GameObjectFactory;
+import com.payne.games.logic.GameLogic;
+import com.payne.games.map.SecondaryMapLayer;
+import com.payne.games.map.tiles.Tile;
+import com.payne.games.turns.IActionListener;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+
+/**
+ * Append-only binary journal of everything that happened in a game: every executed Action, the turns that ended on
+ * the player's input, the levels that were generated, and periodic checkpoints (state of the random generator and hash of the state of the game).<br>
+ * Combined with the seeds written in its header, it is enough for the JournalReplayer to reproduce a game exactly.
+ * <br><br>
+ * Layout (big-endian): a header, followed by entries that each start with a tag byte (see JournalRecord).
+ */
+public class ActionJournal implements IActionListener {
+    public static final int MAGIC = 0x41444a31; // "ADJ1"
+    public static final short VERSION = 3; // 2: the logical positions change as soon as a MoveAction executes, 3: depth of the levels
+
+    private DataOutputStream out;
+    private SecondaryMapLayer secondaryMapLayer;
+    private GameObjectFactory objectFactory;
+    private JournalRecord record = new JournalRecord(); // reused for every Action
+    private int actionCount = 0;
+    private int checkpointInterval;
+    private boolean waiting = false; // the game keeps polling the player while waiting: only the first time is written
+
+
+    /**
+     * Writes the header right away.
+     *
+     * @param output where the journal is appended.
+     * @param secondaryMapLayer used to compute the hash of the state at each checkpoint.
+     * @param objectFactory its seed is written in the header, and its generator is saved at each checkpoint.
+     * @param checkpointInterval amount of Actions between two checkpoints.
+     */
+    public ActionJournal(OutputStream output, SecondaryMapLayer secondaryMapLayer, GameObjectFactory objectFactory, int checkpointInterval) {
+        this.out = new DataOutputStream(output);
+        this.secondaryMapLayer = secondaryMapLayer;
+        this.objectFactory = objectFactory;
+        this.checkpointInterval = checkpointInterval;
+
+        try {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeInt(GameLogic.RANDOM_SEED);
+            out.writeInt(objectFactory.getSeed());
+            out.writeBoolean(GameLogic.RANDOM_DECISIONS);
+            out.writeBoolean(GameLogic.RANDOM_DRUNKARD);
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Couldn't write the journal's header.", e);
+        }
+    }
+
+
+    @Override
+    public void onActionExecuted(Action action, boolean canceled) {
+        describe(action, canceled, record);
+        try {
+            out.writeByte(JournalRecord.TAG_ACTION);
+            out.writeByte(record.actionType);
+            out.writeInt(record.sourceId);
+            out.writeInt(record.targetId);
+            out.writeShort(record.fromX);
+            out.writeShort(record.fromY);
+            out.writeShort(record.nextX);
+            out.writeShort(record.nextY);
+            out.writeShort(record.toX);
+            out.writeShort(record.toY);
+            out.writeBoolean(record.canceled);
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Couldn't write an Action to the journal.", e);
+        }
+
+        waiting = false;
+        actionCount++;
+        if(actionCount % checkpointInterval == 0)
+            writeCheckpoint();
+    }
+
+    @Override
+    public void onWaitingOnPlayer() {
+        if(waiting)
+            return;
+        waiting = true;
+        try {
+            out.writeByte(JournalRecord.TAG_WAIT);
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Couldn't write a wait to the journal.", e);
+        }
+    }
+
+    /**
+     * Must be called every time a level is generated (including the very first one).
+     */
+    public void recordLevel(int width, int height, int depth) {
+        waiting = false;
+        try {
+            out.writeByte(JournalRecord.TAG_LEVEL);
+            out.writeInt(width);
+            out.writeInt(height);
+            out.writeInt(depth);
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Couldn't write a level to the journal.", e);
+        }
+        writeCheckpoint();
+    }
+
+    /**
+     * Records the use of the debug command that spawns enemies, since it is not an Action.
+     */
+    public void recordSpawn() {
+        try {
+            out.writeByte(JournalRecord.TAG_SPAWN);
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Couldn't write a spawn to the journal.", e);
+        }
+    }
+
+    /**
+     * Saves the state of the random generator along with the hash of the state of the game.
+     */
+    public void writeCheckpoint() {
+        try {
+            out.writeByte(JournalRecord.TAG_CHECKPOINT);
+            out.writeInt(actionCount);
+            out.writeLong(objectFactory.getRandom().getState(0));
+            out.writeLong(objectFactory.getRandom().getState(1));
+            out.writeLong(StateHasher.hash(secondaryMapLayer, objectFactory.getRandom()));
+            out.flush();
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Couldn't write a checkpoint to the journal.", e);
+        }
+    }
+
+    /**
+     * Writes the end marker and closes the underlying stream.
+     */
+    public void close() {
+        try {
+            out.writeByte(JournalRecord.TAG_END);
+            out.close();
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Couldn't close the journal.", e);
+        }
+    }
+
+    public int getActionCount() {
+        return actionCount;
+    }
+
+
+    /**
+     * Fills the record with the description of the Action. Shared by the writer and the replay's verifier so
+     * that both describe the Actions the exact same way.
+     *
+     * @param action the Action to describe.
+     * @param canceled the outcome of the execution of the Action.
+     * @param out the record to fill.
+     */
+    public static void describe(Action action, boolean canceled, JournalRecord out) {
+        out.tag = JournalRecord.TAG_ACTION;
+        out.actionType = typeOf(action);
+        out.sourceId = action.getSource().getId();
+        GameObject target = action.getTarget();
+        out.targetId = target == null ? -1 : target.getId();
+        out.canceled = canceled;
+
+        if(action instanceof MoveAction) {
+            MoveAction move = (MoveAction)action;
+            out.fromX = xOf(move.getFrom());
+            out.fromY = yOf(move.getFrom());
+            out.nextX = xOf(move.getNext());
+            out.nextY = yOf(move.getNext());
+            out.toX   = xOf(move.getTo());
+            out.toY   = yOf(move.getTo());
+        } else {
+            out.fromX = out.fromY = out.nextX = out.nextY = out.toX = out.toY = -1;
+        }
+    }
+
+    /**
+     * The order of the checks matters since some Actions inherit from others.
+     *
+     * @return the code of the Action, as listed in JournalRecord.
+     */
+    public static byte typeOf(Action action) {
+        if(action instanceof InteractiveMoveAction)
+            return JournalRecord.INTERACTIVE_MOVE;
+        if(action instanceof MoveAction)
+            return JournalRecord.MOVE;
+        if(action instanceof AttackAction)
+            return JournalRecord.ATTACK;
+        if(action instanceof UnlockDoorAction)
+            return JournalRecord.UNLOCK_DOOR;
+        if(action instanceof ToggleDoorAction)
+            return JournalRecord.TOGGLE_DOOR;
+        if(action instanceof OpenChestAction)
+            return JournalRecord.OPEN_CHEST;
+        if(action instanceof PickUpAction)
+            return JournalRecord.PICK_UP;
+        if(action instanceof WakeUpAction)
+            return JournalRecord.WAKE_UP;
+        if(action instanceof NoopAction)
+            return JournalRecord.NOOP;
+        return JournalRecord.UNKNOWN;
+    }
+
+    private static int xOf(Tile tile) {
+        return tile == null ? -1 : tile.getX();
+    }
+    private static int yOf(Tile tile) {
+        return tile == null ? -1 : tile.getY();
+    }
+}
@@ -0,0 +1,140 @@
+package com.payne.games.turns.journal;
+
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+
+/**
+ * Reads back, entry per entry, what the ActionJournal wrote.<br>
+ * A truncated journal (e.g. the game crashed) is read as if it had ended properly.
+ */
+public class JournalReader {
+    private DataInputStream in;
+    private JournalRecord current = new JournalRecord();
+    private boolean peeked = false;
+
+    /* Header. */
+    private int randomSeed;
+    private int objectSeed;
+    private boolean randomDecisions;
+    private boolean randomDrunkard;
+
+
+    /**
+     * Reads the header right away.
+     *
+     * @param input the journal.
+     */
+    public JournalReader(InputStream input) {
+        this.in = new DataInputStream(input);
+
+        try {
+            if(in.readInt() != ActionJournal.MAGIC)
+                throw new GdxRuntimeException("Not an action journal.");
+            short version = in.readShort();
+            if(version != ActionJournal.VERSION)
+                throw new GdxRuntimeException("Unsupported journal version: " + version);
+            randomSeed      = in.readInt();
+            objectSeed      = in.readInt();
+            randomDecisions = in.readBoolean();
+            randomDrunkard  = in.readBoolean();
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Couldn't read the journal's header.", e);
+        }
+    }
+
+
+    /**
+     * Gives access to the next entry without consuming it.
+     *
+     * @return The next entry. Its tag is TAG_END once there is nothing left to read.
+     */
+    public JournalRecord peek() {
+        if(!peeked) {
+            read();
+            peeked = true;
+        }
+        return current;
+    }
+
+    /**
+     * @return The next entry, which is consumed. Its tag is TAG_END once there is nothing left to read.
+     */
+    public JournalRecord next() {
+        JournalRecord next = peek();
+        if(next.tag != JournalRecord.TAG_END)
+            peeked = false;
+        return next;
+    }
+
+    public boolean hasNext() {
+        return peek().tag != JournalRecord.TAG_END;
+    }
+
+    private void read() {
+        try {
+            current.tag = in.readByte();
+            switch (current.tag) {
+                case JournalRecord.TAG_ACTION:
+                    current.actionType = in.readByte();
+                    current.sourceId   = in.readInt();
+                    current.targetId   = in.readInt();
+                    current.fromX      = in.readShort();
+                    current.fromY      = in.readShort();
+                    current.nextX      = in.readShort();
+                    current.nextY      = in.readShort();
+                    current.toX        = in.readShort();
+                    current.toY        = in.readShort();
+                    current.canceled   = in.readBoolean();
+                    break;
+                case JournalRecord.TAG_CHECKPOINT:
+                    current.actionCount = in.readInt();
+                    current.rngState0   = in.readLong();
+                    current.rngState1   = in.readLong();
+                    current.stateHash   = in.readLong();
+                    break;
+                case JournalRecord.TAG_LEVEL:
+                    current.levelWidth  = in.readInt();
+                    current.levelHeight = in.readInt();
+                    current.levelDepth  = in.readInt();
+                    break;
+                case JournalRecord.TAG_SPAWN:
+                case JournalRecord.TAG_WAIT:
+                case JournalRecord.TAG_END:
+                    break;
+                default:
+                    throw new GdxRuntimeException("Corrupted journal: unknown tag " + current.tag);
+            }
+        } catch (EOFException e) {
+            current.tag = JournalRecord.TAG_END; // truncated journal
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Couldn't read the journal.", e);
+        }
+    }
+
+    public void close() {
+        try {
+            in.close();
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Couldn't close the journal.", e);
+        }
+    }
+
+
+    public int getRandomSeed() {
+        return randomSeed;
+    }
+    public int getObjectSeed() {
+        return objectSeed;
+    }
+    public boolean wasRandomDecisions() {
+        return randomDecisions;
+    }
+    public boolean wasRandomDrunkard() {
+        return randomDrunkard;
+    }
+}
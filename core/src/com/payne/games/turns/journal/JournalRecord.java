@@ -0,0 +1,94 @@
+package com.payne.games.turns.journal;
+
+
+/**
+ * A single entry of the ActionJournal, once decoded.<br>
+ * The same instance is reused by the JournalReader for every entry read, so its values should be copied if they
+ * must outlive the next read.
+ */
+public class JournalRecord {
+
+    /* Tags: the first byte of every entry. */
+    public static final byte TAG_END        = 0;
+    public static final byte TAG_ACTION     = 1;
+    public static final byte TAG_CHECKPOINT = 2;
+    public static final byte TAG_LEVEL      = 3;
+    public static final byte TAG_SPAWN      = 4;
+    public static final byte TAG_WAIT       = 5; // a turn ended on the player's input
+
+    /* Action types, used by the TAG_ACTION entries. */
+    public static final byte NOOP             = 0;
+    public static final byte MOVE             = 1;
+    public static final byte INTERACTIVE_MOVE = 2;
+    public static final byte ATTACK           = 3;
+    public static final byte OPEN_CHEST       = 4;
+    public static final byte TOGGLE_DOOR      = 5;
+    public static final byte UNLOCK_DOOR      = 6;
+    public static final byte PICK_UP          = 7;
+    public static final byte WAKE_UP          = 8;
+    public static final byte UNKNOWN          = 127;
+
+    public byte tag;
+
+    // TAG_ACTION
+    public byte actionType;
+    public int sourceId;
+    public int targetId = -1;           // '-1' if the Action had no target
+    public int fromX, fromY;            // '-1' if the Action isn't a move
+    public int nextX, nextY;
+    public int toX, toY;
+    public boolean canceled;
+
+    // TAG_CHECKPOINT
+    public int actionCount;             // amount of Actions executed before the checkpoint
+    public long rngState0, rngState1;   // state of the GameObjectFactory's generator
+    public long stateHash;              // see StateHasher
+
+    // TAG_LEVEL
+    public int levelWidth, levelHeight;
+    public int levelDepth;
+
+
+    /**
+     * @return 'true' if both records describe the same Action (the "canceled" outcome included).
+     */
+    public boolean sameActionAs(JournalRecord other) {
+        return actionType == other.actionType
+                && sourceId == other.sourceId
+                && targetId == other.targetId
+                && fromX == other.fromX && fromY == other.fromY
+                && nextX == other.nextX && nextY == other.nextY
+                && toX == other.toX && toY == other.toY
+                && canceled == other.canceled;
+    }
+
+
+    @Override
+    public String toString() {
+        switch (tag) {
+            case TAG_ACTION:
+                return "ActionRecord{" +
+                        "type=" + actionType +
+                        ", source=" + sourceId +
+                        ", target=" + targetId +
+                        ", from=(" + fromX + "," + fromY + ")" +
+                        ", next=(" + nextX + "," + nextY + ")" +
+                        ", to=(" + toX + "," + toY + ")" +
+                        ", canceled=" + canceled +
+                        '}';
+            case TAG_CHECKPOINT:
+                return "CheckpointRecord{" +
+                        "actionCount=" + actionCount +
+                        ", stateHash=" + stateHash +
+                        '}';
+            case TAG_LEVEL:
+                return "LevelRecord{" + levelWidth + "x" + levelHeight + ", depth=" + levelDepth + '}';
+            case TAG_SPAWN:
+                return "SpawnRecord{}";
+            case TAG_WAIT:
+                return "WaitRecord{}";
+            default:
+                return "EndRecord{}";
+        }
+    }
+}
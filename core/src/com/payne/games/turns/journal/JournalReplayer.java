@@ -0,0 +1,234 @@
+package com.payne.games.turns.journal;
+
+import com.payne.games.actions.Action;
+import com.payne.games.actions.commands.*;
+import com.payne.games.gameObjects.GameObject;
+import com.payne.games.gameObjects.actors.Actor;
+import com.payne.games.gameObjects.actors.entities.Hero;
+import com.payne.games.gameObjects.statics.entities.Chest;
+import com.payne.games.gameObjects.statics.entities.Door;
+import com.payne.games.inventory.IPickable;
+import com.payne.games.logic.Controller;
+import com.payne.games.map.BaseMapLayer;
+import com.payne.games.profiling.Phase;
+import com.payne.games.profiling.Profiler;
+import com.payne.games.turns.IActionListener;
+import com.payne.games.turns.TurnManager;
+
+
+/**
+ * Re-executes a game recorded by the ActionJournal, as fast as possible and without any rendering.<br>
+ * The Hero's Actions are fed back from the journal; everything else (the AI, the items spawned, etc.) is
+ * re-computed from the seeds and must match the journal: every executed Action is compared against its
+ * recorded counterpart, and every checkpoint's state hash is verified.
+ * <br><br>
+ * The Hero's next Action is queued as soon as it is the next one in the journal, so that turns end exactly where
+ * they did in the recorded game (the journal tells when the Hero waited on the player's input).
+ * Moving objects are brought to their destination at the end of each `executeTurn()`.
+ * <br><br>
+ * The turns are timed by the Controller's Profiler, the lighting being updated before each of them (as in game).
+ */
+public class JournalReplayer implements IActionListener {
+    private Controller controller; // must be a freshly created headless Controller, seeded from the journal's header
+    private JournalReader reader;
+    private JournalRecord executed = new JournalRecord(); // description of the Action the replay just executed
+
+    private int verifiedActions = 0;
+    private int verifiedCheckpoints = 0;
+    private String divergence; // 'null' as long as the replay matches the journal
+    private boolean waiting = false; // mirrors the ActionJournal: only the first wait of a series is written
+
+
+    public JournalReplayer(Controller controller, JournalReader reader) {
+        this.controller = controller;
+        this.reader = reader;
+    }
+
+
+    /**
+     * Replays the whole journal, stopping at the first divergence.
+     *
+     * @return 'true' if the replay matched the journal up to its end.
+     */
+    public boolean run() {
+        if(reader.wasRandomDecisions() || reader.wasRandomDrunkard()) {
+            divergence = "The recorded game used unseeded randomness: it cannot be reproduced.";
+            return false;
+        }
+
+        TurnManager turnManager = controller.getTurnManager();
+        Profiler profiler = controller.getProfiler();
+        turnManager.addActionListener(this);
+
+        boolean waitingOnPlayer = false;
+        while(divergence == null && reader.hasNext()) {
+            JournalRecord next = reader.peek();
+            switch (next.tag) {
+                case JournalRecord.TAG_LEVEL:
+                    reader.next();
+                    controller.generateLevel(next.levelDepth, next.levelWidth, next.levelHeight, null);
+                    verifyCheckpoints();
+                    waitingOnPlayer = waiting = false;
+                    break;
+
+                case JournalRecord.TAG_SPAWN:
+                    reader.next();
+                    controller.DEBUG_spawn_enemies();
+                    break;
+
+                case JournalRecord.TAG_CHECKPOINT:
+                    verifyCheckpoints();
+                    break;
+
+                case JournalRecord.TAG_ACTION:
+                case JournalRecord.TAG_WAIT:
+                    feedHero();
+                    if(waitingOnPlayer && !controller.getPlayer().isOccupied()) {
+                        diverge("waiting on the Hero, but the journal continues with " + next);
+                        break;
+                    }
+                    profiler.begin(Phase.UPDATE_LIGHTING);
+                    controller.updateLighting();
+                    profiler.end(Phase.UPDATE_LIGHTING);
+
+                    profiler.begin(Phase.PROCESS_TURN);
+                    waitingOnPlayer = turnManager.executeTurn();
+                    profiler.end(Phase.PROCESS_TURN);
+                    profiler.turnEnded();
+
+                    controller.getInterpolationModule().finishAll();
+                    break;
+            }
+        }
+
+        turnManager.removeActionListener(this);
+        return divergence == null;
+    }
+
+    /**
+     * Called by the TurnManager for every Action executed by the replay.
+     */
+    @Override
+    public void onActionExecuted(Action action, boolean canceled) {
+        waiting = false;
+        if(action.getSource() instanceof Hero)
+            controller.getPlayer().clearActionsQueue(); // the Hero's next Actions come from the journal, not from its Queue
+
+        if(divergence != null || !reader.hasNext())
+            return;
+
+        JournalRecord recorded = reader.peek();
+        ActionJournal.describe(action, canceled, executed);
+        if(recorded.tag != JournalRecord.TAG_ACTION || !recorded.sameActionAs(executed)) {
+            diverge("executed " + executed + " instead of " + recorded);
+            return;
+        }
+        reader.next();
+        verifiedActions++;
+
+        verifyCheckpoints();
+        feedHero();
+    }
+
+    /**
+     * Called by the TurnManager when the replay waits on the Hero: the recorded game must have waited there too.
+     */
+    @Override
+    public void onWaitingOnPlayer() {
+        if(divergence != null || waiting)
+            return;
+        waiting = true;
+
+        JournalRecord recorded = reader.peek();
+        if(recorded.tag != JournalRecord.TAG_WAIT) {
+            diverge("waited on the Hero instead of " + recorded);
+            return;
+        }
+        reader.next();
+        feedHero();
+    }
+
+    /**
+     * Queues the Hero's next Action if it is the next one in the journal.
+     * The entry is only consumed once its execution has been verified.
+     */
+    private void feedHero() {
+        Hero hero = controller.getPlayer();
+        JournalRecord next = reader.peek();
+        if(divergence == null && next.tag == JournalRecord.TAG_ACTION && next.sourceId == hero.getId() && !hero.isOccupied())
+            hero.addAction(rebuildHeroAction(next));
+    }
+
+    /**
+     * Consumes the checkpoints that are next in the journal, comparing them with the current state.
+     */
+    private void verifyCheckpoints() {
+        while(divergence == null && reader.peek().tag == JournalRecord.TAG_CHECKPOINT) {
+            JournalRecord checkpoint = reader.next();
+            long hash = StateHasher.hash(controller.getSecondaryMapLayer(), controller.getGameObjectFactory().getRandom());
+            if(hash != checkpoint.stateHash) {
+                diverge("state hash mismatch at " + checkpoint + " (replay: " + hash + ")");
+                return;
+            }
+            verifiedCheckpoints++;
+        }
+    }
+
+    /**
+     * Builds back the Action the player had chosen.
+     *
+     * @param record a TAG_ACTION entry whose source is the Hero.
+     * @return The Action to be queued for the Hero.
+     */
+    private Action rebuildHeroAction(JournalRecord record) {
+        Hero hero = controller.getPlayer();
+        BaseMapLayer level = controller.getCurrentLevel();
+        GameObject target = record.targetId < 0 ? null : controller.getSecondaryMapLayer().findById(record.targetId);
+
+        switch (record.actionType) {
+            case JournalRecord.MOVE:
+                return new MoveAction(hero,
+                        level.getTile(record.fromX, record.fromY),
+                        level.getTile(record.nextX, record.nextY),
+                        level.getTile(record.toX, record.toY));
+            case JournalRecord.INTERACTIVE_MOVE:
+                return new InteractiveMoveAction(hero, target,
+                        level.getTile(record.fromX, record.fromY),
+                        level.getTile(record.nextX, record.nextY),
+                        level.getTile(record.toX, record.toY));
+            case JournalRecord.ATTACK:
+                return new AttackAction(hero, (Actor)target, hero.getDmg());
+            case JournalRecord.OPEN_CHEST:
+                return new OpenChestAction(hero, (Chest)target);
+            case JournalRecord.TOGGLE_DOOR:
+                return new ToggleDoorAction(hero, (Door)target);
+            case JournalRecord.UNLOCK_DOOR:
+                return new UnlockDoorAction(hero, (Door)target);
+            case JournalRecord.PICK_UP:
+                return new PickUpAction(hero, (IPickable)target);
+            case JournalRecord.WAKE_UP:
+                return new WakeUpAction(hero);
+            default:
+                return new NoopAction(hero);
+        }
+    }
+
+    private void diverge(String reason) {
+        divergence = "Diverged after " + verifiedActions + " Actions: " + reason;
+    }
+
+
+    public int getVerifiedActions() {
+        return verifiedActions;
+    }
+    public int getVerifiedCheckpoints() {
+        return verifiedCheckpoints;
+    }
+
+    /**
+     * @return A description of the first divergence. 'null' if the replay matched the journal.
+     */
+    public String getDivergence() {
+        return divergence;
+    }
+}
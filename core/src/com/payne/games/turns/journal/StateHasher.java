@@ -0,0 +1,69 @@
+package com.payne.games.turns.journal;
+
+import com.badlogic.gdx.math.RandomXS128;
+import com.payne.games.gameObjects.actors.Actor;
+import com.payne.games.gameObjects.actors.entities.Enemy;
+import com.payne.games.gameObjects.statics.Static;
+import com.payne.games.gameObjects.statics.entities.Door;
+import com.payne.games.map.SecondaryMapLayer;
+
+
+/**
+ * Condenses the logical state of a game into a single 64-bit value (FNV-1a style mixing).<br>
+ * Two games whose hashes differ at the same point of their journal have diverged.
+ * Only the logical state is considered: textures, animations and fog of war are ignored.
+ */
+public final class StateHasher { /* Can't be inherited. */
+
+    private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+
+    private StateHasher() { } /* Can't be instantiated. */
+
+
+    /**
+     * @param secondaryMapLayer the layer containing all the Actors and Static objects of the level.
+     * @param factoryRandom the generator used by the GameObjectFactory.
+     * @return The hash of the current state of the game.
+     */
+    public static long hash(SecondaryMapLayer secondaryMapLayer, RandomXS128 factoryRandom) {
+        long hash = OFFSET_BASIS;
+        hash = mix(hash, factoryRandom.getState(0));
+        hash = mix(hash, factoryRandom.getState(1));
+
+        for(Actor actor : secondaryMapLayer.getActorLayer()) {
+            hash = mix(hash, actor.getId());
+            hash = mix(hash, actor.getX());
+            hash = mix(hash, actor.getY());
+            hash = mix(hash, actor.getMovingToX());
+            hash = mix(hash, actor.getMovingToY());
+            hash = mix(hash, actor.getCurrHp());
+            hash = mix(hash, actor.getCurrFatigue());
+            if(actor instanceof Enemy) {
+                RandomXS128 aiRandom = ((Enemy)actor).getAi().getRandom();
+                hash = mix(hash, aiRandom.getState(0));
+                hash = mix(hash, aiRandom.getState(1));
+            }
+        }
+
+        for(Static object : secondaryMapLayer.getStaticLayer()) {
+            hash = mix(hash, object.getId());
+            hash = mix(hash, object.getX());
+            hash = mix(hash, object.getY());
+            if(object instanceof Door) {
+                hash = mix(hash, ((Door)object).isClosed() ? 1 : 0);
+                hash = mix(hash, ((Door)object).isLocked() ? 1 : 0);
+            }
+        }
+
+        return hash;
+    }
+
+    private static long mix(long hash, long value) {
+        for(int i = 0; i < 8; i++) {
+            hash ^= (value >>> (i * 8)) & 0xff;
+            hash *= PRIME;
+        }
+        return hash;
+    }
+}
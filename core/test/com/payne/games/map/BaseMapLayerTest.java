@@ -0,0 +1,116 @@
+package com.payne.games.map;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.payne.games.map.generators.MapAlgorithm;
+import com.payne.games.map.generators.MapGenerator;
+import com.payne.games.map.storage.ChunkCodec;
+import com.payne.games.map.storage.MemoryChunkStore;
+import com.payne.games.map.tiles.Floor;
+import com.payne.games.map.tiles.Tile;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+
+public class BaseMapLayerTest {
+    private static final int WIDTH = 256, HEIGHT = 128; // 8 by 4 chunks
+    private static final int BUDGET = 4; // chunks
+    private static final int RADIUS = 16; // keeps at most 2 by 2 chunks
+
+
+    /**
+     * Walking across a level larger than its budget: only the budget stays in memory, the chunks paged out are
+     * still walkable where they were, and every Tile faulted in comes back as it was paged out.
+     */
+    @Test
+    public void pagingStaysWithinBudget() {
+        BaseMapLayer level = new MapGenerator().createMap(WIDTH, HEIGHT, 7, MapAlgorithm.CELLULAR_CAVES);
+        for(int i = 0; i < level.getWalkableTiles().size; i += 13) { // as if something stood there
+            level.getWalkableTiles().get(i).setAllowingMove(false);
+            level.getWalkableTiles().get(i).setSeeThrough(false);
+        }
+        byte[] terrain = copy(level, ChunkCodec.TERRAIN);
+        byte[] bitmasks = copy(level, ChunkCodec.BITMASKS);
+        byte[] flags = copy(level, ChunkCodec.FLAGS);
+
+        level.setPaging(new MemoryChunkStore(), BUDGET * BaseMapLayer.LIVE_CHUNK_BYTES);
+        int residency = level.getResidency();
+        for(int y = 0; y < HEIGHT; y += 8) {
+            for(int x = 0; x < WIDTH; x += 8) {
+                int walkX = (y & 8) == 0 ? x : WIDTH - 1 - x; // back and forth
+                level.keepResident(walkX, y, RADIUS);
+                level.trim();
+                assertTrue("over budget at " + walkX + "," + y, level.getResidentChunkCount() <= BUDGET);
+                assertTrue(level.getTile(walkX, y) != null);
+                assertWalkable(level, flags);
+            }
+        }
+        assertTrue("nothing was paged", level.getResidency() > residency);
+
+        assertArrayEquals(terrain, copy(level, ChunkCodec.TERRAIN)); // the chunks paged out, read from the store
+        assertArrayEquals(bitmasks, copy(level, ChunkCodec.BITMASKS));
+        assertArrayEquals(flags, copy(level, ChunkCodec.FLAGS));
+
+        for(int y = 0; y < HEIGHT; y++) { // faulted in again, one row of chunks at a time
+            for(int x = 0; x < WIDTH; x++) {
+                Tile tile = level.getTile(x, y);
+                int i = y * WIDTH + x;
+                assertEquals(x + "," + y, terrain[i], ChunkCodec.valueOf(ChunkCodec.TERRAIN, tile));
+                assertEquals(x + "," + y, bitmasks[i], ChunkCodec.valueOf(ChunkCodec.BITMASKS, tile));
+                assertEquals(x + "," + y, flags[i], ChunkCodec.valueOf(ChunkCodec.FLAGS, tile));
+            }
+            if((y & (BaseMapLayer.CHUNK_SIZE - 1)) == BaseMapLayer.CHUNK_SIZE - 1) {
+                assertWalkable(level, flags);
+                level.trim();
+            }
+        }
+
+        Array<Tile> walkable = level.getWalkableTiles();
+        assertTrue(walkable.size > 0);
+        for(Tile tile : walkable) {
+            assertTrue(tile.isAllowingMove());
+            assertSame(tile, level.getResidentTile(tile.getX(), tile.getY()));
+        }
+    }
+
+    /**
+     * A chunk no Tile was ever set in is a bug in the generation, not an empty area.
+     */
+    @Test
+    public void neverSetChunkFailsLoudly() {
+        BaseMapLayer level = new BaseMapLayer(BaseMapLayer.CHUNK_SIZE * 2, BaseMapLayer.CHUNK_SIZE);
+        level.setTile(0, 0, new Floor(0, 0));
+        assertNotNull(level.getTile(0, 0));
+        try {
+            level.getTile(BaseMapLayer.CHUNK_SIZE, 0);
+            fail("a Tile of a chunk never set was returned");
+        } catch (GdxRuntimeException expected) {
+            // the chunk was never set
+        }
+    }
+
+
+    /**
+     * Every Tile is walkable as it was, whether its chunk is in memory or not, and asking doesn't fault any in.
+     */
+    private static void assertWalkable(BaseMapLayer level, byte[] flags) {
+        int resident = level.getResidentChunkCount();
+        for(int y = 0; y < HEIGHT; y++) {
+            for(int x = 0; x < WIDTH; x++)
+                assertEquals(x + "," + y, (flags[y * WIDTH + x] & ChunkCodec.ALLOWING_MOVE) != 0, level.isWalkable(x, y));
+        }
+        assertEquals(resident, level.getResidentChunkCount());
+    }
+
+    private static byte[] copy(BaseMapLayer level, int section) {
+        byte[] out = new byte[WIDTH * HEIGHT];
+        level.copyTiles(section, out);
+        return out;
+    }
+}
@@ -0,0 +1,70 @@
+package com.payne.games.map.generators;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.payne.games.map.BaseMapLayer;
+import com.payne.games.map.tiles.Tile;
+import org.junit.Test;
+
+import static org.junit.Assert.assertTrue;
+
+
+public class LevelPopulatorTest {
+    private static final int SEEDS = 200;
+    private static final int WIDTH = 64, HEIGHT = 32;
+
+
+    /**
+     * The locked Door can split a level in two (the first wall of a building does): a Key must always be on the
+     * Hero's side of it.
+     */
+    @Test
+    public void keyIsReachableFromHero() {
+        for(MapAlgorithm algorithm : MapAlgorithm.values()) {
+            for(int seed = 0; seed < SEEDS; seed++) {
+                SpawnPlan plan = new SpawnPlan();
+                BaseMapLayer level = new MapGenerator().createMap(WIDTH, HEIGHT, seed, algorithm,
+                        new BuildingSpawner(plan, seed));
+                new LevelPopulator().populate(level, 1, seed, plan);
+
+                if(plan.count(SpawnPlan.LOCKED_DOOR) > 0)
+                    assertTrue(algorithm + ", seed " + seed, reachesKey(level, plan));
+            }
+        }
+    }
+
+    /**
+     * A breadth-first search from the Hero, over the walkable Tiles, the locked Doors being walls.
+     */
+    private static boolean reachesKey(BaseMapLayer level, SpawnPlan plan) {
+        boolean[] open = new boolean[WIDTH * HEIGHT];
+        Array<Tile> walkable = level.getWalkableTiles();
+        for(int i = 0; i < walkable.size; i++)
+            open[walkable.get(i).getY() * WIDTH + walkable.get(i).getX()] = true;
+        for(int i = 0; i < plan.size(); i++) {
+            if(plan.getKind(i) == SpawnPlan.LOCKED_DOOR)
+                open[plan.getY(i) * WIDTH + plan.getX(i)] = false;
+        }
+
+        boolean[] reached = new boolean[WIDTH * HEIGHT];
+        IntArray queue = new IntArray();
+        queue.add(plan.getHeroY() * WIDTH + plan.getHeroX());
+        reached[queue.first()] = true;
+        for(int head = 0; head < queue.size; head++) {
+            int cell = queue.get(head), x = cell % WIDTH, y = cell / WIDTH;
+            int[] neighbors = {x > 0 ? cell - 1 : -1, x < WIDTH - 1 ? cell + 1 : -1, cell - WIDTH, cell + WIDTH};
+            for(int next : neighbors) {
+                if(next >= 0 && next < WIDTH * HEIGHT && open[next] && !reached[next]) {
+                    reached[next] = true;
+                    queue.add(next);
+                }
+            }
+        }
+
+        for(int i = 0; i < plan.size(); i++) {
+            if(plan.getKind(i) == SpawnPlan.KEY && reached[plan.getY(i) * WIDTH + plan.getX(i)])
+                return true;
+        }
+        return false;
+    }
+}
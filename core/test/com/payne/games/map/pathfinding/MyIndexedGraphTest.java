@@ -0,0 +1,66 @@
+package com.payne.games.map.pathfinding;
+
+import com.badlogic.gdx.ai.pfa.DefaultGraphPath;
+import com.badlogic.gdx.utils.Array;
+import com.payne.games.map.BaseMapLayer;
+import com.payne.games.map.generators.MapAlgorithm;
+import com.payne.games.map.generators.MapGenerator;
+import com.payne.games.map.storage.MemoryChunkStore;
+import com.payne.games.map.tiles.Tile;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+public class MyIndexedGraphTest {
+    private static final int WIDTH = 256, HEIGHT = 128; // 8 by 4 chunks
+    private static final int BUDGET = 2; // chunks
+
+
+    /**
+     * A path goes across the chunks paged out without faulting them in, and is the same as in a level that was
+     * never paged, whatever is in memory at the time of the search.
+     */
+    @Test
+    public void pathsCrossPagedOutChunks() {
+        BaseMapLayer whole = new MapGenerator().createMap(WIDTH, HEIGHT, 7, MapAlgorithm.CELLULAR_CAVES);
+        BaseMapLayer paged = new MapGenerator().createMap(WIDTH, HEIGHT, 7, MapAlgorithm.CELLULAR_CAVES);
+        MyIndexedGraph wholeGraph = new MyIndexedGraph(whole);
+        MyIndexedGraph pagedGraph = new MyIndexedGraph(paged);
+
+        Array<Tile> walkable = whole.getWalkableTiles();
+        Tile from = walkable.first(), to = null;
+        int[] expected = null;
+        for(int i = walkable.size - 1; i > 0 && expected == null; i--) { // the farthest Tile reachable
+            to = walkable.get(i);
+            DefaultGraphPath<PathNode> path = wholeGraph.getWholePathToMoveTo(from, to);
+            if(path.getCount() > 0)
+                expected = positions(path);
+        }
+        assertTrue("no path", expected != null);
+        assertTrue("the path stays in a chunk", Math.abs(to.getY() - from.getY()) >= BaseMapLayer.CHUNK_SIZE);
+
+        paged.setPaging(new MemoryChunkStore(), BUDGET * BaseMapLayer.LIVE_CHUNK_BYTES);
+        for(int turn = 0; turn < 3; turn++) { // the Actor's chunk only, then elsewhere: the same graph all along
+            int x = turn == 1 ? WIDTH - 1 : from.getX(), y = turn == 1 ? HEIGHT - 1 : from.getY();
+            paged.keepResident(x, y, 0);
+            paged.trim();
+            Tile start = paged.getTile(from.getX(), from.getY()), end = paged.getTile(to.getX(), to.getY());
+            int resident = paged.getResidentChunkCount(); // the ends' chunks, as the Actors' are
+            assertTrue(resident < paged.getChunkColumns() * paged.getChunkRows());
+
+            assertArrayEquals(expected, positions(pagedGraph.getWholePathToMoveTo(start, end)));
+            assertEquals("faulted in by the search", resident, paged.getResidentChunkCount());
+        }
+    }
+
+
+    private static int[] positions(DefaultGraphPath<PathNode> path) {
+        int[] positions = new int[path.getCount()];
+        for(int i = 0; i < positions.length; i++)
+            positions[i] = path.get(i).getIndex();
+        return positions;
+    }
+}
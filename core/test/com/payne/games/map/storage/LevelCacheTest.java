@@ -0,0 +1,171 @@
+package com.payne.games.map.storage;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntMap;
+import com.payne.games.assets.AssetsPool;
+import com.payne.games.gameObjects.actors.Actor;
+import com.payne.games.logic.Controller;
+import com.payne.games.map.BaseMapLayer;
+import com.payne.games.map.generators.LevelPipeline;
+import com.payne.games.map.generators.PreparedLevel;
+import com.payne.games.map.tiles.Tile;
+import com.payne.games.profiling.Profiler;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+public class LevelCacheTest {
+    private static final int WIDTH = 256, HEIGHT = 128; // 32 chunks, some of them paged out
+    private static final int LIVE = 64 << 20, PACKED = BaseMapLayer.LIVE_CHUNK_BYTES, STORED = 0; // budgets
+
+
+    /**
+     * A level taken back from any tier is the same: the Tiles as they were left, without what stood on them (the
+     * GameObjects are placed again when it is entered), and what was explored.
+     */
+    @Test
+    public void everyTierRestoresTheSameLevel() {
+        Tiers live = leaveThenTake(LIVE);
+        Tiers packed = leaveThenTake(PACKED);
+        Tiers stored = leaveThenTake(STORED);
+        assertEquals(1, live.cache.getLiveHits());
+        assertEquals(1, packed.cache.getPackedHits());
+        assertEquals(1, stored.cache.getStoredHits());
+
+        for(int section = ChunkCodec.TERRAIN; section <= ChunkCodec.FLAGS; section++) {
+            assertArrayEquals("packed, section " + section, copy(packed.level, section), copy(live.level, section));
+            assertArrayEquals("stored, section " + section, copy(stored.level, section), copy(live.level, section));
+        }
+        assertArrayEquals(explored(packed.level), explored(live.level));
+        assertArrayEquals(explored(stored.level), explored(live.level));
+        assertEquals(packed.plan, live.plan);
+        assertEquals(stored.plan, live.plan);
+    }
+
+
+    /**
+     * A level entered again from the live tier has its GameObjects as they were left, not spawned again.
+     */
+    @Test
+    public void liveLevelKeepsItsGameObjects() {
+        Controller controller = new Controller(new AssetsPool(), 421);
+        controller.generateLevel(64, 32, null);
+        for(int i = 0; i < 5; i++)
+            controller.runTurn();
+
+        Array<Actor> left = new Array<>(controller.getSecondaryMapLayer().getActorLayer());
+        left.removeValue(controller.getPlayer(), true);
+        assertTrue(left.size > 0);
+        Actor enemy = left.first();
+        enemy.setCurrHp(enemy.getCurrHp() - 7);
+        int hp = enemy.getCurrHp(), fatigue = enemy.getCurrFatigue();
+
+        controller.storeCurrentLevel();
+        controller.generateLevel(1, 64, 32, null);
+        controller.storeCurrentLevel();
+        int nextId = controller.getGameObjectFactory().getNextId();
+        controller.generateLevel(0, 64, 32, null);
+
+        assertEquals(1, controller.getLevelCache().getLiveHits());
+        assertEquals(nextId, controller.getGameObjectFactory().getNextId()); // nothing created
+        Array<Actor> entered = controller.getSecondaryMapLayer().getActorLayer();
+        assertEquals(left.size + 1, entered.size);
+        for(Actor actor : left)
+            assertTrue(entered.contains(actor, true));
+        assertEquals(hp, enemy.getCurrHp());
+        assertEquals(fatigue, enemy.getCurrFatigue());
+        assertFalse(controller.getCurrentLevel().getTile(enemy.getX(), enemy.getY()).isAllowingMove());
+        controller.dispose();
+    }
+
+
+    /**
+     * Plays a level the way the Controller does (paged, some Tiles occupied and explored), leaves it to a cache of
+     * that budget, then takes it back.
+     */
+    private static Tiers leaveThenTake(int budget) {
+        LevelPipeline pipeline = new LevelPipeline(new Profiler());
+        PreparedLevel prepared = pipeline.prepare(0, WIDTH, HEIGHT);
+        BaseMapLayer level = prepared.getLevel();
+        level.setPaging(new MemoryChunkStore(), 4 * BaseMapLayer.LIVE_CHUNK_BYTES);
+        level.trackChanges();
+
+        Array<Tile> walkable = level.getWalkableTiles();
+        for(int i = 0; i < walkable.size; i += 7) { // Actors and Doors standing there when the level is left
+            walkable.get(i).setAllowingMove(false);
+            walkable.get(i).setSeeThrough(false);
+        }
+        for(int i = 0; i < walkable.size; i += 3)
+            walkable.get(i).setExplored(true);
+        level.keepResident(0, 0, 0); // the other chunks are paged out, occupied Tiles included
+        level.trim();
+
+        LevelCache cache = new LevelCache(pipeline, budget);
+        cache.setStore(new MemoryLevelStore());
+        cache.put(prepared);
+        cache.flush(); // demoted by now
+        PreparedLevel taken = cache.take(0);
+        return new Tiers(cache, taken.getLevel(), taken.getSpawnPlan().size());
+    }
+
+    private static byte[] copy(BaseMapLayer level, int section) {
+        byte[] out = new byte[WIDTH * HEIGHT];
+        level.copyTiles(section, out);
+        return out;
+    }
+
+    private static boolean[] explored(BaseMapLayer level) {
+        boolean[] explored = new boolean[WIDTH * HEIGHT];
+        for(int y = 0; y < HEIGHT; y++) {
+            for(int x = 0; x < WIDTH; x++)
+                explored[y * WIDTH + x] = level.getExploration().isExplored(x, y);
+        }
+        return explored;
+    }
+
+
+    private static class Tiers {
+        final LevelCache cache;
+        final BaseMapLayer level;
+        final int plan;
+
+        Tiers(LevelCache cache, BaseMapLayer level, int plan) {
+            this.cache = cache;
+            this.level = level;
+            this.plan = plan;
+        }
+    }
+
+    private static class MemoryLevelStore implements ILevelStore {
+        private final IntMap<byte[]> levels = new IntMap<>();
+
+        @Override
+        public boolean contains(int depth) {
+            return levels.containsKey(depth);
+        }
+
+        @Override
+        public ByteBuffer read(int depth) {
+            byte[] level = levels.get(depth);
+            return level == null ? null : ByteBuffer.wrap(level);
+        }
+
+        @Override
+        public void write(int depth, ByteBuffer level) {
+            byte[] bytes = new byte[level.remaining()];
+            level.duplicate().get(bytes);
+            levels.put(depth, bytes);
+        }
+
+        @Override
+        public void clear() {
+            levels.clear();
+        }
+    }
+}
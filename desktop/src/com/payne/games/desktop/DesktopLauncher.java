@@ -5,7 +5,12 @@ import com.badlogic.gdx.backends.lwjgl.LwjglApplicationConfiguration;
 import com.payne.games.AriseDeeper;
 import com.payne.games.logic.GameLogic;
 
+import java.io.File;
 
+
+/**
+ * Usage: `gradlew desktop:run`. Add `-Pthreaded` to run the turns on a thread of their own (see `ThreadedLogicRunner`).
+ */
 public class DesktopLauncher {
 	public static void main (String[] arg) {
 		LwjglApplicationConfiguration config = new LwjglApplicationConfiguration();
@@ -15,6 +20,10 @@ public class DesktopLauncher {
 
 		AriseDeeper core = new AriseDeeper();
 		core.setSplashWorker(new DesktopSplashWorker());
+		core.setLevelStore(new MappedLevelStore(new File(GameLogic.LEVELS_PATH)));
+		core.setChunkStore(new FileChunkStore(new File(GameLogic.CHUNKS_PATH)));
+		if(arg.length > 0 && arg[0].equals("threaded"))
+			core.setLogicRunner(new ThreadedLogicRunner());
 		new LwjglApplication(core, config);
 	}
 }
@@ -0,0 +1,96 @@
+package com.payne.games.desktop;
+
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntSet;
+import com.payne.games.map.storage.ChunkCodec;
+import com.payne.games.map.storage.IChunkStore;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+
+/**
+ * Pages the chunks out to the disk instead of the heap: a scratch file per level, each chunk at a fixed offset
+ * (`chunk * ChunkCodec.SIZE`). The files only live as long as the application: the ones left by a previous run are
+ * deleted when the store is created.
+ * <br><br>
+ * Every access opens and closes its channel, and a read copies the chunk into the heap: no file is kept open or
+ * mapped, so a file can always be deleted (e.g. on Windows).
+ */
+public class FileChunkStore implements IChunkStore {
+    private final File directory;
+    private final IntSet written = new IntSet(); // the keys whose file exists
+    private int nextKey = 0;
+
+
+    /**
+     * @param directory where the scratch files go. Created when the first chunk is written.
+     */
+    public FileChunkStore(File directory) {
+        this.directory = directory;
+        File[] files = directory.listFiles();
+        if(files != null) {
+            for(File file : files) {
+                if(file.getName().endsWith(".adc"))
+                    file.delete();
+            }
+        }
+    }
+
+
+    private File fileOf(int key) {
+        return new File(directory, "level_" + key + ".adc");
+    }
+
+    @Override
+    public synchronized int open() {
+        return nextKey++;
+    }
+
+    @Override
+    public synchronized void write(int key, int chunk, ByteBuffer data) {
+        if(!directory.isDirectory() && !directory.mkdirs())
+            throw new GdxRuntimeException("Couldn't create " + directory + ".");
+        File file = fileOf(key);
+        if(written.add(key))
+            file.deleteOnExit();
+        ByteBuffer toWrite = data.duplicate();
+        long position = (long)chunk * ChunkCodec.SIZE;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            while(toWrite.hasRemaining())
+                position += channel.write(toWrite, position);
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Couldn't page out the chunk " + chunk + " of the level " + key + ".", e);
+        }
+    }
+
+    @Override
+    public synchronized ByteBuffer read(int key, int chunk) {
+        if(!written.contains(key))
+            return null;
+        ByteBuffer data = ByteBuffer.allocate(ChunkCodec.SIZE);
+        long position = (long)chunk * ChunkCodec.SIZE;
+        try (FileChannel channel = FileChannel.open(fileOf(key).toPath(), StandardOpenOption.READ)) {
+            if(position >= channel.size())
+                return null;
+            while(data.hasRemaining()) {
+                int read = channel.read(data, position + data.position());
+                if(read < 0)
+                    return null; // never written
+            }
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Couldn't fault in the chunk " + chunk + " of the level " + key + ".", e);
+        }
+        data.flip();
+        return data;
+    }
+
+    @Override
+    public synchronized void forget(int key) {
+        if(written.remove(key))
+            fileOf(key).delete();
+    }
+}
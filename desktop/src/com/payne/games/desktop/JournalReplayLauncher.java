@@ -0,0 +1,49 @@
+package com.payne.games.desktop;
+
+import com.payne.games.assets.AssetsPool;
+import com.payne.games.logic.Controller;
+import com.payne.games.logic.GameLogic;
+import com.payne.games.turns.journal.JournalReader;
+import com.payne.games.turns.journal.JournalReplayer;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+
+/**
+ * Replays a recorded game (see `ActionJournal`) headlessly and at full speed, verifying the state hashes.<br>
+ * Usage: `gradlew desktop:replay -Pjournal=path/to/journal.adj` (defaults to the last recorded game).
+ * Add `-Pcsv=path/to/profile.csv` to export the Profiler's data (timings of the turns, pathfinding, etc.).
+ */
+public class JournalReplayLauncher {
+	public static void main (String[] arg) throws IOException {
+		String path = arg.length > 0 && !arg[0].isEmpty() ? arg[0] : GameLogic.JOURNAL_PATH;
+		String csvPath = arg.length > 1 ? arg[1] : null;
+		GameLogic.RECORD_JOURNAL = false;
+
+		JournalReader reader = new JournalReader(new BufferedInputStream(new FileInputStream(path)));
+		Controller controller = new Controller(new AssetsPool(), reader.getObjectSeed());
+		JournalReplayer replayer = new JournalReplayer(controller, reader);
+
+		long start = System.nanoTime();
+		boolean matched = replayer.run();
+		long elapsedMs = (System.nanoTime() - start) / 1000000;
+		reader.close();
+
+		System.out.println("Replayed " + replayer.getVerifiedActions() + " Actions and "
+				+ replayer.getVerifiedCheckpoints() + " checkpoints in " + elapsedMs + " ms.");
+		if(csvPath != null) {
+			try (Writer csv = new FileWriter(csvPath)) {
+				csv.write(controller.getProfiler().appendCsv(new StringBuilder()).toString());
+			}
+			System.out.println("Profile written to " + csvPath);
+		}
+		if(!matched) {
+			System.out.println(replayer.getDivergence());
+			System.exit(1);
+		}
+	}
+}
@@ -0,0 +1,156 @@
+package com.payne.games.desktop;
+
+import com.payne.games.map.generators.LevelMetrics;
+import com.payne.games.map.generators.LevelPipeline;
+import com.payne.games.map.generators.MapAlgorithm;
+import com.payne.games.map.generators.MapGenerator;
+import com.payne.games.map.generators.TerrainGrid;
+import com.payne.games.profiling.Profiler;
+import com.payne.games.profiling.RollingStats;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+
+/**
+ * Generates thousands of levels per algorithm headlessly, on all the cores, and measures each of them (time spent
+ * carving, floor ratio, connected components, dead ends, walking distances: see `LevelMetrics`). No Texture, no
+ * Tileset: only the terrains. The seed `i` of every algorithm is the seed of the depth `i` of the game.<br>
+ * Usage: `gradlew desktop:batch -Pseeds=1000 -Psize=64x32 -Pcsv=path/to/levels.csv`
+ * (add `-Palgorithms=CELLULAR_CAVES,MAZE_ROOMS` to only run some of them).
+ * <br><br>
+ * A few levels of each algorithm are generated first and thrown away, so that the JIT has compiled the generators
+ * before the timings start.
+ */
+public class LevelBatchLauncher {
+	private static final int WARM_UP_SEEDS = 50;
+
+	private static final ThreadLocal<LevelMetrics> METRICS = new ThreadLocal<LevelMetrics>() {
+		@Override
+		protected LevelMetrics initialValue() {
+			return new LevelMetrics();
+		}
+	};
+
+	public static void main (String[] arg) throws IOException, InterruptedException, ExecutionException {
+		int seeds = arg.length > 0 && !arg[0].isEmpty() ? Integer.parseInt(arg[0]) : 1000;
+		String size = arg.length > 1 && !arg[1].isEmpty() ? arg[1] : "64x32";
+		String csvPath = arg.length > 2 && !arg[2].isEmpty() ? arg[2] : "levels.csv";
+		MapAlgorithm[] algorithms = arg.length > 3 && !arg[3].isEmpty() ? parseAlgorithms(arg[3]) : MapAlgorithm.values();
+		int width = Integer.parseInt(size.substring(0, size.indexOf('x')));
+		int height = Integer.parseInt(size.substring(size.indexOf('x') + 1));
+
+		int threads = Runtime.getRuntime().availableProcessors();
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		System.out.println("Generating " + seeds + " levels of " + width + "x" + height + " per algorithm, on "
+				+ threads + " threads.");
+		try {
+			for(MapAlgorithm algorithm : algorithms) {
+				for(Future<Row> warmUp : run(executor, algorithm, width, height, Math.min(WARM_UP_SEEDS, seeds)))
+					warmUp.get(); // thrown away
+			}
+
+			StringBuilder csv = new StringBuilder("algorithm,seed,width,height,carveMs,").append(LevelMetrics.csvHeader()).append('\n');
+			for(MapAlgorithm algorithm : algorithms) {
+				List<Future<Row>> rows = run(executor, algorithm, width, height, seeds);
+				RollingStats carveTimes = new RollingStats(seeds);
+				double floorRatio = 0, components = 0, deadEnds = 0, pathMax = 0;
+				for(Future<Row> future : rows) {
+					Row row = future.get();
+					csv.append(row.csv).append('\n');
+					carveTimes.add(row.carveNanos);
+					floorRatio += row.floorRatio;
+					components += row.components;
+					deadEnds   += row.deadEnds;
+					pathMax    += row.pathMax;
+				}
+				printSummary(algorithm, carveTimes, floorRatio / seeds, components / seeds, deadEnds / seeds, pathMax / seeds);
+			}
+
+			try (Writer writer = new FileWriter(csvPath)) {
+				writer.write(csv.toString());
+			}
+			System.out.println("Metrics written to " + csvPath);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private static MapAlgorithm[] parseAlgorithms(String names) {
+		String[] split = names.split(",");
+		MapAlgorithm[] algorithms = new MapAlgorithm[split.length];
+		for(int i = 0; i < split.length; i++)
+			algorithms[i] = MapAlgorithm.valueOf(split[i].trim());
+		return algorithms;
+	}
+
+	/**
+	 * Submits one task per seed. The MapGenerator holds no state: the threads share it.
+	 */
+	private static List<Future<Row>> run(ExecutorService executor, final MapAlgorithm algorithm,
+										 final int width, final int height, int seeds) {
+		final MapGenerator generator = new MapGenerator();
+		List<Future<Row>> rows = new ArrayList<>(seeds);
+		for(int i = 0; i < seeds; i++) {
+			final int seed = LevelPipeline.seedOf(i);
+			rows.add(executor.submit(new Callable<Row>() {
+				@Override
+				public Row call() {
+					long start = System.nanoTime();
+					TerrainGrid grid = generator.carveTerrain(width, height, seed, algorithm);
+					long carveNanos = System.nanoTime() - start;
+
+					LevelMetrics metrics = METRICS.get();
+					metrics.measure(grid);
+					StringBuilder csv = new StringBuilder();
+					csv.append(algorithm).append(',').append(seed).append(',').append(width).append(',').append(height).append(',');
+					Profiler.appendMillis(csv, carveNanos).append(',');
+					metrics.appendCsv(csv);
+					return new Row(csv.toString(), carveNanos, metrics); // the metrics are reused by the thread's next level
+				}
+			}));
+		}
+		return rows;
+	}
+
+	private static void printSummary(MapAlgorithm algorithm, RollingStats carveTimes, double floorRatio,
+									 double components, double deadEnds, double pathMax) {
+		StringBuilder out = new StringBuilder(algorithm.toString()).append(": carve ms p50 ");
+		Profiler.appendMillis(out, carveTimes.percentile(50)).append(", p99 ");
+		Profiler.appendMillis(out, carveTimes.percentile(99)).append(", max ");
+		Profiler.appendMillis(out, carveTimes.getMax());
+		out.append(" | floors ").append(Math.round(floorRatio * 1000) / 10.0).append('%')
+		   .append(", components ").append(Math.round(components * 100) / 100.0)
+		   .append(", dead ends ").append(Math.round(deadEnds * 100) / 100.0)
+		   .append(", longest path ").append(Math.round(pathMax * 100) / 100.0);
+		System.out.println(out);
+	}
+
+
+	/**
+	 * The measures of one level: its line of the CSV, and the values summed up for the summary.
+	 */
+	private static class Row {
+		final String csv;
+		final long carveNanos;
+		final float floorRatio;
+		final int components, deadEnds, pathMax;
+
+		Row(String csv, long carveNanos, LevelMetrics metrics) {
+			this.csv = csv;
+			this.carveNanos = carveNanos;
+			this.floorRatio = metrics.getFloorRatio();
+			this.components = metrics.getComponents();
+			this.deadEnds = metrics.getDeadEnds();
+			this.pathMax = metrics.getPathMax();
+		}
+	}
+}
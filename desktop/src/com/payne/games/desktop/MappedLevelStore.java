@@ -0,0 +1,167 @@
+package com.payne.games.desktop;
+
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntIntMap;
+import com.payne.games.map.storage.ILevelStore;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+
+
+/**
+ * Stores each level in a file of its own, like the StreamLevelStore, but reads it by mapping the file in memory:
+ * the LevelCodec reads the Tiles straight from the mapped pages, nothing is copied into the heap first.
+ * <br><br>
+ * A mapped file stays open until its buffer is garbage collected, and can't be replaced or deleted meanwhile on
+ * some systems (Windows). A file is therefore never written over: each write of a depth goes to a new version
+ * ("depth_3.7.adl"), written into a temporary file first then moved to its name, so that a crash in the middle of a
+ * write leaves the previous version intact. The previous versions are deleted once superseded, or when the
+ * application exits if they are still mapped. Clearing the store records the first version still valid (the
+ * "floor" file): a version left behind by a failed deletion is never read back.
+ */
+public class MappedLevelStore implements ILevelStore {
+    private static final String EXTENSION = ".adl";
+    private static final String FLOOR = "floor";
+
+    private final File directory;
+    private final IntIntMap versions = new IntIntMap(); // the last version written of each depth
+    private int nextVersion;
+
+
+    /**
+     * @param directory where the files go. Created when the first level is written. The last version of each
+     *                  depth written by a previous run is kept, the others are deleted.
+     */
+    public MappedLevelStore(File directory) {
+        this.directory = directory;
+        File[] files = directory.listFiles();
+        if(files == null)
+            return;
+        int floor = readFloor();
+        nextVersion = floor;
+        for(File file : files) { // the last versions first
+            int depth = depthOf(file), version = versionOf(file);
+            if(version >= floor && version > versions.get(depth, -1))
+                versions.put(depth, version);
+            nextVersion = Math.max(nextVersion, version + 1);
+        }
+        for(File file : files) { // the older versions, and the writes a crash cut short
+            int version = versionOf(file);
+            if((version >= 0 && version != versions.get(depthOf(file), -1)) || file.getName().endsWith(EXTENSION + ".tmp"))
+                delete(file);
+        }
+    }
+
+
+    private File fileOf(int depth, int version) {
+        return new File(directory, "depth_" + depth + "." + version + EXTENSION);
+    }
+
+    /**
+     * @return The version in the name of the file. -1 if it isn't a level (e.g. a temporary file).
+     */
+    private static int versionOf(File file) {
+        String name = file.getName();
+        int dot = name.indexOf('.');
+        if(!name.startsWith("depth_") || !name.endsWith(EXTENSION) || dot < 0)
+            return -1;
+        try {
+            return Integer.parseInt(name.substring(dot + 1, name.length() - EXTENSION.length()));
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+
+    private static int depthOf(File file) {
+        String name = file.getName();
+        try {
+            return Integer.parseInt(name.substring("depth_".length(), name.indexOf('.')));
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * @return The first version written since the store was last cleared. 0 if it never was.
+     */
+    private int readFloor() {
+        File file = new File(directory, FLOOR);
+        if(!file.isFile())
+            return 0;
+        try {
+            return Integer.parseInt(new String(Files.readAllBytes(file.toPath()), "UTF-8").trim());
+        } catch (IOException | NumberFormatException e) {
+            throw new GdxRuntimeException("Couldn't read " + file + ".", e);
+        }
+    }
+
+    /**
+     * Deletes a file, or at least when the application exits: it is still mapped.
+     */
+    private static void delete(File file) {
+        if(!file.delete() && file.exists())
+            file.deleteOnExit();
+    }
+
+    @Override
+    public synchronized boolean contains(int depth) {
+        return versions.containsKey(depth);
+    }
+
+    @Override
+    public synchronized ByteBuffer read(int depth) {
+        int version = versions.get(depth, -1);
+        if(version < 0)
+            return null;
+        try (FileChannel channel = new FileInputStream(fileOf(depth, version)).getChannel()) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()); // stays valid once the channel is closed
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Couldn't map the level of depth " + depth + ".", e);
+        }
+    }
+
+    @Override
+    public synchronized void write(int depth, ByteBuffer level) {
+        if(!directory.isDirectory() && !directory.mkdirs())
+            throw new GdxRuntimeException("Couldn't create " + directory + ".");
+        int version = nextVersion++;
+        File file = fileOf(depth, version);
+        File temporary = new File(directory, file.getName() + ".tmp");
+        ByteBuffer toWrite = level.duplicate();
+        try {
+            try (FileChannel channel = new FileOutputStream(temporary).getChannel()) {
+                while(toWrite.hasRemaining())
+                    channel.write(toWrite);
+            }
+            Files.move(temporary.toPath(), file.toPath()); // a new name: never a file still mapped
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Couldn't write the level of depth " + depth + ".", e);
+        }
+        int previous = versions.get(depth, -1);
+        versions.put(depth, version);
+        if(previous >= 0)
+            delete(fileOf(depth, previous));
+    }
+
+    @Override
+    public synchronized void clear() {
+        versions.clear();
+        File[] files = directory.listFiles();
+        if(files == null)
+            return;
+        for(File file : files) {
+            if(file.getName().endsWith(EXTENSION) || file.getName().endsWith(EXTENSION + ".tmp"))
+                delete(file);
+        }
+        try {
+            Files.write(new File(directory, FLOOR).toPath(), Integer.toString(nextVersion).getBytes("UTF-8"));
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Couldn't clear " + directory + ".", e);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.payne.games.desktop;
+
+import com.payne.games.rendering.WorldSnapshot;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Hands the WorldSnapshots over from the logic thread to the rendering thread, without any lock.
+ * <br><br>
+ * Three snapshots are cycled: the logic thread captures into the "back" one, the rendering thread draws the "front"
+ * one, and the third one is the latest published capture, waiting in the middle. Publishing and acquiring are a
+ * single atomic swap with the middle one, so neither thread ever waits on the other (with only two buffers, the
+ * logic thread would have to wait for the frame to be over before capturing again).
+ */
+class SnapshotExchange {
+    private static final int INDEX = 3; // bits of the index of the middle snapshot
+    private static final int FRESH = 4; // set when the middle snapshot hasn't been acquired yet
+
+    private final WorldSnapshot[] snapshots = {new WorldSnapshot(), new WorldSnapshot(), new WorldSnapshot()};
+    private final AtomicInteger middle = new AtomicInteger(2);
+    private int back = 0;  // logic thread only
+    private int front = 1; // rendering thread only
+
+
+    /**
+     * Logic thread only.
+     *
+     * @return The snapshot to capture into. It isn't seen by the rendering thread until `publish()`.
+     */
+    WorldSnapshot getBack() {
+        return snapshots[back];
+    }
+
+    /**
+     * Logic thread only: the back snapshot becomes the latest one. An older capture that wasn't acquired yet is
+     * simply skipped.
+     */
+    void publish() {
+        back = middle.getAndSet(back | FRESH) & INDEX;
+    }
+
+    /**
+     * Rendering thread only.
+     *
+     * @return The latest published snapshot. The same instance is returned until a newer one is published.
+     */
+    WorldSnapshot getFront() {
+        if((middle.get() & FRESH) != 0)
+            front = middle.getAndSet(front) & INDEX;
+        return snapshots[front];
+    }
+}
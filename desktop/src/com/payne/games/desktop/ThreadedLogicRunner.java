@@ -0,0 +1,146 @@
+package com.payne.games.desktop;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.payne.games.logic.Controller;
+import com.payne.games.logic.GameLogic;
+import com.payne.games.logic.ILogicRunner;
+import com.payne.games.rendering.WorldSnapshot;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Runs the game on a thread of its own (the "logic" thread): the turns, the lighting, the pathfinding and the
+ * player's input. The rendering thread only requests turns (see `FixedTimestep`) and draws the WorldSnapshots
+ * captured after them, so a slow turn doesn't delay the frames anymore.
+ * <br><br>
+ * Only the Controller's logic is touched by the logic thread; the rendering thread only touches the snapshots (the
+ * inventory's UI included). One exception, harmless since it only feeds a debugging display: the Profiler's phases
+ * are timed from both threads.
+ */
+public class ThreadedLogicRunner implements ILogicRunner, Runnable {
+    private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingTurns = new AtomicInteger();
+    private final Semaphore signal = new Semaphore(0); // released whenever there is something to do
+    private SnapshotExchange exchange = new SnapshotExchange();
+
+    private Controller controller;
+    private Thread thread;
+    private volatile boolean running;
+    private int requestedTurns; // rendering thread only
+    private int completedTurns; // logic thread only (the dropped turns included)
+    private long lastCapture;   // logic thread only
+
+
+    @Override
+    public void start(Controller controller) {
+        stop();
+        this.controller = controller;
+        controller.setLogicRunner(this);
+        exchange = new SnapshotExchange(); // nothing from a previous game is shown
+        tasks.clear();
+        pendingTurns.set(0);
+        signal.drainPermits();
+        requestedTurns = 0;
+        completedTurns = 0;
+
+        running = true;
+        thread = new Thread(this, "logic");
+        thread.setDaemon(true); // never keeps the application alive
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        if(thread == null)
+            return;
+        running = false;
+        signal.release();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        thread = null;
+    }
+
+    @Override
+    public void runTurns(int turns) {
+        if(turns <= 0)
+            return;
+        requestedTurns += turns;
+        pendingTurns.addAndGet(turns);
+        signal.release();
+    }
+
+    @Override
+    public void post(Runnable task) {
+        tasks.add(task);
+        signal.release();
+    }
+
+    @Override
+    public WorldSnapshot getSnapshot() {
+        return exchange.getFront();
+    }
+
+    @Override
+    public int getRequestedTurns() {
+        return requestedTurns;
+    }
+
+
+    /**
+     * The logic thread: waits for turns or input, processes them, then publishes a new WorldSnapshot.
+     */
+    @Override
+    public void run() {
+        try {
+            lastCapture = System.nanoTime();
+            capture(); // something to draw right away
+
+            while(running) {
+                signal.acquire();
+                signal.drainPermits(); // everything pending is processed below
+                if(!running)
+                    break;
+
+                boolean changed = false;
+                Runnable task;
+                while((task = tasks.poll()) != null) { // the input comes in between two turns
+                    task.run();
+                    changed = true;
+                }
+
+                /* A turn too slow to keep up doesn't pile up more turns: the excess is dropped (see `FixedTimestep`). */
+                int turns = pendingTurns.getAndSet(0);
+                int executed = Math.min(turns, GameLogic.MAX_TURNS_PER_FRAME);
+                for(int i = 0; i < executed; i++)
+                    controller.runTurn();
+                completedTurns += turns;
+
+                if(changed || turns > 0)
+                    capture();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (final RuntimeException e) {
+            Gdx.app.postRunnable(new Runnable() { // crashes the application like it would have on a single thread
+                @Override
+                public void run() {
+                    throw new GdxRuntimeException("The logic thread failed.", e);
+                }
+            });
+        }
+    }
+
+    private void capture() {
+        long now = System.nanoTime();
+        controller.captureSnapshot(exchange.getBack(), completedTurns, (now - lastCapture) / 1000000000f);
+        lastCapture = now;
+        exchange.publish();
+    }
+}